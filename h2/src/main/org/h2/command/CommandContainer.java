@@ -12,6 +12,7 @@
 import org.h2.api.DatabaseEventListener;
 import org.h2.api.ErrorCode;
 import org.h2.command.dml.DataChangeStatement;
+import org.h2.command.query.Query;
 import org.h2.engine.Database;
 import org.h2.engine.DbObject;
 import org.h2.engine.DbSettings;
@@ -219,7 +220,8 @@ public ResultInterface query(long maxrows) {
         setProgress(database, DatabaseEventListener.STATE_STATEMENT_START);
         start();
         prepared.checkParameters();
-        ResultInterface result = prepared.query(maxrows);
+        ResultInterface result = prepared instanceof Query ? ((Query) prepared).queryWithResultCache(maxrows)
+                : prepared.query(maxrows);
         prepared.trace(database, startTimeNanos, result.isLazy() ? 0 : result.getRowCount());
         setProgress(database, DatabaseEventListener.STATE_STATEMENT_END);
         return result;
@@ -6,6 +6,7 @@
 package org.h2.command;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
@@ -23,6 +24,7 @@
 import org.h2.result.ResultInterface;
 import org.h2.result.ResultRemote;
 import org.h2.result.ResultWithGeneratedKeys;
+import org.h2.security.SHA256;
 import org.h2.util.Utils;
 import org.h2.value.Transfer;
 import org.h2.value.Value;
@@ -35,6 +37,12 @@
  */
 public class CommandRemote implements CommandInterface {
 
+    /**
+     * The minimum length of SQL statements that are prepared by their hash, if
+     * the server knows them.
+     */
+    private static final int SHARED_SQL_LENGTH = 128;
+
     private final ArrayList<Transfer> transferList;
     private final ArrayList<ParameterInterface> parameters;
     private final Trace trace;
@@ -45,6 +53,7 @@ public class CommandRemote implements CommandInterface {
     private int cmdType = UNKNOWN;
     private boolean readonly;
     private final int created;
+    private byte[] sqlHash;
 
     public CommandRemote(SessionRemote session,
             ArrayList<Transfer> transferList, String sql) {
@@ -70,7 +79,19 @@ private void prepare(SessionRemote s, boolean createParams) {
             try {
                 Transfer transfer = transferList.get(i);
 
-                if (createParams) {
+                if (createParams && sql.length() >= SHARED_SQL_LENGTH
+                        && transfer.getVersion() >= Constants.TCP_PROTOCOL_VERSION_24) {
+                    if (sqlHash == null) {
+                        sqlHash = SHA256.getHash(sql.getBytes(StandardCharsets.UTF_8), false);
+                    }
+                    s.traceOperation("SESSION_PREPARE_SHARED", id);
+                    transfer.writeInt(SessionRemote.SESSION_PREPARE_SHARED).writeInt(id).writeBytes(sqlHash);
+                    s.done(transfer);
+                    if (!transfer.readBoolean()) {
+                        // the server doesn't know this statement yet
+                        transfer.writeString(sql);
+                    }
+                } else if (createParams) {
                     s.traceOperation("SESSION_PREPARE_READ_PARAMS2", id);
                     transfer.writeInt(SessionRemote.SESSION_PREPARE_READ_PARAMS2)
                             .writeInt(id).writeString(sql);
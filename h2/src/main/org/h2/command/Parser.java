@@ -352,8 +352,10 @@
 import org.h2.expression.function.XMLFunction;
 import org.h2.expression.function.table.ArrayTableFunction;
 import org.h2.expression.function.table.CSVReadFunction;
+import org.h2.expression.function.table.FullTextSearchFunction;
 import org.h2.expression.function.table.JavaTableFunction;
 import org.h2.expression.function.table.LinkSchemaFunction;
+import org.h2.expression.function.table.SpatialNearestFunction;
 import org.h2.expression.function.table.TableFunction;
 import org.h2.index.Index;
 import org.h2.message.DbException;
@@ -1130,6 +1132,20 @@ private IndexColumn[] parseIndexColumnList() {
         return columns.toArray(new IndexColumn[0]);
     }
 
+    private IndexColumn[] parseIndexElementList() {
+        ArrayList<IndexColumn> columns = Utils.newSmallArrayList();
+        do {
+            if (readIf(OPEN_PAREN)) {
+                Expression expression = readExpression();
+                read(CLOSE_PAREN);
+                columns.add(new IndexColumn(expression, parseSortType()));
+            } else {
+                columns.add(new IndexColumn(readIdentifier(), parseSortType()));
+            }
+        } while (readIfMore());
+        return columns.toArray(new IndexColumn[0]);
+    }
+
     private int parseSortType() {
         int sortType = !readIf("ASC") && readIf("DESC") ? SortOrder.DESCENDING : SortOrder.ASCENDING;
         if (readIf("NULLS")) {
@@ -1670,6 +1686,7 @@ private RefreshMaterializedView parseRefresh(int start) {
         RefreshMaterializedView command = new RefreshMaterializedView(session, getSchema());
         currentPrepared = command;
         command.setView((MaterializedView) table);
+        command.setIncremental(readIf("INCREMENTAL"));
         setSQL(command, start);
         return command;
     }
@@ -1918,6 +1935,10 @@ private TableFunction readTableFunction(String name, Schema schema) {
             case "LINK_SCHEMA":
                 recompileAlways = true;
                 return readParameters(new LinkSchemaFunction());
+            case "FULLTEXT_SEARCH":
+                return readParameters(new FullTextSearchFunction());
+            case "SPATIAL_NEAREST":
+                return readParameters(new SpatialNearestFunction());
             }
         }
         FunctionAlias functionAlias = getFunctionAliasWithinPath(name, schema);
@@ -6515,7 +6536,7 @@ private Prepared parseCreate() {
         } else {
             boolean hash = false, primaryKey = false;
             NullsDistinct nullsDistinct = null;
-            boolean spatial = false;
+            boolean spatial = false, fullText = false, trigram = false, array = false;
             String indexName = null;
             Schema oldSchema = null;
             boolean ifNotExists = false;
@@ -6535,8 +6556,16 @@ private Prepared parseCreate() {
                 }
                 if (readIfCompat("HASH")) {
                     hash = true;
-                } else if (nullsDistinct == null && readIf("SPATIAL")) {
-                    spatial = true;
+                } else if (nullsDistinct == null) {
+                    if (readIf("SPATIAL")) {
+                        spatial = true;
+                    } else if (readIf("FULLTEXT")) {
+                        fullText = true;
+                    } else if (readIf("TRIGRAM")) {
+                        trigram = true;
+                    } else if (readIf(ARRAY)) {
+                        array = true;
+                    }
                 }
                 read("INDEX");
                 if (!isToken(ON)) {
@@ -6551,7 +6580,7 @@ private Prepared parseCreate() {
             String comment = readCommentIf();
             if (!readIf(OPEN_PAREN)) {
                 // PostgreSQL compatibility
-                if (hash || spatial) {
+                if (hash || spatial || fullText || trigram || array) {
                     throw getSyntaxError();
                 }
                 readCompat(USING);
@@ -6571,6 +6600,9 @@ private Prepared parseCreate() {
             command.setTableName(tableName);
             command.setHash(hash);
             command.setSpatial(spatial);
+            command.setFullText(fullText);
+            command.setTrigram(trigram);
+            command.setArray(array);
             command.setIndexName(indexName);
             command.setComment(comment);
             IndexColumn[] columns;
@@ -6581,19 +6613,29 @@ private Prepared parseCreate() {
                     uniqueColumnCount = 1;
                 }
                 read(CLOSE_PAREN);
-            } else {
+            } else if (fullText || trigram || array) {
                 columns = parseIndexColumnList();
-                if (nullsDistinct != null) {
+            } else {
+                columns = primaryKey ? parseIndexColumnList() : parseIndexElementList();
+                if (primaryKey) {
                     uniqueColumnCount = columns.length;
+                } else {
+                    if (nullsDistinct != null) {
+                        uniqueColumnCount = columns.length;
+                    }
                     if (readIf("INCLUDE")) {
+                        // included columns are stored after the key columns,
+                        // so the index covers queries that read them
                         read(OPEN_PAREN);
                         IndexColumn[] columnsToInclude = parseIndexColumnList();
-                        int nonUniqueCount = columnsToInclude.length;
-                        columns = Arrays.copyOf(columns, uniqueColumnCount + nonUniqueCount);
-                        System.arraycopy(columnsToInclude, 0, columns, uniqueColumnCount, nonUniqueCount);
+                        int keyCount = columns.length, includedCount = columnsToInclude.length;
+                        columns = Arrays.copyOf(columns, keyCount + includedCount);
+                        System.arraycopy(columnsToInclude, 0, columns, keyCount, includedCount);
+                        command.setIncludedColumnCount(includedCount);
+                    }
+                    if (readIf(WHERE)) {
+                        command.setCondition(readExpression());
                     }
-                } else if (primaryKey) {
-                    uniqueColumnCount = columns.length;
                 }
             }
             command.setIndexColumns(columns);
@@ -400,7 +400,8 @@ private static Index getIndex(Table t, IndexColumn[] cols, NullsDistinct nullsDi
     }
 
     private static boolean canUseIndex(Index index, Table table, IndexColumn[] cols, NullsDistinct nullsDistinct) {
-        if (index.getTable() != table) {
+        if (index.getTable() != table || index.getPredicate() != null || index.getIndexType().isFullText()
+                || index.getIndexType().isTrigram() || index.getIndexType().isArray()) {
             return false;
         }
         int allowedColumns;
@@ -12,11 +12,16 @@
 import org.h2.engine.Right;
 import org.h2.engine.SessionLocal;
 import org.h2.engine.NullsDistinct;
+import org.h2.expression.Expression;
+import org.h2.index.IndexExpression;
+import org.h2.index.IndexPredicate;
 import org.h2.index.IndexType;
 import org.h2.message.DbException;
 import org.h2.schema.Schema;
+import org.h2.table.Column;
 import org.h2.table.IndexColumn;
 import org.h2.table.Table;
+import org.h2.util.HasSQL;
 
 /**
  * This class represents the statement
@@ -29,10 +34,12 @@ public class CreateIndex extends SchemaCommand {
     private IndexColumn[] indexColumns;
     private NullsDistinct nullsDistinct;
     private int uniqueColumnCount;
-    private boolean primaryKey, hash, spatial;
+    private int includedColumnCount;
+    private boolean primaryKey, hash, spatial, fullText, trigram, array;
     private boolean ifTableExists;
     private boolean ifNotExists;
     private String comment;
+    private Expression condition;
 
     public CreateIndex(SessionLocal session, Schema schema) {
         super(session, schema);
@@ -98,14 +105,42 @@ public long update() {
             indexType = IndexType.createPrimaryKey(persistent, hash);
         } else if (uniqueColumnCount > 0) {
             indexType = IndexType.createUnique(persistent, hash, uniqueColumnCount, nullsDistinct);
+        } else if (fullText) {
+            indexType = IndexType.createFullText(persistent);
+        } else if (trigram) {
+            indexType = IndexType.createTrigram(persistent);
+        } else if (array) {
+            indexType = IndexType.createArray(persistent);
         } else {
             indexType = IndexType.createNonUnique(persistent, hash, spatial);
+            indexType.setIncludedColumnCount(includedColumnCount);
         }
         IndexColumn.mapColumns(indexColumns, table);
-        table.addIndex(session, indexName, id, indexColumns, uniqueColumnCount, indexType, create, comment);
+        mapExpressions(table);
+        IndexPredicate predicate = condition != null ? new IndexPredicate(session, table, condition) : null;
+        table.addIndex(session, indexName, id, indexColumns, uniqueColumnCount, indexType, predicate, create,
+                comment);
         return 0;
     }
 
+    private void mapExpressions(Table table) {
+        int columnId = table.getColumns().length;
+        for (IndexColumn indexColumn : indexColumns) {
+            if (indexColumn.expression != null) {
+                IndexExpression expression = new IndexExpression(session, table, indexColumn.expression);
+                Column column = expression.getPlainColumn();
+                if (column == null) {
+                    // values of expressions are stored after values of table
+                    // columns
+                    column = new Column(expression.getSQL(new StringBuilder(), HasSQL.DEFAULT_SQL_FLAGS).toString(),
+                            expression.getExpression().getType(), table, columnId++);
+                    column.setIndexExpression(expression);
+                }
+                indexColumn.column = column;
+            }
+        }
+    }
+
     public void setPrimaryKey(boolean b) {
         this.primaryKey = b;
     }
@@ -115,6 +150,10 @@ public void setUnique(NullsDistinct nullsDistinct, int uniqueColumnCount) {
         this.uniqueColumnCount = uniqueColumnCount;
     }
 
+    public void setIncludedColumnCount(int includedColumnCount) {
+        this.includedColumnCount = includedColumnCount;
+    }
+
     public void setHash(boolean b) {
         this.hash = b;
     }
@@ -123,10 +162,31 @@ public void setSpatial(boolean b) {
         this.spatial = b;
     }
 
+    public void setFullText(boolean b) {
+        this.fullText = b;
+    }
+
+    public void setTrigram(boolean b) {
+        this.trigram = b;
+    }
+
+    public void setArray(boolean b) {
+        this.array = b;
+    }
+
     public void setComment(String comment) {
         this.comment = comment;
     }
 
+    /**
+     * Set the condition of a partial index.
+     *
+     * @param condition the condition
+     */
+    public void setCondition(Expression condition) {
+        this.condition = condition;
+    }
+
     @Override
     public int getType() {
         return CommandInterface.CREATE_INDEX;
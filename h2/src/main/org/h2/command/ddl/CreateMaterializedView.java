@@ -78,6 +78,9 @@ long update(Schema schema) {
         }
         final int id = getObjectId();
         // Re-use the CREATE TABLE functionality to avoid duplicating a bunch of logic.
+        // The data is inserted after creation of the view, so captured changes
+        // of the base table for incremental refresh match it.
+        createTable.setWithNoData(true);
         createTable.update();
         // Look up the freshly created table.
         final Table underlyingTable = schema.getTableOrView(session, viewName + "$1");
@@ -99,6 +102,13 @@ long update(Schema schema) {
         } else {
             db.updateMeta(session, view);
         }
+        IncrementalRefresh refresh = IncrementalRefresh.get(session, view);
+        if (refresh != null) {
+            refresh.createKeyIndex();
+        }
+        if (refresh == null || !refresh.refresh(false)) {
+            createTable.insertAsData(underlyingTable);
+        }
         return 0;
     }
 
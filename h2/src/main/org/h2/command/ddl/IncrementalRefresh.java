@@ -0,0 +1,711 @@
+/*
+ * Copyright 2004-2025 H2 Group. Multiple-Licensed under the MPL 2.0,
+ * and the EPL 1.0 (https://h2database.com/html/license.html).
+ * Initial Developer: H2 Group
+ */
+package org.h2.command.ddl;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.h2.command.Parser;
+import org.h2.command.query.Query;
+import org.h2.command.query.Select;
+import org.h2.engine.SessionLocal;
+import org.h2.expression.Expression;
+import org.h2.expression.ExpressionColumn;
+import org.h2.expression.ExpressionVisitor;
+import org.h2.expression.Parameter;
+import org.h2.expression.aggregate.Aggregate;
+import org.h2.expression.aggregate.AggregateType;
+import org.h2.index.Cursor;
+import org.h2.index.Index;
+import org.h2.index.IndexType;
+import org.h2.mvstore.db.MVTable;
+import org.h2.result.ResultInterface;
+import org.h2.result.Row;
+import org.h2.result.SearchRow;
+import org.h2.table.IndexColumn;
+import org.h2.table.MaterializedView;
+import org.h2.table.Table;
+import org.h2.table.TableFilter;
+import org.h2.util.HasSQL;
+import org.h2.util.ParserUtil;
+import org.h2.value.Value;
+import org.h2.value.ValueBigint;
+import org.h2.value.ValueNull;
+import org.h2.value.ValueRow;
+
+/**
+ * Incremental refresh of a materialized view. Committed changes of the base
+ * table captured since the previous refresh are applied to the underlying
+ * table of the view.
+ *
+ * Two kinds of queries are supported: single-table queries without
+ * aggregation, their rows are keyed by keys of base rows, and single-table
+ * queries with GROUP BY and COUNT, SUM, MIN, or MAX aggregates, their rows
+ * are located by values of grouping columns with an index on them. Groups
+ * which can't be updated from the changed rows alone are recomputed from the
+ * base table.
+ *
+ * Changes are captured after each full refresh of the view, so only the first
+ * refresh after a restart of the database, or after captured changes were
+ * discarded, needs to rebuild the view.
+ */
+final class IncrementalRefresh {
+
+    private final SessionLocal session;
+
+    private final MaterializedView view;
+
+    private final Select select;
+
+    private final Table baseTable;
+
+    private final Table table;
+
+    private final TableFilter filter;
+
+    private final Expression condition;
+
+    private final int columnCount;
+
+    /**
+     * Expressions mapped to {@link #filter}. For aggregates arguments are
+     * stored, or {@code null} for COUNT(*).
+     */
+    private final Expression[] expressions;
+
+    /**
+     * Aggregate types of columns, or {@code null} for ordinary columns.
+     */
+    private final AggregateType[] aggregateTypes;
+
+    /**
+     * Indexes of grouping columns, or {@code null} if query isn't a group
+     * query.
+     */
+    private final int[] keyIndexes;
+
+    /**
+     * Index of COUNT(*) column, or -1.
+     */
+    private int countAllIndex = -1;
+
+    /**
+     * Indexes of COUNT columns with the same argument as SUM columns, or -1.
+     */
+    private int[] sumCountIndexes;
+
+    /**
+     * Returns incremental refresh for the specified view, or {@code null} if
+     * its query isn't supported.
+     *
+     * @param session the session
+     * @param view the materialized view
+     * @return the incremental refresh, or {@code null}
+     */
+    static IncrementalRefresh get(SessionLocal session, MaterializedView view) {
+        Query query = view.getSelect();
+        if (!(query instanceof Select)) {
+            return null;
+        }
+        Select select = (Select) query;
+        select.prepare();
+        TableFilter topFilter = select.getTopTableFilter();
+        if (topFilter == null || topFilter.getJoin() != null || topFilter.getNestedJoin() != null
+                || !(topFilter.getTable() instanceof MVTable) || select.getTables().size() != 1
+                || select.isAnyDistinct() || select.isWindowQuery() || select.getForUpdate() != null
+                || select.getFetch() != null || select.getOffset() != null
+                // no HAVING, QUALIFY, hidden GROUP BY or ORDER BY expressions
+                || select.getExpressions().size() != select.getColumnCount()
+                || !select.isEverything(ExpressionVisitor.DETERMINISTIC_VISITOR)) {
+            return null;
+        }
+        IncrementalRefresh refresh = new IncrementalRefresh(session, view, select, topFilter);
+        return refresh.init() ? refresh : null;
+    }
+
+    private IncrementalRefresh(SessionLocal session, MaterializedView view, Select select, TableFilter topFilter) {
+        this.session = session;
+        this.view = view;
+        this.select = select;
+        baseTable = topFilter.getTable();
+        table = view.getUnderlyingTable();
+        filter = new TableFilter(session, baseTable, topFilter.getTableAlias(), true, null, 0, null);
+        Expression c = select.getCondition();
+        condition = c != null ? map(c) : null;
+        columnCount = select.getColumnCount();
+        expressions = new Expression[columnCount];
+        aggregateTypes = new AggregateType[columnCount];
+        if (select.isGroupQuery()) {
+            int[] groupIndex = select.getGroupIndex();
+            keyIndexes = groupIndex != null ? groupIndex : new int[0];
+        } else {
+            keyIndexes = null;
+        }
+    }
+
+    private boolean init() {
+        ArrayList<Expression> list = select.getExpressions();
+        if (keyIndexes == null) {
+            for (int i = 0; i < columnCount; i++) {
+                expressions[i] = map(list.get(i).getNonAliasExpression());
+            }
+            return true;
+        }
+        boolean[] isKey = new boolean[columnCount];
+        for (int i : keyIndexes) {
+            isKey[i] = true;
+        }
+        String[] argumentSQL = new String[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            Expression e = list.get(i).getNonAliasExpression();
+            if (isKey[i]) {
+                expressions[i] = map(e);
+                continue;
+            }
+            if (!(e instanceof Aggregate)) {
+                return false;
+            }
+            Aggregate aggregate = (Aggregate) e;
+            if (aggregate.isDistinct() || aggregate.getFilterCondition() != null
+                    || aggregate.getOverCondition() != null) {
+                return false;
+            }
+            AggregateType type = aggregate.getAggregateType();
+            switch (type) {
+            case COUNT_ALL:
+                countAllIndex = i;
+                break;
+            case COUNT:
+            case SUM:
+            case MIN:
+            case MAX: {
+                Expression argument = aggregate.getSubexpression(0);
+                argumentSQL[i] = argument.getSQL(HasSQL.DEFAULT_SQL_FLAGS, Expression.WITHOUT_PARENTHESES);
+                expressions[i] = map(argument);
+                break;
+            }
+            default:
+                return false;
+            }
+            aggregateTypes[i] = type;
+        }
+        sumCountIndexes = new int[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            int index = -1;
+            if (aggregateTypes[i] == AggregateType.SUM) {
+                for (int j = 0; j < columnCount; j++) {
+                    if (aggregateTypes[j] == AggregateType.COUNT && argumentSQL[j].equals(argumentSQL[i])) {
+                        index = j;
+                        break;
+                    }
+                }
+                if (index < 0 && expressions[i] instanceof ExpressionColumn
+                        && !((ExpressionColumn) expressions[i]).getColumn().isNullable()) {
+                    index = countAllIndex;
+                }
+            }
+            sumCountIndexes[i] = index;
+        }
+        return true;
+    }
+
+    private Expression map(Expression e) {
+        Expression expression = new Parser(session)
+                .parseExpression(e.getSQL(HasSQL.DEFAULT_SQL_FLAGS, Expression.WITHOUT_PARENTHESES));
+        expression.mapColumns(filter, 0, Expression.MAP_INITIAL);
+        return expression.optimize(session);
+    }
+
+    /**
+     * Applies captured changes to the underlying table of the view, or
+     * rebuilds it and starts capturing of changes.
+     *
+     * @param incremental {@code true} to apply captured changes if possible,
+     *            {@code false} to rebuild the view
+     * @return {@code true} on success, {@code false} if the view needs to be
+     *         fully refreshed
+     */
+    boolean refresh(boolean incremental) {
+        // wait for all uncommitted changes of the base table
+        baseTable.lock(session, Table.EXCLUSIVE_LOCK);
+        table.lock(session, Table.EXCLUSIVE_LOCK);
+        ArrayList<MaterializedView.Change> changes = view.takeChanges();
+        if (changes == null || !incremental) {
+            view.startCapturingChanges();
+            changes = null;
+        } else if (changes.isEmpty()) {
+            return true;
+        }
+        boolean success = false;
+        session.startStatementWithinTransaction(null);
+        try {
+            if (changes == null) {
+                success = rebuild();
+            } else if (keyIndexes == null) {
+                success = applyRows(changes);
+            } else {
+                applyGroups(changes);
+                success = true;
+            }
+        } finally {
+            session.endStatement();
+            if (!success) {
+                view.discardChanges();
+            }
+        }
+        return success;
+    }
+
+    private boolean rebuild() {
+        table.truncate(session);
+        if (keyIndexes != null) {
+            try (ResultInterface result = getQuery(false).query(0)) {
+                while (result.next()) {
+                    table.addRow(session, table.createRow(convert(result.currentRow().clone()),
+                            SearchRow.MEMORY_CALCULATE));
+                }
+            }
+            return true;
+        }
+        Cursor cursor = baseTable.getScanIndex(session).find(session, null, null, false);
+        while (cursor.next()) {
+            if (!addRow(cursor.get())) {
+                table.truncate(session);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Creates an index on grouping columns of the underlying table of a group
+     * view, if there is no such index yet.
+     */
+    void createKeyIndex() {
+        int count;
+        if (keyIndexes == null || (count = keyIndexes.length) == 0 || getKeyIndex() != null) {
+            return;
+        }
+        IndexColumn[] columns = new IndexColumn[count];
+        for (int i = 0; i < count; i++) {
+            columns[i] = new IndexColumn(table.getColumn(keyIndexes[i]).getName());
+        }
+        CreateIndex createIndex = new CreateIndex(session, table.getSchema());
+        createIndex.setTableName(table.getName());
+        createIndex.setIndexColumns(columns);
+        createIndex.update();
+    }
+
+    /**
+     * Returns an index of the underlying table which first columns are the
+     * grouping columns.
+     *
+     * @return the index, or {@code null}
+     */
+    private Index getKeyIndex() {
+        int count = keyIndexes.length;
+        if (count == 0) {
+            return null;
+        }
+        loop: for (Index index : table.getIndexes()) {
+            IndexType type = index.getIndexType();
+            IndexColumn[] columns = index.getIndexColumns();
+            if (type.isScan() || type.isSpatial() || type.isFullText() || type.isTrigram() || type.isArray()
+                    || index.getPredicate() != null || columns.length < count) {
+                continue;
+            }
+            BitSet set = new BitSet();
+            for (int i = 0; i < count; i++) {
+                IndexColumn column = columns[i];
+                if (column.expression != null) {
+                    continue loop;
+                }
+                set.set(column.column.getColumnId());
+            }
+            for (int i : keyIndexes) {
+                if (!set.get(i)) {
+                    continue loop;
+                }
+            }
+            return index;
+        }
+        return null;
+    }
+
+    private boolean applyRows(ArrayList<MaterializedView.Change> changes) {
+        for (MaterializedView.Change change : changes) {
+            Row row = change.row;
+            if (change.added) {
+                if (!addRow(row)) {
+                    return false;
+                }
+            } else if (matches(row)) {
+                long key = getViewKey(row);
+                if (key == 0L) {
+                    return false;
+                }
+                table.removeRow(session, table.getRow(session, key));
+            }
+        }
+        return true;
+    }
+
+    private boolean addRow(Row row) {
+        if (matches(row)) {
+            long key = getViewKey(row);
+            if (key == 0L) {
+                return false;
+            }
+            Value[] values = new Value[columnCount];
+            for (int i = 0; i < columnCount; i++) {
+                values[i] = convert(i, expressions[i].getValue(session));
+            }
+            Row r = table.createRow(values, SearchRow.MEMORY_CALCULATE);
+            r.setKey(key);
+            table.addRow(session, r);
+        }
+        return true;
+    }
+
+    /**
+     * Returns key of the row of the view for the specified base row. Key 0
+     * means a new row for the underlying table, so it's replaced with
+     * {@link Long#MIN_VALUE}.
+     *
+     * @param row the base row
+     * @return the key, or 0 if base row has {@link Long#MIN_VALUE} key
+     */
+    private static long getViewKey(Row row) {
+        long key = row.getKey();
+        return key == 0L ? Long.MIN_VALUE : key == Long.MIN_VALUE ? 0L : key;
+    }
+
+    private boolean matches(Row row) {
+        filter.set(row);
+        return condition == null || condition.getBooleanValue(session);
+    }
+
+    private void applyGroups(ArrayList<MaterializedView.Change> changes) {
+        ArrayList<Value[]> changedValues = new ArrayList<>();
+        BitSet added = new BitSet();
+        // rows of the view of changed groups
+        TreeMap<ValueRow, Row> rows = new TreeMap<>(session);
+        for (MaterializedView.Change change : changes) {
+            if (!matches(change.row)) {
+                continue;
+            }
+            Value[] values = new Value[columnCount];
+            for (int i = 0; i < columnCount; i++) {
+                Expression e = expressions[i];
+                if (e != null) {
+                    Value v = e.getValue(session);
+                    // only NULL matters for COUNT
+                    values[i] = aggregateTypes[i] == AggregateType.COUNT ? v : convert(i, v);
+                }
+            }
+            if (change.added) {
+                added.set(changedValues.size());
+            }
+            changedValues.add(values);
+            rows.put(getKey(values), null);
+        }
+        findRows(rows);
+        // new values of changed groups, null values for removed groups
+        TreeMap<ValueRow, Value[]> updated = new TreeMap<>(session);
+        TreeSet<ValueRow> recompute = new TreeSet<>(session);
+        for (int c = 0, l = changedValues.size(); c < l; c++) {
+            Value[] values = changedValues.get(c);
+            ValueRow key = getKey(values);
+            if (recompute.contains(key)) {
+                continue;
+            }
+            Value[] current;
+            if (updated.containsKey(key)) {
+                current = updated.get(key);
+            } else {
+                Row row = rows.get(key);
+                current = row != null ? row.getValueList().clone() : null;
+            }
+            if (added.get(c)) {
+                if (current == null) {
+                    current = newGroup(values);
+                } else if (!add(current, values)) {
+                    recompute.add(key);
+                    continue;
+                }
+            } else if (current == null || !remove(current, values)) {
+                recompute.add(key);
+                continue;
+            } else if (((ValueBigint) current[countAllIndex]).getLong() == 0L) {
+                if (keyIndexes.length == 0) {
+                    // result of a query without GROUP BY always has a row
+                    recompute.add(key);
+                    continue;
+                }
+                current = null;
+            }
+            updated.put(key, current);
+        }
+        for (Map.Entry<ValueRow, Value[]> entry : updated.entrySet()) {
+            ValueRow key = entry.getKey();
+            if (!recompute.contains(key)) {
+                update(rows.get(key), entry.getValue());
+            }
+        }
+        if (!recompute.isEmpty()) {
+            Query query = getQuery(true);
+            ArrayList<Parameter> parameters = query.getParameters();
+            for (ValueRow key : recompute) {
+                Value[] keyValues = key.getList();
+                for (int i = 0, l = keyValues.length; i < l; i++) {
+                    parameters.get(i).setValue(keyValues[i]);
+                }
+                Value[] values = null;
+                try (ResultInterface result = query.query(0)) {
+                    if (result.next()) {
+                        values = convert(result.currentRow().clone());
+                    }
+                }
+                update(rows.get(key), values);
+            }
+        }
+    }
+
+    /**
+     * Finds rows of the view with the specified values of grouping columns.
+     *
+     * @param rows the map with values of grouping columns to fill
+     */
+    private void findRows(TreeMap<ValueRow, Row> rows) {
+        Index index = getKeyIndex();
+        if (index == null) {
+            // the view is scanned once, but only rows of changed groups are
+            // kept
+            Cursor cursor = table.getScanIndex(session).find(session, null, null, false);
+            while (cursor.next()) {
+                Row row = cursor.get();
+                ValueRow key = getKey(row.getValueList());
+                if (rows.containsKey(key)) {
+                    rows.put(key, row);
+                }
+            }
+            return;
+        }
+        for (Map.Entry<ValueRow, Row> entry : rows.entrySet()) {
+            Value[] key = entry.getKey().getList();
+            SearchRow search = table.getTemplateRow();
+            for (int i = 0, l = keyIndexes.length; i < l; i++) {
+                search.setValue(keyIndexes[i], key[i]);
+            }
+            Cursor cursor = index.find(session, search, search, false);
+            if (cursor.next()) {
+                entry.setValue(cursor.get());
+            }
+        }
+    }
+
+    private ValueRow getKey(Value[] values) {
+        int count = keyIndexes.length;
+        Value[] key = new Value[count];
+        for (int i = 0; i < count; i++) {
+            key[i] = values[keyIndexes[i]];
+        }
+        return ValueRow.get(key);
+    }
+
+    private Value[] newGroup(Value[] values) {
+        Value[] group = new Value[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            AggregateType type = aggregateTypes[i];
+            Value v = values[i];
+            if (type == null) {
+                group[i] = v;
+            } else if (type == AggregateType.COUNT_ALL) {
+                group[i] = ValueBigint.get(1L);
+            } else if (type == AggregateType.COUNT) {
+                group[i] = ValueBigint.get(v != ValueNull.INSTANCE ? 1L : 0L);
+            } else {
+                group[i] = v;
+            }
+        }
+        return group;
+    }
+
+    private boolean add(Value[] group, Value[] values) {
+        for (int i = 0; i < columnCount; i++) {
+            AggregateType type = aggregateTypes[i];
+            if (type == null) {
+                continue;
+            }
+            Value v = values[i];
+            if (type == AggregateType.COUNT_ALL) {
+                group[i] = ValueBigint.get(((ValueBigint) group[i]).getLong() + 1L);
+                continue;
+            }
+            if (v == ValueNull.INSTANCE) {
+                continue;
+            }
+            Value old = group[i];
+            switch (type) {
+            case COUNT:
+                group[i] = ValueBigint.get(((ValueBigint) old).getLong() + 1L);
+                break;
+            case SUM:
+                if (old == ValueNull.INSTANCE) {
+                    group[i] = v;
+                } else if (isExactNumeric(i)) {
+                    group[i] = convert(i, old.add(v));
+                } else {
+                    return false;
+                }
+                break;
+            case MIN:
+                if (old == ValueNull.INSTANCE || session.compare(v, old) < 0) {
+                    group[i] = v;
+                }
+                break;
+            default:
+                if (old == ValueNull.INSTANCE || session.compare(v, old) > 0) {
+                    group[i] = v;
+                }
+            }
+        }
+        return true;
+    }
+
+    private boolean remove(Value[] group, Value[] values) {
+        if (countAllIndex < 0) {
+            // the group may become empty
+            return false;
+        }
+        for (int i = 0; i < columnCount; i++) {
+            AggregateType type = aggregateTypes[i];
+            if (type == null) {
+                continue;
+            }
+            Value v = values[i];
+            if (type == AggregateType.COUNT_ALL) {
+                group[i] = ValueBigint.get(((ValueBigint) group[i]).getLong() - 1L);
+                continue;
+            }
+            if (v == ValueNull.INSTANCE) {
+                continue;
+            }
+            Value old = group[i];
+            switch (type) {
+            case COUNT:
+                group[i] = ValueBigint.get(((ValueBigint) old).getLong() - 1L);
+                break;
+            case SUM:
+                if (sumCountIndexes[i] < 0 || !isExactNumeric(i)) {
+                    return false;
+                }
+                break;
+            default:
+                // the removed value may be the only minimum or maximum
+                if (session.compare(v, old) == 0) {
+                    return false;
+                }
+            }
+        }
+        // SUM columns are updated after their COUNT columns
+        for (int i = 0; i < columnCount; i++) {
+            Value v;
+            if (aggregateTypes[i] == AggregateType.SUM && (v = values[i]) != ValueNull.INSTANCE) {
+                group[i] = ((ValueBigint) group[sumCountIndexes[i]]).getLong() == 0L ? ValueNull.INSTANCE
+                        : convert(i, group[i].subtract(v));
+            }
+        }
+        return true;
+    }
+
+    private boolean isExactNumeric(int index) {
+        switch (table.getColumn(index).getType().getValueType()) {
+        case Value.TINYINT:
+        case Value.SMALLINT:
+        case Value.INTEGER:
+        case Value.BIGINT:
+        case Value.NUMERIC:
+            return true;
+        default:
+            return false;
+        }
+    }
+
+    private Value convert(int index, Value v) {
+        return table.getColumn(index).convert(session, v);
+    }
+
+    private Value[] convert(Value[] values) {
+        for (int i = 0; i < columnCount; i++) {
+            values[i] = convert(i, values[i]);
+        }
+        return values;
+    }
+
+    private void update(Row oldRow, Value[] values) {
+        if (values == null) {
+            if (oldRow != null) {
+                table.removeRow(session, oldRow);
+            }
+        } else {
+            Row newRow = table.createRow(values, SearchRow.MEMORY_CALCULATE);
+            if (oldRow != null) {
+                table.updateRow(session, oldRow, newRow);
+            } else {
+                table.addRow(session, newRow);
+            }
+        }
+    }
+
+    /**
+     * Creates a query which computes all groups of the view, or a single
+     * group with values of grouping columns passed as parameters.
+     *
+     * @param singleGroup whether a single group should be computed
+     * @return the query
+     */
+    private Query getQuery(boolean singleGroup) {
+        ArrayList<Expression> list = select.getExpressions();
+        StringBuilder builder = new StringBuilder("SELECT ");
+        for (int i = 0; i < columnCount; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            list.get(i).getNonAliasExpression().getUnenclosedSQL(builder, HasSQL.DEFAULT_SQL_FLAGS);
+        }
+        baseTable.getSQL(builder.append(" FROM "), HasSQL.DEFAULT_SQL_FLAGS).append(' ');
+        ParserUtil.quoteIdentifier(builder, filter.getTableAlias(), HasSQL.DEFAULT_SQL_FLAGS);
+        Expression c = select.getCondition();
+        boolean where = false;
+        if (c != null) {
+            c.getSQL(builder.append(" WHERE "), HasSQL.DEFAULT_SQL_FLAGS, Expression.AUTO_PARENTHESES);
+            where = true;
+        }
+        for (int i = 0, l = singleGroup ? keyIndexes.length : 0; i < l; i++) {
+            builder.append(where ? " AND " : " WHERE ");
+            where = true;
+            list.get(keyIndexes[i]).getNonAliasExpression().getSQL(builder, HasSQL.DEFAULT_SQL_FLAGS,
+                    Expression.AUTO_PARENTHESES);
+            builder.append(" IS NOT DISTINCT FROM ?");
+        }
+        if (keyIndexes.length > 0) {
+            builder.append(" GROUP BY ");
+            for (int i = 0, l = keyIndexes.length; i < l; i++) {
+                if (i > 0) {
+                    builder.append(", ");
+                }
+                list.get(keyIndexes[i]).getNonAliasExpression().getUnenclosedSQL(builder,
+                        HasSQL.DEFAULT_SQL_FLAGS);
+            }
+        }
+        return (Query) session.prepare(builder.toString());
+    }
+
+}
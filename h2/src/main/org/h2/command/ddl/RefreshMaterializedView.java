@@ -17,6 +17,8 @@ public class RefreshMaterializedView extends SchemaOwnerCommand {
 
     private MaterializedView view;
 
+    private boolean incremental;
+
     public RefreshMaterializedView(SessionLocal session, Schema schema) {
         super(session, schema);
     }
@@ -25,8 +27,28 @@ public void setView(MaterializedView view) {
         this.view = view;
     }
 
+    /**
+     * Sets whether only changes of the base table since the previous refresh
+     * should be applied, if possible.
+     *
+     * @param incremental whether refresh is incremental
+     */
+    public void setIncremental(boolean incremental) {
+        this.incremental = incremental;
+    }
+
     @Override
     long update(Schema schema) {
+        IncrementalRefresh refresh = IncrementalRefresh.get(session, view);
+        if (refresh != null) {
+            if (refresh.refresh(incremental)) {
+                view.setModified();
+                return 0;
+            }
+        } else {
+            view.discardChanges();
+        }
+
         // Re-use logic from the existing code for TRUNCATE and CREATE TABLE
 
         TruncateTable truncate = new TruncateTable(session);
@@ -99,6 +99,7 @@ void doPrepare() {
             condition = condition.optimizeCondition(session);
             if (condition != null) {
                 condition.createIndexConditions(session, targetTableFilter);
+                targetTableFilter.setFullCondition(condition);
             }
         }
         TableFilter[] filters = new TableFilter[] { targetTableFilter };
@@ -309,6 +309,10 @@ public ResultInterface query(long maxrows) {
                         count = generateInsertValues(count, table);
                     }
                 }
+                if (TableType.MATERIALIZED_VIEW == tableType) {
+                    // indexes belong to the underlying table
+                    continue;
+                }
                 for (Index index : table.getIndexes()) {
                     if (!index.getIndexType().getBelongsToConstraint()) {
                         add(index.getCreateSQL(), false);
@@ -383,6 +383,18 @@ public long update() {
             database.setQueryStatistics(value == 1);
             break;
         }
+        case SetTypes.QUERY_RESULT_CACHE_SIZE: {
+            session.getUser().checkAdmin();
+            int value = getIntValue();
+            if (value < 0) {
+                throw DbException.getInvalidValueException("QUERY_RESULT_CACHE_SIZE", value);
+            }
+            synchronized (database) {
+                database.setQueryResultCacheSize(value);
+                addOrUpdateSetting(name, null, value);
+            }
+            break;
+        }
         case SetTypes.QUERY_STATISTICS_MAX_ENTRIES: {
             session.getUser().checkAdmin();
             int value = getIntValue();
@@ -242,7 +242,12 @@ public class SetTypes {
      */
     public static final int TRUNCATE_LARGE_LENGTH = DEFAULT_NULL_ORDERING + 1;
 
-    private static final int COUNT = TRUNCATE_LARGE_LENGTH + 1;
+    /**
+     * The type of a SET QUERY_RESULT_CACHE_SIZE statement.
+     */
+    public static final int QUERY_RESULT_CACHE_SIZE = TRUNCATE_LARGE_LENGTH + 1;
+
+    private static final int COUNT = QUERY_RESULT_CACHE_SIZE + 1;
 
     private static final List<String> TYPES;
 
@@ -297,7 +302,8 @@ private SetTypes() {
                 "TIME ZONE", //
                 "VARIABLE_BINARY", //
                 "DEFAULT_NULL_ORDERING", //
-                "TRUNCATE_LARGE_LENGTH");
+                "TRUNCATE_LARGE_LENGTH", //
+                "QUERY_RESULT_CACHE_SIZE");
         assert TYPES.size() == COUNT;
     }
 
@@ -114,6 +114,7 @@ void doPrepare() {
             condition = condition.optimizeCondition(session);
             if (condition != null) {
                 condition.createIndexConditions(session, targetTableFilter);
+                targetTableFilter.setFullCondition(condition);
             }
         }
         setClauseList.mapAndOptimize(session, targetTableFilter, null);
@@ -21,6 +21,7 @@
 import org.h2.engine.Database;
 import org.h2.engine.DbObject;
 import org.h2.engine.IsolationLevel;
+import org.h2.engine.QueryResultCache;
 import org.h2.engine.SessionLocal;
 import org.h2.expression.Alias;
 import org.h2.expression.Expression;
@@ -560,6 +561,46 @@ public final ResultInterface query(long limit, ResultTarget target) {
         return r;
     }
 
+    /**
+     * Execute the query as a top-level command. If the query result cache of
+     * the database is enabled, results of deterministic queries are shared
+     * between sessions of the same user with the same current schema, schema
+     * search path, time zone and compatibility mode, and a cached result is
+     * returned while tables used by the query aren't modified.
+     *
+     * @param maxrows the maximum number of rows to return
+     * @return the result set
+     */
+    public final ResultInterface queryWithResultCache(long maxrows) {
+        Database db = getDatabase();
+        QueryResultCache cache = db.getQueryResultCache();
+        if (cache == null || sqlStatement == null || getNoCache() || getForUpdate() != null
+                || session.isLazyQueryExecution() && !neverLazy
+                // other isolation levels may not see the latest committed data
+                || session.getIsolationLevel() != IsolationLevel.READ_COMMITTED
+                || isUpdatedInCurrentTransaction()
+                // results of such queries may depend on the session
+                || !isEverything(ExpressionVisitor.DETERMINISTIC_VISITOR)) {
+            return query(maxrows);
+        }
+        QueryResultCache.Key key = new QueryResultCache.Key(sqlStatement, session, maxrows, getParameterValues());
+        long metaModificationId = db.getModificationMetaId();
+        ExpressionVisitor visitor = ExpressionVisitor.getMaxModificationIdVisitor();
+        isEverything(visitor);
+        long dataModificationId = visitor.getMaxDataModificationId();
+        LocalResult result = cache.get(key, session, metaModificationId, dataModificationId);
+        if (result != null) {
+            fireBeforeSelectTriggers();
+            return result;
+        }
+        long now = session.getStatementModificationDataId();
+        ResultInterface r = query(maxrows);
+        if (dataModificationId <= now && r instanceof LocalResult) {
+            cache.put(key, session, (LocalResult) r, metaModificationId, dataModificationId);
+        }
+        return r;
+    }
+
     private void closeLastResult() {
         if (lastResult != null) {
             lastResult.close();
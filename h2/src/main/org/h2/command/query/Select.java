@@ -364,7 +364,10 @@ private Index getGroupSortedIndex() {
         }
         for (Index index : topTableFilter.getTable().getIndexes()) {
             IndexType indexType = index.getIndexType();
-            if (!indexType.isScan() && !indexType.isHash() && isGroupSortedIndex(topTableFilter, index)) {
+            if (!indexType.isScan() && !indexType.isHash() && !indexType.isSpatial() && !indexType.isFullText()
+                    && !indexType.isTrigram() && !indexType.isArray()
+                    && index.canBeUsedBy(session, topTableFilter)
+                    && isGroupSortedIndex(topTableFilter, index)) {
                 return index;
             }
         }
@@ -596,16 +599,25 @@ private List<IndexSort> getIndexSorts() {
             if (expr.isConstant()) {
                 continue;
             }
-            if (!(expr instanceof ExpressionColumn)) {
-                needMore = true;
-                break;
-            }
-            ExpressionColumn exprCol = (ExpressionColumn) expr;
-            if (exprCol.getTableFilter() != topTableFilter) {
-                needMore = true;
-                break;
+            Column column;
+            if (expr instanceof ExpressionColumn) {
+                ExpressionColumn exprCol = (ExpressionColumn) expr;
+                if (exprCol.getTableFilter() != topTableFilter) {
+                    needMore = true;
+                    break;
+                }
+                column = exprCol.getColumn();
+            } else {
+                // columns of expression indexes with the same expression are
+                // equal
+                ArrayList<Column> columns = topTableFilter.getIndexExpressionColumns(expr);
+                if (columns.isEmpty()) {
+                    needMore = true;
+                    break;
+                }
+                column = columns.get(0);
             }
-            sortColumns.add(exprCol.getColumn());
+            sortColumns.add(column);
             sortIndex[sortedColumns++] = i;
         }
         if (sortedColumns == 0) {
@@ -635,8 +647,14 @@ private List<IndexSort> getIndexSorts() {
         DefaultNullOrdering defaultNullOrdering = getDatabase().getDefaultNullOrdering();
         ArrayList<IndexSort> indexSorts = Utils.newSmallArrayList();
         loop: for (Index index : topTableFilter.getTable().getIndexes()) {
-            if (index.getCreateSQL() == null || index.getIndexType().isHash()) {
-                // can't use scan or hash indexes
+            IndexType indexType = index.getIndexType();
+            if (index.getCreateSQL() == null || indexType.isHash() || indexType.isSpatial()
+                    || indexType.isFullText() || indexType.isTrigram() || indexType.isArray()) {
+                // can't use scan, hash, spatial, full-text, trigram, or array indexes
+                continue;
+            }
+            if (!index.canBeUsedBy(session, topTableFilter)) {
+                // partial index without all selected rows
                 continue;
             }
             IndexColumn[] indexCols = index.getIndexColumns();
@@ -647,7 +665,7 @@ private List<IndexSort> getIndexSorts() {
                 // with the exact same columns
                 IndexColumn idxCol = indexCols[j];
                 Column sortCol = sortCols[j];
-                boolean mismatch = idxCol.column != sortCol;
+                boolean mismatch = !idxCol.column.equals(sortCol);
                 if (!mismatch) {
                     if (sortCol.isNullable()) {
                         int o1 = defaultNullOrdering.addExplicitNullOrdering(idxCol.sortType);
@@ -844,6 +862,9 @@ protected ResultInterface queryWithoutCache(long maxRows, ResultTarget target) {
         if (!lazy && (fetch >= 0 || offset > 0)) {
             result = createLocalResult(result);
         }
+        if (result != null && !fetchPercent) {
+            result.setTopRows(offset, fetch, withTies);
+        }
         topTableFilter.startQuery(session);
         topTableFilter.reset();
         topTableFilter.lock(session);
@@ -1614,6 +1635,16 @@ public boolean isGroupQuery() {
         return isGroupQuery;
     }
 
+    /**
+     * Returns indexes of GROUP BY expressions in the list of expressions.
+     *
+     * @return indexes of GROUP BY expressions, or {@code null} if there is no
+     *         GROUP BY clause or query isn't initialized yet
+     */
+    public int[] getGroupIndex() {
+        return groupIndex;
+    }
+
     /**
      * Checks if this query contains window functions.
      *
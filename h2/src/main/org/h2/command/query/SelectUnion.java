@@ -168,6 +168,9 @@ protected ResultInterface queryWithoutCache(long maxRows, ResultTarget target) {
         default:
             throw DbException.getInternalError("type=" + unionType);
         }
+        if (!fetchPercent) {
+            result.setTopRows(offset, fetch, withTies);
+        }
         ResultInterface l = left.query(0);
         ResultInterface r = right.query(0);
         l.reset();
@@ -123,7 +123,7 @@ public ConnectionInfo(String u, Properties info, String user, Object password) {
                 "DB_CLOSE_ON_EXIT", //
                 "FILE_LOCK", //
                 "JMX", //
-                "NETWORK_TIMEOUT", //
+                "NETWORK_COMPRESS", "NETWORK_TIMEOUT", //
                 "OLD_INFORMATION_SCHEMA", "OPEN_NEW", //
                 "PAGE_SIZE", //
                 "RECOVER", //
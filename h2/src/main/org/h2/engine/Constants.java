@@ -66,6 +66,24 @@ public class Constants {
      */
     public static final int TCP_PROTOCOL_VERSION_21 = 21;
 
+    /**
+     * The TCP protocol version number 22.
+     * @since 2.3.230 (TODO)
+     */
+    public static final int TCP_PROTOCOL_VERSION_22 = 22;
+
+    /**
+     * The TCP protocol version number 23.
+     * @since 2.3.230 (TODO)
+     */
+    public static final int TCP_PROTOCOL_VERSION_23 = 23;
+
+    /**
+     * The TCP protocol version number 24.
+     * @since 2.3.230 (TODO)
+     */
+    public static final int TCP_PROTOCOL_VERSION_24 = 24;
+
     /**
      * Minimum supported version of TCP protocol.
      */
@@ -74,7 +92,7 @@ public class Constants {
     /**
      * Maximum supported version of TCP protocol.
      */
-    public static final int TCP_PROTOCOL_VERSION_MAX_SUPPORTED = TCP_PROTOCOL_VERSION_21;
+    public static final int TCP_PROTOCOL_VERSION_MAX_SUPPORTED = TCP_PROTOCOL_VERSION_24;
 
     /**
      * The major version of this database.
@@ -213,6 +213,7 @@ public final class Database implements DataHandler, CastDataProvider {
     private volatile boolean queryStatistics;
     private int queryStatisticsMaxEntries = Constants.QUERY_STATISTICS_MAX_ENTRIES;
     private final AtomicReference<QueryStatisticsData> queryStatisticsData = new AtomicReference<>();
+    private volatile QueryResultCache queryResultCache;
     private RowFactory rowFactory = RowFactory.getRowFactory();
     private boolean ignoreCatalogs;
 
@@ -1953,6 +1954,31 @@ public void setMaxMemoryRows(int value) {
         this.maxMemoryRows = value;
     }
 
+    /**
+     * Set the size of the query result cache.
+     *
+     * @param kb the maximum memory of cached results in KB, 0 disables the
+     *            cache
+     */
+    public synchronized void setQueryResultCacheSize(int kb) {
+        if (kb == 0) {
+            queryResultCache = null;
+        } else if (queryResultCache == null) {
+            queryResultCache = new QueryResultCache(kb * 1024L);
+        } else {
+            queryResultCache.setMaxMemory(kb * 1024L);
+        }
+    }
+
+    /**
+     * Returns the query result cache.
+     *
+     * @return the query result cache, or {@code null} if it is disabled
+     */
+    public QueryResultCache getQueryResultCache() {
+        return queryResultCache;
+    }
+
     public void setLockMode(int lockMode) {
         switch (lockMode) {
         case Constants.LOCK_MODE_OFF:
@@ -0,0 +1,218 @@
+/*
+ * Copyright 2004-2025 H2 Group. Multiple-Licensed under the MPL 2.0,
+ * and the EPL 1.0 (https://h2database.com/html/license.html).
+ * Initial Developer: H2 Group
+ */
+package org.h2.engine;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import org.h2.result.LocalResult;
+import org.h2.util.TimeZoneProvider;
+import org.h2.value.Value;
+
+/**
+ * Results of read-only queries shared between sessions. Entries are evicted
+ * in least recently used order when their total memory exceeds the limit,
+ * and are discarded when tables used by the query or the database schema are
+ * modified.
+ */
+public final class QueryResultCache {
+
+    /**
+     * The key of a cached result. It includes settings of the session which
+     * may affect the result of a deterministic query.
+     */
+    public static final class Key {
+
+        private final String sql;
+
+        private final User user;
+
+        private final String schemaName;
+
+        private final String[] schemaSearchPath;
+
+        private final TimeZoneProvider timeZone;
+
+        private final Mode mode;
+
+        private final long limit;
+
+        private final Value[] parameters;
+
+        private final int hash;
+
+        /**
+         * Creates a key of a cached result.
+         *
+         * @param sql the SQL text of the query
+         * @param session the session
+         * @param limit the maximum number of rows
+         * @param parameters the parameter values
+         */
+        public Key(String sql, SessionLocal session, long limit, Value[] parameters) {
+            this.sql = sql;
+            this.user = session.getUser();
+            this.schemaName = session.getCurrentSchemaName();
+            this.schemaSearchPath = session.getSchemaSearchPath();
+            this.timeZone = session.currentTimeZone();
+            this.mode = session.getMode();
+            this.limit = limit;
+            this.parameters = parameters;
+            hash = (((sql.hashCode() * 31 + schemaName.hashCode()) * 31 + timeZone.hashCode()) * 31
+                    + Long.hashCode(limit)) * 31 + Arrays.hashCode(parameters);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return hash == other.hash && limit == other.limit && user == other.user && mode == other.mode
+                    && sql.equals(other.sql) && schemaName.equals(other.schemaName)
+                    && Arrays.equals(schemaSearchPath, other.schemaSearchPath) && timeZone.equals(other.timeZone)
+                    && Arrays.equals(parameters, other.parameters);
+        }
+
+        long getMemory() {
+            long memory = Constants.MEMORY_OBJECT * 2 + Constants.MEMORY_ARRAY + sql.length() * 2L;
+            for (Value v : parameters) {
+                memory += Constants.MEMORY_POINTER;
+                if (v != null) {
+                    memory += v.getMemory();
+                }
+            }
+            return memory;
+        }
+
+    }
+
+    private static final class Entry {
+
+        final LocalResult result;
+
+        final long metaModificationId;
+
+        final long dataModificationId;
+
+        final long memory;
+
+        Entry(LocalResult result, long metaModificationId, long dataModificationId, long memory) {
+            this.result = result;
+            this.metaModificationId = metaModificationId;
+            this.dataModificationId = dataModificationId;
+            this.memory = memory;
+        }
+
+    }
+
+    private final LinkedHashMap<Key, Entry> map = new LinkedHashMap<>(16, .75f, true);
+
+    private long maxMemory;
+
+    private long memory;
+
+    public QueryResultCache(long maxMemory) {
+        this.maxMemory = maxMemory;
+    }
+
+    /**
+     * Changes the maximum memory of cached results.
+     *
+     * @param maxMemory the maximum memory in bytes
+     */
+    public synchronized void setMaxMemory(long maxMemory) {
+        this.maxMemory = maxMemory;
+        evict();
+    }
+
+    /**
+     * Returns a copy of the cached result for the specified session, if the
+     * result is still valid.
+     *
+     * @param key the key
+     * @param session the session
+     * @param metaModificationId the current modification id of database
+     *            metadata
+     * @param dataModificationId the current maximum data modification id of
+     *            tables used by the query
+     * @return the copy of the cached result, or {@code null}
+     */
+    public synchronized LocalResult get(Key key, SessionLocal session, long metaModificationId,
+            long dataModificationId) {
+        Entry entry = map.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.metaModificationId != metaModificationId || entry.dataModificationId != dataModificationId) {
+            map.remove(key);
+            memory -= entry.memory;
+            return null;
+        }
+        return entry.result.createShallowCopy(session);
+    }
+
+    /**
+     * Adds a result to the cache. Results which don't have all rows in memory
+     * or contain LOBs aren't cached.
+     *
+     * @param key the key
+     * @param session the session
+     * @param result the result, it may be used by the caller after this method
+     * @param metaModificationId the modification id of database metadata at
+     *            the start of query execution
+     * @param dataModificationId the maximum data modification id of tables
+     *            used by the query at the start of query execution
+     */
+    public void put(Key key, SessionLocal session, LocalResult result, long metaModificationId,
+            long dataModificationId) {
+        LocalResult copy = result.createShallowCopy(session);
+        if (copy == null) {
+            return;
+        }
+        long rowsMemory = copy.getMemory();
+        if (rowsMemory < 0L) {
+            return;
+        }
+        long m = rowsMemory + key.getMemory() + Constants.MEMORY_OBJECT * 2;
+        synchronized (this) {
+            if (m > maxMemory) {
+                return;
+            }
+            Entry old = map.put(key, new Entry(copy, metaModificationId, dataModificationId, m));
+            if (old != null) {
+                memory -= old.memory;
+            }
+            memory += m;
+            evict();
+        }
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public synchronized void clear() {
+        map.clear();
+        memory = 0L;
+    }
+
+    private void evict() {
+        for (Iterator<Entry> i = map.values().iterator(); memory > maxMemory && i.hasNext();) {
+            memory -= i.next().memory;
+            i.remove();
+        }
+    }
+
+}
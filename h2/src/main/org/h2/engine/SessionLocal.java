@@ -51,6 +51,7 @@
 import org.h2.store.DataHandler;
 import org.h2.store.InDoubtTransaction;
 import org.h2.store.LobStorageFrontend;
+import org.h2.table.MaterializedView;
 import org.h2.table.Table;
 import org.h2.util.DateTimeUtils;
 import org.h2.util.HasSQL;
@@ -150,6 +151,12 @@ static Session getThreadLocalSession() {
 
     private final ArrayList<Table> locks = Utils.newSmallArrayList();
     private final Set<Table> updates = new HashSet<>();
+
+    /**
+     * Changes of tables with incrementally refreshed materialized views made
+     * in the current transaction.
+     */
+    private ArrayList<MaterializedView.Change> materializedViewChanges;
     private boolean autoCommit = true;
     private Random random;
     private int lockTimeout;
@@ -689,6 +696,11 @@ public void commit(boolean ddl) {
             try {
                 markUsedTablesAsUpdated();
                 transaction.commit();
+                if (materializedViewChanges != null) {
+                    // publish before the locks are released
+                    MaterializedView.publishChanges(materializedViewChanges);
+                    materializedViewChanges = null;
+                }
                 markUsedTablesAsUpdated();
                 removeTemporaryLobs(true);
                 endTransaction();
@@ -843,6 +855,14 @@ public void rollbackTo(Savepoint savepoint) {
             }
             markUsedTablesAsUpdated();
         }
+        if (materializedViewChanges != null) {
+            int size = savepoint == null ? 0 : savepoint.materializedViewChangeIndex;
+            if (size == 0) {
+                materializedViewChanges = null;
+            } else {
+                materializedViewChanges.subList(size, materializedViewChanges.size()).clear();
+            }
+        }
         if (savepoints != null) {
             String[] names = savepoints.keySet().toArray(new String[0]);
             for (String name : names) {
@@ -875,6 +895,9 @@ public boolean hasPendingTransaction() {
     public Savepoint setSavepoint() {
         Savepoint sp = new Savepoint();
         sp.transactionSavepoint = getStatementSavepoint();
+        if (materializedViewChanges != null) {
+            sp.materializedViewChangeIndex = materializedViewChanges.size();
+        }
         return sp;
     }
 
@@ -962,6 +985,21 @@ public void registerTableAsUpdated(Table table) {
         }
     }
 
+    /**
+     * Remember a change of a row of a table with materialized views that
+     * capture changes for incremental refresh.
+     *
+     * @param table the table
+     * @param row the added or removed row
+     * @param added whether the row was added
+     */
+    public void addMaterializedViewChange(Table table, Row row, boolean added) {
+        if (materializedViewChanges == null) {
+            materializedViewChanges = new ArrayList<>();
+        }
+        materializedViewChanges.add(new MaterializedView.Change(table, row, added));
+    }
+
     /**
      * Checks if table was updated within current transaction.
      * @param table to check
@@ -1848,6 +1886,11 @@ public static class Savepoint {
          * The transaction savepoint id.
          */
         long transactionSavepoint;
+
+        /**
+         * The number of captured changes for materialized views.
+         */
+        int materializedViewChangeIndex;
     }
 
     /**
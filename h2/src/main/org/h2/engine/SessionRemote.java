@@ -74,6 +74,8 @@ public final class SessionRemote extends Session implements DataHandler {
     public static final int SESSION_PREPARE_READ_PARAMS2 = 18;
     public static final int GET_JDBC_META = 19;
     public static final int COMMAND_EXECUTE_BATCH_UPDATE = 20;
+    public static final int LOB_STREAM = 21;
+    public static final int SESSION_PREPARE_SHARED = 22;
 
     public static final int STATUS_ERROR = 0;
     public static final int STATUS_OK = 1;
@@ -784,6 +786,9 @@ public int readLob(long lobId, byte[] hmac, long offset, byte[] buff, int off, i
             for (int i = 0, count = 0; i < transferList.size(); i++) {
                 Transfer transfer = transferList.get(i);
                 try {
+                    if (transfer.getVersion() >= Constants.TCP_PROTOCOL_VERSION_22) {
+                        return streamLob(transfer, lobId, hmac, offset, buff, off, length);
+                    }
                     traceOperation("LOB_READ", (int) lobId);
                     transfer.writeInt(SessionRemote.LOB_READ);
                     transfer.writeLong(lobId);
@@ -807,6 +812,31 @@ public int readLob(long lobId, byte[] hmac, long offset, byte[] buff, int off, i
         }
     }
 
+    /**
+     * Reads LOB data with a single request. The server sends the data in
+     * frames until the requested length or the end of the LOB is reached,
+     * the requested length limits the amount of data in flight.
+     */
+    private int streamLob(Transfer transfer, long lobId, byte[] hmac, long offset, byte[] buff, int off,
+            int length) throws IOException {
+        traceOperation("LOB_STREAM", (int) lobId);
+        transfer.writeInt(SessionRemote.LOB_STREAM);
+        transfer.writeLong(lobId);
+        transfer.writeBytes(hmac);
+        transfer.writeLong(offset);
+        transfer.writeInt(length);
+        done(transfer);
+        int result = 0;
+        for (int frame; (frame = transfer.readInt()) != 0;) {
+            if (frame < 0) {
+                throw readException(transfer);
+            }
+            transfer.readBytes(buff, off + result, frame);
+            result += frame;
+        }
+        return result;
+    }
+
     @Override
     public JavaObjectSerializer getJavaObjectSerializer() {
         if (dynamicSettings == null) {
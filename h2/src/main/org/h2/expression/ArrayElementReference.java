@@ -9,8 +9,6 @@
 import org.h2.engine.SessionLocal;
 import org.h2.message.DbException;
 import org.h2.mvstore.db.Store;
-import org.h2.util.json.JSONArray;
-import org.h2.util.json.JSONValue;
 import org.h2.value.TypeInfo;
 import org.h2.value.Value;
 import org.h2.value.ValueArray;
@@ -46,12 +44,9 @@ public Value getValue(SessionLocal session) {
                 }
                 throw DbException.get(ErrorCode.ARRAY_ELEMENT_ERROR_2, Integer.toString(element), "1.." + cardinality);
             } else {
-                JSONValue value = l.convertToAnyJson().getDecomposition();
-                if (value instanceof JSONArray) {
-                    JSONValue jsonValue = ((JSONArray) value).getElement(element - 1);
-                    if (jsonValue != null) {
-                        return ValueJson.fromJson(jsonValue);
-                    }
+                ValueJson jsonValue = l.convertToAnyJson().getElement(element - 1);
+                if (jsonValue != null) {
+                    return jsonValue;
                 }
             }
         }
@@ -131,11 +131,13 @@ public ExpressionColumn(Database database, String schemaName, String tableAlias)
 
     @Override
     public StringBuilder getUnenclosedSQL(StringBuilder builder, int sqlFlags) {
-        if (schemaName != null) {
-            ParserUtil.quoteIdentifier(builder, schemaName, sqlFlags).append('.');
-        }
-        if (tableAlias != null) {
-            ParserUtil.quoteIdentifier(builder, tableAlias, sqlFlags).append('.');
+        if ((sqlFlags & NO_QUALIFIERS) == 0) {
+            if (schemaName != null) {
+                ParserUtil.quoteIdentifier(builder, schemaName, sqlFlags).append('.');
+            }
+            if (tableAlias != null) {
+                ParserUtil.quoteIdentifier(builder, tableAlias, sqlFlags).append('.');
+            }
         }
         if (column != null) {
             if (columnResolver != null && columnResolver.hasDerivedColumnList()) {
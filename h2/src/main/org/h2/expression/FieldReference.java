@@ -12,8 +12,6 @@
 import org.h2.message.DbException;
 import org.h2.mvstore.db.Store;
 import org.h2.util.ParserUtil;
-import org.h2.util.json.JSONObject;
-import org.h2.util.json.JSONValue;
 import org.h2.value.ExtTypeInfoRow;
 import org.h2.value.TypeInfo;
 import org.h2.value.Value;
@@ -47,12 +45,9 @@ public Value getValue(SessionLocal session) {
             if (ordinal >= 0) {
                 return ((ValueRow) l).getList()[ordinal];
             } else {
-                JSONValue value = l.convertToAnyJson().getDecomposition();
-                if (value instanceof JSONObject) {
-                    JSONValue jsonValue = ((JSONObject) value).getFirst(fieldName);
-                    if (jsonValue != null) {
-                        return ValueJson.fromJson(jsonValue);
-                    }
+                ValueJson member = l.convertToAnyJson().getMember(fieldName);
+                if (member != null) {
+                    return member;
                 }
             }
         }
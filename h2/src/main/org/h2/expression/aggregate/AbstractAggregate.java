@@ -19,6 +19,8 @@
 import org.h2.expression.analysis.WindowFrameBoundType;
 import org.h2.expression.analysis.WindowFrameExclusion;
 import org.h2.expression.analysis.WindowFrameUnits;
+import org.h2.message.DbException;
+import org.h2.result.SortOrder;
 import org.h2.table.ColumnResolver;
 import org.h2.table.TableFilter;
 import org.h2.value.TypeInfo;
@@ -155,6 +157,16 @@ protected void getOrderedResultLoop(SessionLocal session, HashMap<Integer, Value
                 return;
             }
         }
+        if (frame.getExclusion() == WindowFrameExclusion.EXCLUDE_NO_OTHERS) {
+            if (isInvertible()) {
+                aggregateSliding(session, result, ordered, rowIdColumn, grouped);
+                return;
+            }
+            if (isIdempotent()) {
+                aggregateSegmentTree(session, result, ordered, rowIdColumn, grouped);
+                return;
+            }
+        }
         // All other types of frames (slow)
         int size = ordered.size();
         for (int i = 0; i < size;) {
@@ -240,6 +252,84 @@ private void aggregateFastPartitionInReverse(SessionLocal session, HashMap<Integ
         }
     }
 
+    /**
+     * Aggregates frames by adding rows entering the frame to the aggregate data
+     * and by removing rows leaving it.
+     */
+    private void aggregateSliding(SessionLocal session, HashMap<Integer, Value> result,
+            ArrayList<Value[]> ordered, int rowIdColumn, boolean grouped) {
+        WindowFrame frame = over.getWindowFrame();
+        SortOrder sortOrder = getOverOrderBySort();
+        Object aggregateData = createAggregateData();
+        int size = ordered.size();
+        // Rows from first to last (inclusive) are in the aggregate data
+        int first = 0, last = -1;
+        for (int i = 0; i < size;) {
+            int start = frame.getStartIndex(session, ordered, sortOrder, i);
+            int end = WindowFrame.getEndIndex(over, session, ordered, sortOrder, i);
+            if (end < start) {
+                end = start - 1;
+            }
+            if (start < first || end < last || start > last + 1) {
+                // Frames with variable bounds may move backwards
+                aggregateData = createAggregateData();
+                first = start;
+                last = start - 1;
+            }
+            for (; first < start; first++) {
+                removeFromExpressions(session, aggregateData, ordered.get(first));
+            }
+            while (last < end) {
+                updateFromExpressions(session, aggregateData, ordered.get(++last));
+            }
+            Value r = getAggregatedValue(session, aggregateData);
+            i = processGroup(result, r, ordered, rowIdColumn, i, size, grouped);
+        }
+    }
+
+    /**
+     * Aggregates frames with a segment tree of partial values.
+     */
+    private void aggregateSegmentTree(SessionLocal session, HashMap<Integer, Value> result,
+            ArrayList<Value[]> ordered, int rowIdColumn, boolean grouped) {
+        WindowFrame frame = over.getWindowFrame();
+        SortOrder sortOrder = getOverOrderBySort();
+        int size = ordered.size();
+        Value[] tree = new Value[size << 1];
+        for (int i = 0; i < size; i++) {
+            Object aggregateData = createAggregateData();
+            updateFromExpressions(session, aggregateData, ordered.get(i));
+            tree[size + i] = getPartialValue(aggregateData);
+        }
+        for (int i = size - 1; i > 0; i--) {
+            Object aggregateData = createAggregateData();
+            addPartialValue(session, aggregateData, tree[i << 1]);
+            addPartialValue(session, aggregateData, tree[(i << 1) + 1]);
+            tree[i] = getPartialValue(aggregateData);
+        }
+        Value[] right = new Value[32];
+        for (int i = 0; i < size;) {
+            int start = frame.getStartIndex(session, ordered, sortOrder, i);
+            int end = WindowFrame.getEndIndex(over, session, ordered, sortOrder, i);
+            Object aggregateData = createAggregateData();
+            // Partial values are added from left to right
+            int rightCount = 0;
+            for (int l = start + size, r = end + size + 1; l < r; l >>>= 1, r >>>= 1) {
+                if ((l & 1) != 0) {
+                    addPartialValue(session, aggregateData, tree[l++]);
+                }
+                if ((r & 1) != 0) {
+                    right[rightCount++] = tree[--r];
+                }
+            }
+            while (rightCount > 0) {
+                addPartialValue(session, aggregateData, right[--rightCount]);
+            }
+            Value r = getAggregatedValue(session, aggregateData);
+            i = processGroup(result, r, ordered, rowIdColumn, i, size, grouped);
+        }
+    }
+
     private int processGroup(HashMap<Integer, Value> result, Value r, ArrayList<Value[]> ordered,
             int rowIdColumn, int i, int size, boolean grouped) {
         Value[] firstRowInGroup = ordered.get(i), currentRowInGroup = firstRowInGroup;
@@ -276,6 +366,74 @@ private void aggregateWholePartition(SessionLocal session, HashMap<Integer, Valu
      */
     protected abstract void updateFromExpressions(SessionLocal session, Object aggregateData, Value[] array);
 
+    /**
+     * Returns whether values can be removed from the aggregate data with
+     * {@link #removeFromExpressions(SessionLocal, Object, Value[])}.
+     *
+     * @return whether this aggregate is invertible
+     */
+    protected boolean isInvertible() {
+        return false;
+    }
+
+    /**
+     * Removes the values previously added with
+     * {@link #updateFromExpressions(SessionLocal, Object, Value[])} from the
+     * provided aggregate data. This method is supported only by invertible
+     * aggregates.
+     *
+     * @param session
+     *            the session
+     * @param aggregateData
+     *            aggregate data
+     * @param array
+     *            values of expressions
+     * @see #isInvertible()
+     */
+    protected void removeFromExpressions(SessionLocal session, Object aggregateData, Value[] array) {
+        throw DbException.getInternalError(getClass().getName());
+    }
+
+    /**
+     * Returns whether partial values of aggregate data can be added to other
+     * aggregate data, and adding of the same value multiple times doesn't
+     * change the result.
+     *
+     * @return whether this aggregate is idempotent
+     */
+    protected boolean isIdempotent() {
+        return false;
+    }
+
+    /**
+     * Returns the partial value of the provided aggregate data. This method is
+     * supported only by idempotent aggregates.
+     *
+     * @param aggregateData
+     *            aggregate data
+     * @return the partial value
+     * @see #isIdempotent()
+     */
+    protected Value getPartialValue(Object aggregateData) {
+        throw DbException.getInternalError(getClass().getName());
+    }
+
+    /**
+     * Adds a partial value of other aggregate data to the provided aggregate
+     * data. This method is supported only by idempotent aggregates.
+     *
+     * @param session
+     *            the session
+     * @param aggregateData
+     *            aggregate data
+     * @param partialValue
+     *            the partial value
+     * @see #isIdempotent()
+     */
+    protected void addPartialValue(SessionLocal session, Object aggregateData, Value partialValue) {
+        throw DbException.getInternalError(getClass().getName());
+    }
+
     @Override
     protected void updateAggregate(SessionLocal session, SelectGroups groupData, int groupRowId) {
         if (filterCondition == null || filterCondition.getBooleanValue(session)) {
@@ -417,6 +417,63 @@ protected void updateFromExpressions(SessionLocal session, Object aggregateData,
         }
     }
 
+    @Override
+    protected boolean isInvertible() {
+        if (distinct) {
+            return false;
+        }
+        switch (aggregateType) {
+        case COUNT_ALL:
+        case COUNT:
+            return true;
+        case SUM: {
+            // floating point sums depend on the order of operations
+            int valueType = type.getValueType();
+            return valueType == Value.BIGINT || valueType == Value.NUMERIC || DataType.isIntervalType(valueType);
+        }
+        case AVG: {
+            int valueType = type.getValueType();
+            return valueType == Value.NUMERIC || valueType == Value.DECFLOAT || DataType.isIntervalType(valueType);
+        }
+        default:
+            return false;
+        }
+    }
+
+    @Override
+    protected void removeFromExpressions(SessionLocal session, Object aggregateData, Value[] array) {
+        if (filterCondition == null || array[getNumExpressions() - 1].isTrue()) {
+            ((AggregateData) aggregateData).remove(session, args.length == 0 ? null : array[0]);
+        }
+    }
+
+    @Override
+    protected boolean isIdempotent() {
+        switch (aggregateType) {
+        case MIN:
+        case MAX:
+        case EVERY:
+        case ANY:
+        case BIT_AND_AGG:
+        case BIT_OR_AGG:
+        case BIT_NAND_AGG:
+        case BIT_NOR_AGG:
+            return true;
+        default:
+            return false;
+        }
+    }
+
+    @Override
+    protected Value getPartialValue(Object aggregateData) {
+        return ((AggregateDataDefault) aggregateData).getPartialValue();
+    }
+
+    @Override
+    protected void addPartialValue(SessionLocal session, Object aggregateData, Value partialValue) {
+        ((AggregateDataDefault) aggregateData).add(session, partialValue);
+    }
+
     @Override
     protected Object createAggregateData() {
         switch (aggregateType) {
@@ -6,6 +6,7 @@
 package org.h2.expression.aggregate;
 
 import org.h2.engine.SessionLocal;
+import org.h2.message.DbException;
 import org.h2.value.Value;
 
 /**
@@ -21,6 +22,17 @@ abstract class AggregateData {
      */
     abstract void add(SessionLocal session, Value v);
 
+    /**
+     * Remove a previously added value from this aggregate. This method is
+     * supported only by aggregates which are invertible.
+     *
+     * @param session the session
+     * @param v the value
+     */
+    void remove(SessionLocal session, Value v) {
+        throw DbException.getInternalError(getClass().getName());
+    }
+
     /**
      * Get the aggregate result.
      *
@@ -62,6 +62,25 @@ void add(SessionLocal session, Value v) {
         }
     }
 
+    @Override
+    void remove(SessionLocal session, Value v) {
+        if (v == ValueNull.INSTANCE) {
+            return;
+        }
+        count--;
+        switch (dataType.getValueType()) {
+        case Value.DOUBLE:
+            doubleValue -= v.getDouble();
+            break;
+        case Value.NUMERIC:
+        case Value.DECFLOAT:
+            decimalValue = decimalValue.subtract(v.getBigDecimal());
+            break;
+        default:
+            integerValue = integerValue.subtract(IntervalUtils.intervalToAbsolute((ValueInterval) v));
+        }
+    }
+
     @Override
     Value getValue(SessionLocal session) {
         if (count == 0) {
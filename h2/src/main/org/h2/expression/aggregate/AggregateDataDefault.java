@@ -21,6 +21,7 @@ final class AggregateDataDefault extends AggregateData {
     private final AggregateType aggregateType;
     private final TypeInfo dataType;
     private Value value;
+    private long count;
 
     /**
      * @param aggregateType the type of the aggregate operation
@@ -36,6 +37,7 @@ void add(SessionLocal session, Value v) {
         if (v == ValueNull.INSTANCE) {
             return;
         }
+        count++;
         switch (aggregateType) {
         case SUM:
             if (value == null) {
@@ -100,6 +102,33 @@ void add(SessionLocal session, Value v) {
         }
     }
 
+    @Override
+    void remove(SessionLocal session, Value v) {
+        if (v == ValueNull.INSTANCE) {
+            return;
+        }
+        if (aggregateType != AggregateType.SUM) {
+            throw DbException.getInternalError("type=" + aggregateType);
+        }
+        if (--count == 0L) {
+            value = null;
+        } else {
+            value = value.subtract(v.convertTo(value.getValueType()));
+        }
+    }
+
+    /**
+     * Returns the intermediate value of this aggregate. For idempotent
+     * aggregates, such as MIN or MAX, adding this value to another aggregate
+     * data is the same as adding all values added to this aggregate data.
+     *
+     * @return the intermediate value, or NULL if there were no values
+     */
+    Value getPartialValue() {
+        Value v = value;
+        return v != null ? v : ValueNull.INSTANCE;
+    }
+
     @SuppressWarnings("incomplete-switch")
     @Override
     Value getValue(SessionLocal session) {
@@ -68,7 +68,7 @@ static Index getColumnIndex(Database database, Expression on) {
             if (filter != null) {
                 boolean nullable = column.isNullable();
                 for (Index index : filter.getTable().getIndexes()) {
-                    if (index.canFindNext() && index.isFirstColumn(column)) {
+                    if (index.canFindNext() && index.isFirstColumn(column) && index.getPredicate() == null) {
                         // Prefer index without nulls last for nullable columns
                         if (result == null || result.getColumns().length > index.getColumns().length
                                 || nullable && isNullsLast(defaultNullOrdering, result)
@@ -5,6 +5,8 @@
  */
 package org.h2.expression.condition;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 import org.h2.api.ErrorCode;
@@ -16,8 +18,11 @@
 import org.h2.expression.SearchedCase;
 import org.h2.expression.TypedValueExpression;
 import org.h2.expression.ValueExpression;
+import org.h2.index.Index;
 import org.h2.index.IndexCondition;
+import org.h2.index.TrigramIndex;
 import org.h2.message.DbException;
+import org.h2.table.Column;
 import org.h2.table.ColumnResolver;
 import org.h2.table.TableFilter;
 import org.h2.value.CompareMode;
@@ -86,8 +91,11 @@ public enum LikeType {
     private boolean shortcutToStartsWith;
     /** indicates that we can shortcut the comparison and use endsWith */
     private boolean shortcutToEndsWith;
-    /** indicates that we can shortcut the comparison and use contains */
-    private boolean shortcutToContains;
+    /**
+     * literal parts of a pattern without '_' wildcards, for example, 'a',
+     * 'b', and 'c' for LIKE 'a%b%c', or {@code null}
+     */
+    private String[] segments;
 
     public CompareLike(Database db, Expression left, boolean not, boolean whenOperand, Expression right,
             Expression escape, LikeType likeType) {
@@ -219,12 +227,20 @@ private Character getEscapeChar(Value e) {
 
     @Override
     public void createIndexConditions(SessionLocal session, TableFilter filter) {
-        if (not || whenOperand || likeType == LikeType.REGEXP || !(left instanceof ExpressionColumn)) {
+        if (not || whenOperand || !(left instanceof ExpressionColumn)) {
             return;
         }
         ExpressionColumn l = (ExpressionColumn) left;
-        if (filter != l.getTableFilter() || !TypeInfo.haveSameOrdering(l.getType(),
-                ignoreCase ? TypeInfo.TYPE_VARCHAR_IGNORECASE : TypeInfo.TYPE_VARCHAR)) {
+        if (filter != l.getTableFilter()) {
+            return;
+        }
+        boolean ordered = likeType != LikeType.REGEXP && TypeInfo.haveSameOrdering(l.getType(),
+                ignoreCase ? TypeInfo.TYPE_VARCHAR_IGNORECASE : TypeInfo.TYPE_VARCHAR);
+        // characters may be equal to other characters only with the default
+        // compare mode
+        boolean trigram = (likeType == LikeType.REGEXP || compareMode.getName().equals(CompareMode.OFF))
+                && hasTrigramIndex(filter, l.getColumn());
+        if (!ordered && !trigram) {
             return;
         }
         // parameters are always evaluatable, but
@@ -250,7 +266,11 @@ public void createIndexConditions(SessionLocal session, TableFilter filter) {
         if (invalidPattern) {
             return;
         }
-        if (patternLength <= 0 || patternTypes[0] != MATCH) {
+        if (trigram) {
+            addContainsAllCondition(filter, l,
+                    likeType == LikeType.REGEXP ? getRegexpSubstrings(patternString) : getLikeSubstrings());
+        }
+        if (!ordered || patternLength <= 0 || patternTypes[0] != MATCH) {
             // can't use an index
             return;
         }
@@ -293,6 +313,265 @@ public void createIndexConditions(SessionLocal session, TableFilter filter) {
         }
     }
 
+    /**
+     * Returns whether the specified column is the first column of some trigram
+     * index of the table.
+     *
+     * @param filter the table filter
+     * @param column the column
+     * @return whether the column has a trigram index
+     */
+    private static boolean hasTrigramIndex(TableFilter filter, Column column) {
+        List<Index> indexes = filter.getTable().getIndexes();
+        if (indexes != null) {
+            for (Index index : indexes) {
+                if (index instanceof TrigramIndex && index.getColumns()[0] == column) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds an index condition for a trigram index, if the column has such
+     * index and at least one of substrings has 3 or more characters.
+     *
+     * @param filter the table filter
+     * @param column the column
+     * @param substrings the substrings which values of the column should
+     *            contain
+     */
+    public static void addContainsAllCondition(TableFilter filter, ExpressionColumn column,
+            ArrayList<String> substrings) {
+        ArrayList<Value> list = new ArrayList<>();
+        for (String substring : substrings) {
+            if (substring.length() >= 3) {
+                list.add(ValueVarchar.get(substring));
+            }
+        }
+        if (!list.isEmpty() && hasTrigramIndex(filter, column.getColumn())) {
+            filter.addIndexCondition(IndexCondition.getContainsAll(column, list.toArray(new Value[0])));
+        }
+    }
+
+    /**
+     * Returns literal parts of the initialized LIKE pattern.
+     *
+     * @return the literal parts
+     */
+    private ArrayList<String> getLikeSubstrings() {
+        ArrayList<String> list = new ArrayList<>();
+        for (int i = 0; i < patternLength; i++) {
+            if (patternTypes[i] == MATCH) {
+                int start = i;
+                while (i + 1 < patternLength && patternTypes[i + 1] == MATCH) {
+                    i++;
+                }
+                list.add(new String(patternChars, start, i + 1 - start));
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Returns substrings which must be present in all strings where the
+     * specified regular expression can be found. Only literal characters
+     * outside of groups and character classes are collected, a regular
+     * expression with alternatives or with special constructs has no
+     * substrings.
+     *
+     * @param regexp the regular expression
+     * @return the substrings
+     */
+    public static ArrayList<String> getRegexpSubstrings(String regexp) {
+        ArrayList<String> list = new ArrayList<>();
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0, l = regexp.length(); i < l;) {
+            char c = regexp.charAt(i++);
+            switch (c) {
+            case '|':
+                return new ArrayList<>();
+            case '(':
+                if (i < l && regexp.charAt(i) == '?') {
+                    // flags and special groups
+                    return new ArrayList<>();
+                }
+                flushSubstring(list, builder);
+                i = skipRegexpGroup(regexp, i);
+                if (i < 0) {
+                    return new ArrayList<>();
+                }
+                break;
+            case '[':
+                flushSubstring(list, builder);
+                i = skipRegexpClass(regexp, i);
+                if (i < 0) {
+                    return new ArrayList<>();
+                }
+                break;
+            case '\\':
+                if (i >= l) {
+                    return new ArrayList<>();
+                }
+                c = regexp.charAt(i++);
+                if (Character.isLetterOrDigit(c)) {
+                    // character classes, boundaries, back references, and
+                    // escaped characters
+                    flushSubstring(list, builder);
+                    i = skipRegexpEscape(regexp, c, i);
+                    if (i < 0) {
+                        return new ArrayList<>();
+                    }
+                } else if (Character.isSurrogate(c)) {
+                    flushSubstring(list, builder);
+                } else {
+                    builder.append(c);
+                }
+                break;
+            case '?':
+            case '*':
+                // the previous character is optional
+                removeLastChar(builder);
+                flushSubstring(list, builder);
+                break;
+            case '{':
+                removeLastChar(builder);
+                flushSubstring(list, builder);
+                i = regexp.indexOf('}', i);
+                if (i < 0) {
+                    return new ArrayList<>();
+                }
+                i++;
+                break;
+            case '+':
+            case '.':
+            case '^':
+            case '$':
+                flushSubstring(list, builder);
+                break;
+            default:
+                if (Character.isSurrogate(c)) {
+                    flushSubstring(list, builder);
+                } else {
+                    builder.append(c);
+                }
+            }
+        }
+        flushSubstring(list, builder);
+        return list;
+    }
+
+    private static void removeLastChar(StringBuilder builder) {
+        int length = builder.length();
+        if (length > 0) {
+            builder.setLength(length - 1);
+        }
+    }
+
+    private static void flushSubstring(ArrayList<String> list, StringBuilder builder) {
+        if (builder.length() > 0) {
+            list.add(builder.toString());
+            builder.setLength(0);
+        }
+    }
+
+    /**
+     * Skips a group of a regular expression.
+     *
+     * @param regexp the regular expression
+     * @param i the index after the opening parenthesis
+     * @return the index after the closing parenthesis, or -1
+     */
+    private static int skipRegexpGroup(String regexp, int i) {
+        for (int l = regexp.length(), depth = 1; i < l;) {
+            char c = regexp.charAt(i++);
+            if (c == '\\') {
+                i++;
+            } else if (c == '[') {
+                i = skipRegexpClass(regexp, i);
+                if (i < 0) {
+                    return -1;
+                }
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')' && --depth == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Skips a character class of a regular expression.
+     *
+     * @param regexp the regular expression
+     * @param i the index after the opening bracket
+     * @return the index after the closing bracket, or -1
+     */
+    private static int skipRegexpClass(String regexp, int i) {
+        int l = regexp.length();
+        if (i < l && regexp.charAt(i) == '^') {
+            i++;
+        }
+        if (i < l && regexp.charAt(i) == ']') {
+            // may be a literal character
+            return -1;
+        }
+        for (int depth = 1; i < l;) {
+            char c = regexp.charAt(i++);
+            if (c == '\\') {
+                i++;
+            } else if (c == '[') {
+                depth++;
+            } else if (c == ']' && --depth == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Skips arguments of an escape sequence of a regular expression.
+     *
+     * @param regexp the regular expression
+     * @param c the letter or digit after the backslash
+     * @param i the index after this character
+     * @return the index after the escape sequence, or -1 for unsupported
+     *         sequences
+     */
+    private static int skipRegexpEscape(String regexp, char c, int i) {
+        int l = regexp.length();
+        switch (c) {
+        case 'Q':
+            return -1;
+        case 'c':
+            return i + 1;
+        case 'u':
+            return i + 4;
+        case 'x':
+        case 'p':
+        case 'P':
+        case 'N':
+            if (i < l && regexp.charAt(i) == '{') {
+                i = regexp.indexOf('}', i);
+                return i < 0 ? -1 : i + 1;
+            }
+            return c == 'x' ? i + 2 : c == 'N' ? -1 : i + 1;
+        case 'k':
+            i = regexp.indexOf('>', i);
+            return i < 0 ? -1 : i + 1;
+        default:
+            if (c >= '0' && c <= '9') {
+                // octal escapes and back references
+                while (i < l && Character.isDigit(regexp.charAt(i))) {
+                    i++;
+                }
+            }
+            return i;
+        }
+    }
+
     @Override
     public Value getValue(SessionLocal session) {
         return getValue(session, left.getValue(session));
@@ -334,41 +613,68 @@ private Value getValue(SessionLocal session, Value left) {
         } else if (shortcutToEndsWith) {
             result = value.regionMatches(ignoreCase, value.length() -
                     patternLength + 1, patternString, 1, patternLength - 1);
-        } else if (shortcutToContains) {
-            String p = patternString.substring(1, patternString.length() - 1);
-            if (ignoreCase) {
-                result = containsIgnoreCase(value, p);
-            } else {
-                result = value.contains(p);
-            }
+        } else if (segments != null) {
+            result = matchSegments(value);
         } else {
             result = compareAt(value, 0, 0, value.length(), patternChars, patternTypes);
         }
         return ValueBoolean.get(not ^ result);
     }
 
-    private static boolean containsIgnoreCase(String src, String what) {
-        final int length = what.length();
-        if (length == 0) {
-            // Empty string is contained
-            return true;
+    /**
+     * Matches the value with literal parts of the pattern. The first and the
+     * last parts are anchored to the start and to the end of the value unless
+     * the pattern starts or ends with '%', other parts are searched from left
+     * to right.
+     *
+     * @param value the value
+     * @return true if the value matches
+     */
+    private boolean matchSegments(String value) {
+        String[] segments = this.segments;
+        int first = 0, last = segments.length, from = 0, to = value.length();
+        if (patternTypes[0] == MATCH) {
+            String s = segments[first++];
+            if (!value.regionMatches(ignoreCase, 0, s, 0, s.length())) {
+                return false;
+            }
+            from = s.length();
         }
+        if (patternTypes[patternLength - 1] == MATCH) {
+            String s = segments[--last];
+            int start = to - s.length();
+            if (start < from || !value.regionMatches(ignoreCase, start, s, 0, s.length())) {
+                return false;
+            }
+            to = start;
+        }
+        for (int i = first; i < last; i++) {
+            String s = segments[i];
+            int index = ignoreCase ? indexOfIgnoreCase(value, s, from, to) : value.indexOf(s, from);
+            if (index < 0 || index + s.length() > to) {
+                return false;
+            }
+            from = index + s.length();
+        }
+        return true;
+    }
 
-        final char firstLo = Character.toLowerCase(what.charAt(0));
-        final char firstUp = Character.toUpperCase(what.charAt(0));
-
-        for (int i = src.length() - length; i >= 0; i--) {
+    private static int indexOfIgnoreCase(String src, String what, int from, int to) {
+        int length = what.length();
+        char first = what.charAt(0);
+        // characters are equal ignoring case if these values are equal
+        char firstFolded = Character.toLowerCase(Character.toUpperCase(first));
+        for (int i = from, end = to - length; i <= end; i++) {
             // Quick check before calling the more expensive regionMatches()
-            final char ch = src.charAt(i);
-            if (ch != firstLo && ch != firstUp) {
+            char ch = src.charAt(i);
+            if (ch != first && Character.toLowerCase(Character.toUpperCase(ch)) != firstFolded) {
                 continue;
             }
             if (src.regionMatches(true, i, what, 0, length)) {
-                return true;
+                return i;
             }
         }
-
-        return false;
+        return -1;
     }
 
     private boolean compareAt(String s, int pi, int si, int sLen,
@@ -438,6 +744,9 @@ public boolean test(String value) {
         if (invalidPattern) {
             return false;
         }
+        if (segments != null) {
+            return matchSegments(value);
+        }
         return compareAt(value, 0, 0, value.length(), patternChars, patternTypes);
     }
 
@@ -511,7 +820,7 @@ public void initPattern(String p, Character escapeChar) {
         // Clear optimizations
         shortcutToStartsWith = false;
         shortcutToEndsWith = false;
-        shortcutToContains = false;
+        segments = null;
 
         // optimizes the common case of LIKE 'foo%'
         if (compareMode.getName().equals(CompareMode.OFF) && patternLength > 1) {
@@ -537,17 +846,21 @@ public void initPattern(String p, Character escapeChar) {
                 }
             }
         }
-        // optimizes the common case of LIKE '%foo%'
-        if (compareMode.getName().equals(CompareMode.OFF) && patternLength > 2) {
-            if (patternTypes[0] == ANY) {
-                int maxMatch = 1;
-                while (maxMatch < patternLength && patternTypes[maxMatch] == MATCH) {
-                    maxMatch++;
-                }
-                if (maxMatch == patternLength - 1 && patternTypes[patternLength - 1] == ANY) {
-                    shortcutToContains = true;
+        // optimizes other patterns without '_', such as LIKE '%foo%' or
+        // LIKE 'foo%bar%'
+        if (compareMode.getName().equals(CompareMode.OFF) && patternLength > 1) {
+            boolean hasAny = false;
+            for (int i = 0; i < patternLength; i++) {
+                int type = patternTypes[i];
+                if (type == ONE) {
+                    return;
+                } else if (type == ANY) {
+                    hasAny = true;
                 }
             }
+            if (hasAny) {
+                segments = getLikeSubstrings().toArray(new String[0]);
+            }
         }
     }
 
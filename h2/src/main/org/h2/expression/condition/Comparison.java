@@ -7,6 +7,7 @@
 
 import java.util.ArrayList;
 
+import org.h2.engine.Database;
 import org.h2.engine.SessionLocal;
 import org.h2.expression.Expression;
 import org.h2.expression.ExpressionColumn;
@@ -25,6 +26,7 @@
 import org.h2.value.DataType;
 import org.h2.value.TypeInfo;
 import org.h2.value.Value;
+import org.h2.value.ValueArray;
 import org.h2.value.ValueBoolean;
 import org.h2.value.ValueNull;
 import org.h2.value.ValueRow;
@@ -112,6 +114,18 @@ public final class Comparison extends Condition {
      */
     public static final int IN_QUERY = 12;
 
+    /**
+     * This is a pseudo comparison type that is only used for index conditions.
+     * It means contains all strings of an ARRAY. Example: LIKE '%abc%def%'.
+     */
+    public static final int CONTAINS_ALL = 13;
+
+    /**
+     * This is a pseudo comparison type that is only used for index conditions.
+     * It means contains any element of an ARRAY. Example: 1 = ANY(A).
+     */
+    public static final int CONTAINS_ANY = 14;
+
     private int compareType;
     private Expression left;
     private Expression right;
@@ -326,6 +340,8 @@ static Value compare(SessionLocal session, Value l, Value r, int compareType) {
         case SPATIAL_INTERSECTS: {
             if (l == ValueNull.INSTANCE || r == ValueNull.INSTANCE) {
                 result = ValueNull.INSTANCE;
+            } else if (l.getValueType() == Value.ARRAY && r.getValueType() == Value.ARRAY) {
+                result = ValueBoolean.get(overlaps(session, ((ValueArray) l).getList(), ((ValueArray) r).getList()));
             } else {
                 result = ValueBoolean.get(l.convertToGeometry(null).intersectsBoundingBox(r.convertToGeometry(null)));
             }
@@ -337,6 +353,27 @@ static Value compare(SessionLocal session, Value l, Value r, int compareType) {
         return result;
     }
 
+    /**
+     * Checks whether two arrays have a common non-null element.
+     *
+     * @param session the session
+     * @param a the first array
+     * @param b the second array
+     * @return whether arrays have a common element
+     */
+    private static boolean overlaps(SessionLocal session, Value[] a, Value[] b) {
+        for (Value x : a) {
+            if (x != ValueNull.INSTANCE) {
+                for (Value y : b) {
+                    if (y != ValueNull.INSTANCE && session.areEqual(x, y)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
     @Override
     public boolean isWhenConditionOperand() {
         return whenOperand;
@@ -436,8 +473,12 @@ static void createIndexConditions(TableFilter filter, Expression left, Expressio
                 r = null;
             }
         }
+        if (l == null && r == null) {
+            createIndexExpressionConditions(filter, left, right, compareType);
+            return;
+        }
         // one side must be from the current filter
-        if ((l == null) == (r == null)) {
+        if (l != null && r != null) {
             return;
         }
         if (l == null) {
@@ -457,7 +498,13 @@ static void createIndexConditions(TableFilter filter, Expression left, Expressio
         case SMALLER_EQUAL:
         case SMALLER:
         case SPATIAL_INTERSECTS:
-            if (l != null) {
+            if (compareType == SPATIAL_INTERSECTS && (l != null ? l : r).getType().getValueType() == Value.ARRAY) {
+                if (l != null) {
+                    ConditionInArray.addContainsAnyCondition(filter, l, right, false);
+                } else {
+                    ConditionInArray.addContainsAnyCondition(filter, r, left, false);
+                }
+            } else if (l != null) {
                 TypeInfo colType = l.getType();
                 if (TypeInfo.haveSameOrdering(colType, TypeInfo.getHigherType(colType, right.getType()))) {
                     filter.addIndexCondition(IndexCondition.get(compareType, l, right));
@@ -475,6 +522,40 @@ static void createIndexConditions(TableFilter filter, Expression left, Expressio
         }
     }
 
+    private static void createIndexExpressionConditions(TableFilter filter, Expression left, Expression right,
+            int compareType) {
+        switch (compareType) {
+        case EQUAL:
+        case EQUAL_NULL_SAFE:
+        case BIGGER:
+        case BIGGER_EQUAL:
+        case SMALLER_EQUAL:
+        case SMALLER:
+            break;
+        default:
+            return;
+        }
+        ExpressionVisitor visitor = ExpressionVisitor.getNotFromResolverVisitor(filter);
+        if (right.isEverything(visitor)) {
+            addIndexExpressionConditions(filter, filter.getIndexExpressionColumns(left), right, compareType);
+        } else if (left.isEverything(visitor)) {
+            addIndexExpressionConditions(filter, filter.getIndexExpressionColumns(right), left,
+                    getReversedCompareType(compareType));
+        }
+    }
+
+    private static void addIndexExpressionConditions(TableFilter filter, ArrayList<Column> columns,
+            Expression expression, int compareType) {
+        Database database = filter.getTable().getDatabase();
+        for (Column column : columns) {
+            TypeInfo colType = column.getType();
+            if (TypeInfo.haveSameOrdering(colType, TypeInfo.getHigherType(colType, expression.getType()))) {
+                filter.addIndexCondition(
+                        IndexCondition.get(compareType, new ExpressionColumn(database, column), expression));
+            }
+        }
+    }
+
     private static void createIndexConditions(TableFilter filter, ExpressionList left, ExpressionList right,
             int compareType) {
         int c = left.getSubexpressionCount();
@@ -8,6 +8,7 @@
 import java.util.ArrayList;
 import java.util.List;
 
+import org.h2.engine.Database;
 import org.h2.engine.SessionLocal;
 import org.h2.expression.Expression;
 import org.h2.expression.ExpressionColumn;
@@ -91,6 +92,11 @@ public final void createIndexConditions(SessionLocal session, TableFilter filter
                 // only use the first one.
                 // See: IndexCursor#canUseIndexForIn(Column)
             }
+        } else {
+            Database database = session.getDatabase();
+            for (Column column : filter.getIndexExpressionColumns(left)) {
+                createIndexConditions(filter, new ExpressionColumn(database, column), valueList);
+            }
         }
     }
 
@@ -7,6 +7,8 @@
 
 import java.util.AbstractList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 import org.h2.engine.SessionLocal;
 import org.h2.expression.Expression;
@@ -14,7 +16,10 @@
 import org.h2.expression.ExpressionVisitor;
 import org.h2.expression.Parameter;
 import org.h2.expression.ValueExpression;
+import org.h2.index.ArrayIndex;
+import org.h2.index.Index;
 import org.h2.index.IndexCondition;
+import org.h2.table.Column;
 import org.h2.table.ColumnResolver;
 import org.h2.table.TableFilter;
 import org.h2.value.TypeInfo;
@@ -165,13 +170,15 @@ public Expression optimize(SessionLocal session) {
 
     @Override
     public void createIndexConditions(SessionLocal session, TableFilter filter) {
-        if (whenOperand || all || compareType != Comparison.EQUAL || !(left instanceof ExpressionColumn)) {
+        if (whenOperand || all || compareType != Comparison.EQUAL) {
             return;
         }
-        ExpressionColumn l = (ExpressionColumn) left;
-        if (filter != l.getTableFilter()) {
+        if (!(left instanceof ExpressionColumn) || filter != ((ExpressionColumn) left).getTableFilter()) {
+            // value = ANY(arrayColumn)
+            addContainsAnyCondition(filter, right, left, true);
             return;
         }
+        ExpressionColumn l = (ExpressionColumn) left;
         if (right instanceof Parameter) {
             filter.addIndexCondition(IndexCondition.getInList(l, new ParameterList((Parameter) right)));
         } else if (right.isConstant()) {
@@ -210,6 +217,61 @@ public void createIndexConditions(SessionLocal session, TableFilter filter) {
         }
     }
 
+    /**
+     * Adds an index condition for an array index, if the specified array is a
+     * column of the table filter with such index.
+     *
+     * @param filter the table filter
+     * @param array the array
+     * @param elements the searched element if {@code single} is {@code true},
+     *            or the array with searched elements
+     * @param single whether only one element is searched
+     */
+    public static void addContainsAnyCondition(TableFilter filter, Expression array, Expression elements,
+            boolean single) {
+        if (!(array instanceof ExpressionColumn)) {
+            return;
+        }
+        ExpressionColumn column = (ExpressionColumn) array;
+        if (filter != column.getTableFilter() || !hasArrayIndex(filter, column.getColumn())
+                || !elements.isEverything(ExpressionVisitor.getNotFromResolverVisitor(filter))) {
+            return;
+        }
+        TypeInfo componentType = (TypeInfo) column.getType().getExtTypeInfo(), elementType = elements.getType();
+        if (!single) {
+            int valueType = elementType.getValueType();
+            if (valueType == Value.ARRAY) {
+                elementType = (TypeInfo) elementType.getExtTypeInfo();
+            } else if (valueType != Value.UNKNOWN && valueType != Value.NULL) {
+                return;
+            }
+        }
+        if (TypeInfo.haveSameOrdering(componentType, TypeInfo.getHigherType(componentType, elementType))) {
+            filter.addIndexCondition(single ? IndexCondition.getContainsAny(column, Collections.singletonList(elements))
+                    : IndexCondition.getContainsAny(column, elements));
+        }
+    }
+
+    /**
+     * Returns whether the specified column is the column of some array index
+     * of the table.
+     *
+     * @param filter the table filter
+     * @param column the column
+     * @return whether the column has an array index
+     */
+    private static boolean hasArrayIndex(TableFilter filter, Column column) {
+        List<Index> indexes = filter.getTable().getIndexes();
+        if (indexes != null) {
+            for (Index index : indexes) {
+                if (index instanceof ArrayIndex && index.getColumns()[0] == column) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     @Override
     public void setEvaluatable(TableFilter tableFilter, boolean value) {
         left.setEvaluatable(tableFilter, value);
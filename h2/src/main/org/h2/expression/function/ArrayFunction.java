@@ -12,8 +12,10 @@
 import org.h2.engine.Mode.ModeEnum;
 import org.h2.expression.Expression;
 import org.h2.expression.TypedValueExpression;
+import org.h2.expression.condition.ConditionInArray;
 import org.h2.message.DbException;
 import org.h2.mvstore.db.Store;
+import org.h2.table.TableFilter;
 import org.h2.value.TypeInfo;
 import org.h2.value.Value;
 import org.h2.value.ValueArray;
@@ -169,6 +171,13 @@ public Expression optimize(SessionLocal session) {
         return this;
     }
 
+    @Override
+    public void createIndexConditions(SessionLocal session, TableFilter filter) {
+        if (function == ARRAY_CONTAINS) {
+            ConditionInArray.addContainsAnyCondition(filter, args[0], args[1], true);
+        }
+    }
+
     @Override
     public String getName() {
         return NAMES[function];
@@ -109,6 +109,10 @@ public final class BuiltinFunctions {
                 "CSVREAD",
                 // LinkSchemaFunction
                 "LINK_SCHEMA",
+                // FullTextSearchFunction
+                "FULLTEXT_SEARCH",
+                // SpatialNearestFunction
+                "SPATIAL_NEAREST",
                 //
         };
         HashSet<String> set = new HashSet<>(128);
@@ -10,8 +10,6 @@
 import org.h2.expression.TypedValueExpression;
 import org.h2.message.DbException;
 import org.h2.util.MathUtils;
-import org.h2.util.json.JSONArray;
-import org.h2.util.json.JSONValue;
 import org.h2.value.TypeInfo;
 import org.h2.value.Value;
 import org.h2.value.ValueArray;
@@ -56,10 +54,8 @@ public Value getValue(SessionLocal session) {
             }
             switch (v.getValueType()) {
             case Value.JSON: {
-                JSONValue value = v.convertToAnyJson().getDecomposition();
-                if (value instanceof JSONArray) {
-                    result = ((JSONArray) value).length();
-                } else {
+                result = v.convertToAnyJson().getArrayLength();
+                if (result < 0) {
                     return ValueNull.INSTANCE;
                 }
                 break;
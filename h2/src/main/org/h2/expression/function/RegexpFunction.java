@@ -14,8 +14,12 @@
 import org.h2.engine.Mode.ModeEnum;
 import org.h2.engine.SessionLocal;
 import org.h2.expression.Expression;
+import org.h2.expression.ExpressionColumn;
+import org.h2.expression.ExpressionVisitor;
 import org.h2.expression.TypedValueExpression;
+import org.h2.expression.condition.CompareLike;
 import org.h2.message.DbException;
+import org.h2.table.TableFilter;
 import org.h2.value.TypeInfo;
 import org.h2.value.Value;
 import org.h2.value.ValueBoolean;
@@ -262,6 +266,21 @@ public Expression optimize(SessionLocal session) {
         return this;
     }
 
+    @Override
+    public void createIndexConditions(SessionLocal session, TableFilter filter) {
+        if (function != REGEXP_LIKE || !(args[0] instanceof ExpressionColumn)) {
+            return;
+        }
+        ExpressionColumn l = (ExpressionColumn) args[0];
+        if (filter != l.getTableFilter() || !args[1].isEverything(ExpressionVisitor.INDEPENDENT_VISITOR)) {
+            return;
+        }
+        Value v = args[1].getValue(session);
+        if (v != ValueNull.INSTANCE) {
+            CompareLike.addContainsAllCondition(filter, l, CompareLike.getRegexpSubstrings(v.getString()));
+        }
+    }
+
     @Override
     public String getName() {
         return NAMES[function];
@@ -6,23 +6,37 @@
 package org.h2.expression.function.table;
 
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 
 import org.h2.api.ErrorCode;
+import org.h2.engine.Database;
 import org.h2.engine.SessionLocal;
 import org.h2.expression.Expression;
+import org.h2.expression.ExpressionColumn;
 import org.h2.expression.function.CSVWriteFunction;
 import org.h2.message.DbException;
+import org.h2.result.LocalResult;
 import org.h2.result.ResultInterface;
 import org.h2.schema.FunctionAlias.JavaMethod;
+import org.h2.table.Column;
 import org.h2.tools.Csv;
 import org.h2.util.StringUtils;
+import org.h2.value.TypeInfo;
+import org.h2.value.Value;
+import org.h2.value.ValueNull;
+import org.h2.value.ValueVarchar;
 
 /**
  * A CSVREAD function.
  */
 public final class CSVReadFunction extends TableFunction {
 
+    /**
+     * The data type of columns.
+     */
+    private static final TypeInfo TYPE = TypeInfo.getTypeInfo(Value.VARCHAR, Integer.MAX_VALUE, 0, null);
+
     public CSVReadFunction() {
         super(new Expression[4]);
     }
@@ -49,10 +63,29 @@ public ResultInterface getValue(SessionLocal session) {
         char fieldSeparator = csv.getFieldSeparatorRead();
         String[] columns = StringUtils.arraySplit(columnList, fieldSeparator, true);
         try {
-            // TODO create result directly
-            return JavaMethod.resultSetToResult(session, csv.read(fileName, columns, charset), Integer.MAX_VALUE);
+            ResultSet rs = csv.read(fileName, columns, charset);
+            ResultSetMetaData meta = rs.getMetaData();
+            int columnCount = meta.getColumnCount();
+            Expression[] expressions = new Expression[columnCount];
+            Database db = session.getDatabase();
+            for (int i = 0; i < columnCount; i++) {
+                expressions[i] = new ExpressionColumn(db, new Column(meta.getColumnLabel(i + 1), TYPE));
+            }
+            LocalResult result = new LocalResult(session, expressions, columnCount, columnCount);
+            csv.readRows(row -> {
+                Value[] values = new Value[columnCount];
+                for (int i = 0; i < columnCount; i++) {
+                    String s = row[i];
+                    values[i] = s != null ? ValueVarchar.get(s, session) : ValueNull.INSTANCE;
+                }
+                return values;
+            }, result::addRow);
+            result.done();
+            return result;
         } catch (SQLException e) {
             throw DbException.convert(e);
+        } finally {
+            csv.close();
         }
     }
 
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2004-2025 H2 Group. Multiple-Licensed under the MPL 2.0,
+ * and the EPL 1.0 (https://h2database.com/html/license.html).
+ * Initial Developer: H2 Group
+ */
+package org.h2.expression.function.table;
+
+import org.h2.api.ErrorCode;
+import org.h2.command.Parser;
+import org.h2.engine.Right;
+import org.h2.engine.SessionLocal;
+import org.h2.expression.Expression;
+import org.h2.index.Index;
+import org.h2.message.DbException;
+import org.h2.mvstore.db.MVFullTextIndex;
+import org.h2.mvstore.db.MVFullTextIndex.Match;
+import org.h2.result.ResultInterface;
+import org.h2.result.SimpleResult;
+import org.h2.table.Table;
+import org.h2.value.TypeInfo;
+import org.h2.value.Value;
+import org.h2.value.ValueBigint;
+import org.h2.value.ValueDouble;
+import org.h2.value.ValueNull;
+
+/**
+ * A FULLTEXT_SEARCH function.
+ */
+public final class FullTextSearchFunction extends TableFunction {
+
+    public FullTextSearchFunction() {
+        super(new Expression[4]);
+    }
+
+    @Override
+    public ResultInterface getValue(SessionLocal session) {
+        SimpleResult result = getValueTemplate(session);
+        Value tableName = args[0].getValue(session), query = args[1].getValue(session);
+        Value limit = args.length > 2 ? args[2].getValue(session) : ValueNull.INSTANCE;
+        Value indexName = args.length > 3 ? args[3].getValue(session) : ValueNull.INSTANCE;
+        if (tableName == ValueNull.INSTANCE || query == ValueNull.INSTANCE) {
+            return result;
+        }
+        long l = 0L;
+        if (limit != ValueNull.INSTANCE) {
+            l = limit.getLong();
+            if (l < 0L) {
+                throw DbException.getInvalidValueException("limit", l);
+            }
+        }
+        Table table = new Parser(session).parseTableName(tableName.getString());
+        session.getUser().checkTableRight(table, Right.SELECT);
+        MVFullTextIndex index = getIndex(table, indexName == ValueNull.INSTANCE ? null : indexName.getString());
+        for (Match match : index.search(session, query.getString(), l)) {
+            result.addRow(ValueBigint.get(match.key), ValueDouble.get(match.score));
+        }
+        return result;
+    }
+
+    private static MVFullTextIndex getIndex(Table table, String indexName) {
+        MVFullTextIndex result = null;
+        for (Index index : table.getIndexes()) {
+            if (index instanceof MVFullTextIndex) {
+                if (indexName == null) {
+                    if (result != null) {
+                        // the table has more than one full-text index
+                        throw DbException.getInvalidValueException("index name", null);
+                    }
+                    result = (MVFullTextIndex) index;
+                } else if (index.getName().equals(indexName)) {
+                    return (MVFullTextIndex) index;
+                }
+            }
+        }
+        if (result == null) {
+            throw DbException.get(ErrorCode.INDEX_NOT_FOUND_1, indexName == null
+                    ? "FULLTEXT INDEX ON " + table.getTraceSQL()
+                    : "FULLTEXT INDEX " + indexName + " ON " + table.getTraceSQL());
+        }
+        return result;
+    }
+
+    @Override
+    public void optimize(SessionLocal session) {
+        super.optimize(session);
+        int len = args.length;
+        if (len < 2 || len > 4) {
+            throw DbException.get(ErrorCode.INVALID_PARAMETER_COUNT_2, getName(), "2..4");
+        }
+    }
+
+    @Override
+    public SimpleResult getValueTemplate(SessionLocal session) {
+        SimpleResult result = new SimpleResult();
+        result.addColumn("ROW_KEY", TypeInfo.TYPE_BIGINT);
+        result.addColumn("SCORE", TypeInfo.TYPE_DOUBLE);
+        return result;
+    }
+
+    @Override
+    public String getName() {
+        return "FULLTEXT_SEARCH";
+    }
+
+    @Override
+    public boolean isDeterministic() {
+        return false;
+    }
+
+}
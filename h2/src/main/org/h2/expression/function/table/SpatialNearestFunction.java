@@ -0,0 +1,98 @@
+/*
+ * Copyright 2004-2025 H2 Group. Multiple-Licensed under the MPL 2.0,
+ * and the EPL 1.0 (https://h2database.com/html/license.html).
+ * Initial Developer: H2 Group
+ */
+package org.h2.expression.function.table;
+
+import org.h2.api.ErrorCode;
+import org.h2.command.Parser;
+import org.h2.engine.Right;
+import org.h2.engine.SessionLocal;
+import org.h2.expression.Expression;
+import org.h2.index.Index;
+import org.h2.message.DbException;
+import org.h2.mvstore.db.MVSpatialIndex;
+import org.h2.mvstore.db.MVSpatialIndex.Neighbor;
+import org.h2.result.ResultInterface;
+import org.h2.result.SimpleResult;
+import org.h2.table.Column;
+import org.h2.table.Table;
+import org.h2.value.TypeInfo;
+import org.h2.value.Value;
+import org.h2.value.ValueBigint;
+import org.h2.value.ValueDouble;
+import org.h2.value.ValueNull;
+
+/**
+ * A SPATIAL_NEAREST function.
+ */
+public final class SpatialNearestFunction extends TableFunction {
+
+    public SpatialNearestFunction() {
+        super(new Expression[4]);
+    }
+
+    @Override
+    public ResultInterface getValue(SessionLocal session) {
+        SimpleResult result = getValueTemplate(session);
+        Value tableName = args[0].getValue(session), columnName = args[1].getValue(session),
+                geometry = args[2].getValue(session);
+        Value limit = args.length > 3 ? args[3].getValue(session) : ValueNull.INSTANCE;
+        if (tableName == ValueNull.INSTANCE || columnName == ValueNull.INSTANCE || geometry == ValueNull.INSTANCE) {
+            return result;
+        }
+        long l = 0L;
+        if (limit != ValueNull.INSTANCE) {
+            l = limit.getLong();
+            if (l < 0L) {
+                throw DbException.getInvalidValueException("limit", l);
+            }
+        }
+        Table table = new Parser(session).parseTableName(tableName.getString());
+        session.getUser().checkTableRight(table, Right.SELECT);
+        Column column = table.getColumn(columnName.getString());
+        for (Neighbor neighbor : getIndex(table, column).findNearest(session, geometry, l)) {
+            result.addRow(ValueBigint.get(neighbor.key), ValueDouble.get(neighbor.distance));
+        }
+        return result;
+    }
+
+    private static MVSpatialIndex getIndex(Table table, Column column) {
+        for (Index index : table.getIndexes()) {
+            if (index instanceof MVSpatialIndex && index.getColumns()[0] == column) {
+                return (MVSpatialIndex) index;
+            }
+        }
+        throw DbException.get(ErrorCode.INDEX_NOT_FOUND_1,
+                "SPATIAL INDEX ON " + table.getTraceSQL() + '(' + column.getTraceSQL() + ')');
+    }
+
+    @Override
+    public void optimize(SessionLocal session) {
+        super.optimize(session);
+        int len = args.length;
+        if (len < 3 || len > 4) {
+            throw DbException.get(ErrorCode.INVALID_PARAMETER_COUNT_2, getName(), "3..4");
+        }
+    }
+
+    @Override
+    public SimpleResult getValueTemplate(SessionLocal session) {
+        SimpleResult result = new SimpleResult();
+        result.addColumn("ROW_KEY", TypeInfo.TYPE_BIGINT);
+        result.addColumn("DISTANCE", TypeInfo.TYPE_DOUBLE);
+        return result;
+    }
+
+    @Override
+    public String getName() {
+        return "SPATIAL_NEAREST";
+    }
+
+    @Override
+    public boolean isDeterministic() {
+        return false;
+    }
+
+}
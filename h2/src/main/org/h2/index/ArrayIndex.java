@@ -0,0 +1,30 @@
+/*
+ * Copyright 2004-2025 H2 Group. Multiple-Licensed under the MPL 2.0,
+ * and the EPL 1.0 (https://h2database.com/html/license.html).
+ * Initial Developer: H2 Group
+ */
+package org.h2.index;
+
+import org.h2.engine.SessionLocal;
+import org.h2.value.Value;
+
+/**
+ * An array index. Array indexes store each element of arrays separately and
+ * are used to speed up searching for arrays with specified elements, such as
+ * with {@code 1 = ANY(A)} or {@code A && ARRAY[1, 2]}.
+ */
+public interface ArrayIndex {
+
+    /**
+     * Find rows which arrays contain at least one of the specified elements
+     * and create a cursor to iterate over the result. Each row is returned
+     * only once. The cursor may also return other rows, so the condition
+     * needs to be checked again.
+     *
+     * @param session the session
+     * @param elements the elements
+     * @return the cursor to iterate over the results
+     */
+    Cursor findByElements(SessionLocal session, Value[] elements);
+
+}
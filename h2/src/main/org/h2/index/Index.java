@@ -18,6 +18,7 @@
 import org.h2.message.DbException;
 import org.h2.message.Trace;
 import org.h2.mode.DefaultNullOrdering;
+import org.h2.result.DefaultRow;
 import org.h2.result.Row;
 import org.h2.result.RowFactory;
 import org.h2.result.SearchRow;
@@ -86,6 +87,8 @@ protected static void checkIndexColumnTypes(IndexColumn[] columns) {
 
     private final RowFactory uniqueRowFactory;
 
+    private final boolean hasExpressionColumns;
+
     /**
      * Initialize the index.
      *
@@ -103,6 +106,8 @@ protected Index(Table newTable, int id, String name, IndexColumn[] newIndexColum
         this.uniqueColumnColumn = uniqueColumnCount;
         this.indexType = newIndexType;
         this.table = newTable;
+        Column[] tableColumns = table.getColumns();
+        boolean hasExpressionColumns = false;
         if (newIndexColumns != null) {
             this.indexColumns = newIndexColumns;
             columns = new Column[newIndexColumns.length];
@@ -111,12 +116,22 @@ protected Index(Table newTable, int id, String name, IndexColumn[] newIndexColum
             for (int i = 0; i < len; i++) {
                 Column col = newIndexColumns[i].column;
                 columns[i] = col;
-                columnIds[i] = col.getColumnId();
+                int columnId = col.getColumnId();
+                columnIds[i] = columnId;
+                if (col.getIndexExpression() != null) {
+                    // values of expressions are stored after values of table
+                    // columns
+                    if (columnId >= tableColumns.length) {
+                        tableColumns = Arrays.copyOf(tableColumns, columnId + 1);
+                    }
+                    tableColumns[columnId] = col;
+                    hasExpressionColumns = true;
+                }
             }
         }
+        this.hasExpressionColumns = hasExpressionColumns;
         RowFactory databaseRowFactory = database.getRowFactory();
         CompareMode compareMode = database.getCompareMode();
-        Column[] tableColumns = table.getColumns();
         rowFactory = databaseRowFactory.createRowFactory(database, compareMode, database, tableColumns,
                 newIndexType.isScan() ? null : newIndexColumns, true);
         RowFactory uniqueRowFactory;
@@ -157,7 +172,12 @@ public String getCreateSQLForCopy(Table targetTable, String quotedName) {
             builder.append(" COMMENT ");
             StringUtils.quoteStringSQL(builder, comment);
         }
-        return getColumnListSQL(builder, DEFAULT_SQL_FLAGS).toString();
+        getColumnListSQL(builder, DEFAULT_SQL_FLAGS);
+        IndexPredicate predicate = getPredicate();
+        if (predicate != null) {
+            predicate.getSQL(builder.append(" WHERE "), DEFAULT_SQL_FLAGS);
+        }
+        return builder.toString();
     }
 
 
@@ -170,9 +190,11 @@ public String getCreateSQLForCopy(Table targetTable, String quotedName) {
     private StringBuilder getColumnListSQL(StringBuilder builder, int sqlFlags) {
         builder.append('(');
         int length = indexColumns.length;
-        if (uniqueColumnColumn > 0 && uniqueColumnColumn < length) {
-            IndexColumn.writeColumns(builder, indexColumns, 0, uniqueColumnColumn, sqlFlags).append(") INCLUDE(");
-            IndexColumn.writeColumns(builder, indexColumns, uniqueColumnColumn, length, sqlFlags);
+        int keyColumnCount = uniqueColumnColumn > 0 ? uniqueColumnColumn
+                : length - indexType.getIncludedColumnCount();
+        if (keyColumnCount > 0 && keyColumnCount < length) {
+            IndexColumn.writeColumns(builder, indexColumns, 0, keyColumnCount, sqlFlags).append(") INCLUDE(");
+            IndexColumn.writeColumns(builder, indexColumns, keyColumnCount, length, sqlFlags);
         } else {
             IndexColumn.writeColumns(builder, indexColumns, 0, length, sqlFlags);
         }
@@ -239,6 +261,44 @@ public boolean isFindUsingFullTableScan() {
         return false;
     }
 
+    /**
+     * Returns the predicate of a partial index.
+     *
+     * @return the predicate, or {@code null} if all rows of the table are
+     *         indexed
+     */
+    public IndexPredicate getPredicate() {
+        return null;
+    }
+
+    /**
+     * Check whether this index contains all rows that may be selected by the
+     * specified table filter.
+     *
+     * @param session the session
+     * @param filter the table filter
+     * @return {@code true} if this index isn't partial or its predicate is
+     *         implied by the conditions of the filter
+     */
+    public final boolean canBeUsedBy(SessionLocal session, TableFilter filter) {
+        IndexPredicate predicate = getPredicate();
+        return predicate == null || filter != null && predicate.isImpliedBy(session, filter);
+    }
+
+    /**
+     * Returns {@code true} if {@code find()} implementation accepts bounds for
+     * the specified column even if it is not an index column and uses them to
+     * skip ranges of rows that can not match. Rows returned by such index are
+     * not filtered by these bounds.
+     *
+     * @param column the column
+     * @return {@code true} if bounds for the column may reduce the number of
+     *         scanned rows
+     */
+    public boolean canSkipRowsBy(Column column) {
+        return false;
+    }
+
     /**
      * Find a row or a list of rows and create a cursor to iterate over the
      * result.
@@ -585,8 +645,7 @@ protected final long getCostRangeIndex(int[] masks, long rowCount, TableFilter[]
             boolean tryAdditional = false;
             while (i < len) {
                 Column column = columns[i++];
-                int index = column.getColumnId();
-                int mask = masks[index];
+                int mask = getMask(masks, column, filters, filter);
                 if ((mask & IndexCondition.EQUALITY) == IndexCondition.EQUALITY) {
                     if (i > 0 && i == uniqueColumnColumn) {
                         rowsCost = 3;
@@ -625,7 +684,7 @@ protected final long getCostRangeIndex(int[] masks, long rowCount, TableFilter[]
             }
             // Some additional columns can still be used
             if (tryAdditional) {
-                while (i < len && masks[columns[i].getColumnId()] != 0) {
+                while (i < len && getMask(masks, columns[i], filters, filter) != 0) {
                     i++;
                     rowsCost--;
                 }
@@ -793,4 +852,47 @@ public RowFactory getUniqueRowFactory() {
         return uniqueRowFactory;
     }
 
+    /**
+     * Returns whether some columns of this index are computed from
+     * expressions.
+     *
+     * @return whether this index has expression columns
+     */
+    public final boolean hasExpressionColumns() {
+        return hasExpressionColumns;
+    }
+
+    private static int getMask(int[] masks, Column column, TableFilter[] filters, int filter) {
+        int index = column.getColumnId();
+        if (index < masks.length) {
+            // substrings and elements can be searched only in trigram and array indexes
+            return masks[index] & ~(IndexCondition.CONTAINS_ALL | IndexCondition.CONTAINS_ANY);
+        }
+        // masks don't have entries for expression columns, because different
+        // indexes may use the same ids for different expressions
+        int mask = 0;
+        if (filters != null) {
+            ArrayList<IndexCondition> indexConditions = filters[filter].getIndexConditions();
+            for (IndexCondition condition : indexConditions) {
+                if (condition.isEvaluatable() && !condition.isCompoundColumns() && condition.getColumn() == column) {
+                    mask |= condition.getMask(indexConditions);
+                }
+            }
+        }
+        return mask & ~(IndexCondition.CONTAINS_ALL | IndexCondition.CONTAINS_ANY);
+    }
+
+    /**
+     * Create an empty search row for this index. Search rows of indexes with
+     * expression columns have values of these columns after values of table
+     * columns.
+     *
+     * @return the search row
+     */
+    public final SearchRow createSearchRow() {
+        return hasExpressionColumns
+                ? table.createRow(new Value[rowFactory.getColumnCount()], DefaultRow.MEMORY_CALCULATE)
+                : table.getTemplateRow();
+    }
+
 }
@@ -26,6 +26,7 @@
 import org.h2.table.Column;
 import org.h2.table.IndexColumn;
 import org.h2.table.TableType;
+import org.h2.value.TypeInfo;
 import org.h2.value.Value;
 import org.h2.value.ValueArray;
 import org.h2.value.ValueRow;
@@ -71,6 +72,16 @@ public class IndexCondition {
      */
     public static final int SPATIAL_INTERSECTS = 16;
 
+    /**
+     * A bit of a search mask meaning 'contains all substrings'.
+     */
+    public static final int CONTAINS_ALL = 32;
+
+    /**
+     * A bit of a search mask meaning 'contains any element'.
+     */
+    public static final int CONTAINS_ANY = 64;
+
     private final Column column;
     private final Column[] columns;
     private final boolean compoundColumns;
@@ -155,6 +166,40 @@ public static IndexCondition getInArray(ExpressionColumn column, Expression arra
         return new IndexCondition(Comparison.IN_ARRAY, column, null, array, null, null);
     }
 
+    /**
+     * Create an index condition with the compare type CONTAINS_ALL and with the given parameters.
+     *
+     * @param column the column
+     * @param substrings the substrings which values should contain
+     * @return the index condition
+     */
+    public static IndexCondition getContainsAll(ExpressionColumn column, Value[] substrings) {
+        return new IndexCondition(Comparison.CONTAINS_ALL, column, null,
+                ValueExpression.get(ValueArray.get(TypeInfo.TYPE_VARCHAR, substrings, null)), null, null);
+    }
+
+    /**
+     * Create an index condition with the compare type CONTAINS_ANY and with the given parameters.
+     *
+     * @param column the array column
+     * @param array the array with elements, one of which values should contain
+     * @return the index condition
+     */
+    public static IndexCondition getContainsAny(ExpressionColumn column, Expression array) {
+        return new IndexCondition(Comparison.CONTAINS_ANY, column, null, array, null, null);
+    }
+
+    /**
+     * Create an index condition with the compare type CONTAINS_ANY and with the given parameters.
+     *
+     * @param column the array column
+     * @param list the list of elements, one of which values should contain
+     * @return the index condition
+     */
+    public static IndexCondition getContainsAny(ExpressionColumn column, List<Expression> list) {
+        return new IndexCondition(Comparison.CONTAINS_ANY, column, null, null, list, null);
+    }
+
     /**
      * Create an index condition with the compare type IN_QUERY and with the given parameters.
      *
@@ -307,6 +352,16 @@ private StringBuilder buildSql(int sqlFlags, Column column, StringBuilder builde
         case Comparison.SPATIAL_INTERSECTS:
             builder.append(" && ");
             break;
+        case Comparison.CONTAINS_ALL:
+            builder.append(" CONTAINS ALL ");
+            break;
+        case Comparison.CONTAINS_ANY:
+            if (expressionList != null) {
+                return Expression.writeExpressions(builder.append(" CONTAINS ANY("), expressionList, sqlFlags)
+                        .append(')');
+            }
+            builder.append(" CONTAINS ANY ");
+            break;
         default:
             throw DbException.getInternalError("type=" + compareType);
         }
@@ -362,6 +417,10 @@ else if (TableType.TABLE != getColumn().getTable().getTableType()) {
             return END;
         case Comparison.SPATIAL_INTERSECTS:
             return SPATIAL_INTERSECTS;
+        case Comparison.CONTAINS_ALL:
+            return CONTAINS_ALL;
+        case Comparison.CONTAINS_ANY:
+            return CONTAINS_ANY;
         default:
             throw DbException.getInternalError("type=" + compareType);
         }
@@ -6,8 +6,11 @@
 package org.h2.index;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import org.h2.engine.SessionLocal;
+import org.h2.expression.Expression;
 import org.h2.expression.condition.Comparison;
 import org.h2.message.DbException;
 import org.h2.result.ResultInterface;
@@ -18,6 +21,7 @@
 import org.h2.table.IndexColumn;
 import org.h2.table.Table;
 import org.h2.value.Value;
+import org.h2.value.ValueArray;
 import org.h2.value.ValueGeometry;
 import org.h2.value.ValueNull;
 import org.h2.value.ValueRow;
@@ -40,6 +44,8 @@ public class IndexCursor implements Cursor {
     private boolean alwaysFalse;
 
     private SearchRow start, end, intersects;
+    private ArrayList<String> substrings;
+    private Value[] elements;
     private Cursor cursor;
     /**
      * Contains a {@link Column} or {@code Column[]} depending on the condition type.
@@ -67,6 +73,14 @@ public void setIndex(Index index, boolean reverse) {
                     indexColumns[i] = idxCols[idx];
                 }
             }
+            if (index.hasExpressionColumns()) {
+                indexColumns = Arrays.copyOf(indexColumns, index.getRowFactory().getColumnCount());
+                for (IndexColumn idxCol : idxCols) {
+                    if (idxCol.column.getIndexExpression() != null) {
+                        indexColumns[idxCol.column.getColumnId()] = idxCol;
+                    }
+                }
+            }
         }
     }
 
@@ -84,6 +98,8 @@ public void prepare(SessionLocal s, ArrayList<IndexCondition> indexConditions) {
         inColumn = null;
         inResult = null;
         intersects = null;
+        substrings = null;
+        elements = null;
         for (IndexCondition condition : indexConditions) {
             if (condition.isAlwaysFalse()) {
                 alwaysFalse = true;
@@ -129,6 +145,34 @@ public void prepare(SessionLocal s, ArrayList<IndexCondition> indexConditions) {
                     }
                 }
                 break;
+            case Comparison.CONTAINS_ALL: {
+                Value v = condition.getCurrentValue(s);
+                if (v instanceof ValueArray) {
+                    if (substrings == null) {
+                        substrings = new ArrayList<>();
+                    }
+                    for (Value e : ((ValueArray) v).getList()) {
+                        substrings.add(e.getString());
+                    }
+                }
+                break;
+            }
+            case Comparison.CONTAINS_ANY:
+                // only one set of elements can be searched
+                if (elements == null) {
+                    List<Expression> list = condition.getExpressionList();
+                    if (list != null) {
+                        int count = list.size();
+                        elements = new Value[count];
+                        for (int i = 0; i < count; i++) {
+                            elements[i] = list.get(i).getValue(s);
+                        }
+                    } else {
+                        Value v = condition.getCurrentValue(s);
+                        elements = v instanceof ValueArray ? ((ValueArray) v).getList() : Value.EMPTY_VALUES;
+                    }
+                }
+                break;
             default:
                 Value v = condition.getCurrentValue(s);
                 boolean isStart = condition.isStart();
@@ -166,7 +210,7 @@ public void prepare(SessionLocal s, ArrayList<IndexCondition> indexConditions) {
             }
         }
         if (inColumn != null) {
-            start = table.getTemplateRow();
+            start = index.createSearchRow();
         }
     }
 
@@ -203,6 +247,10 @@ public void find(SessionLocal s, ArrayList<IndexCondition> indexConditions) {
             }
             if (intersects != null && index instanceof SpatialIndex) {
                 cursor = ((SpatialIndex) index).findByGeometry(session, first, last, reverse, intersects);
+            } else if (substrings != null && index instanceof TrigramIndex) {
+                cursor = ((TrigramIndex) index).findBySubstrings(session, substrings.toArray(new String[0]));
+            } else if (elements != null && index instanceof ArrayIndex) {
+                cursor = ((ArrayIndex) index).findByElements(session, elements);
             } else if (index != null) {
                 cursor = index.find(session, first, last, reverse);
             }
@@ -260,7 +308,7 @@ public static boolean canUseIndexForIn(Index index, Column[] columns) {
 
     private SearchRow getSpatialSearchRow(SearchRow row, int columnId, Value v) {
         if (row == null) {
-            row = table.getTemplateRow();
+            row = index.createSearchRow();
         } else if (row.getValue(columnId) != null) {
             // if an object needs to overlap with both a and b,
             // then it needs to overlap with the union of a and b
@@ -278,7 +326,7 @@ private SearchRow getSpatialSearchRow(SearchRow row, int columnId, Value v) {
 
     private SearchRow getSearchRow(SearchRow row, int columnId, Value v, boolean max) {
         if (row == null) {
-            row = table.getTemplateRow();
+            row = index.createSearchRow();
         } else {
             v = getMax(row.getValue(columnId), v, max);
         }
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2004-2025 H2 Group. Multiple-Licensed under the MPL 2.0,
+ * and the EPL 1.0 (https://h2database.com/html/license.html).
+ * Initial Developer: H2 Group
+ */
+package org.h2.index;
+
+import java.util.HashSet;
+
+import org.h2.engine.DbObject;
+import org.h2.engine.SessionLocal;
+import org.h2.expression.ArrayConstructorByQuery;
+import org.h2.expression.Expression;
+import org.h2.expression.ExpressionColumn;
+import org.h2.expression.ExpressionVisitor;
+import org.h2.expression.Subquery;
+import org.h2.expression.condition.ConditionInQuery;
+import org.h2.expression.condition.ExistsPredicate;
+import org.h2.expression.condition.UniquePredicate;
+import org.h2.message.DbException;
+import org.h2.result.Row;
+import org.h2.table.Column;
+import org.h2.table.ColumnResolver;
+import org.h2.table.Table;
+import org.h2.table.TableFilter;
+import org.h2.util.HasSQL;
+import org.h2.value.Value;
+
+/**
+ * The expression of an index column. Values of such column are computed from
+ * other columns of the row when the row is added to the index.
+ */
+public final class IndexExpression {
+
+    private final IndexRowResolver resolver;
+
+    private final Expression expression;
+
+    private final HashSet<Column> columns;
+
+    /**
+     * Creates an expression of an index column.
+     *
+     * @param session the session
+     * @param table the indexed table
+     * @param expression the expression, not yet mapped to the table
+     * @throws DbException if the expression isn't deterministic, depends on
+     *             other tables, or doesn't reference columns of the table
+     */
+    public IndexExpression(SessionLocal session, Table table, Expression expression) {
+        resolver = new IndexRowResolver(new TableFilter(session, table, null, false, null, 0, null));
+        this.expression = map(session, table, resolver, expression, "index expression");
+        columns = new HashSet<>();
+        this.expression.isEverything(ExpressionVisitor.getColumnsVisitor(columns, table));
+        if (columns.isEmpty()) {
+            throw DbException.getUnsupportedException(
+                    "constant index expression " + this.expression.getTraceSQL());
+        }
+    }
+
+    /**
+     * Maps the expression to the specified resolver and checks that it can be
+     * evaluated for each row independently.
+     *
+     * @param session the session
+     * @param table the indexed table
+     * @param resolver the column resolver of the indexed table
+     * @param expression the expression, not yet mapped to the table
+     * @param kind the kind of the expression for error messages
+     * @return the optimized expression
+     * @throws DbException if the expression isn't deterministic, contains
+     *             subqueries, or depends on other tables
+     */
+    static Expression map(SessionLocal session, Table table, ColumnResolver resolver, Expression expression,
+            String kind) {
+        expression.mapColumns(resolver, 0, Expression.MAP_INITIAL);
+        expression = expression.optimize(session);
+        if (!expression.isEverything(ExpressionVisitor.DETERMINISTIC_VISITOR)) {
+            throw DbException.getUnsupportedException("non-deterministic " + kind + ' ' + expression.getTraceSQL());
+        }
+        if (hasSubquery(expression)) {
+            // rows are evaluated by different sessions concurrently
+            throw DbException.getUnsupportedException(kind + " with subquery " + expression.getTraceSQL());
+        }
+        HashSet<DbObject> dependencies = new HashSet<>();
+        expression.isEverything(ExpressionVisitor.getDependenciesVisitor(dependencies));
+        for (DbObject dependency : dependencies) {
+            if (dependency instanceof Table && dependency != table) {
+                throw DbException.getUnsupportedException(kind + " on other tables " + expression.getTraceSQL());
+            }
+        }
+        return expression;
+    }
+
+    private static boolean hasSubquery(Expression e) {
+        if (e instanceof Subquery || e instanceof ArrayConstructorByQuery || e instanceof ConditionInQuery
+                || e instanceof ExistsPredicate || e instanceof UniquePredicate) {
+            return true;
+        }
+        for (int i = 0, l = e.getSubexpressionCount(); i < l; i++) {
+            if (hasSubquery(e.getSubexpression(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the expression.
+     *
+     * @return the expression
+     */
+    public Expression getExpression() {
+        return expression;
+    }
+
+    /**
+     * Returns the table column if the expression is a plain column reference.
+     *
+     * @return the column, or {@code null}
+     */
+    public Column getPlainColumn() {
+        return expression instanceof ExpressionColumn ? ((ExpressionColumn) expression).getColumn() : null;
+    }
+
+    /**
+     * Get the columns referenced by the expression.
+     *
+     * @return the columns
+     */
+    public HashSet<Column> getColumns() {
+        return columns;
+    }
+
+    /**
+     * Append the SQL of the expression. Column references are not qualified,
+     * so the same SQL is returned for all equal expressions on the table.
+     *
+     * @param builder the string builder
+     * @param sqlFlags formatting flags
+     * @return the specified string builder
+     */
+    public StringBuilder getSQL(StringBuilder builder, int sqlFlags) {
+        return expression.getUnenclosedSQL(builder, sqlFlags | HasSQL.NO_QUALIFIERS);
+    }
+
+    /**
+     * Compute the value of the expression for the specified row.
+     *
+     * @param session the session
+     * @param row the row of the table
+     * @return the value
+     */
+    public Value getValue(SessionLocal session, Row row) {
+        Row old = resolver.set(row);
+        try {
+            return expression.getValue(session);
+        } finally {
+            resolver.set(old);
+        }
+    }
+
+}
@@ -0,0 +1,353 @@
+/*
+ * Copyright 2004-2025 H2 Group. Multiple-Licensed under the MPL 2.0,
+ * and the EPL 1.0 (https://h2database.com/html/license.html).
+ * Initial Developer: H2 Group
+ */
+package org.h2.index;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import org.h2.engine.SessionLocal;
+import org.h2.expression.Expression;
+import org.h2.expression.ExpressionVisitor;
+import org.h2.expression.condition.Comparison;
+import org.h2.expression.condition.ConditionAndOr;
+import org.h2.expression.condition.ConditionAndOrN;
+import org.h2.expression.condition.NullPredicate;
+import org.h2.message.DbException;
+import org.h2.result.Row;
+import org.h2.table.Column;
+import org.h2.table.Table;
+import org.h2.table.TableFilter;
+import org.h2.util.HasSQL;
+import org.h2.value.Value;
+import org.h2.value.ValueNull;
+
+/**
+ * The predicate of a partial index. Only rows for which the predicate is TRUE
+ * are stored in such index, so the index may be used only by queries with a
+ * condition that implies this predicate.
+ */
+public final class IndexPredicate {
+
+    private final IndexRowResolver resolver;
+
+    private final Expression condition;
+
+    /**
+     * The AND-combined parts of the condition.
+     */
+    private final Expression[] parts;
+
+    /**
+     * Simple comparisons of a column with constants for each part, or
+     * {@code null} for other parts.
+     */
+    private final IndexCondition[] comparisons;
+
+    /**
+     * Whether the part is a column IS NOT NULL predicate. The comparison for
+     * such part holds the inverted predicate.
+     */
+    private final boolean[] notNull;
+
+    private final HashSet<Column> columns;
+
+    /**
+     * Creates a predicate of a partial index.
+     *
+     * @param session the session
+     * @param table the indexed table
+     * @param condition the condition, not yet mapped to the table
+     * @throws DbException if the condition isn't deterministic or depends on
+     *             other tables
+     */
+    public IndexPredicate(SessionLocal session, Table table, Expression condition) {
+        TableFilter filter = new TableFilter(session, table, null, false, null, 0, null);
+        resolver = new IndexRowResolver(filter);
+        condition = IndexExpression.map(session, table, resolver, condition, "index condition");
+        this.condition = condition;
+        columns = new HashSet<>();
+        condition.isEverything(ExpressionVisitor.getColumnsVisitor(columns, table));
+        ArrayList<Expression> list = new ArrayList<>();
+        addParts(condition, list);
+        int count = list.size();
+        parts = list.toArray(new Expression[count]);
+        comparisons = new IndexCondition[count];
+        notNull = new boolean[count];
+        ArrayList<IndexCondition> indexConditions = filter.getIndexConditions();
+        for (int i = 0; i < count; i++) {
+            Expression part = parts[i];
+            part.createIndexConditions(session, filter);
+            if (indexConditions.isEmpty() && part instanceof NullPredicate) {
+                // column IS NOT NULL
+                part.getNotIfPossible(session).createIndexConditions(session, filter);
+                notNull[i] = true;
+            }
+            if (indexConditions.size() == 1) {
+                IndexCondition c = indexConditions.get(0);
+                if (isSimpleComparison(c)) {
+                    comparisons[i] = c;
+                }
+            }
+            indexConditions.clear();
+        }
+    }
+
+    private static void addParts(Expression e, List<Expression> target) {
+        if (e instanceof ConditionAndOr && ((ConditionAndOr) e).getAndOrType() == ConditionAndOr.AND
+                || e instanceof ConditionAndOrN && ((ConditionAndOrN) e).getAndOrType() == ConditionAndOr.AND) {
+            for (int i = 0, l = e.getSubexpressionCount(); i < l; i++) {
+                addParts(e.getSubexpression(i), target);
+            }
+        } else {
+            target.add(e);
+        }
+    }
+
+    private static boolean isSimpleComparison(IndexCondition c) {
+        if (c.isCompoundColumns()) {
+            return false;
+        }
+        switch (c.getCompareType()) {
+        case Comparison.EQUAL:
+        case Comparison.EQUAL_NULL_SAFE:
+        case Comparison.BIGGER_EQUAL:
+        case Comparison.BIGGER:
+        case Comparison.SMALLER_EQUAL:
+        case Comparison.SMALLER:
+            return c.getExpression().isConstant();
+        case Comparison.IN_LIST:
+            for (Expression e : c.getExpressionList()) {
+                if (!e.isConstant()) {
+                    return false;
+                }
+            }
+            return true;
+        default:
+            return false;
+        }
+    }
+
+    /**
+     * Get the condition.
+     *
+     * @return the condition
+     */
+    public Expression getCondition() {
+        return condition;
+    }
+
+    /**
+     * Get the columns referenced by the condition.
+     *
+     * @return the columns
+     */
+    public HashSet<Column> getColumns() {
+        return columns;
+    }
+
+    /**
+     * Append the SQL of the condition.
+     *
+     * @param builder the string builder
+     * @param sqlFlags formatting flags
+     * @return the specified string builder
+     */
+    public StringBuilder getSQL(StringBuilder builder, int sqlFlags) {
+        return condition.getUnenclosedSQL(builder, sqlFlags);
+    }
+
+    /**
+     * Check whether the row belongs to the index.
+     *
+     * @param session the session
+     * @param row the row
+     * @return {@code true} if the condition is TRUE for this row
+     */
+    public boolean matches(SessionLocal session, Row row) {
+        Row old = resolver.set(row);
+        try {
+            return condition.getBooleanValue(session);
+        } finally {
+            resolver.set(old);
+        }
+    }
+
+    /**
+     * Check whether all rows returned by the specified table filter satisfy
+     * this predicate. The check is conservative: each part of the predicate
+     * must be either a part of the query condition or a comparison with
+     * constants implied by the index conditions of the filter.
+     *
+     * @param session the session
+     * @param tableFilter the table filter of a query
+     * @return {@code true} if the predicate is implied by the conditions of the
+     *         filter, {@code false} if it isn't or if that can't be proven
+     */
+    public boolean isImpliedBy(SessionLocal session, TableFilter tableFilter) {
+        HashSet<String> querySQL = null;
+        for (int i = 0, l = parts.length; i < l; i++) {
+            IndexCondition comparison = comparisons[i];
+            if (comparison != null && isImpliedByIndexConditions(session, tableFilter, comparison, notNull[i])) {
+                continue;
+            }
+            if (querySQL == null) {
+                querySQL = getQueryPartsSQL(tableFilter);
+            }
+            if (!querySQL.contains(parts[i].getSQL(HasSQL.DEFAULT_SQL_FLAGS, Expression.WITHOUT_PARENTHESES))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static HashSet<String> getQueryPartsSQL(TableFilter tableFilter) {
+        ArrayList<Expression> list = new ArrayList<>();
+        Expression c = tableFilter.getJoinCondition();
+        if (c != null) {
+            addParts(c, list);
+        }
+        // conditions of WHERE clause don't restrict rows of outer joins
+        if (!tableFilter.isJoinOuter() && !tableFilter.isJoinOuterIndirect()) {
+            c = tableFilter.getFullCondition();
+            if (c != null) {
+                addParts(c, list);
+            }
+        }
+        HashSet<String> set = new HashSet<>();
+        for (Expression e : list) {
+            set.add(e.getSQL(HasSQL.DEFAULT_SQL_FLAGS, Expression.WITHOUT_PARENTHESES));
+        }
+        return set;
+    }
+
+    private static boolean isImpliedByIndexConditions(SessionLocal session, TableFilter tableFilter,
+            IndexCondition comparison, boolean notNull) {
+        Column column = comparison.getColumn();
+        Value low = null, high = null;
+        boolean lowInclusive = false, highInclusive = false, isNull = false;
+        List<Value> values = null;
+        for (IndexCondition c : tableFilter.getIndexConditions()) {
+            if (c.isCompoundColumns() || c.getColumn() != column || !isSimpleComparison(c)) {
+                continue;
+            }
+            int compareType = c.getCompareType();
+            if (compareType == Comparison.IN_LIST) {
+                List<Expression> list = c.getExpressionList();
+                if (values == null || values.size() > list.size()) {
+                    values = new ArrayList<>(list.size());
+                    for (Expression e : list) {
+                        Value v = e.getValue(session);
+                        if (v != ValueNull.INSTANCE) {
+                            values.add(v);
+                        }
+                    }
+                }
+                continue;
+            }
+            Value v = c.getCurrentValue(session);
+            if (v == ValueNull.INSTANCE) {
+                if (compareType == Comparison.EQUAL_NULL_SAFE) {
+                    isNull = true;
+                }
+                continue;
+            }
+            switch (compareType) {
+            case Comparison.EQUAL:
+            case Comparison.EQUAL_NULL_SAFE:
+                values = List.of(v);
+                break;
+            case Comparison.BIGGER_EQUAL:
+            case Comparison.BIGGER: {
+                boolean inclusive = compareType == Comparison.BIGGER_EQUAL;
+                int cmp = low == null ? 1 : session.compare(v, low);
+                if (cmp > 0 || cmp == 0 && !inclusive) {
+                    low = v;
+                    lowInclusive = inclusive;
+                }
+                break;
+            }
+            default: {
+                boolean inclusive = compareType == Comparison.SMALLER_EQUAL;
+                int cmp = high == null ? -1 : session.compare(v, high);
+                if (cmp < 0 || cmp == 0 && !inclusive) {
+                    high = v;
+                    highInclusive = inclusive;
+                }
+            }
+            }
+        }
+        if (values != null) {
+            for (Value v : values) {
+                if (!isTrue(session, comparison, notNull, v)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (notNull) {
+            return low != null || high != null;
+        }
+        switch (comparison.getCompareType()) {
+        case Comparison.EQUAL_NULL_SAFE:
+            return isNull && comparison.getCurrentValue(session) == ValueNull.INSTANCE;
+        case Comparison.BIGGER_EQUAL:
+            return low != null && session.compare(low, comparison.getCurrentValue(session)) >= 0;
+        case Comparison.BIGGER: {
+            int cmp;
+            return low != null && ((cmp = session.compare(low, comparison.getCurrentValue(session))) > 0
+                    || cmp == 0 && !lowInclusive);
+        }
+        case Comparison.SMALLER_EQUAL:
+            return high != null && session.compare(high, comparison.getCurrentValue(session)) <= 0;
+        case Comparison.SMALLER: {
+            int cmp;
+            return high != null && ((cmp = session.compare(high, comparison.getCurrentValue(session))) < 0
+                    || cmp == 0 && !highInclusive);
+        }
+        default:
+            return false;
+        }
+    }
+
+    private static boolean isTrue(SessionLocal session, IndexCondition comparison, boolean notNull, Value v) {
+        if (v == ValueNull.INSTANCE) {
+            return false;
+        }
+        if (notNull) {
+            return true;
+        }
+        int compareType = comparison.getCompareType();
+        if (compareType == Comparison.IN_LIST) {
+            for (Expression e : comparison.getExpressionList()) {
+                Value c = e.getValue(session);
+                if (c != ValueNull.INSTANCE && session.compare(v, c) == 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        Value c = comparison.getCurrentValue(session);
+        if (c == ValueNull.INSTANCE) {
+            return false;
+        }
+        int cmp = session.compare(v, c);
+        switch (compareType) {
+        case Comparison.EQUAL:
+        case Comparison.EQUAL_NULL_SAFE:
+            return cmp == 0;
+        case Comparison.BIGGER_EQUAL:
+            return cmp >= 0;
+        case Comparison.BIGGER:
+            return cmp > 0;
+        case Comparison.SMALLER_EQUAL:
+            return cmp <= 0;
+        default:
+            return cmp < 0;
+        }
+    }
+
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2004-2025 H2 Group. Multiple-Licensed under the MPL 2.0,
+ * and the EPL 1.0 (https://h2database.com/html/license.html).
+ * Initial Developer: H2 Group
+ */
+package org.h2.index;
+
+import org.h2.result.Row;
+import org.h2.table.Column;
+import org.h2.table.ColumnResolver;
+import org.h2.table.TableFilter;
+import org.h2.value.Value;
+import org.h2.value.ValueBigint;
+
+/**
+ * Column resolver for expressions and predicates of indexes. Columns are
+ * resolved with a table filter, so index conditions can be created for them,
+ * but values are read from the row of the current thread, so rows may be
+ * evaluated by different sessions concurrently.
+ */
+final class IndexRowResolver implements ColumnResolver {
+
+    private final TableFilter filter;
+
+    private final ThreadLocal<Row> current = new ThreadLocal<>();
+
+    /**
+     * Creates a new resolver.
+     *
+     * @param filter
+     *            the table filter of the indexed table
+     */
+    IndexRowResolver(TableFilter filter) {
+        this.filter = filter;
+    }
+
+    /**
+     * Set the current row of the current thread.
+     *
+     * @param row
+     *            the row, or {@code null}
+     * @return the previous row of the current thread, or {@code null}
+     */
+    Row set(Row row) {
+        Row old = current.get();
+        if (row != null) {
+            current.set(row);
+        } else {
+            current.remove();
+        }
+        return old;
+    }
+
+    @Override
+    public String getTableAlias() {
+        return filter.getTableAlias();
+    }
+
+    @Override
+    public Column[] getColumns() {
+        return filter.getColumns();
+    }
+
+    @Override
+    public Column findColumn(String name) {
+        return filter.findColumn(name);
+    }
+
+    @Override
+    public String getColumnName(Column column) {
+        return filter.getColumnName(column);
+    }
+
+    @Override
+    public boolean hasDerivedColumnList() {
+        return filter.hasDerivedColumnList();
+    }
+
+    @Override
+    public Column[] getSystemColumns() {
+        return filter.getSystemColumns();
+    }
+
+    @Override
+    public Column getRowIdColumn() {
+        return filter.getRowIdColumn();
+    }
+
+    @Override
+    public String getSchemaName() {
+        return filter.getSchemaName();
+    }
+
+    @Override
+    public Value getValue(Column column) {
+        Row row = current.get();
+        if (row == null) {
+            return null;
+        }
+        int columnId = column.getColumnId();
+        if (columnId == -1) {
+            return ValueBigint.get(row.getKey());
+        }
+        return row.getValue(columnId);
+    }
+
+    @Override
+    public TableFilter getTableFilter() {
+        return filter;
+    }
+
+}
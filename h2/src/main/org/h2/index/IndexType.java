@@ -14,9 +14,10 @@
  */
 public class IndexType {
 
-    private boolean primaryKey, persistent, hash, scan, spatial;
+    private boolean primaryKey, persistent, hash, scan, spatial, fullText, trigram, array;
     private boolean belongsToConstraint;
     private NullsDistinct nullsDistinct;
+    private int includedColumnCount;
 
     /**
      * Create a primary key index.
@@ -80,6 +81,45 @@ public static IndexType createNonUnique(boolean persistent, boolean hash,
         return type;
     }
 
+    /**
+     * Create a full-text index.
+     *
+     * @param persistent if the index is persistent
+     * @return the index type
+     */
+    public static IndexType createFullText(boolean persistent) {
+        IndexType type = new IndexType();
+        type.persistent = persistent;
+        type.fullText = true;
+        return type;
+    }
+
+    /**
+     * Create a trigram index.
+     *
+     * @param persistent if the index is persistent
+     * @return the index type
+     */
+    public static IndexType createTrigram(boolean persistent) {
+        IndexType type = new IndexType();
+        type.persistent = persistent;
+        type.trigram = true;
+        return type;
+    }
+
+    /**
+     * Create an array index.
+     *
+     * @param persistent if the index is persistent
+     * @return the index type
+     */
+    public static IndexType createArray(boolean persistent) {
+        IndexType type = new IndexType();
+        type.persistent = persistent;
+        type.array = true;
+        return type;
+    }
+
     /**
      * Create a scan pseudo-index.
      *
@@ -112,6 +152,27 @@ public boolean getBelongsToConstraint() {
         return belongsToConstraint;
     }
 
+    /**
+     * Sets the number of included columns of a non-unique index. These columns
+     * are stored after the indexed columns.
+     *
+     * @param includedColumnCount the number of included columns
+     */
+    public void setIncludedColumnCount(int includedColumnCount) {
+        this.includedColumnCount = includedColumnCount;
+    }
+
+    /**
+     * Returns the number of included columns of a non-unique index. Included
+     * columns of unique indexes are determined by the count of unique columns
+     * of the index instead.
+     *
+     * @return the number of included columns
+     */
+    public int getIncludedColumnCount() {
+        return includedColumnCount;
+    }
+
     /**
      * Is this a hash index?
      *
@@ -130,6 +191,33 @@ public boolean isSpatial() {
         return spatial;
     }
 
+    /**
+     * Is this a full-text index?
+     *
+     * @return true if it is a full-text index
+     */
+    public boolean isFullText() {
+        return fullText;
+    }
+
+    /**
+     * Is this a trigram index?
+     *
+     * @return true if it is a trigram index
+     */
+    public boolean isTrigram() {
+        return trigram;
+    }
+
+    /**
+     * Is this an array index?
+     *
+     * @return true if it is an array index
+     */
+    public boolean isArray() {
+        return array;
+    }
+
     /**
      * Is this index persistent?
      *
@@ -183,6 +271,15 @@ public String getSQL(boolean addNullsDistinct) {
             if (spatial) {
                 builder.append("SPATIAL ");
             }
+            if (fullText) {
+                builder.append("FULLTEXT ");
+            }
+            if (trigram) {
+                builder.append("TRIGRAM ");
+            }
+            if (array) {
+                builder.append("ARRAY ");
+            }
             builder.append("INDEX");
         }
         return builder.toString();
@@ -0,0 +1,29 @@
+/*
+ * Copyright 2004-2025 H2 Group. Multiple-Licensed under the MPL 2.0,
+ * and the EPL 1.0 (https://h2database.com/html/license.html).
+ * Initial Developer: H2 Group
+ */
+package org.h2.index;
+
+import org.h2.engine.SessionLocal;
+
+/**
+ * A trigram index. Trigram indexes are used to speed up searching for
+ * substrings of character strings, such as with {@code LIKE '%abc%'}.
+ */
+public interface TrigramIndex {
+
+    /**
+     * Find rows which values may contain all the specified substrings and
+     * create a cursor to iterate over the result. The cursor may also return
+     * rows without these substrings, so the condition needs to be checked
+     * again.
+     *
+     * @param session the session
+     * @param substrings the substrings, at least one of them should have 3 or
+     *            more characters
+     * @return the cursor to iterate over the results
+     */
+    Cursor findBySubstrings(SessionLocal session, String[] substrings);
+
+}
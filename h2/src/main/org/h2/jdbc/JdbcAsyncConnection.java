@@ -0,0 +1,404 @@
+/*
+ * Copyright 2004-2025 H2 Group. Multiple-Licensed under the MPL 2.0,
+ * and the EPL 1.0 (https://h2database.com/html/license.html).
+ * Initial Developer: H2 Group
+ */
+package org.h2.jdbc;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.h2.engine.Session;
+import org.h2.engine.SessionLocal;
+import org.h2.util.Utils21;
+
+/**
+ * Executes statements of a connection asynchronously. Statements are executed
+ * one after another in the order of submission on threads of the specified
+ * executor, or on virtual threads (on Java 21+) by default, and methods of
+ * this class never block the caller.
+ *
+ * <pre>
+ * JdbcAsyncConnection async = JdbcAsyncConnection.create(conn);
+ * async.executeUpdate("INSERT INTO TEST VALUES (?, ?)", 1, "Hello")
+ *         .thenCompose(count -&gt; async.executeQuery("SELECT * FROM TEST"))
+ *         .thenAccept(rows -&gt; ...);
+ * </pre>
+ *
+ * Rows of large results may be streamed with {@link #query(String, Object...)}.
+ * They are read only when the subscriber requests them, and embedded
+ * connections evaluate such queries lazily.
+ */
+public final class JdbcAsyncConnection {
+
+    /**
+     * The maximum number of rows passed to a subscriber by one task, other
+     * submitted statements are executed between such tasks.
+     */
+    private static final int ROWS_PER_TASK = 256;
+
+    private final JdbcConnection conn;
+
+    private final Executor executor;
+
+    /**
+     * Submitted tasks, the first task is being executed.
+     */
+    private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+
+    private JdbcAsyncConnection(JdbcConnection conn, Executor executor) {
+        this.conn = conn;
+        this.executor = executor;
+    }
+
+    /**
+     * Creates an asynchronous view of the specified connection. Statements
+     * are executed on virtual threads on Java 21 and later versions, and on
+     * daemon platform threads on older versions.
+     *
+     * @param conn the H2 connection
+     * @return the asynchronous connection
+     * @throws SQLException if the connection is not an H2 connection
+     */
+    public static JdbcAsyncConnection create(Connection conn) throws SQLException {
+        return create(conn, task -> Utils21.newVirtualThread(task).start());
+    }
+
+    /**
+     * Creates an asynchronous view of the specified connection.
+     *
+     * @param conn the H2 connection
+     * @param executor the executor to execute statements
+     * @return the asynchronous connection
+     * @throws SQLException if the connection is not an H2 connection
+     */
+    public static JdbcAsyncConnection create(Connection conn, Executor executor) throws SQLException {
+        return new JdbcAsyncConnection(conn.unwrap(JdbcConnection.class), executor);
+    }
+
+    /**
+     * Returns the underlying connection. It may be used concurrently with this
+     * object, but the order of execution of its statements and of
+     * asynchronous statements is not defined.
+     *
+     * @return the connection
+     */
+    public Connection getConnection() {
+        return conn;
+    }
+
+    /**
+     * Executes a data modification or definition statement.
+     *
+     * @param sql the SQL statement
+     * @param parameters the values of parameters
+     * @return the stage with the update count
+     */
+    public CompletionStage<Long> executeUpdate(String sql, Object... parameters) {
+        return submit(() -> {
+            try (PreparedStatement prep = prepare(sql, parameters)) {
+                return prep.executeLargeUpdate();
+            }
+        });
+    }
+
+    /**
+     * Executes a query and reads all rows of its result.
+     *
+     * @param sql the SQL query
+     * @param parameters the values of parameters
+     * @return the stage with the list of rows
+     */
+    public CompletionStage<List<Object[]>> executeQuery(String sql, Object... parameters) {
+        return submit(() -> {
+            try (PreparedStatement prep = prepare(sql, parameters); ResultSet rs = prep.executeQuery()) {
+                ArrayList<Object[]> rows = new ArrayList<>();
+                int columnCount = rs.getMetaData().getColumnCount();
+                while (rs.next()) {
+                    rows.add(readRow(rs, columnCount));
+                }
+                return rows;
+            }
+        });
+    }
+
+    /**
+     * Returns a publisher of rows of the specified query. The query is
+     * executed for each subscriber when it requests rows for the first time,
+     * and further rows are read only when they are requested.
+     *
+     * @param sql the SQL query
+     * @param parameters the values of parameters
+     * @return the publisher of rows
+     */
+    public Flow.Publisher<Object[]> query(String sql, Object... parameters) {
+        return subscriber -> subscriber.onSubscribe(new RowSubscription(subscriber, sql, parameters));
+    }
+
+    /**
+     * Commits the current transaction.
+     *
+     * @return the stage completed after commit
+     */
+    public CompletionStage<Void> commit() {
+        return submit(() -> {
+            conn.commit();
+            return null;
+        });
+    }
+
+    /**
+     * Rolls back the current transaction.
+     *
+     * @return the stage completed after rollback
+     */
+    public CompletionStage<Void> rollback() {
+        return submit(() -> {
+            conn.rollback();
+            return null;
+        });
+    }
+
+    /**
+     * Closes the connection after execution of all previously submitted
+     * statements.
+     *
+     * @return the stage completed after close
+     */
+    public CompletionStage<Void> close() {
+        return submit(() -> {
+            conn.close();
+            return null;
+        });
+    }
+
+    /**
+     * A task that may throw an exception.
+     *
+     * @param <T> the type of the result
+     */
+    private interface Task<T> {
+
+        T call() throws Exception;
+
+    }
+
+    private <T> CompletionStage<T> submit(Task<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        schedule(() -> {
+            try {
+                future.complete(task.call());
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        });
+        return future;
+    }
+
+    private void schedule(Runnable task) {
+        boolean start;
+        synchronized (tasks) {
+            start = tasks.isEmpty();
+            tasks.add(task);
+        }
+        if (start) {
+            try {
+                executor.execute(this::run);
+            } catch (RuntimeException e) {
+                synchronized (tasks) {
+                    tasks.clear();
+                }
+                throw e;
+            }
+        }
+    }
+
+    private void run() {
+        Runnable task;
+        synchronized (tasks) {
+            task = tasks.peek();
+        }
+        while (task != null) {
+            task.run();
+            synchronized (tasks) {
+                tasks.poll();
+                task = tasks.peek();
+            }
+        }
+    }
+
+    PreparedStatement prepare(String sql, Object... parameters) throws SQLException {
+        PreparedStatement prep = conn.prepareStatement(sql);
+        try {
+            for (int i = 0, l = parameters.length; i < l; i++) {
+                prep.setObject(i + 1, parameters[i]);
+            }
+        } catch (Throwable t) {
+            prep.close();
+            throw t;
+        }
+        return prep;
+    }
+
+    static Object[] readRow(ResultSet rs, int columnCount) throws SQLException {
+        Object[] row = new Object[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            row[i] = rs.getObject(i + 1);
+        }
+        return row;
+    }
+
+    /**
+     * A subscription to rows of a query.
+     */
+    private final class RowSubscription implements Flow.Subscription {
+
+        private final Flow.Subscriber<? super Object[]> subscriber;
+
+        private final String sql;
+
+        private final Object[] parameters;
+
+        private final AtomicLong demand = new AtomicLong();
+
+        /**
+         * Whether a task to emit rows is scheduled or running.
+         */
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private volatile boolean cancelled;
+
+        private volatile Throwable error;
+
+        private boolean done;
+
+        private PreparedStatement prep;
+
+        private ResultSet rs;
+
+        private int columnCount;
+
+        RowSubscription(Flow.Subscriber<? super Object[]> subscriber, String sql, Object[] parameters) {
+            this.subscriber = subscriber;
+            this.sql = sql;
+            this.parameters = parameters;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0L) {
+                error = new IllegalArgumentException("Non-positive request: " + n);
+                cancel();
+                return;
+            }
+            if (demand.getAndAccumulate(n, (a, b) -> a + b < 0L ? Long.MAX_VALUE : a + b) == 0L) {
+                scheduleOnce(this::emit);
+            }
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            scheduleOnce(this::emit);
+        }
+
+        private void scheduleOnce(Runnable task) {
+            if (scheduled.compareAndSet(false, true)) {
+                schedule(task);
+            }
+        }
+
+        private void emit() {
+            if (done) {
+                return;
+            }
+            try {
+                if (cancelled) {
+                    closeResult();
+                    if (error != null) {
+                        subscriber.onError(error);
+                    }
+                    return;
+                }
+                if (rs == null) {
+                    open();
+                }
+                for (int i = 0; i < ROWS_PER_TASK && demand.get() > 0L && !cancelled; i++) {
+                    if (!rs.next()) {
+                        closeResult();
+                        subscriber.onComplete();
+                        return;
+                    }
+                    demand.decrementAndGet();
+                    subscriber.onNext(readRow(rs, columnCount));
+                }
+            } catch (Throwable t) {
+                fail(t);
+                return;
+            } finally {
+                scheduled.set(false);
+            }
+            if ((cancelled || demand.get() > 0L) && !done) {
+                scheduleOnce(this::emit);
+            }
+        }
+
+        private void open() throws SQLException {
+            prep = prepare(sql, parameters);
+            Session session = conn.getSession();
+            if (session instanceof SessionLocal) {
+                // rows are computed when they are requested
+                SessionLocal s = (SessionLocal) session;
+                session.lock();
+                try {
+                    boolean lazy = s.isLazyQueryExecution();
+                    s.setLazyQueryExecution(true);
+                    try {
+                        rs = prep.executeQuery();
+                    } finally {
+                        s.setLazyQueryExecution(lazy);
+                    }
+                } finally {
+                    session.unlock();
+                }
+            } else {
+                rs = prep.executeQuery();
+            }
+            columnCount = rs.getMetaData().getColumnCount();
+        }
+
+        private void fail(Throwable t) {
+            try {
+                closeResult();
+            } catch (Throwable e) {
+                t.addSuppressed(e);
+            }
+            done = true;
+            scheduled.set(false);
+            subscriber.onError(t);
+        }
+
+        private void closeResult() throws SQLException {
+            done = true;
+            if (prep != null) {
+                PreparedStatement p = prep;
+                prep = null;
+                rs = null;
+                p.close();
+            }
+        }
+
+    }
+
+}
@@ -22,10 +22,13 @@
 import java.io.PrintWriter;
 import java.sql.Connection;
 import java.sql.SQLException;
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.logging.Logger;
 
 import javax.sql.ConnectionEvent;
@@ -58,6 +61,12 @@
  *     }
  * }
  * </pre>
+ * Free connections are kept in a shared list, and a thread first tries the
+ * connection it has returned most recently. Connections are validated when
+ * they were idle for some time, and are closed after the idle timeout or the
+ * maximum lifetime when they are returned or found by a borrowing thread.
+ * Statements prepared by the application are cached by the sessions of
+ * pooled connections and survive between borrows.
  *
  * @author Christian d'Heureuse
  *      (<a href="http://www.source-code.biz">www.source-code.biz</a>)
@@ -69,13 +78,70 @@
     private static final int DEFAULT_TIMEOUT = 30;
     private static final int DEFAULT_MAX_CONNECTIONS = 10;
 
+    /**
+     * Connections idle for a shorter time are not validated when borrowed.
+     */
+    private static final long VALIDATION_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * The interval between checks for idle connections to close and for
+     * leaked connections.
+     */
+    private static final long HOUSEKEEPING_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * The maximum time to wait for a returned connection before checking if
+     * a new one may be opened.
+     */
+    private static final long HANDOFF_WAIT = TimeUnit.MILLISECONDS.toNanos(10);
+
+    /**
+     * The number of buckets of the borrow time histogram.
+     */
+    private static final int BORROW_TIME_BUCKETS = 32;
+
+    private static final int IDLE = 0, IN_USE = 1, CLOSED = 2;
+
+    /**
+     * A pooled connection with its state.
+     */
+    private static final class PoolEntry {
+
+        final PooledConnection pc;
+
+        final long created;
+
+        final AtomicInteger state = new AtomicInteger(IN_USE);
+
+        volatile long lastReturned;
+
+        volatile long borrowed;
+
+        volatile Throwable borrowStack;
+
+        PoolEntry(PooledConnection pc, long created) {
+            this.pc = pc;
+            this.created = created;
+            lastReturned = created;
+        }
+
+    }
+
     private final ConnectionPoolDataSource dataSource;
-    private final Queue<PooledConnection> recycledConnections = new ConcurrentLinkedQueue<>();
+    private final CopyOnWriteArrayList<PoolEntry> entries = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<PoolEntry> lastEntry = new ThreadLocal<>();
+    private final SynchronousQueue<PoolEntry> handoff = new SynchronousQueue<>();
+    private final AtomicInteger waiters = new AtomicInteger();
     private PrintWriter logWriter;
     private volatile int maxConnections = DEFAULT_MAX_CONNECTIONS;
     private volatile int timeout = DEFAULT_TIMEOUT;
+    private volatile long idleTimeout;
+    private volatile long maxLifetime;
+    private volatile long leakDetectionThreshold;
     private AtomicInteger activeConnections = new AtomicInteger();
     private AtomicBoolean isDisposed = new AtomicBoolean();
+    private final AtomicLong nextHousekeeping = new AtomicLong(System.nanoTime());
+    private final AtomicLongArray borrowTimes = new AtomicLongArray(BORROW_TIME_BUCKETS);
 
     private JdbcConnectionPool(ConnectionPoolDataSource dataSource) {
         this.dataSource = dataSource;
@@ -162,16 +228,87 @@ public void setLoginTimeout(int seconds) {
         this.timeout = seconds;
     }
 
+    /**
+     * Sets the time after which unused connections are closed.
+     * The default value is 0, meaning unused connections are kept open.
+     *
+     * @param millis the idle timeout in milliseconds, or 0
+     */
+    public void setIdleTimeout(long millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException("Invalid idleTimeout value: " + millis);
+        }
+        idleTimeout = TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    /**
+     * Gets the time after which unused connections are closed.
+     *
+     * @return the idle timeout in milliseconds, or 0
+     */
+    public long getIdleTimeout() {
+        return TimeUnit.NANOSECONDS.toMillis(idleTimeout);
+    }
+
+    /**
+     * Sets the maximum lifetime of connections. Connections are closed when
+     * they are returned to the pool after this time. The default value is 0,
+     * meaning connections are used without time limit.
+     *
+     * @param millis the maximum lifetime in milliseconds, or 0
+     */
+    public void setMaxLifetime(long millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException("Invalid maxLifetime value: " + millis);
+        }
+        maxLifetime = TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    /**
+     * Gets the maximum lifetime of connections.
+     *
+     * @return the maximum lifetime in milliseconds, or 0
+     */
+    public long getMaxLifetime() {
+        return TimeUnit.NANOSECONDS.toMillis(maxLifetime);
+    }
+
+    /**
+     * Sets the time after which a connection that was not returned to the
+     * pool is reported as possibly leaked. The stack trace of the code that
+     * borrowed it is written to the log stream (if set). Stack traces are
+     * only captured if this threshold is set. The default value is 0, meaning
+     * leaks are not detected.
+     *
+     * @param millis the threshold in milliseconds, or 0
+     */
+    public void setLeakDetectionThreshold(long millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException("Invalid leakDetectionThreshold value: " + millis);
+        }
+        leakDetectionThreshold = TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    /**
+     * Gets the time after which a connection that was not returned to the
+     * pool is reported as possibly leaked.
+     *
+     * @return the threshold in milliseconds, or 0
+     */
+    public long getLeakDetectionThreshold() {
+        return TimeUnit.NANOSECONDS.toMillis(leakDetectionThreshold);
+    }
+
     /**
      * Closes all unused pooled connections.
      * Exceptions while closing are written to the log stream (if set).
      */
     public void dispose() {
         isDisposed.set(true);
-
-        PooledConnection pc;
-        while ((pc = recycledConnections.poll()) != null) {
-            closeConnection(pc);
+        for (PoolEntry e : entries) {
+            if (e.state.compareAndSet(IDLE, CLOSED)) {
+                closeEntry(e);
+            }
         }
     }
 
@@ -190,29 +327,65 @@ public void dispose() {
      */
     @Override
     public Connection getConnection() throws SQLException {
-        long max = System.nanoTime() + timeout * 1_000_000_000L;
-        int spin = 0;
-        do {
-            if (activeConnections.incrementAndGet() <= maxConnections) {
+        long start = System.nanoTime();
+        Connection conn = tryGetConnection();
+        if (conn == null) {
+            housekeeping(start, true);
+            conn = waitForConnection(start + timeout * 1_000_000_000L);
+        }
+        long time = (System.nanoTime() - start) / 1_000;
+        borrowTimes.incrementAndGet(Math.min(64 - Long.numberOfLeadingZeros(time), BORROW_TIME_BUCKETS - 1));
+        return conn;
+    }
+
+    private Connection tryGetConnection() throws SQLException {
+        if (activeConnections.incrementAndGet() <= maxConnections) {
+            try {
+                return getConnectionNow();
+            } catch (Throwable t) {
+                activeConnections.decrementAndGet();
+                throw t;
+            }
+        }
+        activeConnections.decrementAndGet();
+        return null;
+    }
+
+    private Connection waitForConnection(long max) throws SQLException {
+        waiters.incrementAndGet();
+        try {
+            do {
+                PoolEntry e;
                 try {
-                    return getConnectionNow();
-                } catch (Throwable t) {
+                    e = handoff.poll(Math.min(max - System.nanoTime(), HANDOFF_WAIT), TimeUnit.NANOSECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    e = null;
+                }
+                if (e != null) {
+                    // the returning thread passed its active connection
+                    Connection conn;
+                    try {
+                        conn = activate(e, System.nanoTime());
+                    } catch (Throwable t) {
+                        activeConnections.decrementAndGet();
+                        closeEntry(e);
+                        throw t;
+                    }
+                    if (conn != null) {
+                        return conn;
+                    }
+                    closeEntry(e);
                     activeConnections.decrementAndGet();
-                    throw t;
                 }
-            } else {
-                activeConnections.decrementAndGet();
-            }
-            if (--spin >= 0) {
-                continue;
-            }
-            try {
-                spin = 3;
-                Thread.sleep(1);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
-        } while (System.nanoTime() - max <= 0);
+                Connection conn = tryGetConnection();
+                if (conn != null) {
+                    return conn;
+                }
+            } while (System.nanoTime() - max <= 0);
+        } finally {
+            waiters.decrementAndGet();
+        }
         throw new SQLException("Login timeout", "08001", 8001);
     }
 
@@ -228,36 +401,145 @@ private Connection getConnectionNow() throws SQLException {
         if (isDisposed.get()) {
             throw new IllegalStateException("Connection pool has been disposed.");
         }
-        PooledConnection pc = recycledConnections.poll();
-        if (pc == null) {
-            pc = dataSource.getPooledConnection();
+        PoolEntry e = lastEntry.get();
+        if (e != null && e.state.compareAndSet(IDLE, IN_USE)) {
+            Connection conn = activateOrClose(e);
+            if (conn != null) {
+                return conn;
+            }
+        }
+        for (PoolEntry entry : entries) {
+            if (entry.state.compareAndSet(IDLE, IN_USE)) {
+                Connection conn = activateOrClose(entry);
+                if (conn != null) {
+                    return conn;
+                }
+            }
+        }
+        long now = System.nanoTime();
+        e = new PoolEntry(dataSource.getPooledConnection(), now);
+        entries.add(e);
+        try {
+            return activate(e, now);
+        } catch (Throwable t) {
+            closeEntry(e);
+            throw t;
         }
-        Connection conn = pc.getConnection();
-        pc.addConnectionEventListener(this);
+    }
+
+    /**
+     * Activates a connection that was idle, or closes it if it is expired or
+     * not valid any more.
+     *
+     * @param e the entry in use
+     * @return the connection, or {@code null} if it was closed
+     */
+    private Connection activateOrClose(PoolEntry e) {
+        long now = System.nanoTime();
+        if (!isExpired(e, now)) {
+            try {
+                Connection conn = activate(e, now);
+                if (conn != null) {
+                    return conn;
+                }
+            } catch (SQLException ex) {
+                log(ex);
+            }
+        }
+        closeEntry(e);
+        return null;
+    }
+
+    private Connection activate(PoolEntry e, long now) throws SQLException {
+        Connection conn = e.pc.getConnection();
+        if (now - e.lastReturned > VALIDATION_INTERVAL && !conn.isValid(timeout)) {
+            return null;
+        }
+        e.borrowed = now;
+        if (leakDetectionThreshold > 0L) {
+            e.borrowStack = new Throwable("Possible connection leak, the connection was borrowed here");
+        }
+        e.pc.addConnectionEventListener(this);
         return conn;
     }
 
+    private boolean isExpired(PoolEntry e, long now) {
+        long lifetime = maxLifetime, idle = idleTimeout;
+        return lifetime > 0L && now - e.created > lifetime || idle > 0L && now - e.lastReturned > idle;
+    }
+
     /**
      * This method usually puts the connection back into the pool. There are
      * some exceptions: if the pool is disposed, the connection is disposed as
-     * well. If the pool is full, the connection is closed.
+     * well. If the pool is full or the connection is expired, the connection
+     * is closed. If some thread waits for a connection, the connection is
+     * passed to it directly.
      *
-     * @param pc the pooled connection
+     * @param e the entry of the pooled connection
      */
-    private void recycleConnection(PooledConnection pc) {
+    private void recycleConnection(PoolEntry e) {
+        long now = System.nanoTime();
+        e.borrowStack = null;
+        if (!isDisposed.get() && (maxLifetime <= 0L || now - e.created <= maxLifetime)) {
+            e.lastReturned = now;
+            if (waiters.get() > 0 && handoff.offer(e)) {
+                return;
+            }
+        }
         int active = activeConnections.decrementAndGet();
         if (active < 0) {
             activeConnections.incrementAndGet();
             throw new AssertionError();
         }
-        if (!isDisposed.get() && active < maxConnections) {
-            recycledConnections.add(pc);
+        if (!isDisposed.get() && active < maxConnections && !isExpired(e, now)) {
+            lastEntry.set(e);
+            e.state.set(IDLE);
             if (isDisposed.get()) {
                 dispose();
             }
         } else {
-            closeConnection(pc);
+            closeEntry(e);
         }
+        housekeeping(now, false);
+    }
+
+    /**
+     * Closes idle connections after the idle timeout and reports leaked
+     * connections. This is done at most once per second.
+     *
+     * @param now the current time
+     * @param force whether this should be done even if the previous check was
+     *            less than a second ago
+     */
+    private void housekeeping(long now, boolean force) {
+        long next = nextHousekeeping.get();
+        if (!force && now - next < 0 || !nextHousekeeping.compareAndSet(next, now + HOUSEKEEPING_INTERVAL)) {
+            return;
+        }
+        long leakThreshold = leakDetectionThreshold;
+        for (PoolEntry e : entries) {
+            switch (e.state.get()) {
+            case IDLE:
+                if (isExpired(e, now) && e.state.compareAndSet(IDLE, CLOSED)) {
+                    closeEntry(e);
+                }
+                break;
+            case IN_USE: {
+                Throwable stack = e.borrowStack;
+                if (leakThreshold > 0L && stack != null && now - e.borrowed > leakThreshold) {
+                    // report each leak only once
+                    e.borrowStack = null;
+                    log(stack);
+                }
+            }
+            }
+        }
+    }
+
+    private void closeEntry(PoolEntry e) {
+        e.state.set(CLOSED);
+        entries.remove(e);
+        closeConnection(e.pc);
     }
 
     private void closeConnection(PooledConnection pc) {
@@ -270,6 +552,15 @@ private void closeConnection(PooledConnection pc) {
         }
     }
 
+    private void log(Throwable t) {
+        if (logWriter != null) {
+            t.printStackTrace(logWriter);
+            logWriter.flush();
+        } else {
+            DbException.traceThrowable(t);
+        }
+    }
+
     /**
      * INTERNAL
      */
@@ -277,7 +568,14 @@ private void closeConnection(PooledConnection pc) {
     public void connectionClosed(ConnectionEvent event) {
         PooledConnection pc = (PooledConnection) event.getSource();
         pc.removeConnectionEventListener(this);
-        recycleConnection(pc);
+        for (PoolEntry e : entries) {
+            if (e.pc == pc) {
+                recycleConnection(e);
+                return;
+            }
+        }
+        activeConnections.decrementAndGet();
+        closeConnection(pc);
     }
 
     /**
@@ -300,6 +598,38 @@ public int getActiveConnections() {
         return activeConnections.get();
     }
 
+    /**
+     * Returns the number of open connections that are not in use.
+     *
+     * @return the number of idle connections
+     */
+    public int getIdleConnections() {
+        int count = 0;
+        for (PoolEntry e : entries) {
+            if (e.state.get() == IDLE) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the histogram of times needed to get a connection from this
+     * pool. The element 0 contains the number of calls that took less than 1
+     * microsecond, the element {@code i} contains the number of calls that
+     * took from 2<sup>i-1</sup> to 2<sup>i</sup> microseconds, and the last
+     * element also counts all slower calls.
+     *
+     * @return the histogram of borrow times
+     */
+    public long[] getBorrowTimeHistogram() {
+        long[] histogram = new long[BORROW_TIME_BUCKETS];
+        for (int i = 0; i < BORROW_TIME_BUCKETS; i++) {
+            histogram[i] = borrowTimes.get(i);
+        }
+        return histogram;
+    }
+
     /**
      * INTERNAL
      */
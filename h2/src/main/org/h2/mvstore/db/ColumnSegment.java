@@ -0,0 +1,378 @@
+/*
+ * Copyright 2004-2025 H2 Group. Multiple-Licensed under the MPL 2.0,
+ * and the EPL 1.0 (https://h2database.com/html/license.html).
+ * Initial Developer: H2 Group
+ */
+package org.h2.mvstore.db;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+
+import org.h2.mvstore.DataUtils;
+import org.h2.mvstore.WriteBuffer;
+import org.h2.value.TypeInfo;
+import org.h2.value.Value;
+import org.h2.value.ValueBigint;
+import org.h2.value.ValueInteger;
+import org.h2.value.ValueNull;
+import org.h2.value.ValueSmallint;
+import org.h2.value.ValueTinyint;
+
+/**
+ * Encoding and decoding of the values of one column of one segment of a
+ * columnar table. Every segment is encoded with all applicable encodings and
+ * the shortest result is kept.
+ */
+final class ColumnSegment {
+
+    /**
+     * Values are stored one after another.
+     */
+    static final int PLAIN = 0;
+
+    /**
+     * Values are stored as (run length, value) pairs.
+     */
+    static final int RUN_LENGTH = 1;
+
+    /**
+     * Distinct values are stored once, followed by bit-packed codes.
+     */
+    static final int DICTIONARY = 2;
+
+    /**
+     * Integer values are stored as bit-packed offsets from the minimum.
+     */
+    static final int BIT_PACKED = 3;
+
+    /**
+     * The maximum number of entries in a dictionary.
+     */
+    private static final int MAX_DICTIONARY_SIZE = 1 << 16;
+
+    private ColumnSegment() {
+    }
+
+    /**
+     * Encode the values of a column.
+     *
+     * @param valueType the data type used to serialize individual values
+     * @param type the type of the column
+     * @param values the values
+     * @param count the number of values to encode
+     * @return the encoded data
+     */
+    static byte[] encode(ValueDataType valueType, TypeInfo type, Value[] values, int count) {
+        byte[] best = encodePlain(valueType, values, count);
+        int t = type.getValueType();
+        if (isIntegerType(t)) {
+            byte[] b = encodeBitPacked(values, count);
+            if (b != null && b.length < best.length) {
+                best = b;
+            }
+        }
+        if (hasExactEquality(t)) {
+            byte[] b = encodeRunLength(valueType, values, count);
+            if (b != null && b.length < best.length) {
+                best = b;
+            }
+            b = encodeDictionary(valueType, values, count);
+            if (b != null && b.length < best.length) {
+                best = b;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Decode the values of a column.
+     *
+     * @param valueType the data type used to deserialize individual values
+     * @param type the type of the column
+     * @param data the encoded data
+     * @return the values
+     */
+    static Value[] decode(ValueDataType valueType, TypeInfo type, byte[] data) {
+        ByteBuffer buff = ByteBuffer.wrap(data);
+        int encoding = buff.get();
+        int count = DataUtils.readVarInt(buff);
+        Value[] values = new Value[count];
+        switch (encoding) {
+        case PLAIN:
+            for (int i = 0; i < count; i++) {
+                values[i] = valueType.readValue(buff, type);
+            }
+            break;
+        case RUN_LENGTH:
+            for (int i = 0; i < count;) {
+                int length = DataUtils.readVarInt(buff);
+                Value v = valueType.readValue(buff, type);
+                for (int end = i + length; i < end; i++) {
+                    values[i] = v;
+                }
+            }
+            break;
+        case DICTIONARY: {
+            Value[] dictionary = new Value[DataUtils.readVarInt(buff)];
+            for (int i = 0; i < dictionary.length; i++) {
+                dictionary[i] = valueType.readValue(buff, type);
+            }
+            int bits = buff.get();
+            long[] words = readWords(buff, count, bits);
+            for (int i = 0; i < count; i++) {
+                values[i] = dictionary[(int) unpack(words, i, bits)];
+            }
+            break;
+        }
+        case BIT_PACKED: {
+            byte[] nulls = null;
+            if (buff.get() != 0) {
+                nulls = new byte[(count + 7) >>> 3];
+                buff.get(nulls);
+            }
+            long base = buff.getLong();
+            int bits = buff.get();
+            long[] words = readWords(buff, count, bits);
+            int t = type.getValueType();
+            for (int i = 0; i < count; i++) {
+                if (nulls != null && (nulls[i >>> 3] & (1 << (i & 7))) != 0) {
+                    values[i] = ValueNull.INSTANCE;
+                } else {
+                    values[i] = getIntegerValue(t, base + unpack(words, i, bits));
+                }
+            }
+            break;
+        }
+        default:
+            throw DataUtils.newMVStoreException(DataUtils.ERROR_FILE_CORRUPT,
+                    "Unknown column segment encoding {0}", encoding);
+        }
+        return values;
+    }
+
+    private static byte[] encodePlain(ValueDataType valueType, Value[] values, int count) {
+        WriteBuffer buff = new WriteBuffer();
+        buff.put((byte) PLAIN).putVarInt(count);
+        for (int i = 0; i < count; i++) {
+            valueType.write(buff, values[i]);
+        }
+        return toArray(buff);
+    }
+
+    private static byte[] encodeRunLength(ValueDataType valueType, Value[] values, int count) {
+        int runs = 0;
+        for (int i = 0; i < count; i++) {
+            if (i == 0 || !values[i].equals(values[i - 1])) {
+                runs++;
+            }
+        }
+        if (runs * 2 > count) {
+            return null;
+        }
+        WriteBuffer buff = new WriteBuffer();
+        buff.put((byte) RUN_LENGTH).putVarInt(count);
+        for (int i = 0; i < count;) {
+            Value v = values[i];
+            int start = i;
+            do {
+                i++;
+            } while (i < count && values[i].equals(v));
+            buff.putVarInt(i - start);
+            valueType.write(buff, v);
+        }
+        return toArray(buff);
+    }
+
+    private static byte[] encodeDictionary(ValueDataType valueType, Value[] values, int count) {
+        HashMap<Value, Integer> codes = new HashMap<>();
+        int[] encoded = new int[count];
+        for (int i = 0; i < count; i++) {
+            Value v = values[i];
+            Integer code = codes.get(v);
+            if (code == null) {
+                int size = codes.size();
+                if (size >= MAX_DICTIONARY_SIZE || size * 2 > count) {
+                    return null;
+                }
+                codes.put(v, code = size);
+            }
+            encoded[i] = code;
+        }
+        Value[] dictionary = new Value[codes.size()];
+        for (HashMap.Entry<Value, Integer> e : codes.entrySet()) {
+            dictionary[e.getValue()] = e.getKey();
+        }
+        WriteBuffer buff = new WriteBuffer();
+        buff.put((byte) DICTIONARY).putVarInt(count).putVarInt(dictionary.length);
+        for (Value v : dictionary) {
+            valueType.write(buff, v);
+        }
+        int bits = bitsRequired(dictionary.length - 1);
+        buff.put((byte) bits);
+        long[] words = new long[wordCount(count, bits)];
+        for (int i = 0; i < count; i++) {
+            pack(words, i, bits, encoded[i]);
+        }
+        writeWords(buff, words);
+        return toArray(buff);
+    }
+
+    private static byte[] encodeBitPacked(Value[] values, int count) {
+        long min = Long.MAX_VALUE, max = Long.MIN_VALUE;
+        byte[] nulls = null;
+        for (int i = 0; i < count; i++) {
+            Value v = values[i];
+            if (v == ValueNull.INSTANCE) {
+                if (nulls == null) {
+                    nulls = new byte[(count + 7) >>> 3];
+                }
+                nulls[i >>> 3] |= 1 << (i & 7);
+            } else {
+                long x = v.getLong();
+                if (x < min) {
+                    min = x;
+                }
+                if (x > max) {
+                    max = x;
+                }
+            }
+        }
+        if (min > max) {
+            // only NULL values
+            min = max = 0L;
+        }
+        long range = max - min;
+        if (range < 0L) {
+            // overflow
+            return null;
+        }
+        int bits = bitsRequired(range);
+        WriteBuffer buff = new WriteBuffer();
+        buff.put((byte) BIT_PACKED).putVarInt(count);
+        if (nulls != null) {
+            buff.put((byte) 1).put(nulls);
+        } else {
+            buff.put((byte) 0);
+        }
+        buff.putLong(min).put((byte) bits);
+        long[] words = new long[wordCount(count, bits)];
+        for (int i = 0; i < count; i++) {
+            Value v = values[i];
+            if (v != ValueNull.INSTANCE) {
+                pack(words, i, bits, v.getLong() - min);
+            }
+        }
+        writeWords(buff, words);
+        return toArray(buff);
+    }
+
+    private static boolean isIntegerType(int valueType) {
+        switch (valueType) {
+        case Value.TINYINT:
+        case Value.SMALLINT:
+        case Value.INTEGER:
+        case Value.BIGINT:
+            return true;
+        default:
+            return false;
+        }
+    }
+
+    /**
+     * Returns whether equal values of the specified type are guaranteed to
+     * have identical representation, so one of them may be stored instead of
+     * another one.
+     */
+    private static boolean hasExactEquality(int valueType) {
+        switch (valueType) {
+        case Value.CHAR:
+        case Value.VARCHAR:
+        case Value.BOOLEAN:
+        case Value.TINYINT:
+        case Value.SMALLINT:
+        case Value.INTEGER:
+        case Value.BIGINT:
+        case Value.NUMERIC:
+        case Value.DATE:
+        case Value.TIME:
+        case Value.TIMESTAMP:
+        case Value.TIMESTAMP_TZ:
+        case Value.ENUM:
+        case Value.UUID:
+            return true;
+        default:
+            return false;
+        }
+    }
+
+    private static Value getIntegerValue(int valueType, long x) {
+        switch (valueType) {
+        case Value.TINYINT:
+            return ValueTinyint.get((byte) x);
+        case Value.SMALLINT:
+            return ValueSmallint.get((short) x);
+        case Value.INTEGER:
+            return ValueInteger.get((int) x);
+        default:
+            return ValueBigint.get(x);
+        }
+    }
+
+    private static int bitsRequired(long maxValue) {
+        return 64 - Long.numberOfLeadingZeros(maxValue);
+    }
+
+    private static int wordCount(int count, int bits) {
+        return (int) (((long) count * bits + 63) >>> 6);
+    }
+
+    private static void pack(long[] words, int index, int bits, long x) {
+        if (bits == 0) {
+            return;
+        }
+        long bitIndex = (long) index * bits;
+        int word = (int) (bitIndex >>> 6);
+        int shift = (int) (bitIndex & 63);
+        words[word] |= x << shift;
+        if (shift + bits > 64) {
+            words[word + 1] |= x >>> (64 - shift);
+        }
+    }
+
+    private static long unpack(long[] words, int index, int bits) {
+        if (bits == 0) {
+            return 0L;
+        }
+        long bitIndex = (long) index * bits;
+        int word = (int) (bitIndex >>> 6);
+        int shift = (int) (bitIndex & 63);
+        long x = words[word] >>> shift;
+        if (shift + bits > 64) {
+            x |= words[word + 1] << (64 - shift);
+        }
+        return bits == 64 ? x : x & ((1L << bits) - 1);
+    }
+
+    private static void writeWords(WriteBuffer buff, long[] words) {
+        for (long w : words) {
+            buff.putLong(w);
+        }
+    }
+
+    private static long[] readWords(ByteBuffer buff, int count, int bits) {
+        long[] words = new long[wordCount(count, bits)];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = buff.getLong();
+        }
+        return words;
+    }
+
+    private static byte[] toArray(WriteBuffer buff) {
+        ByteBuffer b = buff.getBuffer();
+        byte[] data = new byte[b.position()];
+        b.flip();
+        b.get(data);
+        return data;
+    }
+
+}
@@ -0,0 +1,374 @@
+/*
+ * Copyright 2004-2025 H2 Group. Multiple-Licensed under the MPL 2.0,
+ * and the EPL 1.0 (https://h2database.com/html/license.html).
+ * Initial Developer: H2 Group
+ */
+package org.h2.mvstore.db;
+
+import java.util.BitSet;
+
+import org.h2.command.query.AllColumnsForPlan;
+import org.h2.engine.SessionLocal;
+import org.h2.index.Cursor;
+import org.h2.index.Index;
+import org.h2.index.IndexType;
+import org.h2.message.DbException;
+import org.h2.result.DefaultRow;
+import org.h2.result.Row;
+import org.h2.result.SearchRow;
+import org.h2.result.SortOrder;
+import org.h2.table.IndexColumn;
+import org.h2.table.TableFilter;
+import org.h2.value.Value;
+import org.h2.value.ValueNull;
+
+/**
+ * The scan index of a columnar table. The search rows passed to
+ * {@link #find(SessionLocal, SearchRow, SearchRow, boolean)} may contain
+ * bounds for any column; segments whose zone maps can not match these bounds
+ * are skipped entirely, and the remaining rows are checked against the bounds
+ * using only the columns that have them.
+ */
+public class ColumnarScanIndex extends Index {
+
+    /**
+     * The cost multiplier of this index. Rows are read from MVStore maps, so
+     * the same multiplier as in MVPrimaryIndex and MVSecondaryIndex is used to
+     * let the planner compare this index with indexes of row tables. Zone maps
+     * can't reduce the estimation, because the bounds of conditions are not
+     * known at planning time.
+     */
+    private static final int COST_FACTOR = 10;
+
+    private final ColumnarTable columnarTable;
+
+    public ColumnarScanIndex(ColumnarTable table, int id, IndexColumn[] columns, IndexType indexType) {
+        super(table, id, table.getName() + "_DATA", columns, 0, indexType);
+        this.columnarTable = table;
+    }
+
+    @Override
+    public void close(SessionLocal session) {
+        // nothing to do
+    }
+
+    @Override
+    public void add(SessionLocal session, Row row) {
+        // the table stores the rows itself
+    }
+
+    @Override
+    public void remove(SessionLocal session, Row row) {
+        // the table stores the rows itself
+    }
+
+    @Override
+    public void remove(SessionLocal session) {
+        // the table removes its data itself
+    }
+
+    @Override
+    public void truncate(SessionLocal session) {
+        // the table removes its data itself
+    }
+
+    @Override
+    public Cursor find(SessionLocal session, SearchRow first, SearchRow last, boolean reverse) {
+        if (reverse) {
+            throw DbException.getUnsupportedException("reverse scan of columnar table");
+        }
+        int columnCount = columns.length;
+        Value[] min = null, max = null;
+        if (first != null) {
+            min = new Value[columnCount];
+            for (int i = 0; i < columnCount; i++) {
+                min[i] = first.getValue(i);
+            }
+        }
+        if (last != null) {
+            max = new Value[columnCount];
+            for (int i = 0; i < columnCount; i++) {
+                max[i] = last.getValue(i);
+            }
+        }
+        return new ColumnarCursor(session, columnarTable, min, max);
+    }
+
+    @Override
+    public double getCost(SessionLocal session, int[] masks, TableFilter[] filters, int filter,
+            SortOrder sortOrder, AllColumnsForPlan allColumnsSet, boolean isSelectCommand) {
+        return COST_FACTOR * getCostRangeIndex(masks, columnarTable.getRowCountApproximation(session), filters, filter,
+                sortOrder, true, allColumnsSet, isSelectCommand);
+    }
+
+    @Override
+    public boolean needRebuild() {
+        return false;
+    }
+
+    @Override
+    public long getRowCount(SessionLocal session) {
+        return columnarTable.getRowCount(session);
+    }
+
+    @Override
+    public long getRowCountApproximation(SessionLocal session) {
+        return columnarTable.getRowCountApproximation(session);
+    }
+
+    @Override
+    public long getDiskSpaceUsed(boolean approximate) {
+        return columnarTable.getDiskSpaceUsed(false, approximate);
+    }
+
+    @Override
+    public Row getRow(SessionLocal session, long key) {
+        return columnarTable.getRow(session, key);
+    }
+
+    @Override
+    public String getCreateSQL() {
+        return null;
+    }
+
+    /**
+     * The values of one sealed segment; columns are decoded on first access.
+     */
+    private static final class SegmentValues {
+
+        private final ColumnarTable table;
+
+        private final ColumnarTable.Segment segment;
+
+        private final Value[][] columns;
+
+        SegmentValues(ColumnarTable table, ColumnarTable.Segment segment, int columnCount) {
+            this.table = table;
+            this.segment = segment;
+            columns = new Value[columnCount][];
+        }
+
+        Value get(int column, int pos) {
+            Value[] values = columns[column];
+            if (values == null) {
+                columns[column] = values = table.readColumn(segment, column);
+            }
+            return values[pos];
+        }
+
+    }
+
+    /**
+     * A row of a sealed segment. Values are taken from the segment lazily, so
+     * columns that are never accessed are not decoded.
+     */
+    private static final class ColumnarRow extends DefaultRow {
+
+        private final SegmentValues segment;
+
+        private final int pos;
+
+        private boolean complete;
+
+        ColumnarRow(SegmentValues segment, int pos, int columnCount) {
+            super(new Value[columnCount]);
+            this.segment = segment;
+            this.pos = pos;
+            key = segment.segment.id * segment.table.getSegmentSize() + pos;
+        }
+
+        @Override
+        public Value getValue(int i) {
+            if (i >= 0) {
+                Value v = data[i];
+                if (v == null) {
+                    data[i] = v = segment.get(i, pos);
+                }
+                return v;
+            }
+            return super.getValue(i);
+        }
+
+        @Override
+        public Value[] getValueList() {
+            if (!complete) {
+                for (int i = 0; i < data.length; i++) {
+                    getValue(i);
+                }
+                complete = true;
+            }
+            return data;
+        }
+
+        @Override
+        public int getMemory() {
+            getValueList();
+            return super.getMemory();
+        }
+
+        @Override
+        public String toString() {
+            getValueList();
+            return super.toString();
+        }
+
+    }
+
+    /**
+     * The cursor over the segments of a columnar table.
+     */
+    private static final class ColumnarCursor implements Cursor {
+
+        private final SessionLocal session;
+
+        private final ColumnarTable table;
+
+        private final Value[] min, max;
+
+        private final int columnCount;
+
+        private final ColumnarTable.Segment[] segments;
+
+        private final Row[] openSegmentRows;
+
+        private int segmentIndex = -1;
+
+        private SegmentValues values;
+
+        private BitSet deleted;
+
+        private int pos, count;
+
+        private Row current;
+
+        ColumnarCursor(SessionLocal session, ColumnarTable table, Value[] min, Value[] max) {
+            this.session = session;
+            this.table = table;
+            this.min = min;
+            this.max = max;
+            columnCount = table.getColumns().length;
+            synchronized (table) {
+                segments = table.getSegments();
+                openSegmentRows = table.getOpenSegmentRows();
+            }
+        }
+
+        @Override
+        public Row get() {
+            return current;
+        }
+
+        @Override
+        public SearchRow getSearchRow() {
+            return current;
+        }
+
+        @Override
+        public boolean next() {
+            while (true) {
+                if (values != null) {
+                    while (pos < count) {
+                        int p = pos++;
+                        if (deleted.get(p)) {
+                            continue;
+                        }
+                        Row row = new ColumnarRow(values, p, columnCount);
+                        if (matches(row)) {
+                            current = row;
+                            return true;
+                        }
+                    }
+                    values = null;
+                }
+                if (++segmentIndex < segments.length) {
+                    ColumnarTable.Segment segment = segments[segmentIndex];
+                    if (canMatch(segment)) {
+                        values = new SegmentValues(table, segment, columnCount);
+                        deleted = segment.deleted;
+                        pos = 0;
+                        count = segment.rowCount;
+                    }
+                    continue;
+                }
+                int i = segmentIndex - segments.length;
+                if (i < openSegmentRows.length) {
+                    Row row = openSegmentRows[i];
+                    if (row != null && matches(row)) {
+                        current = row;
+                        return true;
+                    }
+                    continue;
+                }
+                current = null;
+                segmentIndex = segments.length + openSegmentRows.length;
+                return false;
+            }
+        }
+
+        /**
+         * Check whether the zone map of a segment overlaps with the bounds.
+         */
+        private boolean canMatch(ColumnarTable.Segment segment) {
+            for (int c = 0; c < columnCount; c++) {
+                Value lo = min != null ? min[c] : null, hi = max != null ? max[c] : null;
+                if (lo == ValueNull.INSTANCE && hi == ValueNull.INSTANCE) {
+                    // IS NULL
+                    if (!segment.hasNulls[c]) {
+                        return false;
+                    }
+                    continue;
+                }
+                boolean hasLo = lo != null && lo != ValueNull.INSTANCE;
+                boolean hasHi = hi != null && hi != ValueNull.INSTANCE;
+                if (hasLo || hasHi) {
+                    Value segmentMin = segment.min[c];
+                    if (segmentMin == null) {
+                        // only NULL values
+                        return false;
+                    }
+                    if (hasLo && session.compare(segment.max[c], lo) < 0
+                            || hasHi && session.compare(segmentMin, hi) > 0) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Check whether the row is within the bounds.
+         */
+        private boolean matches(Row row) {
+            for (int c = 0; c < columnCount; c++) {
+                Value lo = min != null ? min[c] : null, hi = max != null ? max[c] : null;
+                if (lo == null && hi == null) {
+                    continue;
+                }
+                Value v = row.getValue(c);
+                if (lo == ValueNull.INSTANCE && hi == ValueNull.INSTANCE) {
+                    // IS NULL
+                    if (v != ValueNull.INSTANCE) {
+                        return false;
+                    }
+                    continue;
+                }
+                boolean hasLo = lo != null && lo != ValueNull.INSTANCE;
+                boolean hasHi = hi != null && hi != ValueNull.INSTANCE;
+                if (hasLo || hasHi) {
+                    if (v == ValueNull.INSTANCE
+                            || hasLo && session.compare(v, lo) < 0 || hasHi && session.compare(v, hi) > 0) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public boolean previous() {
+            throw DbException.getInternalError(toString());
+        }
+
+    }
+
+}
@@ -0,0 +1,572 @@
+/*
+ * Copyright 2004-2025 H2 Group. Multiple-Licensed under the MPL 2.0,
+ * and the EPL 1.0 (https://h2database.com/html/license.html).
+ * Initial Developer: H2 Group
+ */
+package org.h2.mvstore.db;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+
+import org.h2.command.ddl.CreateTableData;
+import org.h2.engine.SessionLocal;
+import org.h2.index.Index;
+import org.h2.index.IndexType;
+import org.h2.message.DbException;
+import org.h2.mvstore.DataUtils;
+import org.h2.mvstore.MVMap;
+import org.h2.mvstore.MVStore;
+import org.h2.mvstore.MVStoreException;
+import org.h2.mvstore.WriteBuffer;
+import org.h2.mvstore.type.ByteArrayDataType;
+import org.h2.mvstore.type.LongDataType;
+import org.h2.result.DefaultRow;
+import org.h2.result.Row;
+import org.h2.table.Column;
+import org.h2.table.IndexColumn;
+import org.h2.table.TableBase;
+import org.h2.table.TableType;
+import org.h2.value.DataType;
+import org.h2.value.TypeInfo;
+import org.h2.value.Value;
+import org.h2.value.ValueNull;
+
+/**
+ * A table that stores its data column by column. Rows are appended to an open
+ * segment; when the segment is full every column of it is encoded separately
+ * (see {@link ColumnSegment}) and stored in its own map, together with a zone
+ * map (minimum and maximum value of each column) that allows scans to skip
+ * whole segments. Scans read only the columns that are actually used.
+ * <p>
+ * The table is intended for append-mostly analytic data. It is not
+ * transactional (changes can not be rolled back) and does not support
+ * indexes.
+ * </p>
+ */
+public class ColumnarTable extends TableBase {
+
+    /**
+     * The default number of rows in a segment.
+     */
+    public static final int DEFAULT_SEGMENT_SIZE = 4096;
+
+    /**
+     * The prefix of the table engine parameter that sets the segment size.
+     */
+    public static final String SEGMENT_SIZE_PARAM = "SEGMENT_SIZE=";
+
+    /**
+     * The prefix of the names of the maps used by columnar tables.
+     */
+    static final String MAP_PREFIX = "columnar.";
+
+    /**
+     * The metadata of a sealed segment.
+     */
+    static final class Segment {
+
+        /**
+         * The id of the segment.
+         */
+        final long id;
+
+        /**
+         * The number of rows in the segment, including deleted rows.
+         */
+        final int rowCount;
+
+        /**
+         * The smallest non-NULL value of each column, or {@code null}.
+         */
+        final Value[] min;
+
+        /**
+         * The largest non-NULL value of each column, or {@code null}.
+         */
+        final Value[] max;
+
+        /**
+         * Whether the column contains NULL values.
+         */
+        final boolean[] hasNulls;
+
+        /**
+         * The positions of deleted rows. The bit set is replaced on every
+         * change, so readers may use it without synchronization.
+         */
+        volatile BitSet deleted;
+
+        Segment(long id, int rowCount, Value[] min, Value[] max, boolean[] hasNulls, BitSet deleted) {
+            this.id = id;
+            this.rowCount = rowCount;
+            this.min = min;
+            this.max = max;
+            this.hasNulls = hasNulls;
+            this.deleted = deleted;
+        }
+
+    }
+
+    private final int segmentSize;
+    private final ValueDataType valueType;
+    private final MVStore mvStore;
+
+    /**
+     * Column maps, segment id to encoded values of the column.
+     */
+    private final ArrayList<MVMap<Long, byte[]>> columnMaps;
+
+    /**
+     * Segment id to zone map.
+     */
+    private final MVMap<Long, byte[]> zoneMap;
+
+    /**
+     * Segment id to bit set of deleted rows.
+     */
+    private final MVMap<Long, byte[]> deletedMap;
+
+    /**
+     * Row key to row values for rows in the open segment.
+     */
+    private final MVMap<Long, byte[]> openSegmentMap;
+
+    private final ArrayList<Segment> segments = new ArrayList<>();
+    private final Row[] openSegment;
+    private int openSegmentCount;
+    private long rowCount;
+
+    private final ColumnarScanIndex scanIndex;
+    private final List<Index> indexes;
+    private volatile long lastModificationId;
+
+    @SuppressWarnings("unchecked")
+    public ColumnarTable(CreateTableData data, Store store) {
+        super(data);
+        int size = DEFAULT_SEGMENT_SIZE;
+        List<String> params = data.tableEngineParams;
+        for (String param : params != null ? params : List.<String>of()) {
+            if (param.regionMatches(true, 0, SEGMENT_SIZE_PARAM, 0, SEGMENT_SIZE_PARAM.length())) {
+                try {
+                    size = Integer.parseInt(param.substring(SEGMENT_SIZE_PARAM.length()).trim());
+                } catch (NumberFormatException e) {
+                    throw DbException.getInvalidValueException("SEGMENT_SIZE", param);
+                }
+                if (size <= 0) {
+                    throw DbException.getInvalidValueException("SEGMENT_SIZE", size);
+                }
+            }
+        }
+        segmentSize = size;
+        Column[] columns = getColumns();
+        for (Column col : columns) {
+            if (DataType.isLargeObject(col.getType().getValueType())) {
+                throw DbException.getUnsupportedException("Columnar table with column: " + col.getCreateSQL());
+            }
+        }
+        valueType = new ValueDataType(database, null);
+        mvStore = store.getMvStore();
+        String prefix = MAP_PREFIX + getId() + '.';
+        try {
+            columnMaps = new ArrayList<>(columns.length);
+            for (int i = 0; i < columns.length; i++) {
+                columnMaps.add(openMap(prefix + 'c' + i));
+            }
+            zoneMap = openMap(prefix + "zones");
+            deletedMap = openMap(prefix + "deleted");
+            openSegmentMap = openMap(prefix + "open");
+            openSegment = new Row[segmentSize];
+            for (Map.Entry<Long, byte[]> e : zoneMap.entrySet()) {
+                byte[] d = deletedMap.get(e.getKey());
+                segments.add(readZoneMap(e.getKey(), e.getValue(), d == null ? new BitSet() : BitSet.valueOf(d)));
+            }
+            for (Segment s : segments) {
+                rowCount += s.rowCount - s.deleted.cardinality();
+            }
+            long base = getOpenSegmentBase();
+            for (Map.Entry<Long, byte[]> e : openSegmentMap.entrySet()) {
+                long key = e.getKey();
+                int pos = (int) (key - base);
+                openSegment[pos] = readRow(key, e.getValue());
+                openSegmentCount = pos + 1;
+                rowCount++;
+            }
+        } catch (MVStoreException e) {
+            throw store.convertMVStoreException(e);
+        }
+        scanIndex = new ColumnarScanIndex(this, getId(), IndexColumn.wrap(columns), IndexType.createScan(true));
+        indexes = List.of(scanIndex);
+    }
+
+    private MVMap<Long, byte[]> openMap(String name) {
+        return mvStore.openMap(name, new MVMap.Builder<Long, byte[]>().keyType(LongDataType.INSTANCE)
+                .valueType(ByteArrayDataType.INSTANCE));
+    }
+
+    /**
+     * Get the number of rows in a segment.
+     *
+     * @return the segment size
+     */
+    public int getSegmentSize() {
+        return segmentSize;
+    }
+
+    /**
+     * Get the number of sealed segments.
+     *
+     * @return the number of sealed segments
+     */
+    public synchronized int getSegmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Get a snapshot of the sealed segments.
+     *
+     * @return the sealed segments
+     */
+    synchronized Segment[] getSegments() {
+        return segments.toArray(new Segment[0]);
+    }
+
+    /**
+     * Get a snapshot of the rows of the open segment. Deleted rows are
+     * represented by {@code null} elements.
+     *
+     * @return the rows of the open segment
+     */
+    synchronized Row[] getOpenSegmentRows() {
+        return Arrays.copyOf(openSegment, openSegmentCount);
+    }
+
+    /**
+     * Read and decode the values of a column of a sealed segment.
+     *
+     * @param segment the segment
+     * @param column the column index
+     * @return the values
+     */
+    Value[] readColumn(Segment segment, int column) {
+        byte[] data;
+        try {
+            data = columnMaps.get(column).get(segment.id);
+        } catch (MVStoreException e) {
+            throw database.getStore().convertMVStoreException(e);
+        }
+        if (data == null) {
+            // concurrently truncated
+            Value[] values = new Value[segment.rowCount];
+            Arrays.fill(values, ValueNull.INSTANCE);
+            return values;
+        }
+        return ColumnSegment.decode(valueType, columns[column].getType(), data);
+    }
+
+    @Override
+    public synchronized void addRow(SessionLocal session, Row row) {
+        int pos = openSegmentCount;
+        long key = getOpenSegmentBase() + pos;
+        row.setKey(key);
+        try {
+            openSegmentMap.put(key, writeRow(row));
+            openSegment[pos] = row;
+            openSegmentCount = pos + 1;
+            rowCount++;
+            if (openSegmentCount == segmentSize) {
+                sealOpenSegment();
+            }
+        } catch (MVStoreException e) {
+            throw database.getStore().convertMVStoreException(e);
+        }
+        lastModificationId = database.getNextModificationDataId();
+    }
+
+    @Override
+    public synchronized void removeRow(SessionLocal session, Row row) {
+        long key = row.getKey();
+        long id = key / segmentSize;
+        int pos = (int) (key % segmentSize);
+        try {
+            if (id < segments.size()) {
+                Segment s = segments.get((int) id);
+                if (pos >= s.rowCount || s.deleted.get(pos)) {
+                    throw DbException.getInternalError("row not found " + key + " in " + getName());
+                }
+                BitSet deleted = (BitSet) s.deleted.clone();
+                deleted.set(pos);
+                deletedMap.put(id, deleted.toByteArray());
+                s.deleted = deleted;
+            } else {
+                if (pos >= openSegmentCount || openSegment[pos] == null) {
+                    throw DbException.getInternalError("row not found " + key + " in " + getName());
+                }
+                openSegmentMap.remove(key);
+                openSegment[pos] = null;
+            }
+        } catch (MVStoreException e) {
+            throw database.getStore().convertMVStoreException(e);
+        }
+        rowCount--;
+        lastModificationId = database.getNextModificationDataId();
+    }
+
+    @Override
+    public synchronized long truncate(SessionLocal session) {
+        long result = rowCount;
+        try {
+            for (MVMap<Long, byte[]> map : columnMaps) {
+                map.clear();
+            }
+            zoneMap.clear();
+            deletedMap.clear();
+            openSegmentMap.clear();
+        } catch (MVStoreException e) {
+            throw database.getStore().convertMVStoreException(e);
+        }
+        segments.clear();
+        Arrays.fill(openSegment, null);
+        openSegmentCount = 0;
+        rowCount = 0;
+        lastModificationId = database.getNextModificationDataId();
+        return result;
+    }
+
+    @Override
+    public synchronized Row getRow(SessionLocal session, long key) {
+        long id = key / segmentSize;
+        int pos = (int) (key % segmentSize);
+        if (id < segments.size()) {
+            Segment s = segments.get((int) id);
+            if (pos >= s.rowCount || s.deleted.get(pos)) {
+                return null;
+            }
+            int l = columns.length;
+            Value[] values = new Value[l];
+            for (int i = 0; i < l; i++) {
+                values[i] = readColumn(s, i)[pos];
+            }
+            return Row.get(values, DefaultRow.MEMORY_CALCULATE, key);
+        }
+        return pos < openSegmentCount ? openSegment[pos] : null;
+    }
+
+    private long getOpenSegmentBase() {
+        return (long) segments.size() * segmentSize;
+    }
+
+    private void sealOpenSegment() {
+        long id = segments.size();
+        int count = openSegmentCount, columnCount = columns.length;
+        BitSet deleted = new BitSet();
+        for (int i = 0; i < count; i++) {
+            if (openSegment[i] == null) {
+                deleted.set(i);
+            }
+        }
+        Value[] min = new Value[columnCount], max = new Value[columnCount];
+        boolean[] hasNulls = new boolean[columnCount];
+        Value[] values = new Value[count];
+        for (int c = 0; c < columnCount; c++) {
+            Value lo = null, hi = null;
+            boolean nulls = false;
+            for (int i = 0; i < count; i++) {
+                Row row = openSegment[i];
+                Value v = row == null ? ValueNull.INSTANCE : row.getValue(c);
+                values[i] = v;
+                if (row == null) {
+                    continue;
+                }
+                if (v == ValueNull.INSTANCE) {
+                    nulls = true;
+                } else {
+                    if (lo == null || compareTypeSafe(v, lo) < 0) {
+                        lo = v;
+                    }
+                    if (hi == null || compareTypeSafe(v, hi) > 0) {
+                        hi = v;
+                    }
+                }
+            }
+            min[c] = lo;
+            max[c] = hi;
+            hasNulls[c] = nulls;
+            columnMaps.get(c).put(id, ColumnSegment.encode(valueType, columns[c].getType(), values, count));
+        }
+        Segment segment = new Segment(id, count, min, max, hasNulls, deleted);
+        if (!deleted.isEmpty()) {
+            deletedMap.put(id, deleted.toByteArray());
+        }
+        zoneMap.put(id, writeZoneMap(segment));
+        openSegmentMap.clear();
+        segments.add(segment);
+        Arrays.fill(openSegment, null);
+        openSegmentCount = 0;
+    }
+
+    private int compareTypeSafe(Value a, Value b) {
+        return a.compareTypeSafe(b, database.getCompareMode(), database);
+    }
+
+    private byte[] writeZoneMap(Segment segment) {
+        WriteBuffer buff = new WriteBuffer();
+        buff.putVarInt(segment.rowCount);
+        for (int c = 0, l = columns.length; c < l; c++) {
+            Value lo = segment.min[c];
+            buff.put((byte) ((segment.hasNulls[c] ? 1 : 0) | (lo != null ? 2 : 0)));
+            if (lo != null) {
+                valueType.write(buff, lo);
+                valueType.write(buff, segment.max[c]);
+            }
+        }
+        return toArray(buff);
+    }
+
+    private Segment readZoneMap(long id, byte[] data, BitSet deleted) {
+        ByteBuffer buff = ByteBuffer.wrap(data);
+        int count = DataUtils.readVarInt(buff);
+        int l = columns.length;
+        Value[] min = new Value[l], max = new Value[l];
+        boolean[] hasNulls = new boolean[l];
+        for (int c = 0; c < l; c++) {
+            int flags = buff.get();
+            hasNulls[c] = (flags & 1) != 0;
+            if ((flags & 2) != 0) {
+                TypeInfo type = columns[c].getType();
+                min[c] = valueType.readValue(buff, type);
+                max[c] = valueType.readValue(buff, type);
+            }
+        }
+        return new Segment(id, count, min, max, hasNulls, deleted);
+    }
+
+    private byte[] writeRow(Row row) {
+        WriteBuffer buff = new WriteBuffer();
+        for (int i = 0, l = columns.length; i < l; i++) {
+            valueType.write(buff, row.getValue(i));
+        }
+        return toArray(buff);
+    }
+
+    private Row readRow(long key, byte[] data) {
+        ByteBuffer buff = ByteBuffer.wrap(data);
+        int l = columns.length;
+        Value[] values = new Value[l];
+        for (int i = 0; i < l; i++) {
+            values[i] = valueType.readValue(buff, columns[i].getType());
+        }
+        return Row.get(values, DefaultRow.MEMORY_CALCULATE, key);
+    }
+
+    private static byte[] toArray(WriteBuffer buff) {
+        ByteBuffer b = buff.getBuffer();
+        byte[] data = new byte[b.position()];
+        b.flip();
+        b.get(data);
+        return data;
+    }
+
+    @Override
+    public Index addIndex(SessionLocal session, String indexName, int indexId, IndexColumn[] cols,
+            int uniqueColumnCount, IndexType indexType, boolean create, String indexComment) {
+        throw DbException.getUnsupportedException("Index on columnar table " + getName());
+    }
+
+    @Override
+    public void removeChildrenAndResources(SessionLocal session) {
+        super.removeChildrenAndResources(session);
+        try {
+            for (MVMap<Long, byte[]> map : columnMaps) {
+                mvStore.removeMap(map);
+            }
+            mvStore.removeMap(zoneMap);
+            mvStore.removeMap(deletedMap);
+            mvStore.removeMap(openSegmentMap);
+        } catch (MVStoreException e) {
+            throw database.getStore().convertMVStoreException(e);
+        }
+        close(session);
+        invalidate();
+    }
+
+    @Override
+    public void close(SessionLocal session) {
+        // nothing to do
+    }
+
+    @Override
+    public void checkSupportAlter() {
+        // ok
+    }
+
+    @Override
+    public TableType getTableType() {
+        return TableType.EXTERNAL_TABLE_ENGINE;
+    }
+
+    @Override
+    public Index getScanIndex(SessionLocal session) {
+        return scanIndex;
+    }
+
+    @Override
+    public List<Index> getIndexes() {
+        return indexes;
+    }
+
+    @Override
+    public long getMaxDataModificationId() {
+        return lastModificationId;
+    }
+
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
+    @Override
+    public boolean canGetRowCount(SessionLocal session) {
+        return true;
+    }
+
+    @Override
+    public boolean canDrop() {
+        return true;
+    }
+
+    @Override
+    public boolean canTruncate() {
+        return true;
+    }
+
+    @Override
+    public synchronized long getRowCount(SessionLocal session) {
+        return rowCount;
+    }
+
+    @Override
+    public long getRowCountApproximation(SessionLocal session) {
+        return getRowCount(session);
+    }
+
+    @Override
+    public long getDiskSpaceUsed(boolean total, boolean approximate) {
+        long size = zoneMap.getRootPage().getDiskSpaceUsed(approximate)
+                + deletedMap.getRootPage().getDiskSpaceUsed(approximate)
+                + openSegmentMap.getRootPage().getDiskSpaceUsed(approximate);
+        for (MVMap<Long, byte[]> map : columnMaps) {
+            size += map.getRootPage().getDiskSpaceUsed(approximate);
+        }
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return getTraceSQL();
+    }
+
+}
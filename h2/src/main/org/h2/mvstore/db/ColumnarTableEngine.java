@@ -0,0 +1,32 @@
+/*
+ * Copyright 2004-2025 H2 Group. Multiple-Licensed under the MPL 2.0,
+ * and the EPL 1.0 (https://h2database.com/html/license.html).
+ * Initial Developer: H2 Group
+ */
+package org.h2.mvstore.db;
+
+import org.h2.api.TableEngine;
+import org.h2.command.ddl.CreateTableData;
+import org.h2.mvstore.MVStoreException;
+
+/**
+ * A table engine that creates {@link ColumnarTable columnar tables}. Usage:
+ *
+ * <pre>
+ * CREATE TABLE FACTS(...) ENGINE "org.h2.mvstore.db.ColumnarTableEngine";
+ * CREATE TABLE FACTS(...) ENGINE "org.h2.mvstore.db.ColumnarTableEngine" WITH "SEGMENT_SIZE=65536";
+ * </pre>
+ */
+public class ColumnarTableEngine implements TableEngine {
+
+    @Override
+    public ColumnarTable createTable(CreateTableData data) {
+        Store store = data.session.getDatabase().getStore();
+        try {
+            return new ColumnarTable(data, store);
+        } catch (MVStoreException e) {
+            throw store.convertMVStoreException(e);
+        }
+    }
+
+}
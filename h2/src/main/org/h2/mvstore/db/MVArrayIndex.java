@@ -0,0 +1,619 @@
+/*
+ * Copyright 2004-2025 H2 Group. Multiple-Licensed under the MPL 2.0,
+ * and the EPL 1.0 (https://h2database.com/html/license.html).
+ * Initial Developer: H2 Group
+ */
+package org.h2.mvstore.db;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+
+import org.h2.api.ErrorCode;
+import org.h2.command.query.AllColumnsForPlan;
+import org.h2.engine.Constants;
+import org.h2.engine.Database;
+import org.h2.engine.SessionLocal;
+import org.h2.expression.Expression;
+import org.h2.expression.condition.Comparison;
+import org.h2.index.ArrayIndex;
+import org.h2.index.Cursor;
+import org.h2.index.IndexCondition;
+import org.h2.index.IndexType;
+import org.h2.index.SingleRowCursor;
+import org.h2.message.DbException;
+import org.h2.mvstore.MVMap;
+import org.h2.mvstore.MVStore;
+import org.h2.mvstore.MVStoreException;
+import org.h2.mvstore.tx.Transaction;
+import org.h2.mvstore.tx.TransactionMap;
+import org.h2.result.Row;
+import org.h2.result.RowFactory;
+import org.h2.result.SearchRow;
+import org.h2.result.SortOrder;
+import org.h2.table.Column;
+import org.h2.table.IndexColumn;
+import org.h2.table.TableFilter;
+import org.h2.value.TypeInfo;
+import org.h2.value.Value;
+import org.h2.value.ValueArray;
+import org.h2.value.ValueNull;
+import org.h2.value.VersionedValue;
+
+/**
+ * An array index with sets of rows for each element stored in a transactional
+ * map.
+ *
+ * <p>
+ * For each distinct non-null element of an array the map has an entry with the
+ * element and the key of the row as its key. An entry with {@code NULL}
+ * element exists for each row. The index is used for conditions such as
+ * {@code 1 = ANY(A)}, {@code ARRAY_CONTAINS(A, 1)}, and
+ * {@code A && ARRAY[1, 2]}, and returns rows with any of searched elements;
+ * these rows need to be checked by the condition.
+ * </p>
+ */
+public final class MVArrayIndex extends MVIndex<SearchRow, Value> implements ArrayIndex {
+
+    /**
+     * The multi-value table.
+     */
+    private final MVTable mvTable;
+
+    /**
+     * The data type of elements.
+     */
+    private final TypeInfo elementType;
+
+    /**
+     * The factory of keys of the map.
+     */
+    private final RowFactory keyFactory;
+
+    private final TransactionMap<SearchRow, Value> dataMap;
+
+    /**
+     * Constructor.
+     *
+     * @param db the database
+     * @param table the table instance
+     * @param id the index id
+     * @param indexName the index name
+     * @param columns the indexed columns (only one array column is allowed)
+     * @param indexType the index type (only array index)
+     */
+    public MVArrayIndex(Database db, MVTable table, int id, String indexName, IndexColumn[] columns,
+            IndexType indexType) {
+        super(table, id, indexName, columns, 0, indexType);
+        if (columns.length != 1) {
+            throw DbException.getUnsupportedException("Can only index one column");
+        }
+        IndexColumn col = columns[0];
+        if ((col.sortType & (SortOrder.DESCENDING | SortOrder.NULLS_FIRST | SortOrder.NULLS_LAST)) != 0) {
+            throw DbException.getUnsupportedException("Sort order in array index");
+        }
+        TypeInfo type = col.column.getType();
+        if (type.getValueType() != Value.ARRAY) {
+            throw DbException.getUnsupportedException("Array index on non-array column, " + col.column.getCreateSQL());
+        }
+        this.mvTable = table;
+        elementType = (TypeInfo) type.getExtTypeInfo();
+        String mapName = "index." + getId();
+        Transaction t = mvTable.getTransactionBegin();
+        keyFactory = RowFactory.getDefaultRowFactory().createRowFactory(db, db.getCompareMode(), db,
+                new int[] { SortOrder.ASCENDING }, new int[] { 0 }, new TypeInfo[] { elementType }, 1, true);
+        RowDataType keyType = keyFactory.getRowDataType();
+        dataMap = t.openMap(mapName, keyType, NullValueDataType.INSTANCE);
+        dataMap.map.setVolatile(!table.isPersistData() || !indexType.isPersistent());
+        if (!db.isStarting()) {
+            dataMap.clear();
+        }
+        t.commit();
+    }
+
+    @Override
+    public boolean needsRowBuffer() {
+        // each row has several entries, they are always written in sorted
+        // order
+        return true;
+    }
+
+    @Override
+    public void addRowsToBuffer(List<Row> rows, String bufferName) {
+        ArrayList<SearchRow> entries = new ArrayList<>(rows.size() * 2);
+        for (Row row : rows) {
+            long key = row.getKey();
+            Value v = row.getValue(columnIds[0]);
+            if (v != ValueNull.INSTANCE) {
+                for (Value element : ((ValueArray) v).getList()) {
+                    if (element != ValueNull.INSTANCE) {
+                        entries.add(getKey(element, key));
+                    }
+                }
+            }
+            entries.add(getKey(ValueNull.INSTANCE, key));
+        }
+        RowDataType keyType = keyFactory.getRowDataType();
+        entries.sort(keyType);
+        MVMap<SearchRow, Value> map = openMap(bufferName);
+        SearchRow last = null;
+        for (SearchRow entry : entries) {
+            // skip duplicate elements of the same array
+            if (last == null || keyType.compare(last, entry) != 0) {
+                map.append(entry, ValueNull.INSTANCE);
+                last = entry;
+            }
+        }
+    }
+
+    @Override
+    public void addBufferedRows(List<String> bufferNames) {
+        RowDataType keyType = keyFactory.getRowDataType();
+        ArrayList<Iterator<SearchRow>> iterators = new ArrayList<>(bufferNames.size());
+        ArrayList<SearchRow> current = new ArrayList<>(bufferNames.size());
+        PriorityQueue<Integer> queue = new PriorityQueue<>(Math.max(bufferNames.size(), 1),
+                (a, b) -> keyType.compare(current.get(a), current.get(b)));
+        for (String bufferName : bufferNames) {
+            Iterator<SearchRow> it = openMap(bufferName).keyIterator(null);
+            if (it.hasNext()) {
+                int i = iterators.size();
+                iterators.add(it);
+                current.add(it.next());
+                queue.add(i);
+            }
+        }
+        try {
+            while (!queue.isEmpty()) {
+                int i = queue.poll();
+                dataMap.putCommitted(current.get(i), ValueNull.INSTANCE);
+                Iterator<SearchRow> it = iterators.get(i);
+                if (it.hasNext()) {
+                    current.set(i, it.next());
+                    queue.add(i);
+                }
+            }
+        } finally {
+            MVStore mvStore = database.getStore().getMvStore();
+            for (String bufferName : bufferNames) {
+                mvStore.removeMap(bufferName);
+            }
+        }
+    }
+
+    private MVMap<SearchRow, Value> openMap(String mapName) {
+        MVMap.Builder<SearchRow, Value> builder = new MVMap.Builder<SearchRow, Value>().singleWriter()
+                .keyType(keyFactory.getRowDataType()).valueType(NullValueDataType.INSTANCE);
+        return database.getStore().getMvStore().openMap(mapName, builder);
+    }
+
+    @Override
+    public void close(SessionLocal session) {
+        // ok
+    }
+
+    @Override
+    public void add(SessionLocal session, Row row) {
+        TreeSet<Value> elements = getElements(session, row);
+        TransactionMap<SearchRow, Value> map = getMap(session);
+        long key = row.getKey();
+        try {
+            for (Value element : elements) {
+                map.put(getKey(element, key), ValueNull.INSTANCE);
+            }
+            map.put(getKey(ValueNull.INSTANCE, key), ValueNull.INSTANCE);
+        } catch (MVStoreException e) {
+            throw mvTable.convertException(e);
+        }
+    }
+
+    @Override
+    public void remove(SessionLocal session, Row row) {
+        TreeSet<Value> elements = getElements(session, row);
+        TransactionMap<SearchRow, Value> map = getMap(session);
+        long key = row.getKey();
+        try {
+            if (map.remove(getKey(ValueNull.INSTANCE, key)) == null) {
+                StringBuilder builder = new StringBuilder();
+                getSQL(builder, TRACE_SQL_FLAGS).append(": ").append(key);
+                throw DbException.get(ErrorCode.ROW_NOT_FOUND_WHEN_DELETING_1, builder.toString());
+            }
+            for (Value element : elements) {
+                map.remove(getKey(element, key));
+            }
+        } catch (MVStoreException e) {
+            throw mvTable.convertException(e);
+        }
+    }
+
+    @Override
+    public void update(SessionLocal session, Row oldRow, Row newRow) {
+        long key = oldRow.getKey();
+        if (key != newRow.getKey()) {
+            super.update(session, oldRow, newRow);
+            return;
+        }
+        TreeSet<Value> oldElements = getElements(session, oldRow), newElements = getElements(session, newRow);
+        TransactionMap<SearchRow, Value> map = getMap(session);
+        try {
+            // only entries of changed elements are written
+            for (Value element : oldElements) {
+                if (!newElements.contains(element)) {
+                    map.remove(getKey(element, key));
+                }
+            }
+            for (Value element : newElements) {
+                if (!oldElements.contains(element)) {
+                    map.put(getKey(element, key), ValueNull.INSTANCE);
+                }
+            }
+        } catch (MVStoreException e) {
+            throw mvTable.convertException(e);
+        }
+    }
+
+    /**
+     * Returns distinct non-null elements of the indexed array of the specified
+     * row. Elements are distinct in the same way as keys of the map.
+     *
+     * @param session the session
+     * @param row the row
+     * @return the elements
+     */
+    private TreeSet<Value> getElements(SessionLocal session, SearchRow row) {
+        TreeSet<Value> elements = new TreeSet<>(session);
+        Value v = row.getValue(columnIds[0]);
+        if (v != ValueNull.INSTANCE) {
+            for (Value element : ((ValueArray) v).getList()) {
+                if (element != ValueNull.INSTANCE) {
+                    elements.add(element);
+                }
+            }
+        }
+        return elements;
+    }
+
+    @Override
+    public Cursor findByElements(SessionLocal session, Value[] elements) {
+        TreeSet<Value> set = new TreeSet<>(session);
+        for (Value v : elements) {
+            v = convertElement(session, v);
+            if (v == null) {
+                return find(session, null, null, false);
+            }
+            set.add(v);
+        }
+        if (set.isEmpty()) {
+            return SingleRowCursor.EMPTY;
+        }
+        TransactionMap<SearchRow, Value> map = getMap(session);
+        Iterator<SearchRow> it;
+        if (set.size() == 1) {
+            Value element = set.first();
+            it = map.keyIterator(getKey(element, Long.MIN_VALUE), getKey(element, Long.MAX_VALUE));
+        } else {
+            it = new UnionIterator(map, set);
+        }
+        return new MVStoreCursor(session, it, mvTable);
+    }
+
+    /**
+     * Converts the searched element to the data type of elements.
+     *
+     * @param session the session
+     * @param v the searched element
+     * @return the converted element, or {@code null} if all rows need to be
+     *         checked
+     */
+    private Value convertElement(SessionLocal session, Value v) {
+        if (v == ValueNull.INSTANCE) {
+            // ARRAY_CONTAINS(A, NULL) is true for arrays with NULL elements,
+            // but NULL elements aren't stored in the index
+            return null;
+        }
+        if (v.getValueType() != elementType.getValueType()) {
+            try {
+                v = v.convertTo(elementType, session);
+            } catch (DbException e) {
+                return null;
+            }
+        }
+        return v;
+    }
+
+    /**
+     * Returns the estimated number of entries with the specified element,
+     * including uncommitted ones.
+     *
+     * @param element the element, or {@code NULL} to count rows
+     * @return the estimated number of entries
+     */
+    private long countEntries(Value element) {
+        MVMap<SearchRow, VersionedValue<Value>> map = dataMap.map;
+        long from = map.getKeyIndex(getKey(element, Long.MIN_VALUE));
+        long to = map.getKeyIndex(getKey(element, Long.MAX_VALUE));
+        return (to >= 0L ? to + 1 : ~to) - (from >= 0L ? from : ~from);
+    }
+
+    private SearchRow getKey(Value element, long key) {
+        SearchRow row = keyFactory.createRow();
+        row.setValue(0, element);
+        row.setKey(key);
+        return row;
+    }
+
+    @Override
+    public Cursor find(SessionLocal session, SearchRow first, SearchRow last, boolean reverse) {
+        SearchRow from = getKey(ValueNull.INSTANCE, Long.MIN_VALUE), to = getKey(ValueNull.INSTANCE, Long.MAX_VALUE);
+        return new MVStoreCursor(session,
+                reverse ? getMap(session).keyIterator(to, from, true) : getMap(session).keyIterator(from, to),
+                mvTable);
+    }
+
+    @Override
+    public MVTable getTable() {
+        return mvTable;
+    }
+
+    @Override
+    public double getCost(SessionLocal session, int[] masks, TableFilter[] filters, int filter,
+            SortOrder sortOrder, AllColumnsForPlan allColumnsSet, boolean isSelectCommand) {
+        // Never use array index without element condition
+        Column column = columns[0];
+        if (masks == null || (masks[column.getColumnId()] & IndexCondition.CONTAINS_ANY) == 0) {
+            return Long.MAX_VALUE;
+        }
+        try {
+            long rowCount = countEntries(ValueNull.INSTANCE), rowsCost = 2 + rowCount / 4;
+            if (filters != null) {
+                for (IndexCondition condition : filters[filter].getIndexConditions()) {
+                    if (condition.getCompareType() == Comparison.CONTAINS_ANY && condition.getColumn() == column) {
+                        // only the first condition is used by the cursor
+                        long rows = estimateRows(session, condition);
+                        if (rows >= 0L) {
+                            rowsCost = Math.min(rows, rowCount);
+                        }
+                        break;
+                    }
+                }
+            }
+            // each found row is read from the primary index
+            long cost = 2 + 2 * (rowCount + Constants.COST_ROW_OFFSET) * rowsCost / Math.max(rowCount, 1L);
+            if (sortOrder != null) {
+                cost += 100 + rowCount / 10;
+            }
+            return 10 * cost;
+        } catch (MVStoreException e) {
+            throw DbException.get(ErrorCode.OBJECT_CLOSED, e);
+        }
+    }
+
+    /**
+     * Returns the estimated number of rows with searched elements.
+     *
+     * @param session the session
+     * @param condition the index condition
+     * @return the estimated number of rows, or -1 if elements aren't known
+     */
+    private long estimateRows(SessionLocal session, IndexCondition condition) {
+        Value[] elements;
+        List<Expression> list = condition.getExpressionList();
+        if (list != null) {
+            int count = list.size();
+            elements = new Value[count];
+            for (int i = 0; i < count; i++) {
+                Expression e = list.get(i);
+                if (!e.isConstant()) {
+                    return -1L;
+                }
+                elements[i] = e.getValue(session);
+            }
+        } else {
+            Expression e = condition.getExpression();
+            if (!e.isConstant()) {
+                return -1L;
+            }
+            Value v = e.getValue(session);
+            elements = v instanceof ValueArray ? ((ValueArray) v).getList() : Value.EMPTY_VALUES;
+        }
+        long rows = 0L;
+        for (Value v : elements) {
+            v = convertElement(session, v);
+            if (v == null) {
+                return -1L;
+            }
+            rows += countEntries(v);
+        }
+        return rows;
+    }
+
+    @Override
+    public void remove(SessionLocal session) {
+        TransactionMap<SearchRow, Value> map = getMap(session);
+        if (!map.isClosed()) {
+            Transaction t = session.getTransaction();
+            t.removeMap(map);
+        }
+    }
+
+    @Override
+    public void truncate(SessionLocal session) {
+        TransactionMap<SearchRow, Value> map = getMap(session);
+        map.clear();
+    }
+
+    @Override
+    public boolean needRebuild() {
+        try {
+            return dataMap.sizeAsLongMax() == 0;
+        } catch (MVStoreException e) {
+            throw DbException.get(ErrorCode.OBJECT_CLOSED, e);
+        }
+    }
+
+    @Override
+    public long getRowCount(SessionLocal session) {
+        long count = 0L;
+        for (Cursor cursor = find(session, null, null, false); cursor.next();) {
+            count++;
+        }
+        return count;
+    }
+
+    @Override
+    public long getRowCountApproximation(SessionLocal session) {
+        try {
+            return countEntries(ValueNull.INSTANCE);
+        } catch (MVStoreException e) {
+            throw DbException.get(ErrorCode.OBJECT_CLOSED, e);
+        }
+    }
+
+    /**
+     * Get the map to store the data.
+     *
+     * @param session the session
+     * @return the map
+     */
+    private TransactionMap<SearchRow, Value> getMap(SessionLocal session) {
+        if (session == null) {
+            return dataMap;
+        }
+        Transaction t = session.getTransaction();
+        return dataMap.getInstance(t);
+    }
+
+    @Override
+    public MVMap<SearchRow, VersionedValue<Value>> getMVMap() {
+        return dataMap.map;
+    }
+
+    /**
+     * An iterator over entries of several elements ordered by keys of rows.
+     * Each row is returned only once.
+     */
+    private final class UnionIterator implements Iterator<SearchRow> {
+
+        private final ArrayList<Iterator<SearchRow>> iterators;
+
+        private final SearchRow[] current;
+
+        /**
+         * Indexes of iterators ordered by keys of their current rows.
+         */
+        private final PriorityQueue<Integer> queue;
+
+        private long lastKey;
+
+        private boolean started;
+
+        private SearchRow next;
+
+        UnionIterator(TransactionMap<SearchRow, Value> map, Collection<Value> elements) {
+            int count = elements.size();
+            iterators = new ArrayList<>(count);
+            current = new SearchRow[count];
+            queue = new PriorityQueue<>(count, (a, b) -> Long.compare(current[a].getKey(), current[b].getKey()));
+            for (Value element : elements) {
+                Iterator<SearchRow> it = map.keyIterator(getKey(element, Long.MIN_VALUE),
+                        getKey(element, Long.MAX_VALUE));
+                int i = iterators.size();
+                iterators.add(it);
+                if (it.hasNext()) {
+                    current[i] = it.next();
+                    queue.add(i);
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && !queue.isEmpty()) {
+                int i = queue.poll();
+                SearchRow row = current[i];
+                Iterator<SearchRow> it = iterators.get(i);
+                if (it.hasNext()) {
+                    current[i] = it.next();
+                    queue.add(i);
+                }
+                long key = row.getKey();
+                if (!started || key != lastKey) {
+                    started = true;
+                    lastKey = key;
+                    next = row;
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public SearchRow next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            SearchRow row = next;
+            next = null;
+            return row;
+        }
+
+    }
+
+    /**
+     * A cursor over rows of the index.
+     */
+    private static final class MVStoreCursor implements Cursor {
+
+        private final SessionLocal session;
+        private final Iterator<SearchRow> it;
+        private final MVTable mvTable;
+        private SearchRow current;
+        private SearchRow searchRow;
+        private Row row;
+
+        MVStoreCursor(SessionLocal session, Iterator<SearchRow> it, MVTable mvTable) {
+            this.session = session;
+            this.it = it;
+            this.mvTable = mvTable;
+        }
+
+        @Override
+        public Row get() {
+            if (row == null) {
+                SearchRow r = getSearchRow();
+                if (r != null) {
+                    row = mvTable.getRow(session, r.getKey());
+                }
+            }
+            return row;
+        }
+
+        @Override
+        public SearchRow getSearchRow() {
+            if (searchRow == null) {
+                if (current != null) {
+                    searchRow = mvTable.getTemplateRow();
+                    searchRow.setKey(current.getKey());
+                }
+            }
+            return searchRow;
+        }
+
+        @Override
+        public boolean next() {
+            current = it.hasNext() ? it.next() : null;
+            searchRow = null;
+            row = null;
+            return current != null;
+        }
+
+        @Override
+        public boolean previous() {
+            throw DbException.getUnsupportedException("previous");
+        }
+
+    }
+
+}
@@ -0,0 +1,679 @@
+/*
+ * Copyright 2004-2025 H2 Group. Multiple-Licensed under the MPL 2.0,
+ * and the EPL 1.0 (https://h2database.com/html/license.html).
+ * Initial Developer: H2 Group
+ */
+package org.h2.mvstore.db;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import org.h2.api.ErrorCode;
+import org.h2.command.query.AllColumnsForPlan;
+import org.h2.engine.Database;
+import org.h2.engine.SessionLocal;
+import org.h2.index.Cursor;
+import org.h2.index.IndexType;
+import org.h2.message.DbException;
+import org.h2.mvstore.DataUtils;
+import org.h2.mvstore.MVMap;
+import org.h2.mvstore.MVStoreException;
+import org.h2.mvstore.tx.Transaction;
+import org.h2.mvstore.tx.TransactionMap;
+import org.h2.mvstore.type.ByteArrayDataType;
+import org.h2.result.Row;
+import org.h2.result.RowFactory;
+import org.h2.result.SearchRow;
+import org.h2.result.SortOrder;
+import org.h2.table.IndexColumn;
+import org.h2.table.TableFilter;
+import org.h2.util.IntArray;
+import org.h2.util.StringUtils;
+import org.h2.value.CompareMode;
+import org.h2.value.DataType;
+import org.h2.value.TypeInfo;
+import org.h2.value.Value;
+import org.h2.value.ValueNull;
+import org.h2.value.ValueVarchar;
+import org.h2.value.VersionedValue;
+
+/**
+ * A full-text index with an inverted index stored in a transactional map.
+ *
+ * <p>
+ * Values of indexed columns are split into words. For each distinct word of a
+ * row the map has an entry with the word and the key of the row as its key,
+ * and the positions of the word in the row as its value. Positions are stored
+ * as deltas encoded as variable size integers. An entry with {@code NULL} word
+ * keeps the number of words in the row. Entries of different rows are
+ * independent from each other, so concurrent transactions modifying different
+ * rows don't conflict.
+ * </p>
+ *
+ * <p>
+ * Found rows are ranked with the Okapi BM25 function. The number of rows with
+ * a word and the average number of words in a row are estimated from the map
+ * and may include uncommitted changes of other transactions.
+ * </p>
+ */
+public final class MVFullTextIndex extends MVIndex<SearchRow, byte[]> {
+
+    /**
+     * The term frequency saturation parameter of BM25.
+     */
+    private static final double K1 = 1.2;
+
+    /**
+     * The length normalization parameter of BM25.
+     */
+    private static final double B = 0.75;
+
+    /**
+     * The order of matches, from the best one.
+     */
+    private static final Comparator<Match> ORDER = (a, b) -> {
+        int cmp = Double.compare(b.score, a.score);
+        return cmp != 0 ? cmp : Long.compare(a.key, b.key);
+    };
+
+    /**
+     * The multi-value table.
+     */
+    private final MVTable mvTable;
+
+    /**
+     * The factory of keys of the map.
+     */
+    private final RowFactory keyFactory;
+
+    private final TransactionMap<SearchRow, byte[]> dataMap;
+
+    /**
+     * The estimated number of rows at the moment when the average length was
+     * computed, or -1 if it wasn't computed yet.
+     */
+    private volatile long statisticsRowCount = -1L;
+
+    /**
+     * The average number of words in a row.
+     */
+    private volatile double averageLength;
+
+    /**
+     * Constructor.
+     *
+     * @param db the database
+     * @param table the table instance
+     * @param id the index id
+     * @param indexName the index name
+     * @param columns the indexed columns (only character string columns are
+     *            allowed)
+     * @param indexType the index type (only full-text index)
+     */
+    public MVFullTextIndex(Database db, MVTable table, int id, String indexName, IndexColumn[] columns,
+            IndexType indexType) {
+        super(table, id, indexName, columns, 0, indexType);
+        for (IndexColumn col : columns) {
+            if ((col.sortType & (SortOrder.DESCENDING | SortOrder.NULLS_FIRST | SortOrder.NULLS_LAST)) != 0) {
+                throw DbException.getUnsupportedException("Sort order in full-text index");
+            }
+            if (!DataType.isCharacterStringType(col.column.getType().getValueType())) {
+                throw DbException.getUnsupportedException(
+                        "Full-text index on non-character column, " + col.column.getCreateSQL());
+            }
+        }
+        this.mvTable = table;
+        String mapName = "index." + getId();
+        Transaction t = mvTable.getTransactionBegin();
+        // words are already converted to upper case, they are compared in
+        // binary order, so words that are equal only in the database
+        // collation are stored separately
+        keyFactory = RowFactory.getDefaultRowFactory().createRowFactory(db, CompareMode.getInstance(null, 0), db,
+                new int[] { SortOrder.ASCENDING }, new int[] { 0 }, new TypeInfo[] { TypeInfo.TYPE_VARCHAR }, 1,
+                true);
+        RowDataType keyType = keyFactory.getRowDataType();
+        dataMap = t.openMap(mapName, keyType, ByteArrayDataType.INSTANCE);
+        dataMap.map.setVolatile(!table.isPersistData() || !indexType.isPersistent());
+        if (!db.isStarting()) {
+            dataMap.clear();
+        }
+        t.commit();
+    }
+
+    @Override
+    public void addRowsToBuffer(List<Row> rows, String bufferName) {
+        throw DbException.getInternalError();
+    }
+
+    @Override
+    public void addBufferedRows(List<String> bufferNames) {
+        throw DbException.getInternalError();
+    }
+
+    @Override
+    public void close(SessionLocal session) {
+        // ok
+    }
+
+    @Override
+    public void add(SessionLocal session, Row row) {
+        HashMap<String, IntArray> words = new HashMap<>();
+        int length = getWords(row, words);
+        TransactionMap<SearchRow, byte[]> map = getMap(session);
+        long key = row.getKey();
+        try {
+            for (Map.Entry<String, IntArray> entry : words.entrySet()) {
+                map.put(getKey(ValueVarchar.get(entry.getKey()), key), encodePositions(entry.getValue()));
+            }
+            map.put(getKey(ValueNull.INSTANCE, key), encodeLength(length));
+        } catch (MVStoreException e) {
+            throw mvTable.convertException(e);
+        }
+    }
+
+    @Override
+    public void remove(SessionLocal session, Row row) {
+        HashMap<String, IntArray> words = new HashMap<>();
+        getWords(row, words);
+        TransactionMap<SearchRow, byte[]> map = getMap(session);
+        long key = row.getKey();
+        try {
+            if (map.remove(getKey(ValueNull.INSTANCE, key)) == null) {
+                StringBuilder builder = new StringBuilder();
+                getSQL(builder, TRACE_SQL_FLAGS).append(": ").append(key);
+                throw DbException.get(ErrorCode.ROW_NOT_FOUND_WHEN_DELETING_1, builder.toString());
+            }
+            for (String word : words.keySet()) {
+                map.remove(getKey(ValueVarchar.get(word), key));
+            }
+        } catch (MVStoreException e) {
+            throw mvTable.convertException(e);
+        }
+    }
+
+    @Override
+    public void update(SessionLocal session, Row oldRow, Row newRow) {
+        long key = oldRow.getKey();
+        if (key != newRow.getKey()) {
+            super.update(session, oldRow, newRow);
+            return;
+        }
+        HashMap<String, IntArray> oldWords = new HashMap<>(), newWords = new HashMap<>();
+        int oldLength = getWords(oldRow, oldWords), newLength = getWords(newRow, newWords);
+        TransactionMap<SearchRow, byte[]> map = getMap(session);
+        try {
+            // only entries of changed words are written
+            for (String word : oldWords.keySet()) {
+                if (!newWords.containsKey(word)) {
+                    map.remove(getKey(ValueVarchar.get(word), key));
+                }
+            }
+            for (Map.Entry<String, IntArray> entry : newWords.entrySet()) {
+                String word = entry.getKey();
+                IntArray positions = entry.getValue();
+                if (!positions.equals(oldWords.get(word))) {
+                    map.put(getKey(ValueVarchar.get(word), key), encodePositions(positions));
+                }
+            }
+            if (oldLength != newLength) {
+                map.put(getKey(ValueNull.INSTANCE, key), encodeLength(newLength));
+            }
+        } catch (MVStoreException e) {
+            throw mvTable.convertException(e);
+        }
+    }
+
+    /**
+     * Collects words of indexed columns of the specified row. Positions of
+     * words of different columns aren't adjacent to each other.
+     *
+     * @param row the row
+     * @param words the map to add words and their positions to
+     * @return the number of words
+     */
+    private int getWords(SearchRow row, HashMap<String, IntArray> words) {
+        ArrayList<String> list = new ArrayList<>();
+        int position = 0, length = 0;
+        for (int columnId : columnIds) {
+            Value v = row.getValue(columnId);
+            if (v != ValueNull.INSTANCE) {
+                splitWords(v.getString(), list);
+                for (String word : list) {
+                    words.computeIfAbsent(word, w -> new IntArray()).add(position++);
+                }
+                length += list.size();
+                list.clear();
+                position++;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Splits the specified text into words. Words are sequences of letters
+     * and digits converted to upper case.
+     *
+     * @param text the text
+     * @param words the list to add words to
+     */
+    static void splitWords(String text, ArrayList<String> words) {
+        for (int i = 0, l = text.length(); i < l;) {
+            int cp = text.codePointAt(i);
+            if (Character.isLetterOrDigit(cp)) {
+                int start = i;
+                do {
+                    i += Character.charCount(cp);
+                } while (i < l && Character.isLetterOrDigit(cp = text.codePointAt(i)));
+                words.add(StringUtils.toUpperEnglish(text.substring(start, i)));
+            } else {
+                i += Character.charCount(cp);
+            }
+        }
+    }
+
+    /**
+     * Parses a search query. Words in double quotes and words written without
+     * spaces between them, such as {@code e-mail}, are phrases.
+     *
+     * @param query the query
+     * @return the words of each phrase or standalone word
+     */
+    static ArrayList<String[]> parseQuery(String query) {
+        ArrayList<String[]> clauses = new ArrayList<>();
+        ArrayList<String> words = new ArrayList<>();
+        for (int i = 0, l = query.length(); i < l;) {
+            char c = query.charAt(i);
+            int start, end;
+            if (c == '"') {
+                start = i + 1;
+                end = query.indexOf('"', start);
+                if (end < 0) {
+                    end = l;
+                }
+                i = end + 1;
+            } else if (Character.isWhitespace(c)) {
+                i++;
+                continue;
+            } else {
+                start = i;
+                do {
+                    i++;
+                } while (i < l && !Character.isWhitespace(c = query.charAt(i)) && c != '"');
+                end = i;
+            }
+            splitWords(query.substring(start, end), words);
+            if (!words.isEmpty()) {
+                clauses.add(words.toArray(new String[0]));
+                words.clear();
+            }
+        }
+        return clauses;
+    }
+
+    /**
+     * Searches for rows containing all words and phrases of the specified
+     * query.
+     *
+     * @param session the session
+     * @param query the query
+     * @param limit the maximum number of rows to return, or 0 to return all
+     *            rows
+     * @return the keys of rows with their scores, from the best one
+     */
+    public List<Match> search(SessionLocal session, String query, long limit) {
+        ArrayList<String[]> clauses = parseQuery(query);
+        if (clauses.isEmpty()) {
+            return Collections.emptyList();
+        }
+        LinkedHashMap<String, Term> terms = new LinkedHashMap<>();
+        ArrayList<Term[]> phrases = new ArrayList<>();
+        for (String[] clause : clauses) {
+            int length = clause.length;
+            Term[] phrase = new Term[length];
+            for (int i = 0; i < length; i++) {
+                phrase[i] = terms.computeIfAbsent(clause[i], Term::new);
+            }
+            if (length > 1) {
+                phrases.add(phrase);
+            }
+        }
+        long rowCount = countEntries(ValueNull.INSTANCE);
+        // the rarest word determines rows to check
+        Term driver = null;
+        for (Term term : terms.values()) {
+            long count = countEntries(term.value);
+            if (count == 0L) {
+                return Collections.emptyList();
+            }
+            double n = Math.max(rowCount, count);
+            term.idf = Math.log(1d + (n - count + 0.5d) / (count + 0.5d));
+            if (driver == null || count < driver.count) {
+                driver = term;
+            }
+            term.count = count;
+        }
+        double averageLength = getAverageLength(session, rowCount);
+        TransactionMap<SearchRow, byte[]> map = getMap(session);
+        PriorityQueue<Match> queue = limit > 0L ? new PriorityQueue<>(ORDER.reversed()) : null;
+        ArrayList<Match> list = new ArrayList<>();
+        Iterator<Map.Entry<SearchRow, byte[]>> it = map.entryIterator(getKey(driver.value, Long.MIN_VALUE),
+                getKey(driver.value, Long.MAX_VALUE));
+        loop: while (it.hasNext()) {
+            Map.Entry<SearchRow, byte[]> entry = it.next();
+            long key = entry.getKey().getKey();
+            driver.positions = decodePositions(entry.getValue());
+            for (Term term : terms.values()) {
+                if (term != driver) {
+                    byte[] data = map.get(getKey(term.value, key));
+                    if (data == null) {
+                        continue loop;
+                    }
+                    term.positions = decodePositions(data);
+                }
+            }
+            for (Term[] phrase : phrases) {
+                if (!containsPhrase(phrase)) {
+                    continue loop;
+                }
+            }
+            byte[] data = map.get(getKey(ValueNull.INSTANCE, key));
+            int length = data != null ? decodeLength(data) : 0;
+            double norm = K1 * (1d - B + B * length / averageLength);
+            double score = 0d;
+            for (Term term : terms.values()) {
+                int tf = term.positions.length;
+                score += term.idf * tf * (K1 + 1d) / (tf + norm);
+            }
+            Match match = new Match(key, score);
+            if (queue == null) {
+                list.add(match);
+            } else if (queue.size() < limit) {
+                queue.add(match);
+            } else if (ORDER.compare(match, queue.peek()) < 0) {
+                queue.poll();
+                queue.add(match);
+            }
+        }
+        if (queue != null) {
+            list.addAll(queue);
+        }
+        list.sort(ORDER);
+        return list;
+    }
+
+    private static boolean containsPhrase(Term[] phrase) {
+        loop: for (int position : phrase[0].positions) {
+            for (int i = 1, l = phrase.length; i < l; i++) {
+                if (Arrays.binarySearch(phrase[i].positions, position + i) < 0) {
+                    continue loop;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the average number of words in a row. It is computed again only
+     * when the number of rows was changed significantly.
+     *
+     * @param session the session
+     * @param rowCount the estimated number of rows
+     * @return the average number of words
+     */
+    private double getAverageLength(SessionLocal session, long rowCount) {
+        long count = statisticsRowCount;
+        if (count < 0L || Math.abs(rowCount - count) > count >> 3) {
+            long total = 0L, rows = 0L;
+            Iterator<Map.Entry<SearchRow, byte[]>> it = getMap(session).entryIterator(
+                    getKey(ValueNull.INSTANCE, Long.MIN_VALUE), getKey(ValueNull.INSTANCE, Long.MAX_VALUE));
+            while (it.hasNext()) {
+                total += decodeLength(it.next().getValue());
+                rows++;
+            }
+            averageLength = total > 0L ? (double) total / rows : 1d;
+            statisticsRowCount = rowCount;
+        }
+        return averageLength;
+    }
+
+    /**
+     * Returns the estimated number of entries with the specified word,
+     * including uncommitted ones.
+     *
+     * @param word the word, or {@code NULL} to count rows
+     * @return the estimated number of entries
+     */
+    private long countEntries(Value word) {
+        MVMap<SearchRow, VersionedValue<byte[]>> map = dataMap.map;
+        long from = map.getKeyIndex(getKey(word, Long.MIN_VALUE));
+        long to = map.getKeyIndex(getKey(word, Long.MAX_VALUE));
+        return (to >= 0L ? to + 1 : ~to) - (from >= 0L ? from : ~from);
+    }
+
+    private SearchRow getKey(Value word, long key) {
+        SearchRow row = keyFactory.createRow();
+        row.setValue(0, word);
+        row.setKey(key);
+        return row;
+    }
+
+    private static byte[] encodePositions(IntArray positions) {
+        int count = positions.size();
+        ByteBuffer buff = ByteBuffer.allocate((count + 1) * 5);
+        DataUtils.writeVarInt(buff, count);
+        for (int i = 0, last = 0; i < count; i++) {
+            int position = positions.get(i);
+            DataUtils.writeVarInt(buff, position - last);
+            last = position;
+        }
+        return Arrays.copyOf(buff.array(), buff.position());
+    }
+
+    private static int[] decodePositions(byte[] data) {
+        ByteBuffer buff = ByteBuffer.wrap(data);
+        int[] positions = new int[DataUtils.readVarInt(buff)];
+        for (int i = 0, position = 0, l = positions.length; i < l; i++) {
+            positions[i] = position += DataUtils.readVarInt(buff);
+        }
+        return positions;
+    }
+
+    private static byte[] encodeLength(int length) {
+        ByteBuffer buff = ByteBuffer.allocate(5);
+        DataUtils.writeVarInt(buff, length);
+        return Arrays.copyOf(buff.array(), buff.position());
+    }
+
+    private static int decodeLength(byte[] data) {
+        return DataUtils.readVarInt(ByteBuffer.wrap(data));
+    }
+
+    @Override
+    public Cursor find(SessionLocal session, SearchRow first, SearchRow last, boolean reverse) {
+        SearchRow from = getKey(ValueNull.INSTANCE, Long.MIN_VALUE), to = getKey(ValueNull.INSTANCE, Long.MAX_VALUE);
+        return new MVStoreCursor(session,
+                reverse ? getMap(session).keyIterator(to, from, true) : getMap(session).keyIterator(from, to),
+                mvTable);
+    }
+
+    @Override
+    public MVTable getTable() {
+        return mvTable;
+    }
+
+    @Override
+    public double getCost(SessionLocal session, int[] masks, TableFilter[] filters, int filter,
+            SortOrder sortOrder, AllColumnsForPlan allColumnsSet, boolean isSelectCommand) {
+        // rows are searched only with FULLTEXT_SEARCH function
+        return Long.MAX_VALUE;
+    }
+
+    @Override
+    public void remove(SessionLocal session) {
+        TransactionMap<SearchRow, byte[]> map = getMap(session);
+        if (!map.isClosed()) {
+            Transaction t = session.getTransaction();
+            t.removeMap(map);
+        }
+    }
+
+    @Override
+    public void truncate(SessionLocal session) {
+        TransactionMap<SearchRow, byte[]> map = getMap(session);
+        map.clear();
+        statisticsRowCount = -1L;
+    }
+
+    @Override
+    public boolean needRebuild() {
+        try {
+            return dataMap.sizeAsLongMax() == 0;
+        } catch (MVStoreException e) {
+            throw DbException.get(ErrorCode.OBJECT_CLOSED, e);
+        }
+    }
+
+    @Override
+    public long getRowCount(SessionLocal session) {
+        long count = 0L;
+        for (Cursor cursor = find(session, null, null, false); cursor.next();) {
+            count++;
+        }
+        return count;
+    }
+
+    @Override
+    public long getRowCountApproximation(SessionLocal session) {
+        try {
+            return countEntries(ValueNull.INSTANCE);
+        } catch (MVStoreException e) {
+            throw DbException.get(ErrorCode.OBJECT_CLOSED, e);
+        }
+    }
+
+    /**
+     * Get the map to store the data.
+     *
+     * @param session the session
+     * @return the map
+     */
+    private TransactionMap<SearchRow, byte[]> getMap(SessionLocal session) {
+        if (session == null) {
+            return dataMap;
+        }
+        Transaction t = session.getTransaction();
+        return dataMap.getInstance(t);
+    }
+
+    @Override
+    public MVMap<SearchRow, VersionedValue<byte[]>> getMVMap() {
+        return dataMap.map;
+    }
+
+    /**
+     * A row found by a search.
+     */
+    public static final class Match {
+
+        /**
+         * The key of the row.
+         */
+        public final long key;
+
+        /**
+         * The score of the row.
+         */
+        public final double score;
+
+        Match(long key, double score) {
+            this.key = key;
+            this.score = score;
+        }
+
+    }
+
+    /**
+     * A word of a search query.
+     */
+    private static final class Term {
+
+        final Value value;
+
+        long count;
+
+        double idf;
+
+        int[] positions;
+
+        Term(String word) {
+            value = ValueVarchar.get(word);
+        }
+
+    }
+
+    /**
+     * A cursor over rows of the index.
+     */
+    private static final class MVStoreCursor implements Cursor {
+
+        private final SessionLocal session;
+        private final Iterator<SearchRow> it;
+        private final MVTable mvTable;
+        private SearchRow current;
+        private SearchRow searchRow;
+        private Row row;
+
+        MVStoreCursor(SessionLocal session, Iterator<SearchRow> it, MVTable mvTable) {
+            this.session = session;
+            this.it = it;
+            this.mvTable = mvTable;
+        }
+
+        @Override
+        public Row get() {
+            if (row == null) {
+                SearchRow r = getSearchRow();
+                if (r != null) {
+                    row = mvTable.getRow(session, r.getKey());
+                }
+            }
+            return row;
+        }
+
+        @Override
+        public SearchRow getSearchRow() {
+            if (searchRow == null) {
+                if (current != null) {
+                    searchRow = mvTable.getTemplateRow();
+                    searchRow.setKey(current.getKey());
+                }
+            }
+            return searchRow;
+        }
+
+        @Override
+        public boolean next() {
+            current = it.hasNext() ? it.next() : null;
+            searchRow = null;
+            row = null;
+            return current != null;
+        }
+
+        @Override
+        public boolean previous() {
+            throw DbException.getUnsupportedException("previous");
+        }
+
+    }
+
+}
@@ -42,6 +42,17 @@ protected MVIndex(Table newTable, int id, String name, IndexColumn[] newIndexCol
      */
     public abstract void addBufferedRows(List<String> bufferNames);
 
+    /**
+     * Returns whether rows must be added through the temporary storage when
+     * the index is built, even if all of them fit into a single buffer.
+     *
+     * @return {@code true} if rows must be added through the temporary
+     *         storage, {@code false} if they may be added to the index directly
+     */
+    public boolean needsRowBuffer() {
+        return false;
+    }
+
     public abstract MVMap<K,VersionedValue<V>> getMVMap();
 
     @Override
@@ -0,0 +1,316 @@
+/*
+ * Copyright 2004-2025 H2 Group. Multiple-Licensed under the MPL 2.0,
+ * and the EPL 1.0 (https://h2database.com/html/license.html).
+ * Initial Developer: H2 Group
+ */
+package org.h2.mvstore.db;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.h2.engine.Database;
+import org.h2.expression.Expression;
+import org.h2.message.DbException;
+import org.h2.mvstore.Cursor;
+import org.h2.mvstore.MVMap;
+import org.h2.mvstore.MVMap.Builder;
+import org.h2.mvstore.type.LongDataType;
+import org.h2.result.ResultExternal;
+import org.h2.result.RowFactory.DefaultRowFactory;
+import org.h2.result.SortOrder;
+import org.h2.value.DataType;
+import org.h2.value.Value;
+import org.h2.value.ValueRow;
+
+/**
+ * Sorted temporary result without distinct rows.
+ *
+ * <p>
+ * Added rows are sorted in memory in chunks, and each chunk is appended to the
+ * store as a separate sorted run. Rows are returned by a k-way merge of the
+ * runs, so each row is written and read sequentially only once.
+ * </p>
+ * <p>
+ * This result doesn't support {@link #contains(Value[])} and
+ * {@link #removeRow(Value[])}, they are used only by distinct results, which
+ * are always stored in {@link MVSortedTempResult}, including results of IN
+ * predicates, EXCEPT, and INTERSECT.
+ * </p>
+ */
+class MVMergeSortTempResult extends MVTempResult {
+
+    /**
+     * A cursor of a sorted run with its current row.
+     */
+    private static final class Run {
+
+        final Cursor<Long, ValueRow> cursor;
+
+        Value[] row;
+
+        Run(Cursor<Long, ValueRow> cursor) {
+            this.cursor = cursor;
+        }
+
+        /**
+         * Moves to the next row of the run.
+         *
+         * @return whether the run has a next row
+         */
+        boolean next() {
+            if (cursor.hasNext()) {
+                cursor.next();
+                row = cursor.getValue().getList();
+                return true;
+            }
+            row = null;
+            return false;
+        }
+
+    }
+
+    /**
+     * The minimum number of rows in a chunk to sort it in parallel.
+     */
+    private static final int PARALLEL_SORT_THRESHOLD = 8_192;
+
+    /**
+     * The sort order.
+     */
+    private final SortOrder sort;
+
+    /**
+     * Whether chunks may be sorted in parallel. Rows with large objects are
+     * sorted in the current thread.
+     */
+    private final boolean parallel;
+
+    /**
+     * The builder of maps for runs.
+     */
+    private final Builder<Long, ValueRow> runBuilder;
+
+    /**
+     * The maximum number of rows in a chunk added with
+     * {@link #addRow(Value[])}.
+     */
+    private final int chunkSize;
+
+    /**
+     * The sorted runs.
+     */
+    private final ArrayList<MVMap<Long, ValueRow>> runs;
+
+    /**
+     * Rows added with {@link #addRow(Value[])} and not yet written.
+     */
+    private ArrayList<Value[]> pending;
+
+    /**
+     * Runs in a binary heap ordered by their current rows, or {@code null} if
+     * merge is not started.
+     */
+    private Run[] heap;
+
+    /**
+     * The number of runs in the heap.
+     */
+    private int heapSize;
+
+    /**
+     * Creates a shallow copy of the result.
+     *
+     * @param parent
+     *            parent result
+     */
+    private MVMergeSortTempResult(MVMergeSortTempResult parent) {
+        super(parent);
+        this.sort = parent.sort;
+        this.parallel = parent.parallel;
+        this.runBuilder = parent.runBuilder;
+        this.chunkSize = parent.chunkSize;
+        this.runs = parent.runs;
+        this.rowCount = parent.rowCount;
+    }
+
+    /**
+     * Creates a new sorted temporary result.
+     *
+     * @param database
+     *            database
+     * @param expressions
+     *            column expressions
+     * @param visibleColumnCount
+     *            count of visible columns
+     * @param resultColumnCount
+     *            the number of columns including visible columns and additional
+     *            virtual columns for ORDER BY clause
+     * @param sort
+     *            sort order
+     */
+    MVMergeSortTempResult(Database database, Expression[] expressions, int visibleColumnCount,
+            int resultColumnCount, SortOrder sort) {
+        super(database, expressions, visibleColumnCount, resultColumnCount);
+        this.sort = sort;
+        boolean parallel = true;
+        for (Expression e : expressions) {
+            if (DataType.isLargeObject(e.getType().getValueType())) {
+                parallel = false;
+                break;
+            }
+        }
+        this.parallel = parallel;
+        ValueDataType valueType = new ValueDataType(database, new int[resultColumnCount]);
+        valueType.setRowFactory(DefaultRowFactory.INSTANCE.createRowFactory(database, database.getCompareMode(),
+                database, expressions, null, false));
+        runBuilder = new MVMap.Builder<Long, ValueRow>().keyType(LongDataType.INSTANCE).valueType(valueType)
+                .singleWriter();
+        chunkSize = Math.max(database.getMaxMemoryRows(), 1);
+        runs = new ArrayList<>();
+    }
+
+    @Override
+    public int addRow(Value[] values) {
+        assert parent == null;
+        if (pending == null) {
+            pending = new ArrayList<>();
+        }
+        pending.add(values);
+        if (pending.size() >= chunkSize) {
+            flush();
+        }
+        return ++rowCount;
+    }
+
+    @Override
+    public int addRows(Collection<Value[]> rows) {
+        assert parent == null;
+        flush();
+        addRun(rows.toArray(new Value[0][]));
+        rowCount += rows.size();
+        return rowCount;
+    }
+
+    private void flush() {
+        ArrayList<Value[]> pending = this.pending;
+        if (pending != null && !pending.isEmpty()) {
+            this.pending = null;
+            addRun(pending.toArray(new Value[0][]));
+        }
+    }
+
+    private void addRun(Value[][] rows) {
+        int length = rows.length;
+        if (length == 0) {
+            return;
+        }
+        if (parallel && length >= PARALLEL_SORT_THRESHOLD) {
+            Arrays.parallelSort(rows, sort);
+        } else {
+            Arrays.sort(rows, sort);
+        }
+        MVMap<Long, ValueRow> run = store.openMap("run" + runs.size(), runBuilder);
+        for (int i = 0; i < length; i++) {
+            run.append((long) i, ValueRow.get(rows[i]));
+        }
+        synchronized (runs) {
+            runs.add(run);
+        }
+    }
+
+    @Override
+    public boolean contains(Value[] values) {
+        throw DbException.getUnsupportedException("contains()");
+    }
+
+    @Override
+    public synchronized ResultExternal createShallowCopy() {
+        if (parent != null) {
+            return parent.createShallowCopy();
+        }
+        if (closed) {
+            return null;
+        }
+        flush();
+        childCount++;
+        return new MVMergeSortTempResult(this);
+    }
+
+    @Override
+    public Value[] next() {
+        if (heap == null) {
+            if (parent == null) {
+                flush();
+            }
+            ArrayList<MVMap<Long, ValueRow>> maps;
+            synchronized (runs) {
+                maps = new ArrayList<>(runs);
+            }
+            heap = new Run[maps.size()];
+            heapSize = 0;
+            for (MVMap<Long, ValueRow> map : maps) {
+                Run run = new Run(map.cursor(null));
+                if (run.next()) {
+                    heap[heapSize] = run;
+                    siftUp(heapSize++);
+                }
+            }
+        }
+        if (heapSize == 0) {
+            return null;
+        }
+        Run run = heap[0];
+        Value[] row = run.row;
+        if (!run.next()) {
+            int last = --heapSize;
+            heap[0] = heap[last];
+            heap[last] = null;
+        }
+        siftDown(0);
+        return row;
+    }
+
+    private void siftUp(int i) {
+        Run run = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (sort.compare(run.row, heap[parent].row) >= 0) {
+                break;
+            }
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = run;
+    }
+
+    private void siftDown(int i) {
+        int size = heapSize;
+        if (size == 0) {
+            return;
+        }
+        Run run = heap[i];
+        for (int child; (child = (i << 1) + 1) < size; i = child) {
+            if (child + 1 < size && sort.compare(heap[child + 1].row, heap[child].row) < 0) {
+                child++;
+            }
+            if (sort.compare(run.row, heap[child].row) <= 0) {
+                break;
+            }
+            heap[i] = heap[child];
+        }
+        heap[i] = run;
+    }
+
+    @Override
+    public int removeRow(Value[] values) {
+        throw DbException.getUnsupportedException("removeRow()");
+    }
+
+    @Override
+    public void reset() {
+        heap = null;
+        heapSize = 0;
+    }
+
+}
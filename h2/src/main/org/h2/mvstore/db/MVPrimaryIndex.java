@@ -42,10 +42,12 @@ public final class MVPrimaryIndex extends MVIndex<Long, SearchRow> {
     private final MVTable mvTable;
     private final String mapName;
     private final TransactionMap<Long, SearchRow> dataMap;
+    private final MVZoneMap zoneMap;
     private final AtomicLong lastKey = new AtomicLong();
     private int mainIndexColumn = SearchRow.ROWID_INDEX;
 
-    public MVPrimaryIndex(Database db, MVTable table, int id, IndexColumn[] columns, IndexType indexType) {
+    public MVPrimaryIndex(Database db, MVTable table, int id, IndexColumn[] columns, IndexType indexType,
+            int zoneSize) {
         super(table, id, table.getName() + "_DATA", columns, 0, indexType);
         this.mvTable = table;
         RowDataType valueType = table.getRowFactory().getRowDataType();
@@ -57,6 +59,13 @@ public MVPrimaryIndex(Database db, MVTable table, int id, IndexColumn[] columns,
             dataMap.clear();
         }
         t.commit();
+        if (zoneSize > 0) {
+            zoneMap = new MVZoneMap(db, dataMap.map.store, MVZoneMap.MAP_PREFIX + getId(), table.getColumns(),
+                    zoneSize);
+            zoneMap.getMap().setVolatile(dataMap.map.isVolatile());
+        } else {
+            zoneMap = null;
+        }
         Long k = dataMap.map.lastKey();    // include uncommitted keys as well
         lastKey.set(k == null ? 0 : k);
     }
@@ -108,6 +117,9 @@ public void add(SessionLocal session, Row row) {
             }
         }
 
+        if (zoneMap != null) {
+            zoneMap.add(row);
+        }
         TransactionMap<Long,SearchRow> map = getMap(session);
         long rowKey = row.getKey();
         try {
@@ -185,6 +197,9 @@ public void update(SessionLocal session, Row oldRow, Row newRow) {
             }
         }
 
+        if (zoneMap != null) {
+            zoneMap.add(newRow);
+        }
         TransactionMap<Long,SearchRow> map = getMap(session);
         try {
             Row existing = (Row)map.put(key, newRow);
@@ -236,7 +251,7 @@ public Cursor find(SessionLocal session, SearchRow first, SearchRow last, boolea
         if (first == null) {
             min = null;
         } else if (mainIndexColumn == SearchRow.ROWID_INDEX || (v = first.getValue(mainIndexColumn)) == null) {
-            min = first.getKey();
+            min = getKey(first);
         } else {
             switch (v.getValueType()) {
             case Value.NULL:
@@ -279,7 +294,7 @@ public Cursor find(SessionLocal session, SearchRow first, SearchRow last, boolea
         if (last == null) {
             max = null;
         } else if (mainIndexColumn == SearchRow.ROWID_INDEX || (v = last.getValue(mainIndexColumn)) == null) {
-            max = last.getKey();
+            max = getKey(last);
         } else {
             switch (v.getValueType()) {
             case Value.NULL:
@@ -323,9 +338,26 @@ public Cursor find(SessionLocal session, SearchRow first, SearchRow last, boolea
         if (min != null && max != null && min.longValue() == max.longValue()) {
             return new SingleRowCursor(setRowKey((Row) map.getFromSnapshot(min), min));
         }
+        if (zoneMap != null) {
+            Value[] lower = zoneMap.getBounds(reverse ? last : first);
+            Value[] upper = zoneMap.getBounds(reverse ? first : last);
+            if (lower != null || upper != null) {
+                return reverse ? zoneMap.find(session, map, max, min, lower, upper, true)
+                        : zoneMap.find(session, map, min, max, lower, upper, false);
+            }
+        }
         return new MVStoreCursor(map.entryIterator(min, max, reverse));
     }
 
+    private Long getKey(SearchRow row) {
+        long key = row.getKey();
+        if (key == 0 && zoneMap != null && zoneMap.getBounds(row) != null) {
+            // the search row was created for bounds of other columns only
+            return null;
+        }
+        return key;
+    }
+
     @Override
     public MVTable getTable() {
         return mvTable;
@@ -359,6 +391,11 @@ public int getColumnIndex(Column col) {
         return -1;
     }
 
+    @Override
+    public boolean canSkipRowsBy(Column column) {
+        return zoneMap != null && zoneMap.isTracked(column);
+    }
+
     @Override
     public boolean isFirstColumn(Column column) {
         return column.getColumnId() == SearchRow.ROWID_INDEX && column.getTable() == table;
@@ -371,6 +408,12 @@ public void remove(SessionLocal session) {
             Transaction t = session.getTransaction();
             t.removeMap(map);
         }
+        if (zoneMap != null) {
+            MVMap<Long, byte[]> zones = zoneMap.getMap();
+            if (!zones.isClosed()) {
+                zones.store.removeMap(zones);
+            }
+        }
     }
 
     @Override
@@ -379,6 +422,9 @@ public void truncate(SessionLocal session) {
             database.getLobStorage().removeAllForTable(table.getId());
         }
         getMap(session).clear();
+        if (zoneMap != null) {
+            zoneMap.clear();
+        }
     }
 
     @Override
@@ -15,6 +15,8 @@
 import org.h2.engine.Database;
 import org.h2.engine.SessionLocal;
 import org.h2.index.Cursor;
+import org.h2.index.IndexExpression;
+import org.h2.index.IndexPredicate;
 import org.h2.index.IndexType;
 import org.h2.index.SingleRowCursor;
 import org.h2.message.DbException;
@@ -46,10 +48,16 @@ public final class MVSecondaryIndex extends MVIndex<SearchRow, Value> {
     private final MVTable                         mvTable;
     private final TransactionMap<SearchRow,Value> dataMap;
 
+    /**
+     * The predicate of a partial index, or {@code null}.
+     */
+    private final IndexPredicate predicate;
+
     public MVSecondaryIndex(Database db, MVTable table, int id, String indexName,
-                IndexColumn[] columns, int uniqueColumnCount, IndexType indexType) {
+                IndexColumn[] columns, int uniqueColumnCount, IndexType indexType, IndexPredicate predicate) {
         super(table, id, indexName, columns, uniqueColumnCount, indexType);
         this.mvTable = table;
+        this.predicate = predicate;
         if (!database.isStarting()) {
             checkIndexColumnTypes(columns);
         }
@@ -176,12 +184,18 @@ public void close(SessionLocal session) {
 
     @Override
     public void add(SessionLocal session, Row row) {
+        if (predicate == null || predicate.matches(session, row)) {
+            addRow(session, row);
+        }
+    }
+
+    private void addRow(SessionLocal session, Row row) {
         TransactionMap<SearchRow,Value> map = getMap(session);
-        SearchRow key = convertToKey(row, null);
-        boolean checkRequired = needsUniqueCheck(row);
+        SearchRow key = convertToKey(session, row);
+        boolean checkRequired = needsUniqueCheck(key);
         if (checkRequired) {
             boolean repeatableRead = !session.getTransaction().allowNonRepeatableRead();
-            checkUnique(repeatableRead, map, row, Long.MIN_VALUE);
+            checkUnique(repeatableRead, map, key, Long.MIN_VALUE);
         }
 
         try {
@@ -191,7 +205,7 @@ public void add(SessionLocal session, Row row) {
         }
 
         if (checkRequired) {
-            checkUnique(false, map, row, row.getKey());
+            checkUnique(false, map, key, row.getKey());
         }
     }
 
@@ -229,7 +243,13 @@ private void checkUnique(boolean repeatableRead, TransactionMap<SearchRow,Value>
 
     @Override
     public void remove(SessionLocal session, Row row) {
-        SearchRow searchRow = convertToKey(row, null);
+        if (predicate == null || predicate.matches(session, row)) {
+            removeRow(session, row);
+        }
+    }
+
+    private void removeRow(SessionLocal session, Row row) {
+        SearchRow searchRow = convertToKey(session, row);
         TransactionMap<SearchRow,Value> map = getMap(session);
         try {
             if (map.remove(searchRow) == null) {
@@ -244,10 +264,22 @@ public void remove(SessionLocal session, Row row) {
 
     @Override
     public void update(SessionLocal session, Row oldRow, Row newRow) {
-        SearchRow searchRowOld = convertToKey(oldRow, null);
-        SearchRow searchRowNew = convertToKey(newRow, null);
-        if (!rowsAreEqual(searchRowOld, searchRowNew)) {
-            super.update(session, oldRow, newRow);
+        boolean oldMatches = true, newMatches = true;
+        if (predicate != null) {
+            oldMatches = predicate.matches(session, oldRow);
+            newMatches = predicate.matches(session, newRow);
+        }
+        if (oldMatches && newMatches) {
+            SearchRow searchRowOld = convertToKey(session, oldRow);
+            SearchRow searchRowNew = convertToKey(session, newRow);
+            if (!rowsAreEqual(searchRowOld, searchRowNew)) {
+                removeRow(session, oldRow);
+                addRow(session, newRow);
+            }
+        } else if (oldMatches) {
+            removeRow(session, oldRow);
+        } else if (newMatches) {
+            addRow(session, newRow);
         }
     }
 
@@ -282,22 +314,55 @@ private SearchRow convertToKey(SearchRow r, Boolean minMax) {
         }
 
         SearchRow row = getRowFactory().createRow();
-        row.copyFrom(r);
+        int columnCount = r.getColumnCount();
+        if (columnCount < row.getColumnCount()) {
+            // search row without values of expression columns
+            row.setKey(r.getKey());
+            for (int columnId : columnIds) {
+                if (columnId < columnCount) {
+                    row.setValue(columnId, r.getValue(columnId));
+                }
+            }
+        } else {
+            row.copyFrom(r);
+        }
         if (minMax != null) {
             row.setKey(minMax ? Long.MAX_VALUE : Long.MIN_VALUE);
         }
         return row;
     }
 
+    private SearchRow convertToKey(SessionLocal session, Row r) {
+        if (!hasExpressionColumns()) {
+            return convertToKey(r, null);
+        }
+        SearchRow row = getRowFactory().createRow();
+        row.setKey(r.getKey());
+        for (int i = 0, l = columns.length; i < l; i++) {
+            IndexExpression expression = columns[i].getIndexExpression();
+            int columnId = columnIds[i];
+            row.setValue(columnId, expression != null ? expression.getValue(session, r) : r.getValue(columnId));
+        }
+        return row;
+    }
+
     @Override
     public MVTable getTable() {
         return mvTable;
     }
 
+    @Override
+    public IndexPredicate getPredicate() {
+        return predicate;
+    }
+
     @Override
     public double getCost(SessionLocal session, int[] masks,
             TableFilter[] filters, int filter, SortOrder sortOrder,
             AllColumnsForPlan allColumnsSet, boolean isSelectCommand) {
+        if (predicate != null && (filters == null || !predicate.isImpliedBy(session, filters[filter]))) {
+            return Double.POSITIVE_INFINITY;
+        }
         try {
             return 10 * getCostRangeIndex(masks, dataMap.sizeAsLongMax(),
                     filters, filter, sortOrder, false, allColumnsSet, isSelectCommand);
@@ -340,7 +405,8 @@ public Cursor findFirstOrLast(SessionLocal session, boolean first) {
     @Override
     public boolean needRebuild() {
         try {
-            return dataMap.sizeAsLongMax() == 0;
+            // partial index may be empty, it is rebuilt only on creation
+            return dataMap.sizeAsLongMax() == 0 && (predicate == null || !database.isStarting());
         } catch (MVStoreException e) {
             throw DbException.get(ErrorCode.OBJECT_CLOSED, e);
         }
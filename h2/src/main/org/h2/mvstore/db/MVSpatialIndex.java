@@ -10,6 +10,7 @@
 import static org.h2.util.geometry.GeometryUtils.MIN_X;
 import static org.h2.util.geometry.GeometryUtils.MIN_Y;
 
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import org.h2.api.ErrorCode;
@@ -25,6 +26,7 @@
 import org.h2.mvstore.MVStoreException;
 import org.h2.mvstore.Page;
 import org.h2.mvstore.rtree.MVRTreeMap;
+import org.h2.mvstore.rtree.MVRTreeMap.NearestRTreeCursor;
 import org.h2.mvstore.rtree.MVRTreeMap.RTreeCursor;
 import org.h2.mvstore.rtree.Spatial;
 import org.h2.mvstore.tx.Transaction;
@@ -104,6 +106,7 @@ public MVSpatialIndex(Database db, MVTable table, int id, String indexName, Inde
                 new MVRTreeMap.Builder<VersionedValue<Value>>().
                 valueType(valueType);
         spatialMap = db.getStore().getMvStore().openMap(mapName, mapBuilder);
+        spatialMap.setRStarSplit(true);
         Transaction t = mvTable.getTransactionBegin();
         dataMap = t.openMapX(spatialMap);
         dataMap.map.setVolatile(!table.isPersistData() || !indexType.isPersistent());
@@ -213,6 +216,50 @@ public Cursor findByGeometry(SessionLocal session, SearchRow first, SearchRow la
         return new MVStoreCursor(session, it, mvTable);
     }
 
+    /**
+     * Adds the keys to the empty index at once. Keys are committed
+     * immediately, like keys added during creation of other indexes.
+     *
+     * @param keys the keys of rows, null keys are not allowed
+     * @see MVRTreeMap#bulkLoad(List, Object)
+     */
+    void bulkLoad(List<Spatial> keys) {
+        try {
+            spatialMap.bulkLoad(keys, ValueNull.INSTANCE);
+        } catch (MVStoreException e) {
+            throw mvTable.convertException(e);
+        }
+    }
+
+    /**
+     * Finds rows with geometries nearest to the specified geometry. Distances
+     * are measured between bounding boxes of geometries.
+     *
+     * @param session the session
+     * @param geometry the geometry
+     * @param limit the maximum number of rows to return, or 0
+     * @return the found rows, ordered by distance
+     */
+    public List<Neighbor> findNearest(SessionLocal session, Value geometry, long limit) {
+        SpatialKey key = getKey(geometry, 0L);
+        ArrayList<Neighbor> result = new ArrayList<>();
+        if (key.isNull()) {
+            return result;
+        }
+        TransactionMap<Spatial, Value> map = getMap(session);
+        NearestRTreeCursor<VersionedValue<Value>> cursor = spatialMap.findNearestKeys(key);
+        while (cursor.hasNext()) {
+            Spatial k = cursor.next();
+            if (map.containsKey(k)) {
+                result.add(new Neighbor(k.getId(), cursor.getDistance()));
+                if (result.size() == limit) {
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
     /**
      * Returns the minimum bounding box that encloses all keys.
      *
@@ -263,13 +310,23 @@ public Value getEstimatedBounds(SessionLocal session) {
         return ValueNull.INSTANCE;
     }
 
-    private SpatialKey getKey(SearchRow row) {
-        Value v = row.getValue(columnIds[0]);
+    /**
+     * Returns the key of the specified row.
+     *
+     * @param row the row
+     * @return the key, {@link SpatialKey#isNull()} returns {@code true} for
+     *         rows with null or empty geometry
+     */
+    SpatialKey getKey(SearchRow row) {
+        return getKey(row.getValue(columnIds[0]), row.getKey());
+    }
+
+    private static SpatialKey getKey(Value v, long id) {
         double[] env;
         if (v == ValueNull.INSTANCE || (env = v.convertToGeometry(null).getEnvelopeNoCopy()) == null) {
-            return new SpatialKey(row.getKey());
+            return new SpatialKey(id);
         }
-        return new SpatialKey(row.getKey(),
+        return new SpatialKey(id,
                 (float) env[MIN_X], (float) env[MAX_X],
                 (float) env[MIN_Y], (float) env[MAX_Y]);
     }
@@ -356,6 +413,28 @@ public MVMap<Spatial, VersionedValue<Value>> getMVMap() {
         return dataMap.map;
     }
 
+    /**
+     * A row found by the nearest neighbor search.
+     */
+    public static final class Neighbor {
+
+        /**
+         * The key of the row.
+         */
+        public final long key;
+
+        /**
+         * The distance between bounding boxes.
+         */
+        public final double distance;
+
+        Neighbor(long key, double distance) {
+            this.key = key;
+            this.distance = distance;
+        }
+
+    }
+
     /**
      * A cursor.
      */
@@ -25,12 +25,14 @@
 import org.h2.engine.SysProperties;
 import org.h2.index.Cursor;
 import org.h2.index.Index;
+import org.h2.index.IndexPredicate;
 import org.h2.index.IndexType;
 import org.h2.message.DbException;
 import org.h2.message.Trace;
 import org.h2.mode.DefaultNullOrdering;
 import org.h2.mvstore.DataUtils;
 import org.h2.mvstore.MVStoreException;
+import org.h2.mvstore.rtree.Spatial;
 import org.h2.mvstore.tx.Transaction;
 import org.h2.mvstore.tx.TransactionStore;
 import org.h2.result.LocalResult;
@@ -155,7 +157,8 @@ public MVTable(CreateTableData data, Store store) {
         traceLock = database.getTrace(Trace.LOCK);
 
         primaryIndex = new MVPrimaryIndex(database, this, getId(),
-                IndexColumn.wrap(getColumns()), IndexType.createScan(true));
+                IndexColumn.wrap(getColumns()), IndexType.createScan(true),
+                MVZoneMap.getZoneSize(data.tableEngineParams));
         indexes.add(primaryIndex);
     }
 
@@ -336,13 +339,28 @@ public Row getRow(SessionLocal session, long key) {
     @Override
     public Index addIndex(SessionLocal session, String indexName, int indexId, IndexColumn[] cols,
             int uniqueColumnCount, IndexType indexType, boolean create, String indexComment) {
+        return addIndex(session, indexName, indexId, cols, uniqueColumnCount, indexType, null, create,
+                indexComment);
+    }
+
+    @Override
+    public Index addIndex(SessionLocal session, String indexName, int indexId, IndexColumn[] cols,
+            int uniqueColumnCount, IndexType indexType, IndexPredicate predicate, boolean create,
+            String indexComment) {
+        if (predicate != null && (indexType.isPrimaryKey() || indexType.isSpatial() || indexType.isFullText()
+                || indexType.isTrigram() || indexType.isArray())) {
+            throw DbException.getUnsupportedException(indexType.isPrimaryKey() ? "partial primary key"
+                    : indexType.isSpatial() ? "partial spatial index"
+                    : indexType.isFullText() ? "partial full-text index"
+                    : indexType.isTrigram() ? "partial trigram index" : "partial array index");
+        }
         cols = prepareColumns(database, cols, indexType);
         boolean isSessionTemporary = isTemporary() && !isGlobalTemporary();
         if (!isSessionTemporary) {
             database.lockMeta(session);
         }
         MVIndex<?,?> index;
-        int mainIndexColumn = primaryIndex.getMainIndexColumn() != SearchRow.ROWID_INDEX
+        int mainIndexColumn = primaryIndex.getMainIndexColumn() != SearchRow.ROWID_INDEX || predicate != null
                 ? SearchRow.ROWID_INDEX : getMainIndexColumn(indexType, cols);
         if (database.isStarting()) {
             // if index does exist as a separate map it can't be a delegate
@@ -361,9 +379,15 @@ public Index addIndex(SessionLocal session, String indexName, int indexId, Index
         } else if (indexType.isSpatial()) {
             index = new MVSpatialIndex(session.getDatabase(), this, indexId,
                     indexName, cols, uniqueColumnCount, indexType);
+        } else if (indexType.isFullText()) {
+            index = new MVFullTextIndex(session.getDatabase(), this, indexId, indexName, cols, indexType);
+        } else if (indexType.isTrigram()) {
+            index = new MVTrigramIndex(session.getDatabase(), this, indexId, indexName, cols, indexType);
+        } else if (indexType.isArray()) {
+            index = new MVArrayIndex(session.getDatabase(), this, indexId, indexName, cols, indexType);
         } else {
             index = new MVSecondaryIndex(session.getDatabase(), this, indexId,
-                    indexName, cols, uniqueColumnCount, indexType);
+                    indexName, cols, uniqueColumnCount, indexType, predicate);
         }
         if (index.needRebuild()) {
             rebuildIndex(session, index, indexName);
@@ -384,8 +408,12 @@ public Index addIndex(SessionLocal session, String indexName, int indexId, Index
 
     private void rebuildIndex(SessionLocal session, MVIndex<?,?> index, String indexName) {
         try {
-            if (!session.getDatabase().isPersistent() || index instanceof MVSpatialIndex) {
-                // in-memory
+            if (index instanceof MVSpatialIndex && !index.getIndexType().isUnique()) {
+                rebuildSpatialIndex(session, (MVSpatialIndex) index);
+            } else if (!session.getDatabase().isPersistent() || index instanceof MVSpatialIndex
+                    || index instanceof MVFullTextIndex || index instanceof MVTrigramIndex
+                    || index.hasExpressionColumns()) {
+                // in-memory, or keys are computed only when rows are added
                 rebuildIndexBuffered(session, index);
             } else {
                 rebuildIndexBlockMerge(session, index);
@@ -424,9 +452,12 @@ private void rebuildIndexBlockMerge(SessionLocal session, MVIndex<?,?> index) {
         ArrayList<Row> buffer = new ArrayList<>(bufferSize);
         String n = getName() + ':' + index.getName();
         ArrayList<String> bufferNames = Utils.newSmallArrayList();
+        IndexPredicate predicate = index.getPredicate();
         while (cursor.next()) {
             Row row = cursor.get();
-            buffer.add(row);
+            if (predicate == null || predicate.matches(session, row)) {
+                buffer.add(row);
+            }
             database.setProgress(DatabaseEventListener.STATE_CREATE_INDEX, n, i++, total);
             if (buffer.size() >= bufferSize) {
                 sortRows(buffer, index);
@@ -438,7 +469,7 @@ private void rebuildIndexBlockMerge(SessionLocal session, MVIndex<?,?> index) {
             remaining--;
         }
         sortRows(buffer, index);
-        if (!bufferNames.isEmpty()) {
+        if (!bufferNames.isEmpty() || index.needsRowBuffer()) {
             String mapName = store.nextTemporaryMapName();
             index.addRowsToBuffer(buffer, mapName);
             bufferNames.add(mapName);
@@ -452,6 +483,30 @@ private void rebuildIndexBlockMerge(SessionLocal session, MVIndex<?,?> index) {
         }
     }
 
+    private void rebuildSpatialIndex(SessionLocal session, MVSpatialIndex index) {
+        // Collect all keys and build the r-tree bottom-up, this is much
+        // faster than insertion of keys one by one and the tree is better
+        Index scan = getScanIndex(session);
+        long remaining = scan.getRowCount(session);
+        long total = remaining;
+        Cursor cursor = scan.find(session, null, null, false);
+        long i = 0;
+        ArrayList<Spatial> keys = new ArrayList<>((int) Math.min(total, Integer.MAX_VALUE - 8));
+        String n = getName() + ':' + index.getName();
+        while (cursor.next()) {
+            SpatialKey key = index.getKey(cursor.get());
+            if (!key.isNull()) {
+                keys.add(key);
+            }
+            database.setProgress(DatabaseEventListener.STATE_CREATE_INDEX, n, i++, total);
+            remaining--;
+        }
+        if (remaining != 0) {
+            throw DbException.getInternalError("rowcount remaining=" + remaining + ' ' + getName());
+        }
+        index.bulkLoad(keys);
+    }
+
     private void rebuildIndexBuffered(SessionLocal session, Index index) {
         Index scan = getScanIndex(session);
         long remaining = scan.getRowCount(session);
@@ -493,6 +548,7 @@ public void removeRow(SessionLocal session, Row row) {
             }
             throw DbException.convert(e);
         }
+        captureChange(session, row, false);
         session.registerTableAsUpdated(this);
         analyzeIfRequired(session);
     }
@@ -508,6 +564,7 @@ public long truncate(SessionLocal session) {
         if (changesUntilAnalyze != null) {
             changesUntilAnalyze.set(nextAnalyze);
         }
+        discardCapturedChanges();
         return result;
     }
 
@@ -527,6 +584,7 @@ public void addRow(SessionLocal session, Row row) {
             }
             throw DbException.convert(e);
         }
+        captureChange(session, row, true);
         session.registerTableAsUpdated(this);
         analyzeIfRequired(session);
     }
@@ -548,6 +606,8 @@ public void updateRow(SessionLocal session, Row oldRow, Row newRow) {
             }
             throw DbException.convert(e);
         }
+        captureChange(session, oldRow, false);
+        captureChange(session, newRow, true);
         session.registerTableAsUpdated(this);
         analyzeIfRequired(session);
     }
@@ -791,7 +851,10 @@ private static String lockTypeToString(int lockType) {
      *            the index to sort for
      */
     private static void sortRows(ArrayList<? extends SearchRow> list, final Index index) {
-        list.sort(index::compareRows);
+        // rows don't have values of expression columns
+        if (!index.hasExpressionColumns()) {
+            list.sort(index::compareRows);
+        }
     }
 
     @Override
@@ -944,7 +1007,8 @@ private static IndexColumn[] prepareColumns(Database database, IndexColumn[] col
             for (IndexColumn c : cols) {
                 c.column.setPrimaryKey(true);
             }
-        } else if (!indexType.isSpatial()) {
+        } else if (!indexType.isSpatial() && !indexType.isFullText() && !indexType.isTrigram()
+                && !indexType.isArray()) {
             int i = 0, l = cols.length;
             while (i < l && (cols[i].sortType & (SortOrder.NULLS_FIRST | SortOrder.NULLS_LAST)) != 0) {
                 i++;
@@ -79,10 +79,13 @@ public void close() throws Exception {
      */
     public static ResultExternal of(Database database, Expression[] expressions, boolean distinct,
             int[] distinctIndexes, int visibleColumnCount, int resultColumnCount, SortOrder sort) {
-        return distinct || distinctIndexes != null || sort != null
-                ? new MVSortedTempResult(database, expressions, distinct, distinctIndexes, visibleColumnCount,
-                        resultColumnCount, sort)
-                : new MVPlainTempResult(database, expressions, visibleColumnCount, resultColumnCount);
+        if (distinct || distinctIndexes != null) {
+            return new MVSortedTempResult(database, expressions, distinct, distinctIndexes, visibleColumnCount,
+                    resultColumnCount, sort);
+        } else if (sort != null) {
+            return new MVMergeSortTempResult(database, expressions, visibleColumnCount, resultColumnCount, sort);
+        }
+        return new MVPlainTempResult(database, expressions, visibleColumnCount, resultColumnCount);
     }
 
     private final Database database;
@@ -0,0 +1,511 @@
+/*
+ * Copyright 2004-2025 H2 Group. Multiple-Licensed under the MPL 2.0,
+ * and the EPL 1.0 (https://h2database.com/html/license.html).
+ * Initial Developer: H2 Group
+ */
+package org.h2.mvstore.db;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.h2.api.ErrorCode;
+import org.h2.command.query.AllColumnsForPlan;
+import org.h2.engine.Constants;
+import org.h2.engine.Database;
+import org.h2.engine.SessionLocal;
+import org.h2.expression.condition.Comparison;
+import org.h2.index.Cursor;
+import org.h2.index.IndexCondition;
+import org.h2.index.IndexType;
+import org.h2.index.SingleRowCursor;
+import org.h2.index.TrigramIndex;
+import org.h2.message.DbException;
+import org.h2.mvstore.MVMap;
+import org.h2.mvstore.MVStoreException;
+import org.h2.mvstore.tx.Transaction;
+import org.h2.mvstore.tx.TransactionMap;
+import org.h2.result.Row;
+import org.h2.result.RowFactory;
+import org.h2.result.SearchRow;
+import org.h2.result.SortOrder;
+import org.h2.table.Column;
+import org.h2.table.IndexColumn;
+import org.h2.table.TableFilter;
+import org.h2.value.CompareMode;
+import org.h2.value.DataType;
+import org.h2.value.TypeInfo;
+import org.h2.value.Value;
+import org.h2.value.ValueArray;
+import org.h2.value.ValueNull;
+import org.h2.value.ValueVarchar;
+import org.h2.value.VersionedValue;
+
+/**
+ * A trigram index with sets of rows for each trigram stored in a
+ * transactional map.
+ *
+ * <p>
+ * Values of the indexed column are split into overlapping sequences of three
+ * characters with ignored case. For each distinct trigram of a row the map has
+ * an entry with the trigram and the key of the row as its key. An entry with
+ * {@code NULL} trigram exists for each row. The index is used for substring
+ * conditions, such as {@code LIKE '%abc%'}, and returns rows with all trigrams
+ * of searched substrings; these rows need to be checked by the condition.
+ * </p>
+ */
+public final class MVTrigramIndex extends MVIndex<SearchRow, Value> implements TrigramIndex {
+
+    /**
+     * The maximum number of trigrams checked for each found row.
+     */
+    private static final int MAX_TRIGRAMS = 16;
+
+    /**
+     * The multi-value table.
+     */
+    private final MVTable mvTable;
+
+    /**
+     * The factory of keys of the map.
+     */
+    private final RowFactory keyFactory;
+
+    private final TransactionMap<SearchRow, Value> dataMap;
+
+    /**
+     * Constructor.
+     *
+     * @param db the database
+     * @param table the table instance
+     * @param id the index id
+     * @param indexName the index name
+     * @param columns the indexed columns (only one character string column is
+     *            allowed)
+     * @param indexType the index type (only trigram index)
+     */
+    public MVTrigramIndex(Database db, MVTable table, int id, String indexName, IndexColumn[] columns,
+            IndexType indexType) {
+        super(table, id, indexName, columns, 0, indexType);
+        if (columns.length != 1) {
+            throw DbException.getUnsupportedException("Can only index one column");
+        }
+        IndexColumn col = columns[0];
+        if ((col.sortType & (SortOrder.DESCENDING | SortOrder.NULLS_FIRST | SortOrder.NULLS_LAST)) != 0) {
+            throw DbException.getUnsupportedException("Sort order in trigram index");
+        }
+        if (!DataType.isCharacterStringType(col.column.getType().getValueType())) {
+            throw DbException.getUnsupportedException(
+                    "Trigram index on non-character column, " + col.column.getCreateSQL());
+        }
+        this.mvTable = table;
+        String mapName = "index." + getId();
+        Transaction t = mvTable.getTransactionBegin();
+        // trigrams are already case-folded, they are compared in binary order,
+        // so trigrams that are equal only in the database collation are
+        // stored separately
+        keyFactory = RowFactory.getDefaultRowFactory().createRowFactory(db, CompareMode.getInstance(null, 0), db,
+                new int[] { SortOrder.ASCENDING }, new int[] { 0 }, new TypeInfo[] { TypeInfo.TYPE_VARCHAR }, 1,
+                true);
+        RowDataType keyType = keyFactory.getRowDataType();
+        dataMap = t.openMap(mapName, keyType, NullValueDataType.INSTANCE);
+        dataMap.map.setVolatile(!table.isPersistData() || !indexType.isPersistent());
+        if (!db.isStarting()) {
+            dataMap.clear();
+        }
+        t.commit();
+    }
+
+    @Override
+    public void addRowsToBuffer(List<Row> rows, String bufferName) {
+        throw DbException.getInternalError();
+    }
+
+    @Override
+    public void addBufferedRows(List<String> bufferNames) {
+        throw DbException.getInternalError();
+    }
+
+    @Override
+    public void close(SessionLocal session) {
+        // ok
+    }
+
+    @Override
+    public void add(SessionLocal session, Row row) {
+        HashSet<String> trigrams = getTrigrams(row);
+        TransactionMap<SearchRow, Value> map = getMap(session);
+        long key = row.getKey();
+        try {
+            for (String trigram : trigrams) {
+                map.put(getKey(ValueVarchar.get(trigram), key), ValueNull.INSTANCE);
+            }
+            map.put(getKey(ValueNull.INSTANCE, key), ValueNull.INSTANCE);
+        } catch (MVStoreException e) {
+            throw mvTable.convertException(e);
+        }
+    }
+
+    @Override
+    public void remove(SessionLocal session, Row row) {
+        HashSet<String> trigrams = getTrigrams(row);
+        TransactionMap<SearchRow, Value> map = getMap(session);
+        long key = row.getKey();
+        try {
+            if (map.remove(getKey(ValueNull.INSTANCE, key)) == null) {
+                StringBuilder builder = new StringBuilder();
+                getSQL(builder, TRACE_SQL_FLAGS).append(": ").append(key);
+                throw DbException.get(ErrorCode.ROW_NOT_FOUND_WHEN_DELETING_1, builder.toString());
+            }
+            for (String trigram : trigrams) {
+                map.remove(getKey(ValueVarchar.get(trigram), key));
+            }
+        } catch (MVStoreException e) {
+            throw mvTable.convertException(e);
+        }
+    }
+
+    @Override
+    public void update(SessionLocal session, Row oldRow, Row newRow) {
+        long key = oldRow.getKey();
+        if (key != newRow.getKey()) {
+            super.update(session, oldRow, newRow);
+            return;
+        }
+        HashSet<String> oldTrigrams = getTrigrams(oldRow), newTrigrams = getTrigrams(newRow);
+        TransactionMap<SearchRow, Value> map = getMap(session);
+        try {
+            // only entries of changed trigrams are written
+            for (String trigram : oldTrigrams) {
+                if (!newTrigrams.contains(trigram)) {
+                    map.remove(getKey(ValueVarchar.get(trigram), key));
+                }
+            }
+            for (String trigram : newTrigrams) {
+                if (!oldTrigrams.contains(trigram)) {
+                    map.put(getKey(ValueVarchar.get(trigram), key), ValueNull.INSTANCE);
+                }
+            }
+        } catch (MVStoreException e) {
+            throw mvTable.convertException(e);
+        }
+    }
+
+    private HashSet<String> getTrigrams(SearchRow row) {
+        HashSet<String> trigrams = new HashSet<>();
+        Value v = row.getValue(columnIds[0]);
+        if (v != ValueNull.INSTANCE) {
+            addTrigrams(v.getString(), trigrams);
+        }
+        return trigrams;
+    }
+
+    /**
+     * Adds trigrams of the specified string. Characters are converted to the
+     * same case, trigrams with surrogate characters are skipped.
+     *
+     * @param s the string
+     * @param trigrams the set to add trigrams to
+     */
+    static void addTrigrams(String s, Collection<String> trigrams) {
+        char[] chars = new char[3];
+        for (int i = 0, l = s.length(), valid = 0; i < l; i++) {
+            char c = s.charAt(i);
+            if (Character.isSurrogate(c)) {
+                valid = 0;
+                continue;
+            }
+            chars[0] = chars[1];
+            chars[1] = chars[2];
+            chars[2] = Character.toLowerCase(Character.toUpperCase(c));
+            if (++valid >= 3) {
+                trigrams.add(new String(chars));
+            }
+        }
+    }
+
+    @Override
+    public Cursor findBySubstrings(SessionLocal session, String[] substrings) {
+        HashSet<String> set = new HashSet<>();
+        for (String substring : substrings) {
+            addTrigrams(substring, set);
+        }
+        if (set.isEmpty()) {
+            return find(session, null, null, false);
+        }
+        int count = set.size();
+        Value[] trigrams = new Value[count];
+        long[] counts = new long[count];
+        Integer[] order = new Integer[count];
+        int i = 0;
+        for (String trigram : set) {
+            Value v = ValueVarchar.get(trigram);
+            long c = countEntries(v);
+            if (c == 0L) {
+                return SingleRowCursor.EMPTY;
+            }
+            trigrams[i] = v;
+            counts[i] = c;
+            order[i] = i;
+            i++;
+        }
+        // the rarest trigram determines rows to check
+        Arrays.sort(order, (a, b) -> Long.compare(counts[a], counts[b]));
+        count = Math.min(count, MAX_TRIGRAMS);
+        Value[] sorted = new Value[count];
+        for (i = 0; i < count; i++) {
+            sorted[i] = trigrams[order[i]];
+        }
+        TransactionMap<SearchRow, Value> map = getMap(session);
+        return new MVStoreCursor(session, new CandidateIterator(map, sorted), mvTable);
+    }
+
+    /**
+     * Returns the estimated number of entries with the specified trigram,
+     * including uncommitted ones.
+     *
+     * @param trigram the trigram, or {@code NULL} to count rows
+     * @return the estimated number of entries
+     */
+    private long countEntries(Value trigram) {
+        MVMap<SearchRow, VersionedValue<Value>> map = dataMap.map;
+        long from = map.getKeyIndex(getKey(trigram, Long.MIN_VALUE));
+        long to = map.getKeyIndex(getKey(trigram, Long.MAX_VALUE));
+        return (to >= 0L ? to + 1 : ~to) - (from >= 0L ? from : ~from);
+    }
+
+    private SearchRow getKey(Value trigram, long key) {
+        SearchRow row = keyFactory.createRow();
+        row.setValue(0, trigram);
+        row.setKey(key);
+        return row;
+    }
+
+    @Override
+    public Cursor find(SessionLocal session, SearchRow first, SearchRow last, boolean reverse) {
+        SearchRow from = getKey(ValueNull.INSTANCE, Long.MIN_VALUE), to = getKey(ValueNull.INSTANCE, Long.MAX_VALUE);
+        return new MVStoreCursor(session,
+                reverse ? getMap(session).keyIterator(to, from, true) : getMap(session).keyIterator(from, to),
+                mvTable);
+    }
+
+    @Override
+    public MVTable getTable() {
+        return mvTable;
+    }
+
+    @Override
+    public double getCost(SessionLocal session, int[] masks, TableFilter[] filters, int filter,
+            SortOrder sortOrder, AllColumnsForPlan allColumnsSet, boolean isSelectCommand) {
+        // Never use trigram index without substring condition
+        Column column = columns[0];
+        if (masks == null || (masks[column.getColumnId()] & IndexCondition.CONTAINS_ALL) == 0) {
+            return Long.MAX_VALUE;
+        }
+        try {
+            long rowCount = countEntries(ValueNull.INSTANCE), rowsCost = rowCount;
+            if (filters != null) {
+                for (IndexCondition condition : filters[filter].getIndexConditions()) {
+                    if (condition.getCompareType() == Comparison.CONTAINS_ALL && condition.getColumn() == column
+                            && condition.getExpression().isConstant()) {
+                        rowsCost = Math.min(rowsCost, estimateRows(condition.getCurrentValue(session)));
+                    }
+                }
+            }
+            // each found row is read from the primary index
+            long cost = 2 + 2 * (rowCount + Constants.COST_ROW_OFFSET) * rowsCost / Math.max(rowCount, 1L);
+            if (sortOrder != null) {
+                cost += 100 + rowCount / 10;
+            }
+            return 10 * cost;
+        } catch (MVStoreException e) {
+            throw DbException.get(ErrorCode.OBJECT_CLOSED, e);
+        }
+    }
+
+    private long estimateRows(Value substrings) {
+        ArrayList<String> trigrams = new ArrayList<>();
+        if (substrings instanceof ValueArray) {
+            for (Value v : ((ValueArray) substrings).getList()) {
+                addTrigrams(v.getString(), trigrams);
+            }
+        }
+        long rows = Long.MAX_VALUE;
+        for (String trigram : trigrams) {
+            rows = Math.min(rows, countEntries(ValueVarchar.get(trigram)));
+        }
+        return rows;
+    }
+
+    @Override
+    public void remove(SessionLocal session) {
+        TransactionMap<SearchRow, Value> map = getMap(session);
+        if (!map.isClosed()) {
+            Transaction t = session.getTransaction();
+            t.removeMap(map);
+        }
+    }
+
+    @Override
+    public void truncate(SessionLocal session) {
+        TransactionMap<SearchRow, Value> map = getMap(session);
+        map.clear();
+    }
+
+    @Override
+    public boolean needRebuild() {
+        try {
+            return dataMap.sizeAsLongMax() == 0;
+        } catch (MVStoreException e) {
+            throw DbException.get(ErrorCode.OBJECT_CLOSED, e);
+        }
+    }
+
+    @Override
+    public long getRowCount(SessionLocal session) {
+        long count = 0L;
+        for (Cursor cursor = find(session, null, null, false); cursor.next();) {
+            count++;
+        }
+        return count;
+    }
+
+    @Override
+    public long getRowCountApproximation(SessionLocal session) {
+        try {
+            return countEntries(ValueNull.INSTANCE);
+        } catch (MVStoreException e) {
+            throw DbException.get(ErrorCode.OBJECT_CLOSED, e);
+        }
+    }
+
+    /**
+     * Get the map to store the data.
+     *
+     * @param session the session
+     * @return the map
+     */
+    private TransactionMap<SearchRow, Value> getMap(SessionLocal session) {
+        if (session == null) {
+            return dataMap;
+        }
+        Transaction t = session.getTransaction();
+        return dataMap.getInstance(t);
+    }
+
+    @Override
+    public MVMap<SearchRow, VersionedValue<Value>> getMVMap() {
+        return dataMap.map;
+    }
+
+    /**
+     * An iterator over entries of the rarest trigram with rows containing all
+     * other trigrams.
+     */
+    private final class CandidateIterator implements Iterator<SearchRow> {
+
+        private final TransactionMap<SearchRow, Value> map;
+
+        private final Value[] trigrams;
+
+        private final Iterator<SearchRow> it;
+
+        private SearchRow next;
+
+        CandidateIterator(TransactionMap<SearchRow, Value> map, Value[] trigrams) {
+            this.map = map;
+            this.trigrams = trigrams;
+            Value driver = trigrams[0];
+            it = map.keyIterator(getKey(driver, Long.MIN_VALUE), getKey(driver, Long.MAX_VALUE));
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                loop: while (it.hasNext()) {
+                    SearchRow row = it.next();
+                    long key = row.getKey();
+                    for (int i = 1, l = trigrams.length; i < l; i++) {
+                        if (map.get(getKey(trigrams[i], key)) == null) {
+                            continue loop;
+                        }
+                    }
+                    next = row;
+                    break;
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public SearchRow next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            SearchRow row = next;
+            next = null;
+            return row;
+        }
+
+    }
+
+    /**
+     * A cursor over rows of the index.
+     */
+    private static final class MVStoreCursor implements Cursor {
+
+        private final SessionLocal session;
+        private final Iterator<SearchRow> it;
+        private final MVTable mvTable;
+        private SearchRow current;
+        private SearchRow searchRow;
+        private Row row;
+
+        MVStoreCursor(SessionLocal session, Iterator<SearchRow> it, MVTable mvTable) {
+            this.session = session;
+            this.it = it;
+            this.mvTable = mvTable;
+        }
+
+        @Override
+        public Row get() {
+            if (row == null) {
+                SearchRow r = getSearchRow();
+                if (r != null) {
+                    row = mvTable.getRow(session, r.getKey());
+                }
+            }
+            return row;
+        }
+
+        @Override
+        public SearchRow getSearchRow() {
+            if (searchRow == null) {
+                if (current != null) {
+                    searchRow = mvTable.getTemplateRow();
+                    searchRow.setKey(current.getKey());
+                }
+            }
+            return searchRow;
+        }
+
+        @Override
+        public boolean next() {
+            current = it.hasNext() ? it.next() : null;
+            searchRow = null;
+            row = null;
+            return current != null;
+        }
+
+        @Override
+        public boolean previous() {
+            throw DbException.getUnsupportedException("previous");
+        }
+
+    }
+
+}
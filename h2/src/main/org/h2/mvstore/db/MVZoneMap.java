@@ -0,0 +1,487 @@
+/*
+ * Copyright 2004-2025 H2 Group. Multiple-Licensed under the MPL 2.0,
+ * and the EPL 1.0 (https://h2database.com/html/license.html).
+ * Initial Developer: H2 Group
+ */
+package org.h2.mvstore.db;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.h2.engine.Database;
+import org.h2.engine.SessionLocal;
+import org.h2.index.Cursor;
+import org.h2.message.DbException;
+import org.h2.mvstore.MVMap;
+import org.h2.mvstore.MVStore;
+import org.h2.mvstore.WriteBuffer;
+import org.h2.mvstore.tx.TransactionMap;
+import org.h2.mvstore.type.ByteArrayDataType;
+import org.h2.mvstore.type.LongDataType;
+import org.h2.result.Row;
+import org.h2.result.SearchRow;
+import org.h2.table.Column;
+import org.h2.value.DataType;
+import org.h2.value.Value;
+import org.h2.value.ValueNull;
+
+/**
+ * Minimum and maximum values of the columns of a table for each zone of
+ * consecutive row keys. The zones are kept in a side map of the primary index
+ * and allow scans of the primary index to skip key ranges that can not
+ * contain rows matching the index conditions.
+ * <p>
+ * Zones are only widened: rows removed or updated later, and changes of rolled
+ * back transactions, may leave a zone wider than necessary, but never
+ * narrower. The zones are reset when the table is truncated.
+ * </p>
+ */
+final class MVZoneMap {
+
+    /**
+     * The prefix of names of zone maps.
+     */
+    static final String MAP_PREFIX = "zones.";
+
+    /**
+     * The table parameter that enables zone maps, optionally with the number
+     * of row keys in one zone.
+     */
+    static final String PARAM = "ZONE_MAP";
+
+    /**
+     * The default number of row keys in one zone.
+     */
+    static final int DEFAULT_ZONE_SIZE = 1024;
+
+    private final Database database;
+
+    private final Column[] columns;
+
+    private final boolean[] tracked;
+
+    private final int shift;
+
+    private final MVMap<Long, byte[]> map;
+
+    private final ValueDataType valueType;
+
+    private final ConcurrentSkipListMap<Long, Zone> zones = new ConcurrentSkipListMap<>();
+
+    /**
+     * Returns the number of row keys in one zone for the specified table
+     * parameters.
+     *
+     * @param params the table engine parameters, or {@code null}
+     * @return the number of row keys in one zone (a power of 2), or 0 if zone
+     *         maps are not enabled
+     */
+    static int getZoneSize(List<String> params) {
+        int size = 0;
+        if (params != null) {
+            for (String param : params) {
+                if (param.regionMatches(true, 0, PARAM, 0, PARAM.length())) {
+                    String s = param.substring(PARAM.length()).trim();
+                    if (s.isEmpty()) {
+                        size = DEFAULT_ZONE_SIZE;
+                        continue;
+                    }
+                    if (s.charAt(0) == '=') {
+                        try {
+                            size = Integer.parseInt(s.substring(1).trim());
+                        } catch (NumberFormatException e) {
+                            size = 0;
+                        }
+                    }
+                    if (size <= 0) {
+                        throw DbException.getInvalidValueException(PARAM, param);
+                    }
+                    size = Integer.highestOneBit(size);
+                }
+            }
+        }
+        return size;
+    }
+
+    MVZoneMap(Database database, MVStore store, String mapName, Column[] columns, int zoneSize) {
+        this.database = database;
+        this.columns = columns;
+        int l = columns.length;
+        tracked = new boolean[l];
+        for (int i = 0; i < l; i++) {
+            tracked[i] = isTracked(columns[i].getType().getValueType());
+        }
+        shift = Integer.numberOfTrailingZeros(zoneSize);
+        valueType = new ValueDataType(database, null);
+        map = store.openMap(mapName, new MVMap.Builder<Long, byte[]>().keyType(LongDataType.INSTANCE)
+                .valueType(ByteArrayDataType.INSTANCE));
+        if (database.isStarting()) {
+            for (Map.Entry<Long, byte[]> e : map.entrySet()) {
+                zones.put(e.getKey(), read(e.getKey(), e.getValue()));
+            }
+        } else {
+            map.clear();
+        }
+    }
+
+    private static boolean isTracked(int valueType) {
+        if (DataType.isLargeObject(valueType)) {
+            return false;
+        }
+        switch (valueType) {
+        case Value.JAVA_OBJECT:
+        case Value.GEOMETRY:
+        case Value.JSON:
+        case Value.ARRAY:
+        case Value.ROW:
+            return false;
+        default:
+            return true;
+        }
+    }
+
+    MVMap<Long, byte[]> getMap() {
+        return map;
+    }
+
+    /**
+     * Returns whether this zone map has minimum and maximum values for the
+     * specified column.
+     *
+     * @param column the column
+     * @return whether the column is tracked
+     */
+    boolean isTracked(Column column) {
+        int id = column.getColumnId();
+        return id >= 0 && id < tracked.length && columns[id] == column && tracked[id];
+    }
+
+    /**
+     * Widen the zone of the row, if necessary. This method must be called
+     * before the row is written to the primary index.
+     *
+     * @param row the row with its key
+     */
+    void add(Row row) {
+        long id = row.getKey() >> shift;
+        Zone zone = zones.get(id);
+        if (zone != null && zone.covers(this, row)) {
+            return;
+        }
+        synchronized (this) {
+            zone = zones.get(id);
+            Zone widened = zone == null ? new Zone(this, id, row) : zone.widen(this, row);
+            if (widened != zone) {
+                map.put(id, write(widened));
+                zones.put(id, widened);
+            }
+        }
+    }
+
+    /**
+     * Remove all zones.
+     */
+    synchronized void clear() {
+        map.clear();
+        zones.clear();
+    }
+
+    /**
+     * Extract the bounds of tracked columns from the search row.
+     *
+     * @param row the search row, or {@code null}
+     * @return the bounds, or {@code null} if there are no bounds on tracked
+     *         columns
+     */
+    Value[] getBounds(SearchRow row) {
+        if (row == null) {
+            return null;
+        }
+        Value[] bounds = null;
+        for (int i = 0, l = tracked.length; i < l; i++) {
+            Value v;
+            if (tracked[i] && (v = row.getValue(i)) != null) {
+                if (bounds == null) {
+                    bounds = new Value[l];
+                }
+                bounds[i] = v;
+            }
+        }
+        return bounds;
+    }
+
+    /**
+     * Create a cursor over the rows of zones that can contain rows within the
+     * bounds.
+     *
+     * @param session the session
+     * @param map the data map of the primary index
+     * @param min the lowest row key, or {@code null}
+     * @param max the highest row key, or {@code null}
+     * @param lower the lower bounds of columns, or {@code null}
+     * @param upper the upper bounds of columns, or {@code null}
+     * @param reverse whether rows should be returned in descending key order
+     * @return the cursor
+     */
+    Cursor find(SessionLocal session, TransactionMap<Long, SearchRow> map, Long min, Long max, Value[] lower,
+            Value[] upper, boolean reverse) {
+        NavigableMap<Long, Zone> range = zones;
+        if (min != null) {
+            range = range.tailMap(min >> shift, true);
+        }
+        if (max != null) {
+            range = range.headMap(max >> shift, true);
+        }
+        if (reverse) {
+            range = range.descendingMap();
+        }
+        return new ZoneCursor(session, map, min, max, lower, upper, reverse, range.values().iterator());
+    }
+
+    int compareTypeSafe(Value a, Value b) {
+        return a.compareTypeSafe(b, database.getCompareMode(), database);
+    }
+
+    private byte[] write(Zone zone) {
+        WriteBuffer buff = new WriteBuffer();
+        for (int c = 0, l = tracked.length; c < l; c++) {
+            Value lo = zone.min[c];
+            buff.put((byte) ((zone.hasNulls[c] ? 1 : 0) | (lo != null ? 2 : 0)));
+            if (lo != null) {
+                valueType.write(buff, lo);
+                valueType.write(buff, zone.max[c]);
+            }
+        }
+        ByteBuffer b = buff.getBuffer();
+        byte[] data = new byte[b.position()];
+        b.flip();
+        b.get(data);
+        return data;
+    }
+
+    private Zone read(long id, byte[] data) {
+        ByteBuffer buff = ByteBuffer.wrap(data);
+        int l = tracked.length;
+        Value[] min = new Value[l], max = new Value[l];
+        boolean[] hasNulls = new boolean[l];
+        for (int c = 0; c < l; c++) {
+            int flags = buff.get();
+            hasNulls[c] = (flags & 1) != 0;
+            if ((flags & 2) != 0) {
+                min[c] = valueType.readValue(buff, columns[c].getType());
+                max[c] = valueType.readValue(buff, columns[c].getType());
+            }
+        }
+        return new Zone(id, min, max, hasNulls);
+    }
+
+    /**
+     * The minimum and maximum values of one zone. Instances are immutable.
+     */
+    private static final class Zone {
+
+        final long id;
+
+        /**
+         * The minimum non-NULL values, {@code null} for untracked columns and
+         * columns with only NULL values.
+         */
+        final Value[] min, max;
+
+        /**
+         * Whether the zone may contain NULL values, always {@code true} for
+         * untracked columns.
+         */
+        final boolean[] hasNulls;
+
+        Zone(long id, Value[] min, Value[] max, boolean[] hasNulls) {
+            this.id = id;
+            this.min = min;
+            this.max = max;
+            this.hasNulls = hasNulls;
+        }
+
+        Zone(MVZoneMap zoneMap, long id, Row row) {
+            this.id = id;
+            int l = zoneMap.tracked.length;
+            min = new Value[l];
+            max = new Value[l];
+            hasNulls = new boolean[l];
+            for (int c = 0; c < l; c++) {
+                Value v;
+                if (!zoneMap.tracked[c] || (v = row.getValue(c)) == ValueNull.INSTANCE) {
+                    hasNulls[c] = true;
+                } else {
+                    min[c] = max[c] = v;
+                }
+            }
+        }
+
+        boolean covers(MVZoneMap zoneMap, Row row) {
+            for (int c = 0, l = min.length; c < l; c++) {
+                if (zoneMap.tracked[c]) {
+                    Value v = row.getValue(c), lo = min[c];
+                    if (v == ValueNull.INSTANCE) {
+                        if (!hasNulls[c]) {
+                            return false;
+                        }
+                    } else if (lo == null || zoneMap.compareTypeSafe(v, lo) < 0
+                            || zoneMap.compareTypeSafe(v, max[c]) > 0) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        Zone widen(MVZoneMap zoneMap, Row row) {
+            int l = min.length;
+            Value[] newMin = null, newMax = null;
+            boolean[] newHasNulls = null;
+            for (int c = 0; c < l; c++) {
+                if (!zoneMap.tracked[c]) {
+                    continue;
+                }
+                Value v = row.getValue(c);
+                if (v == ValueNull.INSTANCE) {
+                    if (!hasNulls[c]) {
+                        if (newHasNulls == null) {
+                            newHasNulls = hasNulls.clone();
+                        }
+                        newHasNulls[c] = true;
+                    }
+                    continue;
+                }
+                Value lo = min[c];
+                if (lo == null || zoneMap.compareTypeSafe(v, lo) < 0) {
+                    if (newMin == null) {
+                        newMin = min.clone();
+                    }
+                    newMin[c] = v;
+                }
+                Value hi = max[c];
+                if (hi == null || zoneMap.compareTypeSafe(v, hi) > 0) {
+                    if (newMax == null) {
+                        newMax = max.clone();
+                    }
+                    newMax[c] = v;
+                }
+            }
+            if (newMin == null && newMax == null && newHasNulls == null) {
+                return this;
+            }
+            return new Zone(id, newMin != null ? newMin : min, newMax != null ? newMax : max,
+                    newHasNulls != null ? newHasNulls : hasNulls);
+        }
+
+        /**
+         * Check whether the zone can contain rows within the bounds.
+         */
+        boolean canMatch(SessionLocal session, Value[] lower, Value[] upper) {
+            for (int c = 0, l = min.length; c < l; c++) {
+                Value lo = lower != null ? lower[c] : null, hi = upper != null ? upper[c] : null;
+                if (lo == ValueNull.INSTANCE && hi == ValueNull.INSTANCE) {
+                    // IS NULL
+                    if (!hasNulls[c]) {
+                        return false;
+                    }
+                    continue;
+                }
+                boolean hasLo = lo != null && lo != ValueNull.INSTANCE;
+                boolean hasHi = hi != null && hi != ValueNull.INSTANCE;
+                if (hasLo || hasHi) {
+                    Value zoneMin = min[c];
+                    if (zoneMin == null) {
+                        // only NULL values
+                        return false;
+                    }
+                    if (hasLo && session.compare(max[c], lo) < 0 || hasHi && session.compare(zoneMin, hi) > 0) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+    }
+
+    /**
+     * A cursor over the rows of the zones that can contain matching rows.
+     */
+    private final class ZoneCursor implements Cursor {
+
+        private final SessionLocal session;
+
+        private final TransactionMap<Long, SearchRow> map;
+
+        private final Long min, max;
+
+        private final Value[] lower, upper;
+
+        private final boolean reverse;
+
+        private final Iterator<Zone> zoneIterator;
+
+        private Cursor current;
+
+        ZoneCursor(SessionLocal session, TransactionMap<Long, SearchRow> map, Long min, Long max, Value[] lower,
+                Value[] upper, boolean reverse, Iterator<Zone> zoneIterator) {
+            this.session = session;
+            this.map = map;
+            this.min = min;
+            this.max = max;
+            this.lower = lower;
+            this.upper = upper;
+            this.reverse = reverse;
+            this.zoneIterator = zoneIterator;
+        }
+
+        @Override
+        public Row get() {
+            return current != null ? current.get() : null;
+        }
+
+        @Override
+        public SearchRow getSearchRow() {
+            return get();
+        }
+
+        @Override
+        public boolean next() {
+            while (true) {
+                if (current != null) {
+                    if (current.next()) {
+                        return true;
+                    }
+                    current = null;
+                }
+                if (!zoneIterator.hasNext()) {
+                    return false;
+                }
+                Zone zone = zoneIterator.next();
+                if (zone.canMatch(session, lower, upper)) {
+                    long first = zone.id << shift, last = first + (1L << shift) - 1;
+                    if (min != null && min > first) {
+                        first = min;
+                    }
+                    if (max != null && max < last) {
+                        last = max;
+                    }
+                    current = new MVPrimaryIndex.MVStoreCursor(reverse ? map.entryIterator(last, first, true)
+                            : map.entryIterator(first, last, false));
+                }
+            }
+        }
+
+        @Override
+        public boolean previous() {
+            throw DbException.getInternalError(toString());
+        }
+
+    }
+
+}
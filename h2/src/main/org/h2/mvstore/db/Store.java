@@ -259,11 +259,18 @@ public void removeTemporaryMaps(BitSet objectIds) {
         for (String mapName : mvStore.getMapNames()) {
             if (mapName.startsWith("temp.")) {
                 mvStore.removeMap(mapName);
-            } else if (mapName.startsWith("table.") || mapName.startsWith("index.")) {
+            } else if (mapName.startsWith("table.") || mapName.startsWith("index.")
+                    || mapName.startsWith(MVZoneMap.MAP_PREFIX)) {
                 int id = StringUtils.parseUInt31(mapName, mapName.indexOf('.') + 1, mapName.length());
                 if (!objectIds.get(id)) {
                     mvStore.removeMap(mapName);
                 }
+            } else if (mapName.startsWith(ColumnarTable.MAP_PREFIX)) {
+                int start = ColumnarTable.MAP_PREFIX.length();
+                int id = StringUtils.parseUInt31(mapName, start, mapName.indexOf('.', start));
+                if (!objectIds.get(id)) {
+                    mvStore.removeMap(mapName);
+                }
             }
         }
     }
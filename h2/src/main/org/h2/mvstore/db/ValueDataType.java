@@ -123,6 +123,7 @@ public final class ValueDataType extends BasicDataType<Value> implements Statefu
     private static final int TIME_TZ = 136;
     private static final int BINARY = 137;
     private static final int DECFLOAT = 138;
+    private static final int JSON_BINARY = 139;
 
     final DataHandler handler;
     final CastDataProvider provider;
@@ -537,9 +538,11 @@ public void write(WriteBuffer buff, Value v) {
                 putVarLong(interval.getRemaining());
             break;
         }
-        case Value.JSON:
-            writeBinary((byte) JSON, buff, v);
+        case Value.JSON: {
+            byte[] b = ((ValueJson) v).getBinary();
+            buff.put((byte) JSON_BINARY).putVarInt(b.length).put(b);
             break;
+        }
         default:
             throw DbException.getInternalError("type=" + v.getValueType());
         }
@@ -760,6 +763,8 @@ Value readValue(ByteBuffer buff, TypeInfo columnType) {
             return ValueGeometry.get(readVarBytes(buff));
         case JSON:
             return ValueJson.getInternal(readVarBytes(buff));
+        case JSON_BINARY:
+            return ValueJson.fromBinary(readVarBytes(buff));
         default:
             if (type >= INT_0_15 && type < INT_0_15 + 16) {
                 int i = type - INT_0_15;
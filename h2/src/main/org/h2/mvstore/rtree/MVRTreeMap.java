@@ -6,19 +6,25 @@
 package org.h2.mvstore.rtree;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 
 import org.h2.mvstore.CursorPos;
+import org.h2.mvstore.DataUtils;
 import org.h2.mvstore.MVMap;
 import org.h2.mvstore.Page;
 import org.h2.mvstore.RootReference;
 import org.h2.mvstore.type.DataType;
 
 /**
- * An r-tree implementation. It supports both the linear and the quadratic split
- * algorithm.
+ * An r-tree implementation. It supports the linear, the quadratic, and the
+ * R*-tree split algorithm, bulk loading of an empty map, and nearest neighbor
+ * search.
  *
  * @param <V> the value class
  */
@@ -31,16 +37,20 @@
 
     private boolean quadraticSplit;
 
+    private boolean rStarSplit;
+
     public MVRTreeMap(Map<String, Object> config, SpatialDataType keyType, DataType<V> valueType) {
         super(config, keyType, valueType);
         this.keyType = keyType;
         quadraticSplit = Boolean.parseBoolean(String.valueOf(config.get("quadraticSplit")));
+        rStarSplit = Boolean.parseBoolean(String.valueOf(config.get("rStarSplit")));
     }
 
     private MVRTreeMap(MVRTreeMap<V> source) {
         super(source);
         this.keyType = source.keyType;
         this.quadraticSplit = source.quadraticSplit;
+        this.rStarSplit = source.rStarSplit;
     }
 
     @Override
@@ -69,6 +79,18 @@ public RTreeCursor<V> findContainedKeys(Spatial x) {
         return new ContainsRTreeCursor<>(getRootPage(), x, keyType);
     }
 
+    /**
+     * Iterate over all keys in the order of their distance to the given
+     * rectangle, nearest keys first. Pages are read only when they may contain
+     * a key that is not farther than the next returned key.
+     *
+     * @param x the rectangle
+     * @return the iterator
+     */
+    public NearestRTreeCursor<V> findNearestKeys(Spatial x) {
+        return new NearestRTreeCursor<>(getRootPage(), x, keyType);
+    }
+
     private boolean contains(Page<Spatial,V> p, int index, Spatial key) {
         return keyType.contains(p.getKey(index), key);
     }
@@ -296,12 +318,232 @@ public void add(Spatial key, V value) {
         operate(key, value, DecisionMaker.PUT);
     }
 
+    /**
+     * Add the given keys to this map, which must be empty. The keys are packed
+     * into full pages with the sort-tile-recursive (STR) algorithm: they are
+     * sorted by the center in the first dimension and cut into slices, each
+     * slice is sorted and cut by the next dimension, and so on. Upper levels
+     * of the tree are built from the bounds of pages in the same way. This is
+     * much faster than adding the keys one by one, and the resulting pages
+     * overlap less.
+     *
+     * @param keys the keys, they may not be null and must have distinct ids
+     * @param value the value for all keys
+     */
+    public void bulkLoad(List<Spatial> keys, V value) {
+        int size = keys.size();
+        if (size == 0) {
+            return;
+        }
+        Spatial[] array = keys.toArray(keyType.createStorage(size));
+        for (Spatial key : array) {
+            DataUtils.checkArgument(!key.isNull(), "Null keys can't be bulk loaded");
+        }
+        int capacity = Math.max(store.getKeysPerPage(), 2);
+        sortTileRecursive(array, 0, size, 0, capacity);
+        ArrayList<Page<Spatial,V>> pages = new ArrayList<>((size + capacity - 1) / capacity);
+        Spatial[] bounds = keyType.createStorage((size + capacity - 1) / capacity);
+        for (int from = 0; from < size; from += capacity) {
+            Page<Spatial,V> p = createEmptyLeaf();
+            for (int i = from, to = Math.min(from + capacity, size); i < to; i++) {
+                p.insertLeaf(i - from, array[i], value);
+            }
+            registerUnsavedMemory(p.getMemory());
+            bounds[pages.size()] = getBounds(p, pages.size());
+            pages.add(p);
+        }
+        while (pages.size() > 1) {
+            int count = pages.size();
+            sortTileRecursive(bounds, 0, count, 0, capacity);
+            ArrayList<Page<Spatial,V>> parents = new ArrayList<>((count + capacity - 1) / capacity);
+            Spatial[] parentBounds = keyType.createStorage((count + capacity - 1) / capacity);
+            for (int from = 0; from < count; from += capacity) {
+                int childCount = Math.min(capacity, count - from);
+                Spatial[] nodeKeys = keyType.createStorage(childCount);
+                Page.PageReference<Spatial,V>[] children = Page.createRefStorage(childCount + 1);
+                long totalCount = 0;
+                for (int i = 0; i < childCount; i++) {
+                    Spatial b = bounds[from + i];
+                    Page<Spatial,V> child = pages.get((int) b.getId());
+                    nodeKeys[i] = keyType.createBoundingBox(b);
+                    children[i] = new Page.PageReference<>(child);
+                    totalCount += child.getTotalCount();
+                }
+                children[childCount] = Page.PageReference.empty();
+                Page<Spatial,V> p = Page.createNode(this, nodeKeys, children, totalCount, 0);
+                registerUnsavedMemory(p.getMemory());
+                parentBounds[parents.size()] = getBounds(p, parents.size());
+                parents.add(p);
+            }
+            pages = parents;
+            bounds = parentBounds;
+        }
+        Page<Spatial,V> root = pages.get(0);
+        beforeWrite();
+        RootReference<Spatial,V> rootReference;
+        int attempt = 0;
+        do {
+            rootReference = tryLock(flushAndGetRoot(), attempt++);
+        } while (rootReference == null);
+        Page<Spatial,V> newRoot = null;
+        try {
+            Page<Spatial,V> oldRoot = rootReference.root;
+            if (oldRoot.getTotalCount() != 0) {
+                throw DataUtils.newMVStoreException(DataUtils.ERROR_INTERNAL,
+                        "Map {0} must be empty for bulk loading", getName());
+            }
+            if (isPersistent() && !oldRoot.isRemoved()) {
+                registerUnsavedMemory(oldRoot.removePage(rootReference.version));
+            }
+            newRoot = root;
+        } finally {
+            unlockRoot(newRoot);
+        }
+    }
+
+    /**
+     * Sort the keys for packing into pages with the sort-tile-recursive
+     * algorithm.
+     *
+     * @param keys the keys
+     * @param from the index of the first key, inclusive
+     * @param to the index of the last key, exclusive
+     * @param dim the dimension to sort by
+     * @param capacity the number of keys per page
+     */
+    private void sortTileRecursive(Spatial[] keys, int from, int to, int dim, int capacity) {
+        Arrays.sort(keys, from, to, Comparator.comparingDouble(k -> (double) k.min(dim) + k.max(dim)));
+        int dimensions = keyType.getDimensions();
+        if (dim + 1 < dimensions) {
+            int pageCount = (to - from + capacity - 1) / capacity;
+            int sliceCount = (int) Math.ceil(Math.pow(pageCount, 1d / (dimensions - dim)));
+            int sliceSize = (pageCount + sliceCount - 1) / sliceCount * capacity;
+            for (int i = from; i < to; i += sliceSize) {
+                sortTileRecursive(keys, i, Math.min(to - i, sliceSize) + i, dim + 1, capacity);
+            }
+        }
+    }
+
+    private Spatial getBounds(Page<Spatial,V> x, long id) {
+        Spatial bounds = x.getKey(0).clone(id);
+        int keyCount = x.getKeyCount();
+        for (int i = 1; i < keyCount; i++) {
+            keyType.increaseBounds(bounds, x.getKey(i));
+        }
+        return bounds;
+    }
+
     private Page<Spatial,V> split(Page<Spatial,V> p) {
-        return quadraticSplit ?
+        return rStarSplit ?
+                splitRStar(p) :
+                quadraticSplit ?
                 splitQuadratic(p) :
                 splitLinear(p);
     }
 
+    /**
+     * Split the page as in the R*-tree. The split dimension is the one where
+     * the sums of margins of possible distributions of keys sorted by their
+     * lower or upper bounds is the smallest. Then the distribution with the
+     * smallest overlap, or with the smallest area on ties, is used. Each group
+     * has at least 40% of keys.
+     *
+     * @param p the page, it keeps the second group
+     * @return the new page with the first group
+     */
+    private Page<Spatial,V> splitRStar(Page<Spatial,V> p) {
+        int keyCount = p.getKeyCount();
+        for (int i = 0; i < keyCount; i++) {
+            if (p.getKey(i).isNull()) {
+                return splitQuadratic(p);
+            }
+        }
+        int minCount = Math.max(keyCount * 2 / 5, 1);
+        int bestDim = 0;
+        float bestMargin = Float.POSITIVE_INFINITY;
+        for (int dim = 0, dimensions = keyType.getDimensions(); dim < dimensions; dim++) {
+            float margin = 0;
+            for (int byMax = 0; byMax < 2; byMax++) {
+                Spatial[][] bounds = getDistributionBounds(p, sortKeys(p, dim, byMax != 0));
+                for (int k = minCount; k <= keyCount - minCount; k++) {
+                    margin += keyType.getMargin(bounds[0][k - 1]) + keyType.getMargin(bounds[1][k]);
+                }
+            }
+            if (margin < bestMargin) {
+                bestMargin = margin;
+                bestDim = dim;
+            }
+        }
+        Integer[] bestOrder = null;
+        int bestSplit = 0;
+        float bestOverlap = Float.POSITIVE_INFINITY, bestArea = Float.POSITIVE_INFINITY;
+        for (int byMax = 0; byMax < 2; byMax++) {
+            Integer[] order = sortKeys(p, bestDim, byMax != 0);
+            Spatial[][] bounds = getDistributionBounds(p, order);
+            for (int k = minCount; k <= keyCount - minCount; k++) {
+                Spatial a = bounds[0][k - 1], b = bounds[1][k];
+                float overlap = keyType.getOverlap(a, b);
+                float area = keyType.getArea(a) + keyType.getArea(b);
+                if (overlap < bestOverlap || overlap == bestOverlap && area < bestArea) {
+                    bestOverlap = overlap;
+                    bestArea = area;
+                    bestOrder = order;
+                    bestSplit = k;
+                }
+            }
+        }
+        boolean[] first = new boolean[keyCount];
+        for (int i = 0; i < bestSplit; i++) {
+            first[bestOrder[i]] = true;
+        }
+        Page<Spatial,V> splitA = newPage(p.isLeaf());
+        for (int i = keyCount - 1; i >= 0; i--) {
+            if (first[i]) {
+                move(p, splitA, i);
+            }
+        }
+        return splitA;
+    }
+
+    private static <V> Integer[] sortKeys(Page<Spatial,V> p, int dim, boolean byMax) {
+        int keyCount = p.getKeyCount();
+        Integer[] order = new Integer[keyCount];
+        for (int i = 0; i < keyCount; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, byMax ? Comparator.comparingDouble(i -> p.getKey(i).max(dim))
+                : Comparator.comparingDouble(i -> p.getKey(i).min(dim)));
+        return order;
+    }
+
+    /**
+     * Get the bounds of prefixes and suffixes of the sorted keys.
+     *
+     * @param p the page
+     * @param order the indexes of keys in sort order
+     * @return the bounds of keys 0..i in the first array and the bounds of
+     *         keys i..keyCount-1 in the second array
+     */
+    private Spatial[][] getDistributionBounds(Page<Spatial,V> p, Integer[] order) {
+        int keyCount = order.length;
+        Spatial[] lower = keyType.createStorage(keyCount), upper = keyType.createStorage(keyCount);
+        Spatial bounds = keyType.createBoundingBox(p.getKey(order[0]));
+        lower[0] = bounds;
+        for (int i = 1; i < keyCount; i++) {
+            bounds = keyType.createBoundingBox(bounds);
+            keyType.increaseBounds(bounds, p.getKey(order[i]));
+            lower[i] = bounds;
+        }
+        bounds = keyType.createBoundingBox(p.getKey(order[keyCount - 1]));
+        upper[keyCount - 1] = bounds;
+        for (int i = keyCount - 2; i >= 0; i--) {
+            bounds = keyType.createBoundingBox(bounds);
+            keyType.increaseBounds(bounds, p.getKey(order[i]));
+            upper[i] = bounds;
+        }
+        return new Spatial[][] { lower, upper };
+    }
+
     private Page<Spatial,V> splitLinear(Page<Spatial,V> p) {
         int keyCount = p.getKeyCount();
         ArrayList<Spatial> keys = new ArrayList<>(keyCount);
@@ -441,6 +683,20 @@ public void setQuadraticSplit(boolean quadraticSplit) {
         this.quadraticSplit = quadraticSplit;
     }
 
+    public boolean isRStarSplit() {
+        return rStarSplit;
+    }
+
+    /**
+     * Set whether the R*-tree split algorithm should be used. It takes
+     * precedence over the quadratic split.
+     *
+     * @param rStarSplit whether the R*-tree split should be used
+     */
+    public void setRStarSplit(boolean rStarSplit) {
+        this.rStarSplit = rStarSplit;
+    }
+
     @Override
     protected int getChildPageCount(Page<Spatial,V> p) {
         return p.getRawChildPageCount() - 1;
@@ -573,6 +829,111 @@ protected boolean check(boolean leaf, Spatial key, Spatial test) {
         }
     }
 
+    /**
+     * A cursor to iterate over keys in the order of their distance to the
+     * given rectangle. This is a best-first search: entries of expanded pages
+     * are kept in a priority queue ordered by their distance, and a page is
+     * expanded only when it is at the head of the queue.
+     *
+     * @param <V> the value type
+     */
+    public static final class NearestRTreeCursor<V> implements Iterator<Spatial> {
+
+        private final Page<Spatial,V> root;
+        private final Spatial filter;
+        private final SpatialDataType keyType;
+        private final PriorityQueue<Entry<V>> queue = new PriorityQueue<>();
+        private boolean initialized;
+        private double distance = Double.NaN;
+
+        NearestRTreeCursor(Page<Spatial,V> root, Spatial filter, SpatialDataType keyType) {
+            this.root = root;
+            this.filter = filter;
+            this.keyType = keyType;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!initialized) {
+                if (!filter.isNull()) {
+                    expand(root);
+                }
+                initialized = true;
+            }
+            Entry<V> e;
+            while ((e = queue.peek()) != null) {
+                if (e.page == null) {
+                    return true;
+                }
+                queue.poll();
+                expand(e.page.getChildPage(e.index));
+            }
+            return false;
+        }
+
+        @Override
+        public Spatial next() {
+            if (!hasNext()) {
+                return null;
+            }
+            Entry<V> e = queue.poll();
+            distance = e.distance;
+            return e.key;
+        }
+
+        /**
+         * Get the distance between the rectangle and the key returned by the
+         * last call of {@link #next()}.
+         *
+         * @return the distance
+         */
+        public double getDistance() {
+            return distance;
+        }
+
+        private void expand(Page<Spatial,V> p) {
+            boolean leaf = p.isLeaf();
+            for (int i = 0, keyCount = p.getKeyCount(); i < keyCount; i++) {
+                Spatial key = p.getKey(i);
+                if (!key.isNull()) {
+                    queue.add(new Entry<>(key, keyType.getDistance(key, filter), leaf ? null : p, i));
+                }
+            }
+        }
+
+        /**
+         * A key of a leaf page, or a child page to expand.
+         */
+        private static final class Entry<V> implements Comparable<Entry<V>> {
+
+            final Spatial key;
+
+            final double distance;
+
+            /**
+             * The parent page of the child page, or null for keys of leaf
+             * pages.
+             */
+            final Page<Spatial,V> page;
+
+            final int index;
+
+            Entry(Spatial key, double distance, Page<Spatial,V> page, int index) {
+                this.key = key;
+                this.distance = distance;
+                this.page = page;
+                this.index = index;
+            }
+
+            @Override
+            public int compareTo(Entry<V> o) {
+                return Double.compare(distance, o.distance);
+            }
+
+        }
+
+    }
+
     @Override
     public String getType() {
         return "rtree";
@@ -31,6 +31,15 @@ public SpatialDataType(int dimensions) {
         this.dimensions = dimensions;
     }
 
+    /**
+     * Get the number of dimensions.
+     *
+     * @return the number of dimensions
+     */
+    public int getDimensions() {
+        return dimensions;
+    }
+
     /**
      * Creates spatial object with specified parameters.
      *
@@ -219,7 +228,13 @@ float getCombinedArea(Spatial a, Spatial b) {
         return area;
     }
 
-    private float getArea(Spatial a) {
+    /**
+     * Get the area of the object.
+     *
+     * @param a the object
+     * @return the area
+     */
+    float getArea(Spatial a) {
         if (a.isNull()) {
             return 0;
         }
@@ -230,6 +245,67 @@ private float getArea(Spatial a) {
         return area;
     }
 
+    /**
+     * Get the margin (the sum of edge lengths) of the object.
+     *
+     * @param a the object
+     * @return the margin
+     */
+    float getMargin(Spatial a) {
+        if (a.isNull()) {
+            return 0;
+        }
+        float margin = 0;
+        for (int i = 0; i < dimensions; i++) {
+            margin += a.max(i) - a.min(i);
+        }
+        return margin;
+    }
+
+    /**
+     * Get the area of the intersection of both objects.
+     *
+     * @param a the first object
+     * @param b the second object
+     * @return the area, or 0 if they don't overlap
+     */
+    float getOverlap(Spatial a, Spatial b) {
+        if (a.isNull() || b.isNull()) {
+            return 0;
+        }
+        float area = 1;
+        for (int i = 0; i < dimensions; i++) {
+            float d = Math.min(a.max(i), b.max(i)) - Math.max(a.min(i), b.min(i));
+            if (d <= 0) {
+                return 0;
+            }
+            area *= d;
+        }
+        return area;
+    }
+
+    /**
+     * Get the minimum Euclidean distance between the objects.
+     *
+     * @param a the first object
+     * @param b the second object
+     * @return the distance, 0 if they overlap, or positive infinity if one
+     *         of them is null
+     */
+    public double getDistance(Spatial a, Spatial b) {
+        if (a.isNull() || b.isNull()) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double sum = 0;
+        for (int i = 0; i < dimensions; i++) {
+            double d = Math.max((double) a.min(i) - b.max(i), (double) b.min(i) - a.max(i));
+            if (d > 0) {
+                sum += d * d;
+            }
+        }
+        return Math.sqrt(sum);
+    }
+
     /**
      * Check whether bounds contains object.
      *
@@ -0,0 +1,389 @@
+/*
+ * Copyright 2004-2025 H2 Group. Multiple-Licensed under the MPL 2.0,
+ * and the EPL 1.0 (https://h2database.com/html/license.html).
+ * Initial Developer: H2 Group
+ */
+package org.h2.result;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.h2.engine.SessionLocal;
+import org.h2.util.DateTimeUtils;
+import org.h2.value.CompareMode;
+import org.h2.value.TypeInfo;
+import org.h2.value.Value;
+import org.h2.value.ValueDecfloat;
+import org.h2.value.ValueNull;
+import org.h2.value.ValueRow;
+import org.h2.value.ValueTimestampTimeZone;
+
+/**
+ * A map of distinct rows of a local result.
+ *
+ * <p>
+ * If all columns have data types with a hash code consistent with comparison
+ * rules of the database, rows are kept in a hash map. Otherwise, or when a
+ * row with a value of some other data type is added, a tree map is used.
+ * </p>
+ */
+final class DistinctRowMap {
+
+    private final SessionLocal session;
+
+    /**
+     * The data types of columns, or {@code null} if the tree map is used.
+     */
+    private int[] valueTypes;
+
+    private HashMap<Key, Value[]> hashMap;
+
+    private TreeMap<ValueRow, Value[]> treeMap;
+
+    /**
+     * A tree map with rows of the hash map, or {@code null}.
+     */
+    private volatile TreeMap<ValueRow, Value[]> lookupTree;
+
+    /**
+     * Creates a new map of distinct rows.
+     *
+     * @param session
+     *            the session
+     * @param types
+     *            the data types of distinct columns
+     */
+    DistinctRowMap(SessionLocal session, TypeInfo[] types) {
+        this.session = session;
+        CompareMode compareMode = session.getDatabase().getCompareMode();
+        int length = types.length;
+        int[] valueTypes = new int[length];
+        for (int i = 0; i < length; i++) {
+            int valueType = types[i].getValueType();
+            if (!isHashable(valueType, compareMode)) {
+                treeMap = new TreeMap<>(session);
+                return;
+            }
+            valueTypes[i] = valueType;
+        }
+        this.valueTypes = valueTypes;
+        hashMap = new HashMap<>();
+    }
+
+    /**
+     * Creates a shallow copy of the specified map.
+     *
+     * @param source
+     *            the source map
+     */
+    private DistinctRowMap(DistinctRowMap source) {
+        session = source.session;
+        valueTypes = source.valueTypes;
+        hashMap = source.hashMap;
+        treeMap = source.treeMap;
+    }
+
+    /**
+     * Returns a shallow copy of this map. Rows must not be added to or
+     * removed from the copy.
+     *
+     * @return the copy
+     */
+    DistinctRowMap createShallowCopy() {
+        return new DistinctRowMap(this);
+    }
+
+    /**
+     * Returns the row with the specified distinct values.
+     *
+     * @param row
+     *            the distinct values
+     * @return the row, or {@code null} if there is no such row
+     */
+    Value[] get(ValueRow row) {
+        if (hashMap != null) {
+            Key key = getKey(row);
+            if (key != null) {
+                return hashMap.get(key);
+            }
+            return getLookupTree().get(row);
+        }
+        return treeMap.get(row);
+    }
+
+    /**
+     * Adds or replaces the row with the specified distinct values.
+     *
+     * @param row
+     *            the distinct values
+     * @param values
+     *            the row
+     */
+    void put(ValueRow row, Value[] values) {
+        if (hashMap != null) {
+            Key key = getKey(row);
+            if (key != null) {
+                hashMap.put(key, values);
+                lookupTree = null;
+                return;
+            }
+            switchToTree();
+        }
+        treeMap.put(row, values);
+    }
+
+    /**
+     * Removes the row with the specified distinct values.
+     *
+     * @param row
+     *            the distinct values
+     */
+    void remove(ValueRow row) {
+        if (hashMap != null) {
+            Key key = getKey(row);
+            if (key != null) {
+                hashMap.remove(key);
+                lookupTree = null;
+                return;
+            }
+            switchToTree();
+        }
+        treeMap.remove(row);
+    }
+
+    /**
+     * Returns the number of rows.
+     *
+     * @return the number of rows
+     */
+    int size() {
+        return hashMap != null ? hashMap.size() : treeMap.size();
+    }
+
+    /**
+     * Returns the rows.
+     *
+     * @return the rows
+     */
+    Collection<Value[]> values() {
+        return hashMap != null ? hashMap.values() : treeMap.values();
+    }
+
+    /**
+     * Returns the hash key for the specified distinct values.
+     *
+     * @param row
+     *            the distinct values
+     * @return the hash key, or {@code null} if some value has a data type
+     *         incompatible with the hash code of its column
+     */
+    private Key getKey(ValueRow row) {
+        Value[] values = row.getList();
+        int[] valueTypes = this.valueTypes;
+        int hash = 0;
+        for (int i = 0, length = values.length; i < length; i++) {
+            Value v = values[i];
+            int h;
+            if (v == ValueNull.INSTANCE) {
+                h = 0;
+            } else {
+                int valueType = v.getValueType(), columnType = valueTypes[i];
+                if (valueType != columnType && !(isExactNumeric(valueType) && isExactNumeric(columnType))) {
+                    return null;
+                }
+                h = hashCode(v);
+            }
+            hash = hash * 31 + h;
+        }
+        return new Key(values, hash);
+    }
+
+    /**
+     * Returns a tree map with the same rows for lookups of values of other
+     * data types. Shallow copies share the hash map, so it isn't modified
+     * here.
+     *
+     * @return the tree map
+     */
+    private TreeMap<ValueRow, Value[]> getLookupTree() {
+        TreeMap<ValueRow, Value[]> tree = lookupTree;
+        if (tree == null) {
+            lookupTree = tree = toTree();
+        }
+        return tree;
+    }
+
+    private void switchToTree() {
+        treeMap = toTree();
+        hashMap = null;
+        lookupTree = null;
+        valueTypes = null;
+    }
+
+    private TreeMap<ValueRow, Value[]> toTree() {
+        TreeMap<ValueRow, Value[]> tree = new TreeMap<>(session);
+        for (Map.Entry<Key, Value[]> entry : hashMap.entrySet()) {
+            tree.put(ValueRow.get(entry.getKey().values), entry.getValue());
+        }
+        return tree;
+    }
+
+    private static boolean isExactNumeric(int valueType) {
+        return valueType >= Value.TINYINT && valueType <= Value.BIGINT || valueType == Value.NUMERIC
+                || valueType == Value.DECFLOAT;
+    }
+
+    /**
+     * Checks whether values of the specified data type have a hash code
+     * consistent with comparison rules.
+     *
+     * @param valueType
+     *            the data type
+     * @param compareMode
+     *            the compare mode of the database
+     * @return whether values of this data type may be kept in a hash map
+     */
+    private static boolean isHashable(int valueType, CompareMode compareMode) {
+        switch (valueType) {
+        case Value.CHAR:
+        case Value.VARCHAR:
+            // collators may consider different strings as equal
+            return compareMode.getClass() == CompareMode.class;
+        case Value.BINARY:
+        case Value.VARBINARY:
+        case Value.BOOLEAN:
+        case Value.TINYINT:
+        case Value.SMALLINT:
+        case Value.INTEGER:
+        case Value.BIGINT:
+        case Value.NUMERIC:
+        case Value.REAL:
+        case Value.DOUBLE:
+        case Value.DECFLOAT:
+        case Value.DATE:
+        case Value.TIME:
+        case Value.TIMESTAMP:
+        case Value.TIMESTAMP_TZ:
+        case Value.INTERVAL_YEAR:
+        case Value.INTERVAL_MONTH:
+        case Value.INTERVAL_DAY:
+        case Value.INTERVAL_HOUR:
+        case Value.INTERVAL_MINUTE:
+        case Value.INTERVAL_SECOND:
+        case Value.INTERVAL_YEAR_TO_MONTH:
+        case Value.INTERVAL_DAY_TO_HOUR:
+        case Value.INTERVAL_DAY_TO_MINUTE:
+        case Value.INTERVAL_DAY_TO_SECOND:
+        case Value.INTERVAL_HOUR_TO_MINUTE:
+        case Value.INTERVAL_HOUR_TO_SECOND:
+        case Value.INTERVAL_MINUTE_TO_SECOND:
+        case Value.ENUM:
+        case Value.UUID:
+            return true;
+        default:
+            return false;
+        }
+    }
+
+    /**
+     * Returns the hash code of the specified non-null value. Values equal to
+     * each other according to comparison rules have the same hash code.
+     *
+     * @param v
+     *            the value
+     * @return the hash code
+     */
+    private static int hashCode(Value v) {
+        switch (v.getValueType()) {
+        case Value.TINYINT:
+        case Value.SMALLINT:
+        case Value.INTEGER:
+        case Value.BIGINT:
+            // exact numeric values of different data types may be equal
+            return Long.hashCode(v.getLong());
+        case Value.NUMERIC:
+            return hashCode(v.getBigDecimal());
+        case Value.DECFLOAT:
+            // special values are singletons
+            return ((ValueDecfloat) v).isFinite() ? hashCode(v.getBigDecimal()) : v.hashCode();
+        case Value.TIMESTAMP_TZ: {
+            // values with the same instant are equal
+            ValueTimestampTimeZone t = (ValueTimestampTimeZone) v;
+            long timeNanos = t.getTimeNanos();
+            return Long.hashCode(DateTimeUtils.getEpochSeconds(t.getDateValue(), timeNanos,
+                    t.getTimeZoneOffsetSeconds())) * 31 + (int) (timeNanos % DateTimeUtils.NANOS_PER_SECOND);
+        }
+        case Value.CHAR:
+            // trailing spaces are ignored in comparison
+            return v.convertToChar().getString().hashCode();
+        case Value.ENUM:
+            return v.getInt();
+        default:
+            return v.hashCode();
+        }
+    }
+
+    private static int hashCode(BigDecimal bd) {
+        if (bd.signum() == 0) {
+            return 0;
+        }
+        // 1.0 and 1.00 are equal
+        bd = bd.stripTrailingZeros();
+        if (bd.scale() <= 0 && bd.precision() - bd.scale() <= 19) {
+            BigInteger bi = bd.toBigInteger();
+            if (bi.bitLength() < 64) {
+                return Long.hashCode(bi.longValue());
+            }
+        }
+        return bd.hashCode();
+    }
+
+    /**
+     * A key of the hash map.
+     */
+    private final class Key {
+
+        final Value[] values;
+
+        private final int hash;
+
+        Key(Value[] values, int hash) {
+            this.values = values;
+            this.hash = hash;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            Key other = (Key) obj;
+            if (hash != other.hash) {
+                return false;
+            }
+            Value[] values = this.values, otherValues = other.values;
+            for (int i = 0, length = values.length; i < length; i++) {
+                Value a = values[i], b = otherValues[i];
+                if (a == b) {
+                    continue;
+                }
+                if (a == ValueNull.INSTANCE || b == ValueNull.INSTANCE || (a.getValueType() == b.getValueType()
+                        ? session.compareTypeSafe(a, b) : session.compare(a, b)) != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+    }
+
+}
@@ -7,8 +7,8 @@
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.TreeMap;
 
+import org.h2.engine.Constants;
 import org.h2.engine.Database;
 import org.h2.engine.Session;
 import org.h2.engine.SessionLocal;
@@ -66,9 +66,7 @@ public static LocalResult forTable(SessionLocal session, Table table) {
     private long rowId, rowCount;
     private ArrayList<Value[]> rows;
     private SortOrder sort;
-    // HashSet cannot be used here, because we need to compare values of
-    // different type or scale properly.
-    private TreeMap<ValueRow, Value[]> distinctRows;
+    private DistinctRowMap distinctRows;
     private Value[] currentRow;
     private long offset;
     private long limit = -1;
@@ -76,6 +74,8 @@ public static LocalResult forTable(SessionLocal session, Table table) {
     private SortOrder withTiesSortOrder;
     private boolean limitsWereApplied;
     private ResultExternal external;
+    private int topRows = -1;
+    private ArrayList<Value[]> tiedRows;
     private boolean distinct;
     private int[] distinctIndexes;
     private boolean closed;
@@ -179,7 +179,7 @@ public LocalResult createShallowCopy(Session targetSession) {
         copy.rowCount = this.rowCount;
         copy.rows = this.rows;
         copy.sort = this.sort;
-        copy.distinctRows = this.distinctRows;
+        copy.distinctRows = distinctRows != null ? distinctRows.createShallowCopy() : null;
         copy.distinct = distinct;
         copy.distinctIndexes = distinctIndexes;
         copy.currentRow = null;
@@ -190,6 +190,26 @@ public LocalResult createShallowCopy(Session targetSession) {
         return copy;
     }
 
+    /**
+     * Returns the estimated memory used by rows of this result.
+     *
+     * @return the estimated memory in bytes, or -1 if rows are stored
+     *         externally
+     */
+    public long getMemory() {
+        if (external != null) {
+            return -1L;
+        }
+        long memory = Constants.MEMORY_OBJECT;
+        for (Value[] row : rows) {
+            memory += Constants.MEMORY_POINTER + Constants.MEMORY_ARRAY + row.length * Constants.MEMORY_POINTER;
+            for (Value v : row) {
+                memory += v.getMemory();
+            }
+        }
+        return memory;
+    }
+
     /**
      * Sets sort order to be used by this result. When rows are presorted by the
      * query this method should not be used.
@@ -200,13 +220,37 @@ public void setSortOrder(SortOrder sort) {
         this.sort = sort;
     }
 
+    /**
+     * Keeps only the first rows in the sort order during addition of rows, if
+     * possible. Rows are kept in a bounded heap, and rows tied with the last
+     * kept row are also kept if WITH TIES is specified. This method must be
+     * called before addition of rows, after sort order and distinct options.
+     *
+     * @param offset the OFFSET value
+     * @param fetch the FETCH value, or -1 if there is no limit
+     * @param withTies whether rows tied with the last row are returned
+     */
+    public void setTopRows(long offset, long fetch, boolean withTies) {
+        if (sort == null || isAnyDistinct() || fetch <= 0L) {
+            return;
+        }
+        long n = Math.max(offset, 0L) + fetch;
+        if (n < 0L || n > maxMemoryRows) {
+            return;
+        }
+        topRows = (int) n;
+        if (withTies) {
+            tiedRows = Utils.newSmallArrayList();
+        }
+    }
+
     /**
      * Remove duplicate rows.
      */
     public void setDistinct() {
         assert distinctIndexes == null;
         distinct = true;
-        distinctRows = new TreeMap<>(session);
+        distinctRows = createDistinctRows();
     }
 
     /**
@@ -217,7 +261,7 @@ public void setDistinct() {
     public void setDistinct(int[] distinctIndexes) {
         assert !distinct;
         this.distinctIndexes = distinctIndexes;
-        distinctRows = new TreeMap<>(session);
+        distinctRows = createDistinctRows();
     }
 
     /**
@@ -227,12 +271,29 @@ public void setDistinct(int[] distinctIndexes) {
      */
     public void setInPredicateValueListResult(int[] inPredicateSortTypes) {
         distinct = true;
-        distinctRows = new TreeMap<>(session);
+        distinctRows = createDistinctRows();
         if (inPredicateSortTypes.length != 0) {
             sort = SortOrder.ofSortTypes(session, inPredicateSortTypes);
         }
     }
 
+    private DistinctRowMap createDistinctRows() {
+        TypeInfo[] types;
+        if (distinctIndexes != null) {
+            int cnt = distinctIndexes.length;
+            types = new TypeInfo[cnt];
+            for (int i = 0; i < cnt; i++) {
+                types[i] = expressions[distinctIndexes[i]].getType();
+            }
+        } else {
+            types = new TypeInfo[visibleColumnCount];
+            for (int i = 0; i < visibleColumnCount; i++) {
+                types[i] = expressions[i].getType();
+            }
+        }
+        return new DistinctRowMap(session, types);
+    }
+
     /**
      * @return whether this result is a distinct result
      */
@@ -252,7 +313,7 @@ public boolean containsDistinct(Value[] values) {
             return external.contains(values);
         }
         if (distinctRows == null) {
-            distinctRows = new TreeMap<>(session);
+            distinctRows = createDistinctRows();
             for (Value[] row : rows) {
                 ValueRow array = getDistinctRow(row);
                 distinctRows.put(array, array.getList());
@@ -440,6 +501,8 @@ private void addRowInternal(Value... values) {
             } else {
                 rowCount = external.addRow(values);
             }
+        } else if (topRows >= 0) {
+            addTopRow(values);
         } else {
             rows.add(values);
             rowCount++;
@@ -449,6 +512,82 @@ private void addRowInternal(Value... values) {
         }
     }
 
+    /**
+     * Adds a row to the heap of first rows. The row with the largest sort key
+     * is at the top of the heap.
+     *
+     * @param values the row to add
+     */
+    private void addTopRow(Value[] values) {
+        ArrayList<Value[]> rows = this.rows;
+        int size = rows.size();
+        if (size < topRows) {
+            rows.add(values);
+            // sift up
+            while (size > 0) {
+                int parent = (size - 1) >>> 1;
+                Value[] p = rows.get(parent);
+                if (sort.compare(values, p) <= 0) {
+                    break;
+                }
+                rows.set(size, p);
+                size = parent;
+            }
+            rows.set(size, values);
+        } else {
+            Value[] top = rows.get(0);
+            int c = sort.compare(values, top);
+            if (c < 0) {
+                replaceTopRow(values);
+                if (tiedRows != null) {
+                    if (sort.compare(top, rows.get(0)) == 0) {
+                        tiedRows.add(top);
+                    } else {
+                        tiedRows.clear();
+                    }
+                }
+            } else if (c == 0 && tiedRows != null) {
+                tiedRows.add(values);
+            } else {
+                return;
+            }
+        }
+        rowCount = rows.size() + (tiedRows != null ? tiedRows.size() : 0);
+        if (rowCount > maxMemoryRows) {
+            // too many tied rows
+            finishTopRows();
+            addRowsToDisk();
+        }
+    }
+
+    private void replaceTopRow(Value[] values) {
+        ArrayList<Value[]> rows = this.rows;
+        int size = rows.size(), i = 0;
+        for (int child; (child = (i << 1) + 1) < size; i = child) {
+            Value[] c = rows.get(child);
+            if (child + 1 < size) {
+                Value[] c2 = rows.get(child + 1);
+                if (sort.compare(c2, c) > 0) {
+                    child++;
+                    c = c2;
+                }
+            }
+            if (sort.compare(values, c) >= 0) {
+                break;
+            }
+            rows.set(i, c);
+        }
+        rows.set(i, values);
+    }
+
+    private void finishTopRows() {
+        if (tiedRows != null) {
+            rows.addAll(tiedRows);
+            tiedRows = null;
+        }
+        topRows = -1;
+    }
+
     private void addRowsToDisk() {
         if (external == null) {
             createExternalResult();
@@ -466,6 +605,9 @@ public int getVisibleColumnCount() {
      * This method is called after all rows have been added.
      */
     public void done() {
+        if (topRows >= 0) {
+            finishTopRows();
+        }
         if (external != null) {
             addRowsToDisk();
         } else {
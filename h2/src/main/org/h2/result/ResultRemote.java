@@ -9,6 +9,7 @@
 import java.util.ArrayList;
 
 import org.h2.api.ErrorCode;
+import org.h2.engine.Constants;
 import org.h2.engine.SessionRemote;
 import org.h2.engine.SysProperties;
 import org.h2.message.DbException;
@@ -29,6 +30,7 @@ public final class ResultRemote extends FetchedResult {
     private Transfer transfer;
     private int id;
     private final ResultColumn[] columns;
+    private final TypeInfo[] columnTypes;
     private long rowCount;
     private long rowOffset;
     private ArrayList<Value[]> result;
@@ -41,9 +43,10 @@ public ResultRemote(SessionRemote session, Transfer transfer, int id,
         this.transfer = transfer;
         this.id = id;
         this.columns = new ResultColumn[columnCount];
+        columnTypes = new TypeInfo[columnCount];
         rowCount = transfer.readRowCount();
         for (int i = 0; i < columnCount; i++) {
-            columns[i] = new ResultColumn(transfer);
+            columnTypes[i] = (columns[i] = new ResultColumn(transfer)).columnType;
         }
         rowId = -1;
         this.fetchSize = fetchSize;
@@ -237,6 +240,9 @@ private void fetchAdditionalRows() {
     }
 
     private boolean fetchRows(int fetch) throws IOException {
+        if (transfer.getVersion() >= Constants.TCP_PROTOCOL_VERSION_23) {
+            return fetchRowFrames(fetch);
+        }
         int len = columns.length;
         for (int r = 0; r < fetch; r++) {
             switch (transfer.readByte()) {
@@ -263,6 +269,29 @@ private boolean fetchRows(int fetch) throws IOException {
         return false;
     }
 
+    private boolean fetchRowFrames(int fetch) throws IOException {
+        for (int r = 0; r < fetch;) {
+            byte marker = transfer.readByte();
+            switch (marker) {
+            case 1:
+            case 2:
+                r += transfer.readRowFrame(marker == 2, columnTypes, result);
+                break;
+            case 0:
+                sendClose();
+                return true;
+            case -1:
+                throw SessionRemote.readException(transfer);
+            default:
+                throw DbException.getInternalError();
+            }
+        }
+        if (rowCount >= 0L && rowOffset + result.size() >= rowCount) {
+            sendClose();
+        }
+        return false;
+    }
+
     @Override
     public String toString() {
         return "columns: " + columns.length + (rowCount < 0L ? " lazy" : " rows: " + rowCount) + " pos: " + rowId;
@@ -261,7 +261,9 @@ public Column getColumn(int index, TableFilter filter) {
             return null;
         }
         if (!(expr instanceof ExpressionColumn)) {
-            return null;
+            // columns of expression indexes with the same expression are equal
+            ArrayList<Column> columns = filter.getIndexExpressionColumns(expr);
+            return columns.isEmpty() ? null : columns.get(0);
         }
         ExpressionColumn exprCol = (ExpressionColumn) expr;
         if (exprCol.getTableFilter() != filter) {
@@ -9,6 +9,7 @@
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.UnknownHostException;
+import java.nio.channels.ServerSocketChannel;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Statement;
@@ -20,10 +21,12 @@
 
 import org.h2.api.ErrorCode;
 import org.h2.engine.Constants;
+import org.h2.engine.SessionLocal;
 import org.h2.jdbc.JdbcConnection;
 import org.h2.message.DbException;
 import org.h2.util.MathUtils;
 import org.h2.util.NetUtils;
+import org.h2.util.SmallLRUCache;
 import org.h2.util.StringUtils;
 import org.h2.util.Tool;
 import org.h2.util.Utils;
@@ -51,6 +54,11 @@ public class TcpServer implements Service {
 
     private static final ConcurrentHashMap<Integer, TcpServer> SERVERS = new ConcurrentHashMap<>();
 
+    /**
+     * The maximum number of SQL statements shared between connections.
+     */
+    private static final int SHARED_STATEMENTS_SIZE = 1_024;
+
     private int port;
     private boolean portIsSet;
     private boolean trace;
@@ -58,6 +66,8 @@ public class TcpServer implements Service {
     private boolean stop;
     private ShutdownHandler shutdownHandler;
     private ServerSocket serverSocket;
+    private ServerSocketChannel serverChannel;
+    private TcpServerSelector selector;
     private final Set<TcpServerThread> running =
             Collections.synchronizedSet(new HashSet<TcpServerThread>());
     private String baseDir;
@@ -65,6 +75,7 @@ public class TcpServer implements Service {
     private boolean isDaemon;
     private boolean ifExists = true;
     private boolean virtualThreads;
+    private int workers;
     private JdbcConnection managementDb;
     private PreparedStatement managementDbAdd;
     private PreparedStatement managementDbRemove;
@@ -72,6 +83,8 @@ public class TcpServer implements Service {
     private Thread listenerThread;
     private int nextThreadId;
     private String key, keyDatabase;
+    private final SmallLRUCache<String, String> sharedStatements =
+            SmallLRUCache.newInstance(SHARED_STATEMENTS_SIZE);
 
     /**
      * Get the database name of the management database.
@@ -187,6 +200,8 @@ public void init(String... args) {
                 isDaemon = true;
             } else if (Tool.isOption(a,  "-tcpVirtualThreads")) {
                 virtualThreads = Utils.parseBoolean(args[++i], virtualThreads, true);
+            } else if (Tool.isOption(a, "-tcpWorkers")) {
+                workers = Integer.decode(args[++i]);
             } else if (Tool.isOption(a, "-ifExists")) {
                 ifExists = true;
             } else if (Tool.isOption(a, "-ifNotExists")) {
@@ -237,13 +252,29 @@ boolean allow(Socket socket) {
     @Override
     public synchronized void start() throws SQLException {
         stop = false;
-        try {
-            serverSocket = NetUtils.createServerSocket(port, ssl);
-        } catch (DbException e) {
-            if (!portIsSet) {
-                serverSocket = NetUtils.createServerSocket(0, ssl);
-            } else {
-                throw e;
+        if (workers > 0) {
+            if (ssl) {
+                throw DbException.getUnsupportedException("-tcpWorkers with -tcpSSL");
+            }
+            try {
+                serverChannel = NetUtils.createServerSocketChannel(port);
+            } catch (DbException e) {
+                if (!portIsSet) {
+                    serverChannel = NetUtils.createServerSocketChannel(0);
+                } else {
+                    throw e;
+                }
+            }
+            serverSocket = serverChannel.socket();
+        } else {
+            try {
+                serverSocket = NetUtils.createServerSocket(port, ssl);
+            } catch (DbException e) {
+                if (!portIsSet) {
+                    serverSocket = NetUtils.createServerSocket(0, ssl);
+                } else {
+                    throw e;
+                }
             }
         }
         port = serverSocket.getLocalPort();
@@ -255,22 +286,16 @@ public void listen() {
         listenerThread = Thread.currentThread();
         String threadName = listenerThread.getName();
         try {
-            while (!stop) {
-                Socket s = serverSocket.accept();
-                Utils10.setTcpQuickack(s, true);
-                int id = nextThreadId++;
-                TcpServerThread c = new TcpServerThread(s, this, id);
-                running.add(c);
-                Thread thread;
-                if (virtualThreads) {
-                    thread = Utils21.newVirtualThread(c);
-                } else {
-                    thread = new Thread(c);
-                    thread.setDaemon(isDaemon);
+            if (serverChannel != null) {
+                selector = new TcpServerSelector(this, serverChannel, workers, threadName, isDaemon);
+                selector.listen();
+            } else {
+                while (!stop) {
+                    Socket s = serverSocket.accept();
+                    Utils10.setTcpQuickack(s, true);
+                    TcpServerThread c = createConnection(s);
+                    startThread(c, c);
                 }
-                thread.setName(threadName + " thread-" + id);
-                c.setThread(thread);
-                thread.start();
             }
             serverSocket = NetUtils.closeSilently(serverSocket);
         } catch (Exception e) {
@@ -281,6 +306,46 @@ public void listen() {
         stopManagementDb();
     }
 
+    /**
+     * Create a connection handler for the socket.
+     *
+     * @param s the socket
+     * @return the connection handler
+     */
+    TcpServerThread createConnection(Socket s) {
+        TcpServerThread c = new TcpServerThread(s, this, nextThreadId++);
+        running.add(c);
+        return c;
+    }
+
+    /**
+     * Start a thread of the connection.
+     *
+     * @param c the connection handler
+     * @param task the task to run
+     */
+    void startThread(TcpServerThread c, Runnable task) {
+        Thread thread;
+        if (virtualThreads) {
+            thread = Utils21.newVirtualThread(task);
+        } else {
+            thread = new Thread(task);
+            thread.setDaemon(isDaemon);
+        }
+        thread.setName(listenerThread.getName() + " thread-" + c.getThreadId());
+        c.setThread(thread);
+        thread.start();
+    }
+
+    /**
+     * Returns whether the server is stopped or stopping.
+     *
+     * @return whether the server is stopped
+     */
+    boolean isStopped() {
+        return stop;
+    }
+
     @Override
     public synchronized boolean isRunning(boolean traceError) {
         if (serverSocket == null) {
@@ -317,6 +382,10 @@ public void stop() {
                 }
                 serverSocket = null;
             }
+            TcpServerSelector selector = this.selector;
+            if (selector != null) {
+                selector.wakeup();
+            }
             if (listenerThread != null) {
                 try {
                     listenerThread.join(1000);
@@ -330,7 +399,10 @@ public void stop() {
             if (c != null) {
                 c.close();
                 try {
-                    c.getThread().join(100);
+                    Thread thread = c.getThread();
+                    if (thread != null) {
+                        thread.join(100);
+                    }
                 } catch (Exception e) {
                     DbException.traceThrowable(e);
                 }
@@ -377,6 +449,45 @@ public static void stopServer(int port, String password, int shutdownMode) {
         server.shutdown();
     }
 
+    /**
+     * Get the text of a SQL statement that was prepared by some connection of
+     * the same user with the same current schema.
+     *
+     * @param session the session
+     * @param hash the SHA-256 hash of the statement
+     * @return the SQL statement, or {@code null} if not known
+     */
+    String getSharedStatement(SessionLocal session, byte[] hash) {
+        String key = getSharedStatementKey(session, hash);
+        synchronized (sharedStatements) {
+            return sharedStatements.get(key);
+        }
+    }
+
+    /**
+     * Add the text of a SQL statement to allow other connections of the same
+     * user with the same current schema to prepare it by its hash.
+     *
+     * @param session the session
+     * @param hash the SHA-256 hash of the statement
+     * @param sql the SQL statement
+     */
+    void addSharedStatement(SessionLocal session, byte[] hash, String sql) {
+        String key = getSharedStatementKey(session, hash);
+        synchronized (sharedStatements) {
+            sharedStatements.put(key, sql);
+        }
+    }
+
+    private static String getSharedStatementKey(SessionLocal session, byte[] hash) {
+        // statements of other users must not be visible, even by their hash
+        StringBuilder builder = new StringBuilder();
+        StringUtils.quoteIdentifier(builder, session.getDatabase().getName()).append('.');
+        StringUtils.quoteIdentifier(builder, session.getUser().getName()).append('.');
+        StringUtils.quoteIdentifier(builder, session.getCurrentSchemaName()).append(':');
+        return StringUtils.convertBytesToHex(builder, hash).toString();
+    }
+
     /**
      * Remove a thread from the list.
      *
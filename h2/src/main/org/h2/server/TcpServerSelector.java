@@ -0,0 +1,219 @@
+/*
+ * Copyright 2004-2025 H2 Group. Multiple-Licensed under the MPL 2.0,
+ * and the EPL 1.0 (https://h2database.com/html/license.html).
+ * Initial Developer: H2 Group
+ */
+package org.h2.server;
+
+import java.io.IOException;
+import java.net.Socket;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.h2.util.Utils10;
+
+/**
+ * Serves connections of the TCP server with a bounded pool of worker threads.
+ * Idle connections are registered with a selector and don't occupy a thread.
+ * When a request arrives, the connection is removed from the selector and
+ * handed to a worker thread, which processes this request and all further
+ * requests that were already received, and then returns the connection to
+ * the selector. Each connection has at most one request in the queue of the
+ * workers, and if too many requests are waiting for a worker, ready
+ * connections are put aside and nothing more is read from them until workers
+ * catch up.
+ */
+final class TcpServerSelector {
+
+    /**
+     * The maximum number of queued requests per worker thread.
+     */
+    private static final int QUEUED_PER_WORKER = 4;
+
+    /**
+     * A connection served by the worker threads.
+     */
+    private static final class Connection {
+
+        final SocketChannel channel;
+
+        final TcpServerThread thread;
+
+        Connection(SocketChannel channel, TcpServerThread thread) {
+            this.channel = channel;
+            this.thread = thread;
+        }
+
+    }
+
+    private final TcpServer server;
+
+    private final ServerSocketChannel serverChannel;
+
+    private final Selector selector;
+
+    private final ThreadPoolExecutor workers;
+
+    private final int maxQueued;
+
+    /**
+     * The number of connections submitted to the workers and not yet returned.
+     */
+    private final AtomicInteger queued = new AtomicInteger();
+
+    /**
+     * Connections returned by the workers to be registered with the selector.
+     */
+    private final ConcurrentLinkedQueue<Connection> returned = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Ready connections waiting for a free place in the queue of the workers.
+     */
+    private final ArrayDeque<Connection> deferred = new ArrayDeque<>();
+
+    TcpServerSelector(TcpServer server, ServerSocketChannel serverChannel, int workerCount, String threadName,
+            boolean isDaemon) throws IOException {
+        this.server = server;
+        this.serverChannel = serverChannel;
+        selector = Selector.open();
+        AtomicInteger nextWorkerId = new AtomicInteger();
+        workers = new ThreadPoolExecutor(workerCount, workerCount, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+                    Thread thread = new Thread(r, threadName + " worker-" + nextWorkerId.getAndIncrement());
+                    thread.setDaemon(isDaemon);
+                    return thread;
+                });
+        workers.allowCoreThreadTimeOut(true);
+        maxQueued = workerCount * QUEUED_PER_WORKER;
+    }
+
+    /**
+     * Accept connections and dispatch their requests until the server is
+     * stopped.
+     *
+     * @throws IOException on failure
+     */
+    void listen() throws IOException {
+        try {
+            serverChannel.configureBlocking(false);
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+            ArrayList<Connection> ready = new ArrayList<>();
+            while (!server.isStopped()) {
+                selector.select();
+                for (Connection c; (c = returned.poll()) != null;) {
+                    register(c);
+                }
+                for (;;) {
+                    for (Iterator<SelectionKey> i = selector.selectedKeys().iterator(); i.hasNext();) {
+                        SelectionKey key = i.next();
+                        i.remove();
+                        if (!key.isValid()) {
+                            continue;
+                        }
+                        if (key.isAcceptable()) {
+                            accept();
+                        } else if (key.isReadable()) {
+                            key.cancel();
+                            ready.add((Connection) key.attachment());
+                        }
+                    }
+                    if (ready.isEmpty()) {
+                        break;
+                    }
+                    // deregister the cancelled keys to allow blocking mode
+                    selector.selectNow();
+                    deferred.addAll(ready);
+                    ready.clear();
+                }
+                for (Connection c; queued.get() < maxQueued && (c = deferred.poll()) != null;) {
+                    dispatch(c);
+                }
+            }
+        } finally {
+            selector.close();
+            workers.shutdown();
+            for (Connection c; (c = deferred.poll()) != null;) {
+                c.thread.close();
+            }
+            for (Connection c; (c = returned.poll()) != null;) {
+                c.thread.close();
+            }
+        }
+    }
+
+    /**
+     * Wake up the selector, for example to stop it.
+     */
+    void wakeup() {
+        selector.wakeup();
+    }
+
+    private void accept() throws IOException {
+        for (SocketChannel channel; (channel = serverChannel.accept()) != null;) {
+            Socket s = channel.socket();
+            Utils10.setTcpQuickack(s, true);
+            Connection c = new Connection(channel, server.createConnection(s));
+            // the handshake may take a long time if the database is opened,
+            // it should not block the worker threads
+            server.startThread(c.thread, () -> {
+                if (c.thread.connect()) {
+                    returnConnection(c);
+                }
+            });
+        }
+    }
+
+    private void register(Connection c) {
+        try {
+            c.channel.configureBlocking(false);
+            c.channel.register(selector, SelectionKey.OP_READ, c);
+        } catch (Exception e) {
+            c.thread.close();
+        }
+    }
+
+    private void dispatch(Connection c) {
+        try {
+            c.channel.configureBlocking(true);
+            queued.incrementAndGet();
+            workers.execute(() -> {
+                try {
+                    if (c.thread.processAvailable()) {
+                        returnConnection(c);
+                    }
+                } finally {
+                    queued.decrementAndGet();
+                    selector.wakeup();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            queued.decrementAndGet();
+            c.thread.close();
+        } catch (Exception e) {
+            c.thread.close();
+        }
+    }
+
+    private void returnConnection(Connection c) {
+        returned.add(c);
+        selector.wakeup();
+        if (!selector.isOpen()) {
+            // the selector was closed concurrently
+            if (returned.remove(c)) {
+                c.thread.close();
+            }
+        }
+    }
+
+}
@@ -12,8 +12,10 @@
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.net.Socket;
+import java.nio.charset.StandardCharsets;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 
@@ -37,6 +39,7 @@
 import org.h2.result.ResultColumn;
 import org.h2.result.ResultInterface;
 import org.h2.result.ResultWithGeneratedKeys;
+import org.h2.security.SHA256;
 import org.h2.store.LobStorageInterface;
 import org.h2.util.IOUtils;
 import org.h2.util.NetUtils;
@@ -49,10 +52,22 @@
 import org.h2.value.ValueLob;
 
 /**
- * One server thread is opened per client connection.
+ * One server thread is opened per client connection, unless requests are
+ * processed by worker threads of the server.
  */
 public class TcpServerThread implements Runnable {
 
+    /**
+     * The size of frames with LOB data. Frames of this size are written
+     * directly to the socket, bypassing the output buffer.
+     */
+    private static final int LOB_FRAME_SIZE = 64 * 1024;
+
+    /**
+     * The maximum number of rows in a frame of result rows.
+     */
+    private static final int ROW_FRAME_SIZE = 1_024;
+
     protected final Transfer transfer;
     private final TcpServer server;
     private SessionLocal session;
@@ -69,6 +84,8 @@ public class TcpServerThread implements Runnable {
     private int clientVersion;
     private String sessionId;
     private long lastRemoteSettingsId;
+    private byte[] lobFrame;
+    private boolean compress;
 
     TcpServerThread(Socket socket, TcpServer server, int id) {
         this.server = server;
@@ -83,123 +100,181 @@ private void trace(String s) {
     @Override
     public void run() {
         try {
-            transfer.init();
-            trace("Connect");
-            // TODO server: should support a list of allowed databases
-            // and a list of allowed clients
-            try {
-                Socket socket = transfer.getSocket();
-                if (socket == null) {
-                    // the transfer is already closed, prevent NPE in TcpServer#allow(Socket)
-                    return;
-                }
-                if (!server.allow(transfer.getSocket())) {
-                    throw DbException.get(ErrorCode.REMOTE_CONNECTION_NOT_ALLOWED);
+            if (init()) {
+                while (!stop) {
+                    processRequest();
                 }
-                int minClientVersion = transfer.readInt();
-                if (minClientVersion < 6) {
-                    throw DbException.get(ErrorCode.DRIVER_VERSION_ERROR_2,
-                            Integer.toString(minClientVersion), "" + Constants.TCP_PROTOCOL_VERSION_MIN_SUPPORTED);
-                }
-                int maxClientVersion = transfer.readInt();
-                if (maxClientVersion < Constants.TCP_PROTOCOL_VERSION_MIN_SUPPORTED) {
-                    throw DbException.get(ErrorCode.DRIVER_VERSION_ERROR_2,
-                            Integer.toString(maxClientVersion), "" + Constants.TCP_PROTOCOL_VERSION_MIN_SUPPORTED);
-                } else if (minClientVersion > Constants.TCP_PROTOCOL_VERSION_MAX_SUPPORTED) {
-                    throw DbException.get(ErrorCode.DRIVER_VERSION_ERROR_2,
-                            Integer.toString(minClientVersion), "" + Constants.TCP_PROTOCOL_VERSION_MAX_SUPPORTED);
-                }
-                if (maxClientVersion >= Constants.TCP_PROTOCOL_VERSION_MAX_SUPPORTED) {
-                    clientVersion = Constants.TCP_PROTOCOL_VERSION_MAX_SUPPORTED;
-                } else {
-                    clientVersion = maxClientVersion;
-                }
-                transfer.setVersion(clientVersion);
-                String db = transfer.readString();
-                String originalURL = transfer.readString();
-                if (db == null && originalURL == null) {
-                    String targetSessionId = transfer.readString();
-                    int command = transfer.readInt();
-                    stop = true;
-                    if (command == SessionRemote.SESSION_CANCEL_STATEMENT) {
-                        // cancel a running statement
-                        int statementId = transfer.readInt();
-                        server.cancelStatement(targetSessionId, statementId);
-                    } else if (command == SessionRemote.SESSION_CHECK_KEY) {
-                        // check if this is the correct server
-                        db = server.checkKeyAndGetDatabaseName(targetSessionId);
-                        if (!targetSessionId.equals(db)) {
-                            transfer.writeInt(SessionRemote.STATUS_OK);
-                        } else {
-                            transfer.writeInt(SessionRemote.STATUS_ERROR);
-                        }
-                    }
-                }
-                String baseDir = server.getBaseDir();
-                if (baseDir == null) {
-                    baseDir = SysProperties.getBaseDir();
-                }
-                db = server.checkKeyAndGetDatabaseName(db);
-                ConnectionInfo ci = new ConnectionInfo(db);
-                ci.setOriginalURL(originalURL);
-                ci.setUserName(transfer.readString());
-                ci.setUserPasswordHash(transfer.readBytes());
-                ci.setFilePasswordHash(transfer.readBytes());
-                int len = transfer.readInt();
-                for (int i = 0; i < len; i++) {
-                    ci.setProperty(transfer.readString(), transfer.readString());
-                }
-                // override client's requested properties with server settings
-                if (baseDir != null) {
-                    ci.setBaseDir(baseDir);
-                }
-                if (server.getIfExists()) {
-                    ci.setProperty("FORBID_CREATION", "TRUE");
-                }
-                transfer.writeInt(SessionRemote.STATUS_OK);
-                transfer.writeInt(clientVersion);
-                transfer.flush();
-                if (ci.getFilePasswordHash() != null) {
-                    ci.setFileEncryptionKey(transfer.readBytes());
-                }
-                ci.setNetworkConnectionInfo(new NetworkConnectionInfo(
-                        NetUtils.ipToShortForm(new StringBuilder(server.getSSL() ? "ssl://" : "tcp://"),
-                                socket.getLocalAddress().getAddress(), true) //
-                                .append(':').append(socket.getLocalPort()).toString(), //
-                        socket.getInetAddress().getAddress(), socket.getPort(),
-                        new StringBuilder().append('P').append(clientVersion).toString()));
-                if (clientVersion < Constants.TCP_PROTOCOL_VERSION_20) {
-                    // For DatabaseMetaData
-                    ci.setProperty("OLD_INFORMATION_SCHEMA", "TRUE");
-                    // For H2 Console
-                    ci.setProperty("NON_KEYWORDS", "VALUE");
-                }
-                session = Engine.createSession(ci);
-                transfer.setSession(session);
-                server.addConnection(threadId, originalURL, ci.getUserName());
-                trace("Connected");
-                lastRemoteSettingsId = session.getDatabase().getRemoteSettingsId();
-            } catch (OutOfMemoryError e) {
-                // catch this separately otherwise such errors will never hit the console
-                server.traceError(e);
-                sendError(e, true);
-                stop = true;
-            } catch (Throwable e) {
-                sendError(e,true);
-                stop = true;
+                trace("Disconnect");
             }
-            while (!stop) {
-                try {
-                    process();
-                } catch (Throwable e) {
-                    sendError(e, true);
+        } catch (Throwable e) {
+            server.traceError(e);
+        } finally {
+            close();
+        }
+    }
+
+    /**
+     * Initialize the connection. This method is used when requests are
+     * processed by worker threads of the server; the connection is closed if
+     * it can't be used for further requests.
+     *
+     * @return whether the connection is open
+     */
+    boolean connect() {
+        try {
+            if (init()) {
+                if (!stop) {
+                    return true;
                 }
+                trace("Disconnect");
+            }
+        } catch (Throwable e) {
+            server.traceError(e);
+        }
+        close();
+        return false;
+    }
+
+    /**
+     * Process the next request, and further requests that were already
+     * received from the client. This method is used when requests are
+     * processed by worker threads of the server; the connection is closed if
+     * it can't be used for further requests.
+     *
+     * @return whether the connection is open
+     */
+    boolean processAvailable() {
+        try {
+            do {
+                processRequest();
+            } while (!stop && transfer.available() > 0);
+            if (!stop) {
+                return true;
             }
             trace("Disconnect");
         } catch (Throwable e) {
             server.traceError(e);
-        } finally {
-            close();
+        }
+        close();
+        return false;
+    }
+
+    private boolean init() throws IOException {
+        transfer.init();
+        trace("Connect");
+        // TODO server: should support a list of allowed databases
+        // and a list of allowed clients
+        try {
+            Socket socket = transfer.getSocket();
+            if (socket == null) {
+                // the transfer is already closed, prevent NPE in TcpServer#allow(Socket)
+                return false;
+            }
+            if (!server.allow(transfer.getSocket())) {
+                throw DbException.get(ErrorCode.REMOTE_CONNECTION_NOT_ALLOWED);
+            }
+            int minClientVersion = transfer.readInt();
+            if (minClientVersion < 6) {
+                throw DbException.get(ErrorCode.DRIVER_VERSION_ERROR_2,
+                        Integer.toString(minClientVersion), "" + Constants.TCP_PROTOCOL_VERSION_MIN_SUPPORTED);
+            }
+            int maxClientVersion = transfer.readInt();
+            if (maxClientVersion < Constants.TCP_PROTOCOL_VERSION_MIN_SUPPORTED) {
+                throw DbException.get(ErrorCode.DRIVER_VERSION_ERROR_2,
+                        Integer.toString(maxClientVersion), "" + Constants.TCP_PROTOCOL_VERSION_MIN_SUPPORTED);
+            } else if (minClientVersion > Constants.TCP_PROTOCOL_VERSION_MAX_SUPPORTED) {
+                throw DbException.get(ErrorCode.DRIVER_VERSION_ERROR_2,
+                        Integer.toString(minClientVersion), "" + Constants.TCP_PROTOCOL_VERSION_MAX_SUPPORTED);
+            }
+            if (maxClientVersion >= Constants.TCP_PROTOCOL_VERSION_MAX_SUPPORTED) {
+                clientVersion = Constants.TCP_PROTOCOL_VERSION_MAX_SUPPORTED;
+            } else {
+                clientVersion = maxClientVersion;
+            }
+            transfer.setVersion(clientVersion);
+            String db = transfer.readString();
+            String originalURL = transfer.readString();
+            if (db == null && originalURL == null) {
+                String targetSessionId = transfer.readString();
+                int command = transfer.readInt();
+                stop = true;
+                if (command == SessionRemote.SESSION_CANCEL_STATEMENT) {
+                    // cancel a running statement
+                    int statementId = transfer.readInt();
+                    server.cancelStatement(targetSessionId, statementId);
+                } else if (command == SessionRemote.SESSION_CHECK_KEY) {
+                    // check if this is the correct server
+                    db = server.checkKeyAndGetDatabaseName(targetSessionId);
+                    if (!targetSessionId.equals(db)) {
+                        transfer.writeInt(SessionRemote.STATUS_OK);
+                    } else {
+                        transfer.writeInt(SessionRemote.STATUS_ERROR);
+                    }
+                }
+            }
+            String baseDir = server.getBaseDir();
+            if (baseDir == null) {
+                baseDir = SysProperties.getBaseDir();
+            }
+            db = server.checkKeyAndGetDatabaseName(db);
+            ConnectionInfo ci = new ConnectionInfo(db);
+            ci.setOriginalURL(originalURL);
+            ci.setUserName(transfer.readString());
+            ci.setUserPasswordHash(transfer.readBytes());
+            ci.setFilePasswordHash(transfer.readBytes());
+            int len = transfer.readInt();
+            for (int i = 0; i < len; i++) {
+                ci.setProperty(transfer.readString(), transfer.readString());
+            }
+            // override client's requested properties with server settings
+            if (baseDir != null) {
+                ci.setBaseDir(baseDir);
+            }
+            if (server.getIfExists()) {
+                ci.setProperty("FORBID_CREATION", "TRUE");
+            }
+            transfer.writeInt(SessionRemote.STATUS_OK);
+            transfer.writeInt(clientVersion);
+            transfer.flush();
+            if (ci.getFilePasswordHash() != null) {
+                ci.setFileEncryptionKey(transfer.readBytes());
+            }
+            ci.setNetworkConnectionInfo(new NetworkConnectionInfo(
+                    NetUtils.ipToShortForm(new StringBuilder(server.getSSL() ? "ssl://" : "tcp://"),
+                            socket.getLocalAddress().getAddress(), true) //
+                            .append(':').append(socket.getLocalPort()).toString(), //
+                    socket.getInetAddress().getAddress(), socket.getPort(),
+                    new StringBuilder().append('P').append(clientVersion).toString()));
+            if (clientVersion < Constants.TCP_PROTOCOL_VERSION_20) {
+                // For DatabaseMetaData
+                ci.setProperty("OLD_INFORMATION_SCHEMA", "TRUE");
+                // For H2 Console
+                ci.setProperty("NON_KEYWORDS", "VALUE");
+            }
+            compress = clientVersion >= Constants.TCP_PROTOCOL_VERSION_23
+                    && ci.getProperty("NETWORK_COMPRESS", false);
+            session = Engine.createSession(ci);
+            transfer.setSession(session);
+            server.addConnection(threadId, originalURL, ci.getUserName());
+            trace("Connected");
+            lastRemoteSettingsId = session.getDatabase().getRemoteSettingsId();
+        } catch (OutOfMemoryError e) {
+            // catch this separately otherwise such errors will never hit the console
+            server.traceError(e);
+            sendError(e, true);
+            stop = true;
+        } catch (Throwable e) {
+            sendError(e,true);
+            stop = true;
+        }
+        return true;
+    }
+
+    private void processRequest() {
+        try {
+            process();
+        } catch (Throwable e) {
+            sendError(e, true);
         }
     }
 
@@ -273,6 +348,26 @@ private void sendSQLException(SQLException e) throws IOException {
                 .writeString(trace);
     }
 
+    /**
+     * Read the hash of a SQL statement, and the statement itself if it wasn't
+     * prepared by any connection of this user with the same current schema
+     * yet.
+     */
+    private String readSharedStatement() throws IOException {
+        byte[] hash = transfer.readBytes();
+        String sql = server.getSharedStatement(session, hash);
+        transfer.writeInt(SessionRemote.STATUS_OK).writeBoolean(sql != null);
+        if (sql == null) {
+            transfer.flush();
+            sql = transfer.readString();
+            if (!Arrays.equals(hash, SHA256.getHash(sql.getBytes(StandardCharsets.UTF_8), false))) {
+                throw DbException.get(ErrorCode.CONNECTION_BROKEN_1, "hash mismatch");
+            }
+            server.addSharedStatement(session, hash, sql);
+        }
+        return sql;
+    }
+
     private void setParameters(Command command) throws IOException {
         int len = transfer.readInt();
         ArrayList<? extends ParameterInterface> params = command.getParameters();
@@ -287,9 +382,11 @@ private void process() throws IOException {
         int operation = transfer.readInt();
         switch (operation) {
         case SessionRemote.SESSION_PREPARE:
-        case SessionRemote.SESSION_PREPARE_READ_PARAMS2: {
+        case SessionRemote.SESSION_PREPARE_READ_PARAMS2:
+        case SessionRemote.SESSION_PREPARE_SHARED: {
             int id = transfer.readInt();
-            String sql = transfer.readString();
+            String sql = operation == SessionRemote.SESSION_PREPARE_SHARED ? readSharedStatement()
+                    : transfer.readString();
             int old = session.getModificationId();
             Command command = session.prepareLocal(sql);
             boolean readonly = command.isReadOnly();
@@ -471,15 +568,7 @@ private void process() throws IOException {
             long offset = transfer.readLong();
             int length = transfer.readInt();
             transfer.verifyLobMac(hmac, lobId);
-            CachedInputStream in = lobs.get(lobId);
-            if (in == null || in.getPos() != offset) {
-                LobStorageInterface lobStorage = session.getDataHandler().getLobStorage();
-                // only the lob id is used
-                InputStream lobIn = lobStorage.getInputStream(lobId, -1);
-                in = new CachedInputStream(lobIn);
-                lobs.put(lobId, in);
-                lobIn.skip(offset);
-            }
+            CachedInputStream in = getLobInputStream(lobId, offset);
             // limit the buffer size
             length = Math.min(16 * Constants.IO_BUFFER_SIZE, length);
             byte[] buff = new byte[length];
@@ -490,6 +579,37 @@ private void process() throws IOException {
             transfer.flush();
             break;
         }
+        case SessionRemote.LOB_STREAM: {
+            long lobId = transfer.readLong();
+            byte[] hmac = transfer.readBytes();
+            long offset = transfer.readLong();
+            int length = transfer.readInt();
+            transfer.verifyLobMac(hmac, lobId);
+            CachedInputStream in = getLobInputStream(lobId, offset);
+            transfer.writeInt(SessionRemote.STATUS_OK);
+            byte[] buff = lobFrame;
+            if (buff == null) {
+                lobFrame = buff = new byte[LOB_FRAME_SIZE];
+            }
+            try {
+                while (length > 0) {
+                    int frame = IOUtils.readFully(in, buff, length);
+                    if (frame == 0) {
+                        break;
+                    }
+                    transfer.writeInt(frame);
+                    transfer.writeBytes(buff, 0, frame);
+                    length -= frame;
+                }
+            } catch (Exception e) {
+                lobs.remove(lobId);
+                transfer.writeInt(-1);
+                sendError(e, false);
+                break;
+            }
+            transfer.writeInt(0).flush();
+            break;
+        }
         case SessionRemote.GET_JDBC_META: {
             int code = transfer.readInt();
             int length = transfer.readInt();
@@ -624,6 +744,10 @@ private int getState(int oldModificationId) {
     }
 
     private void sendRows(ResultInterface result, long count) throws IOException {
+        if (clientVersion >= Constants.TCP_PROTOCOL_VERSION_23) {
+            sendRowFrames(result, count);
+            return;
+        }
         int columnCount = result.getVisibleColumnCount();
         boolean lazy = result.isLazy();
         Session oldSession = lazy ? session.setThreadLocalSession() : null;
@@ -662,6 +786,73 @@ private void sendRows(ResultInterface result, long count) throws IOException {
         }
     }
 
+    private CachedInputStream getLobInputStream(long lobId, long offset) throws IOException {
+        CachedInputStream in = lobs.get(lobId);
+        if (in == null || in.getPos() != offset) {
+            LobStorageInterface lobStorage = session.getDataHandler().getLobStorage();
+            // only the lob id is used
+            InputStream lobIn = lobStorage.getInputStream(lobId, -1);
+            in = new CachedInputStream(lobIn);
+            lobs.put(lobId, in);
+            lobIn.skip(offset);
+        }
+        return in;
+    }
+
+    private void sendRowFrames(ResultInterface result, long count) throws IOException {
+        int columnCount = result.getVisibleColumnCount();
+        boolean lazy = result.isLazy();
+        Session oldSession = lazy ? session.setThreadLocalSession() : null;
+        ArrayList<Value[]> rows = new ArrayList<>((int) Math.min(count, ROW_FRAME_SIZE));
+        try {
+            while (count-- > 0L) {
+                boolean hasNext;
+                try {
+                    hasNext = result.next();
+                } catch (Exception e) {
+                    sendRowFrame(rows, columnCount);
+                    transfer.writeByte((byte) -1);
+                    sendError(e, false);
+                    return;
+                }
+                if (!hasNext) {
+                    sendRowFrame(rows, columnCount);
+                    transfer.writeByte((byte) 0);
+                    return;
+                }
+                // the current row may be reused by lazy results
+                Value[] values = Arrays.copyOf(result.currentRow(), columnCount);
+                if (lazy) {
+                    for (int i = 0; i < columnCount; i++) {
+                        Value v = values[i];
+                        if (v instanceof ValueLob) {
+                            ValueLob v2 = ((ValueLob) v).copyToResult();
+                            if (v2 != v) {
+                                values[i] = session.addTemporaryLob(v2);
+                            }
+                        }
+                    }
+                }
+                rows.add(values);
+                if (rows.size() == ROW_FRAME_SIZE) {
+                    sendRowFrame(rows, columnCount);
+                }
+            }
+            sendRowFrame(rows, columnCount);
+        } finally {
+            if (lazy) {
+                session.resetThreadLocalSession(oldSession);
+            }
+        }
+    }
+
+    private void sendRowFrame(ArrayList<Value[]> rows, int columnCount) throws IOException {
+        if (!rows.isEmpty()) {
+            transfer.writeRowFrame(rows, columnCount, compress);
+            rows.clear();
+        }
+    }
+
     void setThread(Thread thread) {
         this.thread = thread;
     }
@@ -670,6 +861,10 @@ Thread getThread() {
         return thread;
     }
 
+    int getThreadId() {
+        return threadId;
+    }
+
     /**
      * Cancel a running statement.
      *
@@ -0,0 +1,942 @@
+/*
+ * Copyright 2004-2025 H2 Group. Multiple-Licensed under the MPL 2.0,
+ * and the EPL 1.0 (https://h2database.com/html/license.html).
+ * Initial Developer: H2 Group
+ */
+package org.h2.server.pg;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+
+import org.h2.api.ErrorCode;
+import org.h2.command.Command;
+import org.h2.command.Parser;
+import org.h2.engine.SessionLocal;
+import org.h2.expression.ParameterInterface;
+import org.h2.message.DbException;
+import org.h2.result.ResultInterface;
+import org.h2.table.Column;
+import org.h2.table.Table;
+import org.h2.util.HasSQL;
+import org.h2.util.StringUtils;
+import org.h2.value.Value;
+import org.h2.value.ValueArray;
+import org.h2.value.ValueNull;
+import org.h2.value.ValueVarbinary;
+import org.h2.value.ValueVarchar;
+
+/**
+ * The COPY FROM STDIN and COPY TO STDOUT statements of the PostgreSQL server
+ * in text and CSV formats.
+ *
+ * Incoming rows are parsed as soon as they are received and are inserted in
+ * batches with multi-row INSERT statements, the whole operation is atomic.
+ */
+final class PgCopy {
+
+    /**
+     * The maximum number of parameters of a batch INSERT statement.
+     */
+    private static final int BATCH_PARAMETERS = 4_096;
+
+    private final SessionLocal session;
+
+    private final String sql;
+
+    private final Charset charset;
+
+    private int pos;
+
+    private boolean from;
+
+    private String tableName;
+
+    private ArrayList<String> columnNames;
+
+    private String query;
+
+    private boolean csv;
+
+    private char delimiter;
+
+    private String nullString;
+
+    private boolean header;
+
+    private char quote = '"';
+
+    private char escape;
+
+    private int columnCount;
+
+    private int[] columnTypes;
+
+    private Command batchInsert;
+
+    private int batchRows;
+
+    private Value[] batch;
+
+    private int batchSize;
+
+    private long rowCount;
+
+    private byte[] buffer;
+
+    private int length;
+
+    private boolean inQuotes;
+
+    private boolean escaped;
+
+    private boolean headerSkipped;
+
+    private boolean ended;
+
+    private boolean autoCommit;
+
+    private SessionLocal.Savepoint savepoint;
+
+    /**
+     * Checks whether the specified statement is a COPY statement.
+     *
+     * @param sql the SQL statement
+     * @return whether this is a COPY statement
+     */
+    static boolean isCopy(String sql) {
+        int i = 0, l = sql.length();
+        while (i < l && Character.isWhitespace(sql.charAt(i))) {
+            i++;
+        }
+        return sql.regionMatches(true, i, "COPY", 0, 4)
+                && (i + 4 == l || !Character.isJavaIdentifierPart(sql.charAt(i + 4)));
+    }
+
+    /**
+     * Parses the COPY statement.
+     *
+     * @param session the session
+     * @param sql the SQL statement
+     * @param charset the client encoding
+     */
+    PgCopy(SessionLocal session, String sql, Charset charset) {
+        this.session = session;
+        this.sql = sql;
+        this.charset = charset;
+        parse();
+        if (columnNames == null && query == null) {
+            Table table = new Parser(session).parseTableName(tableName);
+            columnNames = new ArrayList<>();
+            for (Column column : table.getVisibleColumns()) {
+                if (!column.isGenerated()) {
+                    columnNames.add(column.getSQL(HasSQL.DEFAULT_SQL_FLAGS));
+                }
+            }
+        }
+        if (from) {
+            columnCount = columnNames.size();
+        }
+    }
+
+    /**
+     * Returns whether this is a COPY FROM STDIN statement.
+     *
+     * @return {@code true} for COPY FROM STDIN, {@code false} for COPY TO
+     *         STDOUT
+     */
+    boolean isFrom() {
+        return from;
+    }
+
+    /**
+     * Returns the number of columns of data.
+     *
+     * @return the number of columns
+     */
+    int getColumnCount() {
+        return columnCount;
+    }
+
+    /**
+     * Prepares the COPY FROM STDIN statement.
+     */
+    void startFrom() {
+        Command insert = prepareInsert(1);
+        ArrayList<? extends ParameterInterface> parameters = insert.getParameters();
+        columnTypes = new int[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            columnTypes[i] = parameters.get(i).getType().getValueType();
+        }
+        insert.close();
+        batchSize = Math.max(1, BATCH_PARAMETERS / Math.max(1, columnCount));
+        batch = new Value[batchSize * columnCount];
+        buffer = new byte[8_192];
+        session.lock();
+        try {
+            autoCommit = session.getAutoCommit();
+            if (autoCommit) {
+                session.setAutoCommit(false);
+            } else {
+                savepoint = session.setSavepoint();
+            }
+        } finally {
+            session.unlock();
+        }
+    }
+
+    /**
+     * Processes a chunk of data of COPY FROM STDIN. Complete rows are
+     * inserted, incomplete rows are kept until the next chunk.
+     *
+     * @param data the data
+     * @param len the length of data
+     */
+    void read(byte[] data, int len) {
+        if (ended) {
+            return;
+        }
+        int required = length + len;
+        if (required > buffer.length) {
+            byte[] b = new byte[Math.max(required, buffer.length * 2)];
+            System.arraycopy(buffer, 0, b, 0, length);
+            buffer = b;
+        }
+        System.arraycopy(data, 0, buffer, length, len);
+        int start = 0;
+        for (int i = length; i < required; i++) {
+            byte b = buffer[i];
+            if (escaped) {
+                escaped = false;
+            } else if (csv) {
+                if (inQuotes) {
+                    if (b == escape && escape != quote) {
+                        escaped = true;
+                    } else if (b == quote) {
+                        inQuotes = false;
+                    }
+                } else if (b == quote) {
+                    inQuotes = true;
+                } else if (b == '\n') {
+                    readLine(start, i);
+                    start = i + 1;
+                }
+            } else if (b == '\\') {
+                escaped = true;
+            } else if (b == '\n') {
+                readLine(start, i);
+                start = i + 1;
+            }
+            if (ended) {
+                length = 0;
+                return;
+            }
+        }
+        length = required - start;
+        System.arraycopy(buffer, start, buffer, 0, length);
+    }
+
+    /**
+     * Completes the COPY FROM STDIN statement and commits the inserted rows
+     * if the session is in auto-commit mode.
+     *
+     * @return the number of inserted rows
+     */
+    long finishFrom() {
+        if (!ended && length > 0) {
+            if (inQuotes) {
+                throw DbException.get(ErrorCode.DATA_CONVERSION_ERROR_1, "unterminated CSV quoted field");
+            }
+            readLine(0, length);
+        }
+        if (batchRows > 0) {
+            Command insert = prepareInsert(batchRows);
+            try {
+                executeInsert(insert, batchRows);
+            } finally {
+                insert.close();
+            }
+            batchRows = 0;
+        }
+        end(true);
+        return rowCount;
+    }
+
+    /**
+     * Cancels the COPY FROM STDIN statement and rolls back the inserted rows.
+     */
+    void cancelFrom() {
+        end(false);
+    }
+
+    private void end(boolean commit) {
+        if (batchInsert != null) {
+            batchInsert.close();
+            batchInsert = null;
+        }
+        session.lock();
+        try {
+            if (autoCommit) {
+                if (commit) {
+                    session.commit(false);
+                } else {
+                    session.rollback();
+                }
+                session.setAutoCommit(true);
+            } else if (!commit) {
+                session.rollbackTo(savepoint);
+            }
+        } finally {
+            session.unlock();
+        }
+    }
+
+    private void readLine(int start, int end) {
+        if (end > start && buffer[end - 1] == '\r') {
+            end--;
+        }
+        String line = new String(buffer, start, end - start, charset);
+        if (line.equals("\\.")) {
+            ended = true;
+            return;
+        }
+        if (header && !headerSkipped) {
+            headerSkipped = true;
+            return;
+        }
+        int offset = batchRows * columnCount;
+        if (csv) {
+            readCsvLine(line, offset);
+        } else {
+            readTextLine(line, offset);
+        }
+        if (++batchRows == batchSize) {
+            if (batchInsert == null) {
+                batchInsert = prepareInsert(batchSize);
+            }
+            executeInsert(batchInsert, batchSize);
+            batchRows = 0;
+        }
+    }
+
+    private void readTextLine(String line, int offset) {
+        int column = 0;
+        for (int i = 0, l = line.length(), start = 0; i <= l; i++) {
+            char c = i < l ? line.charAt(i) : delimiter;
+            if (c == '\\') {
+                i++;
+            } else if (c == delimiter) {
+                String s = line.substring(start, Math.min(i, l));
+                setValue(offset, column++, s.equals(nullString) ? null : unescapeText(s));
+                start = i + 1;
+            }
+        }
+        checkColumnCount(column);
+    }
+
+    private static String unescapeText(String s) {
+        int l = s.length();
+        if (s.indexOf('\\') < 0) {
+            return s;
+        }
+        StringBuilder builder = new StringBuilder(l);
+        for (int i = 0; i < l; i++) {
+            char c = s.charAt(i);
+            if (c != '\\' || ++i == l) {
+                builder.append(c);
+                continue;
+            }
+            c = s.charAt(i);
+            switch (c) {
+            case 'b':
+                builder.append('\b');
+                break;
+            case 'f':
+                builder.append('\f');
+                break;
+            case 'n':
+                builder.append('\n');
+                break;
+            case 'r':
+                builder.append('\r');
+                break;
+            case 't':
+                builder.append('\t');
+                break;
+            case 'v':
+                builder.append('\u000b');
+                break;
+            case 'x': {
+                int v = 0, j = i + 1;
+                for (int d; j < l && j < i + 3 && (d = Character.digit(s.charAt(j), 16)) >= 0; j++) {
+                    v = v * 16 + d;
+                }
+                if (j == i + 1) {
+                    builder.append(c);
+                } else {
+                    builder.append((char) v);
+                    i = j - 1;
+                }
+                break;
+            }
+            default:
+                if (c >= '0' && c <= '7') {
+                    int v = 0, j = i;
+                    for (char d; j < l && j < i + 3 && (d = s.charAt(j)) >= '0' && d <= '7'; j++) {
+                        v = v * 8 + d - '0';
+                    }
+                    builder.append((char) v);
+                    i = j - 1;
+                } else {
+                    builder.append(c);
+                }
+            }
+        }
+        return builder.toString();
+    }
+
+    private void readCsvLine(String line, int offset) {
+        int column = 0;
+        StringBuilder builder = new StringBuilder();
+        boolean quoted = false, q = false;
+        for (int i = 0, l = line.length(); i <= l; i++) {
+            if (i == l) {
+                String s = builder.toString();
+                setValue(offset, column++, !quoted && s.equals(nullString) ? null : s);
+                break;
+            }
+            char c = line.charAt(i);
+            if (q) {
+                if (c == escape && i + 1 < l && (line.charAt(i + 1) == quote || line.charAt(i + 1) == escape)) {
+                    builder.append(line.charAt(++i));
+                } else if (c == quote) {
+                    q = false;
+                } else {
+                    builder.append(c);
+                }
+            } else if (c == delimiter) {
+                String s = builder.toString();
+                setValue(offset, column++, !quoted && s.equals(nullString) ? null : s);
+                builder.setLength(0);
+                quoted = false;
+            } else if (c == quote) {
+                q = quoted = true;
+            } else {
+                builder.append(c);
+            }
+        }
+        checkColumnCount(column);
+    }
+
+    private void setValue(int offset, int column, String s) {
+        if (column >= columnCount) {
+            throw DbException.get(ErrorCode.COLUMN_COUNT_DOES_NOT_MATCH);
+        }
+        Value v;
+        if (s == null) {
+            v = ValueNull.INSTANCE;
+        } else {
+            switch (columnTypes[column]) {
+            case Value.BINARY:
+            case Value.VARBINARY:
+            case Value.BLOB:
+                if (s.startsWith("\\x")) {
+                    v = ValueVarbinary.getNoCopy(StringUtils.convertHexToBytes(s.substring(2)));
+                    break;
+                }
+                //$FALL-THROUGH$
+            default:
+                v = ValueVarchar.get(s);
+            }
+        }
+        batch[offset + column] = v;
+    }
+
+    private void checkColumnCount(int count) {
+        if (count != columnCount) {
+            throw DbException.get(ErrorCode.COLUMN_COUNT_DOES_NOT_MATCH);
+        }
+    }
+
+    private Command prepareInsert(int rows) {
+        StringBuilder builder = new StringBuilder("INSERT INTO ").append(tableName).append('(');
+        builder.append(String.join(", ", columnNames)).append(") VALUES ");
+        for (int r = 0; r < rows; r++) {
+            if (r > 0) {
+                builder.append(", ");
+            }
+            builder.append('(');
+            for (int i = 0; i < columnCount; i++) {
+                if (i > 0) {
+                    builder.append(", ");
+                }
+                builder.append('?');
+            }
+            builder.append(')');
+        }
+        return session.prepareLocal(builder.toString());
+    }
+
+    private void executeInsert(Command insert, int rows) {
+        ArrayList<? extends ParameterInterface> parameters = insert.getParameters();
+        for (int i = 0, l = rows * columnCount; i < l; i++) {
+            parameters.get(i).setValue(batch[i], true);
+        }
+        rowCount += insert.executeUpdate(null).getUpdateCount();
+    }
+
+    /**
+     * Prepares the query of the COPY TO STDOUT statement.
+     *
+     * @return the query
+     */
+    Command prepareQuery() {
+        String s = query;
+        if (s == null) {
+            s = "SELECT " + String.join(", ", columnNames) + " FROM " + tableName;
+        }
+        Command command = session.prepareLocal(s);
+        if (!command.isQuery()) {
+            command.close();
+            throw DbException.get(ErrorCode.METHOD_ONLY_ALLOWED_FOR_QUERY);
+        }
+        columnCount = command.getMetaData().getVisibleColumnCount();
+        return command;
+    }
+
+    /**
+     * Formats the header line of COPY TO STDOUT, if requested.
+     *
+     * @param result the result
+     * @return the header line, or {@code null}
+     */
+    byte[] formatHeader(ResultInterface result) {
+        if (!header) {
+            return null;
+        }
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < columnCount; i++) {
+            if (i > 0) {
+                builder.append(delimiter);
+            }
+            appendField(builder, result.getColumnName(i));
+        }
+        return builder.append('\n').toString().getBytes(charset);
+    }
+
+    /**
+     * Formats the current row of COPY TO STDOUT.
+     *
+     * @param builder the string builder to use
+     * @param row the row
+     * @return the line with the row
+     */
+    byte[] formatRow(StringBuilder builder, Value[] row) {
+        builder.setLength(0);
+        for (int i = 0; i < columnCount; i++) {
+            if (i > 0) {
+                builder.append(delimiter);
+            }
+            Value v = row[i];
+            if (v == ValueNull.INSTANCE) {
+                builder.append(nullString);
+            } else {
+                appendField(builder, toString(v));
+            }
+        }
+        return builder.append('\n').toString().getBytes(charset);
+    }
+
+    private void appendField(StringBuilder builder, String s) {
+        int l = s.length();
+        if (csv) {
+            boolean needQuotes = l == 0 ? nullString.isEmpty() : s.equals(nullString) || s.equals("\\.");
+            for (int i = 0; !needQuotes && i < l; i++) {
+                char c = s.charAt(i);
+                needQuotes = c == delimiter || c == quote || c == '\n' || c == '\r';
+            }
+            if (!needQuotes) {
+                builder.append(s);
+                return;
+            }
+            builder.append(quote);
+            for (int i = 0; i < l; i++) {
+                char c = s.charAt(i);
+                if (c == quote || c == escape) {
+                    builder.append(escape);
+                }
+                builder.append(c);
+            }
+            builder.append(quote);
+        } else {
+            for (int i = 0; i < l; i++) {
+                char c = s.charAt(i);
+                switch (c) {
+                case '\\':
+                    builder.append("\\\\");
+                    break;
+                case '\n':
+                    builder.append("\\n");
+                    break;
+                case '\r':
+                    builder.append("\\r");
+                    break;
+                case '\t':
+                    builder.append("\\t");
+                    break;
+                default:
+                    if (c == delimiter) {
+                        builder.append('\\');
+                    }
+                    builder.append(c);
+                }
+            }
+        }
+    }
+
+    private static String toString(Value v) {
+        switch (v.getValueType()) {
+        case Value.BOOLEAN:
+            return v.getBoolean() ? "t" : "f";
+        case Value.BINARY:
+        case Value.VARBINARY:
+        case Value.BLOB:
+            return "\\x" + StringUtils.convertBytesToHex(v.getBytesNoCopy());
+        case Value.ARRAY: {
+            StringBuilder builder = new StringBuilder().append('{');
+            Value[] values = ((ValueArray) v).getList();
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    builder.append(',');
+                }
+                Value e = values[i];
+                if (e == ValueNull.INSTANCE) {
+                    builder.append("NULL");
+                    continue;
+                }
+                String s = toString(e);
+                boolean needQuotes = s.isEmpty() || s.equalsIgnoreCase("NULL");
+                for (int j = 0, l = s.length(); !needQuotes && j < l; j++) {
+                    char c = s.charAt(j);
+                    needQuotes = c == '"' || c == '\\' || c == ',' || c == '{' || c == '}'
+                            || Character.isWhitespace(c);
+                }
+                if (needQuotes) {
+                    builder.append('"');
+                    for (int j = 0, l = s.length(); j < l; j++) {
+                        char c = s.charAt(j);
+                        if (c == '"' || c == '\\') {
+                            builder.append('\\');
+                        }
+                        builder.append(c);
+                    }
+                    builder.append('"');
+                } else {
+                    builder.append(s);
+                }
+            }
+            return builder.append('}').toString();
+        }
+        default:
+            return v.getString();
+        }
+    }
+
+    private void parse() {
+        readKeyword("COPY");
+        if (readIf('(')) {
+            int start = pos;
+            skipParenthesized();
+            query = sql.substring(start, pos - 1);
+        } else {
+            int start = pos;
+            do {
+                readIdentifier();
+            } while (readIf('.'));
+            tableName = sql.substring(start, pos);
+            if (readIf('(')) {
+                columnNames = new ArrayList<>();
+                do {
+                    skipWhitespace();
+                    int s = pos;
+                    readIdentifier();
+                    columnNames.add(sql.substring(s, pos));
+                } while (readIf(','));
+                read(')');
+            }
+        }
+        if (readIfKeyword("FROM")) {
+            if (query != null) {
+                throw getSyntaxError("TO");
+            }
+            from = true;
+            if (!readIfKeyword("STDIN")) {
+                throw DbException.getUnsupportedException("COPY FROM other than STDIN");
+            }
+        } else if (readIfKeyword("TO")) {
+            if (!readIfKeyword("STDOUT")) {
+                throw DbException.getUnsupportedException("COPY TO other than STDOUT");
+            }
+        } else {
+            throw getSyntaxError("FROM, TO");
+        }
+        String format = "TEXT";
+        String delimiter = null, nullString = null, quote = null, escape = null;
+        readIfKeyword("WITH");
+        if (readIf('(')) {
+            do {
+                String option = readWord();
+                switch (option) {
+                case "FORMAT":
+                    format = readWord();
+                    break;
+                case "DELIMITER":
+                    delimiter = readString();
+                    break;
+                case "NULL":
+                    nullString = readString();
+                    break;
+                case "HEADER":
+                    header = readBooleanOption();
+                    break;
+                case "QUOTE":
+                    quote = readString();
+                    break;
+                case "ESCAPE":
+                    escape = readString();
+                    break;
+                case "FREEZE":
+                    readBooleanOption();
+                    break;
+                default:
+                    throw DbException.getUnsupportedException("COPY option " + option);
+                }
+            } while (readIf(','));
+            read(')');
+        } else {
+            for (;;) {
+                skipWhitespace();
+                if (pos == sql.length() || sql.charAt(pos) == ';') {
+                    break;
+                }
+                String option = readWord();
+                switch (option) {
+                case "BINARY":
+                case "CSV":
+                    format = option;
+                    break;
+                case "HEADER":
+                    header = true;
+                    break;
+                case "DELIMITER":
+                    readIfKeyword("AS");
+                    delimiter = readString();
+                    break;
+                case "NULL":
+                    readIfKeyword("AS");
+                    nullString = readString();
+                    break;
+                case "QUOTE":
+                    readIfKeyword("AS");
+                    quote = readString();
+                    break;
+                case "ESCAPE":
+                    readIfKeyword("AS");
+                    escape = readString();
+                    break;
+                default:
+                    throw DbException.getUnsupportedException("COPY option " + option);
+                }
+            }
+        }
+        readIf(';');
+        skipWhitespace();
+        if (pos != sql.length()) {
+            throw getSyntaxError(null);
+        }
+        switch (format) {
+        case "TEXT":
+            this.delimiter = getChar(delimiter, '\t');
+            this.nullString = nullString != null ? nullString : "\\N";
+            if (quote != null || escape != null) {
+                throw DbException.getUnsupportedException("COPY QUOTE and ESCAPE in text format");
+            }
+            break;
+        case "CSV":
+            csv = true;
+            this.delimiter = getChar(delimiter, ',');
+            this.nullString = nullString != null ? nullString : "";
+            this.quote = getChar(quote, '"');
+            this.escape = getChar(escape, this.quote);
+            break;
+        default:
+            throw DbException.getUnsupportedException("COPY format " + format);
+        }
+        char d = this.delimiter;
+        if (d == '\n' || d == '\r' || d == '\\' || csv && d == this.quote) {
+            throw DbException.getInvalidValueException("DELIMITER", delimiter);
+        }
+    }
+
+    private static char getChar(String s, char defaultValue) {
+        if (s == null) {
+            return defaultValue;
+        }
+        if (s.length() != 1 || s.charAt(0) > 127) {
+            throw DbException.getInvalidValueException("COPY option", s);
+        }
+        return s.charAt(0);
+    }
+
+    private boolean readBooleanOption() {
+        skipWhitespace();
+        if (pos < sql.length()) {
+            char c = sql.charAt(pos);
+            if (c == '\'') {
+                return parseBoolean(readString());
+            } else if (Character.isJavaIdentifierPart(c)) {
+                int start = pos;
+                String word = readWord();
+                if (!word.equals("MATCH")) {
+                    return parseBoolean(word);
+                }
+                pos = start;
+                throw DbException.getUnsupportedException("COPY HEADER MATCH");
+            }
+        }
+        return true;
+    }
+
+    private boolean parseBoolean(String s) {
+        switch (StringUtils.toUpperEnglish(s)) {
+        case "TRUE":
+        case "ON":
+        case "1":
+            return true;
+        case "FALSE":
+        case "OFF":
+        case "0":
+            return false;
+        default:
+            throw DbException.getInvalidValueException("COPY option", s);
+        }
+    }
+
+    private void skipWhitespace() {
+        int l = sql.length();
+        while (pos < l && Character.isWhitespace(sql.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private boolean readIf(char c) {
+        skipWhitespace();
+        if (pos < sql.length() && sql.charAt(pos) == c) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private void read(char c) {
+        if (!readIf(c)) {
+            throw getSyntaxError(String.valueOf(c));
+        }
+    }
+
+    private boolean readIfKeyword(String keyword) {
+        skipWhitespace();
+        int l = keyword.length();
+        if (sql.regionMatches(true, pos, keyword, 0, l)
+                && (pos + l == sql.length() || !Character.isJavaIdentifierPart(sql.charAt(pos + l)))) {
+            pos += l;
+            return true;
+        }
+        return false;
+    }
+
+    private void readKeyword(String keyword) {
+        if (!readIfKeyword(keyword)) {
+            throw getSyntaxError(keyword);
+        }
+    }
+
+    private String readWord() {
+        skipWhitespace();
+        int start = pos, l = sql.length();
+        while (pos < l && Character.isJavaIdentifierPart(sql.charAt(pos))) {
+            pos++;
+        }
+        if (start == pos) {
+            throw getSyntaxError("identifier");
+        }
+        return StringUtils.toUpperEnglish(sql.substring(start, pos));
+    }
+
+    private void readIdentifier() {
+        skipWhitespace();
+        if (pos < sql.length() && sql.charAt(pos) == '"') {
+            skipQuoted('"');
+        } else {
+            readWord();
+        }
+    }
+
+    private String readString() {
+        skipWhitespace();
+        int l = sql.length();
+        boolean extended = false;
+        if (pos + 1 < l && (sql.charAt(pos) == 'E' || sql.charAt(pos) == 'e') && sql.charAt(pos + 1) == '\'') {
+            extended = true;
+            pos++;
+        }
+        if (pos == l || sql.charAt(pos) != '\'') {
+            throw getSyntaxError("string");
+        }
+        int start = pos;
+        skipQuoted('\'');
+        String s = sql.substring(start + 1, pos - 1);
+        if (extended) {
+            s = unescapeText(s);
+        }
+        return s.replace("''", "'");
+    }
+
+    private void skipQuoted(char q) {
+        int l = sql.length();
+        for (pos++; pos < l; pos++) {
+            if (sql.charAt(pos) == q) {
+                if (pos + 1 < l && sql.charAt(pos + 1) == q) {
+                    pos++;
+                } else {
+                    pos++;
+                    return;
+                }
+            }
+        }
+        throw getSyntaxError(String.valueOf(q));
+    }
+
+    private void skipParenthesized() {
+        int level = 1, l = sql.length();
+        while (pos < l) {
+            char c = sql.charAt(pos);
+            if (c == '\'' || c == '"') {
+                skipQuoted(c);
+                continue;
+            }
+            pos++;
+            if (c == '(') {
+                level++;
+            } else if (c == ')' && --level == 0) {
+                return;
+            }
+        }
+        throw getSyntaxError(")");
+    }
+
+    private DbException getSyntaxError(String expected) {
+        return expected == null ? DbException.getSyntaxError(sql, pos)
+                : DbException.getSyntaxError(sql, pos, expected);
+    }
+
+}
@@ -57,15 +57,20 @@ public class PgServer implements Service {
     public static final int PG_TYPE_FLOAT4 = 700;
     public static final int PG_TYPE_FLOAT8 = 701;
     public static final int PG_TYPE_UNKNOWN = 705;
+    public static final int PG_TYPE_BOOL_ARRAY = 1000;
     public static final int PG_TYPE_INT2_ARRAY = 1005;
     public static final int PG_TYPE_INT4_ARRAY = 1007;
     public static final int PG_TYPE_VARCHAR_ARRAY = 1015;
+    public static final int PG_TYPE_INT8_ARRAY = 1016;
+    public static final int PG_TYPE_FLOAT4_ARRAY = 1021;
+    public static final int PG_TYPE_FLOAT8_ARRAY = 1022;
     public static final int PG_TYPE_DATE = 1082;
     public static final int PG_TYPE_TIME = 1083;
     public static final int PG_TYPE_TIMETZ = 1266;
     public static final int PG_TYPE_TIMESTAMP = 1114;
     public static final int PG_TYPE_TIMESTAMPTZ = 1184;
     public static final int PG_TYPE_NUMERIC = 1700;
+    public static final int PG_TYPE_UUID = 2950;
 
     private final HashSet<Integer> typeSet = new HashSet<>();
 
@@ -349,12 +354,20 @@ public static String formatType(int pgType) {
         case PG_TYPE_FLOAT8:
             valueType = Value.DOUBLE;
             break;
+        case PG_TYPE_BOOL_ARRAY:
+            return "boolean[]";
         case PG_TYPE_INT2_ARRAY:
             return "smallint[]";
         case PG_TYPE_INT4_ARRAY:
             return "integer[]";
         case PG_TYPE_VARCHAR_ARRAY:
             return "character varying[]";
+        case PG_TYPE_INT8_ARRAY:
+            return "bigint[]";
+        case PG_TYPE_FLOAT4_ARRAY:
+            return "real[]";
+        case PG_TYPE_FLOAT8_ARRAY:
+            return "double precision[]";
         case PG_TYPE_BPCHAR:
             valueType = Value.CHAR;
             break;
@@ -379,6 +392,9 @@ public static String formatType(int pgType) {
         case PG_TYPE_NUMERIC:
             valueType = Value.NUMERIC;
             break;
+        case PG_TYPE_UUID:
+            valueType = Value.UUID;
+            break;
         case 2205:
             return "regclass";
         default:
@@ -433,10 +449,18 @@ public static int convertType(TypeInfo type) {
         case Value.ARRAY: {
             type = (TypeInfo) type.getExtTypeInfo();
             switch (type.getValueType()) {
+            case Value.BOOLEAN:
+                return PG_TYPE_BOOL_ARRAY;
             case Value.SMALLINT:
                 return PG_TYPE_INT2_ARRAY;
             case Value.INTEGER:
                 return PG_TYPE_INT4_ARRAY;
+            case Value.BIGINT:
+                return PG_TYPE_INT8_ARRAY;
+            case Value.REAL:
+                return PG_TYPE_FLOAT4_ARRAY;
+            case Value.DOUBLE:
+                return PG_TYPE_FLOAT8_ARRAY;
             case Value.VARCHAR:
                 return PG_TYPE_VARCHAR_ARRAY;
             default:
@@ -448,6 +472,34 @@ public static int convertType(TypeInfo type) {
         }
     }
 
+    /**
+     * Returns the type of elements of the given array type.
+     *
+     * @param pgType the PostgreSQL array type
+     * @return the PostgreSQL type of elements, or {@code 0} if the specified
+     *         type is not an array type
+     */
+    static int getArrayElementType(int pgType) {
+        switch (pgType) {
+        case PG_TYPE_BOOL_ARRAY:
+            return PG_TYPE_BOOL;
+        case PG_TYPE_INT2_ARRAY:
+            return PG_TYPE_INT2;
+        case PG_TYPE_INT4_ARRAY:
+            return PG_TYPE_INT4;
+        case PG_TYPE_VARCHAR_ARRAY:
+            return PG_TYPE_VARCHAR;
+        case PG_TYPE_INT8_ARRAY:
+            return PG_TYPE_INT8;
+        case PG_TYPE_FLOAT4_ARRAY:
+            return PG_TYPE_FLOAT4;
+        case PG_TYPE_FLOAT8_ARRAY:
+            return PG_TYPE_FLOAT8;
+        default:
+            return 0;
+        }
+    }
+
     /**
      * Get the type hash set.
      *
@@ -5,6 +5,7 @@
  */
 package org.h2.server.pg;
 
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
@@ -55,6 +56,7 @@
 import org.h2.value.Value;
 import org.h2.value.ValueArray;
 import org.h2.value.ValueBigint;
+import org.h2.value.ValueBoolean;
 import org.h2.value.ValueDate;
 import org.h2.value.ValueDecfloat;
 import org.h2.value.ValueDouble;
@@ -67,6 +69,7 @@
 import org.h2.value.ValueTimeTimeZone;
 import org.h2.value.ValueTimestamp;
 import org.h2.value.ValueTimestampTimeZone;
+import org.h2.value.ValueUuid;
 import org.h2.value.ValueVarbinary;
 import org.h2.value.ValueVarchar;
 
@@ -105,9 +108,8 @@ private static String convertTimeZone(String value, String prefix) {
     private DataInputStream dataInRaw;
     private DataInputStream dataIn;
     private OutputStream out;
-    private int messageType;
-    private ByteArrayOutputStream outBuffer = new ByteArrayOutputStream();
-    private DataOutputStream dataOut;
+    private MessageBuffer outBuffer = new MessageBuffer();
+    private DataOutputStream dataOut = new DataOutputStream(outBuffer);
     private Thread thread;
     private boolean initDone;
     private String userName;
@@ -116,6 +118,7 @@ private static String convertTimeZone(String value, String prefix) {
     private final int secret;
     private Command activeRequest;
     private String clientEncoding = SysProperties.PG_DEFAULT_CLIENT_ENCODING;
+    private Charset encoding;
     private String dateStyle = "ISO, MDY";
     private TimeZoneProvider timeZone = DateTimeUtils.getTimeZone();
     private final HashMap<String, Prepared> prepared =
@@ -134,7 +137,7 @@ public void run() {
         try {
             server.trace("Connect");
             InputStream ins = socket.getInputStream();
-            out = socket.getOutputStream();
+            out = new BufferedOutputStream(socket.getOutputStream(), 65_536);
             dataInRaw = new DataInputStream(ins);
             while (!stop) {
                 process();
@@ -241,6 +244,7 @@ private void process() throws IOException {
                         }
                         // UTF8
                         clientEncoding = value;
+                        encoding = null;
                         break;
                     case "DateStyle":
                         if (value.indexOf(',') < 0) {
@@ -466,6 +470,12 @@ private void process() throws IOException {
                     break;
                 }
                 s = getSQL(s);
+                if (PgCopy.isCopy(s)) {
+                    if (!executeCopy(s)) {
+                        break;
+                    }
+                    continue;
+                }
                 try (Command command = session.prepareLocal(s)) {
                     setActiveRequest(command);
                     if (command.isQuery()) {
@@ -530,6 +540,118 @@ private void executeQuery(Prepared prepared, Command prep, int[] resultColumnFor
         }
     }
 
+    private boolean executeCopy(String sql) throws IOException {
+        long count;
+        try {
+            PgCopy copy = new PgCopy(session, sql, getEncoding());
+            count = copy.isFrom() ? copyIn(copy) : copyOut(copy);
+        } catch (RuntimeException e) {
+            sendErrorOrCancelResponse(e);
+            return false;
+        }
+        startMessage('C');
+        writeString("COPY " + count);
+        sendMessage();
+        return true;
+    }
+
+    private long copyIn(PgCopy copy) throws IOException {
+        copy.startFrom();
+        RuntimeException failure = null;
+        try {
+            sendCopyResponse('G', copy.getColumnCount());
+            out.flush();
+            byte[] data = Utils.EMPTY_BYTES;
+            for (;;) {
+                int x = dataInRaw.read();
+                if (x < 0) {
+                    throw new EOFException();
+                }
+                int len = dataInRaw.readInt() - 4;
+                if (len > data.length) {
+                    data = Utils.newBytes(Math.max(len, 65_536));
+                }
+                dataInRaw.readFully(data, 0, len);
+                switch (x) {
+                case 'd':
+                    // CopyData
+                    if (failure == null) {
+                        try {
+                            copy.read(data, len);
+                        } catch (RuntimeException e) {
+                            failure = e;
+                        }
+                    }
+                    break;
+                case 'c':
+                    server.trace("CopyDone");
+                    if (failure == null) {
+                        return copy.finishFrom();
+                    }
+                    throw failure;
+                case 'f':
+                    dataIn = new DataInputStream(new ByteArrayInputStream(data, 0, len));
+                    String message = readString();
+                    server.trace("CopyFail " + message);
+                    if (failure == null) {
+                        failure = DbException.get(ErrorCode.GENERAL_ERROR_1, "COPY from stdin failed: " + message);
+                    }
+                    throw failure;
+                case 'H':
+                case 'S':
+                    // Flush and Sync are ignored during COPY
+                    break;
+                default:
+                    throw DbException.get(ErrorCode.GENERAL_ERROR_1,
+                            "unexpected message type " + (char) x + " during COPY from stdin");
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            copy.cancelFrom();
+            throw e;
+        }
+    }
+
+    private long copyOut(PgCopy copy) throws IOException {
+        long count = 0;
+        try (Command command = copy.prepareQuery()) {
+            setActiveRequest(command);
+            try (ResultInterface result = command.executeQuery(0, -1, false)) {
+                sendCopyResponse('H', copy.getColumnCount());
+                byte[] line = copy.formatHeader(result);
+                StringBuilder builder = new StringBuilder();
+                for (;;) {
+                    if (line != null) {
+                        // CopyData
+                        startMessage('d');
+                        write(line);
+                        sendMessage();
+                    }
+                    if (!result.next()) {
+                        break;
+                    }
+                    line = copy.formatRow(builder, result.currentRow());
+                    count++;
+                }
+            }
+        } finally {
+            setActiveRequest(null);
+        }
+        startMessage('c');
+        sendMessage();
+        return count;
+    }
+
+    private void sendCopyResponse(int type, int columnCount) throws IOException {
+        startMessage(type);
+        write(0);
+        writeShort(columnCount);
+        for (int i = 0; i < columnCount; i++) {
+            writeShort(0);
+        }
+        sendMessage();
+    }
+
     private String getSQL(String s) {
         String lower = StringUtils.toLowerEnglish(s);
         if (lower.startsWith("show max_identifier_length")) {
@@ -639,9 +761,13 @@ private void writeDataColumn(Value v, int pgType, boolean text) throws IOExcepti
                 write(data);
                 break;
             }
+            case PgServer.PG_TYPE_BOOL_ARRAY:
             case PgServer.PG_TYPE_INT2_ARRAY:
             case PgServer.PG_TYPE_INT4_ARRAY:
             case PgServer.PG_TYPE_VARCHAR_ARRAY:
+            case PgServer.PG_TYPE_INT8_ARRAY:
+            case PgServer.PG_TYPE_FLOAT4_ARRAY:
+            case PgServer.PG_TYPE_FLOAT8_ARRAY:
                 ByteArrayOutputStream baos = new ByteArrayOutputStream();
                 baos.write('{');
                 Value[] values = ((ValueArray) v).getList();
@@ -650,7 +776,15 @@ private void writeDataColumn(Value v, int pgType, boolean text) throws IOExcepti
                     if (i > 0) {
                         baos.write(',');
                     }
-                    String s = values[i].getString();
+                    Value e = values[i];
+                    String s;
+                    if (e == ValueNull.INSTANCE) {
+                        s = "NULL";
+                    } else if (e.getValueType() == Value.BOOLEAN) {
+                        s = e.getBoolean() ? "t" : "f";
+                    } else {
+                        s = e.getString();
+                    }
                     if (SHOULD_QUOTE.matcher(s).matches()) {
                         List<String> ss = new ArrayList<>();
                         for (String s0 : s.split("\\\\")) {
@@ -705,6 +839,23 @@ private void writeDataColumn(Value v, int pgType, boolean text) throws IOExcepti
                 write(data);
                 break;
             }
+            case PgServer.PG_TYPE_VARCHAR:
+            case PgServer.PG_TYPE_BPCHAR:
+            case PgServer.PG_TYPE_TEXT: {
+                byte[] data = v.getString().getBytes(getEncoding());
+                writeInt(data.length);
+                write(data);
+                break;
+            }
+            case PgServer.PG_TYPE_BOOL_ARRAY:
+            case PgServer.PG_TYPE_INT2_ARRAY:
+            case PgServer.PG_TYPE_INT4_ARRAY:
+            case PgServer.PG_TYPE_VARCHAR_ARRAY:
+            case PgServer.PG_TYPE_INT8_ARRAY:
+            case PgServer.PG_TYPE_FLOAT4_ARRAY:
+            case PgServer.PG_TYPE_FLOAT8_ARRAY:
+                writeArrayBinary((ValueArray) v, PgServer.getArrayElementType(pgType));
+                break;
             case PgServer.PG_TYPE_DATE:
                 writeInt(4);
                 writeInt((int) toPostgreDays(((ValueDate) v).getDateValue()));
@@ -742,6 +893,34 @@ private void writeDataColumn(Value v, int pgType, boolean text) throws IOExcepti
         }
     }
 
+    private void writeArrayBinary(ValueArray array, int elementType) throws IOException {
+        int start = outBuffer.size();
+        // the length is set below
+        writeInt(0);
+        Value[] values = array.getList();
+        int length = values.length;
+        boolean hasNulls = false;
+        for (Value e : values) {
+            if (e == ValueNull.INSTANCE) {
+                hasNulls = true;
+                break;
+            }
+        }
+        // number of dimensions, flags, and the type of elements
+        writeInt(length > 0 ? 1 : 0);
+        writeInt(hasNulls ? 1 : 0);
+        writeInt(elementType);
+        if (length > 0) {
+            // number of elements and the lower bound
+            writeInt(length);
+            writeInt(1);
+            for (Value e : values) {
+                writeDataColumn(e, elementType, false);
+            }
+        }
+        outBuffer.setInt(start, outBuffer.size() - start - 4);
+    }
+
     private static final int[] POWERS10 = {1, 10, 100, 1000, 10000};
     private static final int MAX_GROUP_SCALE = 4;
     private static final int MAX_GROUP_SIZE = POWERS10[4];
@@ -833,10 +1012,12 @@ private void writeTimestampBinary(long m, long nanos) throws IOException {
     }
 
     private Charset getEncoding() {
-        if ("UNICODE".equals(clientEncoding)) {
-            return StandardCharsets.UTF_8;
+        Charset encoding = this.encoding;
+        if (encoding == null) {
+            encoding = "UNICODE".equals(clientEncoding) ? StandardCharsets.UTF_8 : Charset.forName(clientEncoding);
+            this.encoding = encoding;
         }
-        return Charset.forName(clientEncoding);
+        return encoding;
     }
 
     private void setParameter(ArrayList<? extends ParameterInterface> parameters, int pgType, int i, int[] formatCodes)
@@ -880,46 +1061,119 @@ private void setParameter(ArrayList<? extends ParameterInterface> parameters, in
             value = ValueVarchar.get(str, session);
         } else {
             // binary
-            switch (pgType) {
-            case PgServer.PG_TYPE_INT2:
-                checkParamLength(2, paramLen);
-                value = ValueSmallint.get(readShort());
-                break;
-            case PgServer.PG_TYPE_INT4:
-                checkParamLength(4, paramLen);
-                value = ValueInteger.get(readInt());
-                break;
-            case PgServer.PG_TYPE_INT8:
-                checkParamLength(8, paramLen);
-                value = ValueBigint.get(dataIn.readLong());
-                break;
-            case PgServer.PG_TYPE_FLOAT4:
-                checkParamLength(4, paramLen);
-                value = ValueReal.get(dataIn.readFloat());
-                break;
-            case PgServer.PG_TYPE_FLOAT8:
-                checkParamLength(8, paramLen);
-                value = ValueDouble.get(dataIn.readDouble());
-                break;
-            case PgServer.PG_TYPE_BYTEA: {
-                byte[] d = Utils.newBytes(paramLen);
-                readFully(d);
-                value = ValueVarbinary.getNoCopy(d);
-                break;
-            }
-            case PgServer.PG_TYPE_NUMERIC:
-                value = readNumericBinary(paramLen);
-                break;
-            default:
-                server.trace("Binary format for type: "+pgType+" is unsupported");
-                byte[] d = Utils.newBytes(paramLen);
-                readFully(d);
-                value = ValueVarchar.get(new String(d, getEncoding()), session);
-            }
+            value = readBinaryValue(pgType, paramLen);
         }
         parameters.get(i).setValue(value, true);
     }
 
+    private Value readBinaryValue(int pgType, int paramLen) throws IOException {
+        switch (pgType) {
+        case PgServer.PG_TYPE_BOOL:
+            checkParamLength(1, paramLen);
+            return ValueBoolean.get(readByte() != 0);
+        case PgServer.PG_TYPE_INT2:
+            checkParamLength(2, paramLen);
+            return ValueSmallint.get(readShort());
+        case PgServer.PG_TYPE_INT4:
+            checkParamLength(4, paramLen);
+            return ValueInteger.get(readInt());
+        case PgServer.PG_TYPE_INT8:
+            checkParamLength(8, paramLen);
+            return ValueBigint.get(dataIn.readLong());
+        case PgServer.PG_TYPE_FLOAT4:
+            checkParamLength(4, paramLen);
+            return ValueReal.get(dataIn.readFloat());
+        case PgServer.PG_TYPE_FLOAT8:
+            checkParamLength(8, paramLen);
+            return ValueDouble.get(dataIn.readDouble());
+        case PgServer.PG_TYPE_BYTEA: {
+            byte[] d = Utils.newBytes(paramLen);
+            readFully(d);
+            return ValueVarbinary.getNoCopy(d);
+        }
+        case PgServer.PG_TYPE_NUMERIC:
+            return readNumericBinary(paramLen);
+        case PgServer.PG_TYPE_DATE:
+            checkParamLength(4, paramLen);
+            return ValueDate.fromDateValue(DateTimeUtils.dateValueFromAbsoluteDay(readInt() + 10_957L));
+        case PgServer.PG_TYPE_TIME:
+            checkParamLength(8, paramLen);
+            return ValueTime.fromNanos(readTimeBinary());
+        case PgServer.PG_TYPE_TIMETZ: {
+            checkParamLength(12, paramLen);
+            long nanos = readTimeBinary();
+            return ValueTimeTimeZone.fromNanos(nanos, -readInt());
+        }
+        case PgServer.PG_TYPE_TIMESTAMP:
+        case PgServer.PG_TYPE_TIMESTAMPTZ: {
+            checkParamLength(8, paramLen);
+            long micros = INTEGER_DATE_TYPES ? dataIn.readLong() : Math.round(dataIn.readDouble() * 1_000_000d);
+            long seconds = Math.floorDiv(micros, 1_000_000L);
+            long dateValue = DateTimeUtils.dateValueFromAbsoluteDay(Math.floorDiv(seconds, 86_400L) + 10_957L);
+            long nanos = Math.floorMod(seconds, 86_400L) * 1_000_000_000L
+                    + Math.floorMod(micros, 1_000_000L) * 1_000L;
+            return pgType == PgServer.PG_TYPE_TIMESTAMP ? ValueTimestamp.fromDateValueAndNanos(dateValue, nanos)
+                    : ValueTimestampTimeZone.fromDateValueAndNanos(dateValue, nanos, 0);
+        }
+        case PgServer.PG_TYPE_UUID:
+            checkParamLength(16, paramLen);
+            return ValueUuid.get(dataIn.readLong(), dataIn.readLong());
+        case PgServer.PG_TYPE_BOOL_ARRAY:
+        case PgServer.PG_TYPE_INT2_ARRAY:
+        case PgServer.PG_TYPE_INT4_ARRAY:
+        case PgServer.PG_TYPE_VARCHAR_ARRAY:
+        case PgServer.PG_TYPE_INT8_ARRAY:
+        case PgServer.PG_TYPE_FLOAT4_ARRAY:
+        case PgServer.PG_TYPE_FLOAT8_ARRAY:
+            return readArrayBinary();
+        case PgServer.PG_TYPE_VARCHAR:
+        case PgServer.PG_TYPE_BPCHAR:
+        case PgServer.PG_TYPE_TEXT:
+            break;
+        default:
+            server.trace("Binary format for type: "+pgType+" is unsupported");
+        }
+        byte[] d = Utils.newBytes(paramLen);
+        readFully(d);
+        return ValueVarchar.get(new String(d, getEncoding()), session);
+    }
+
+    private long readTimeBinary() throws IOException {
+        return INTEGER_DATE_TYPES ? dataIn.readLong() * 1_000L
+                : Math.round(dataIn.readDouble() * 1_000_000d) * 1_000L;
+    }
+
+    private Value readArrayBinary() throws IOException {
+        int dimensions = readInt();
+        // flags
+        readInt();
+        int elementType = readInt();
+        if (dimensions == 0) {
+            return ValueArray.get(Value.EMPTY_VALUES, session);
+        }
+        int[] lengths = new int[dimensions];
+        for (int i = 0; i < dimensions; i++) {
+            lengths[i] = readInt();
+            // lower bound
+            readInt();
+        }
+        return readArrayBinary(lengths, 0, elementType);
+    }
+
+    private Value readArrayBinary(int[] lengths, int dimension, int elementType) throws IOException {
+        int length = lengths[dimension];
+        Value[] values = new Value[length];
+        for (int i = 0; i < length; i++) {
+            if (dimension + 1 < lengths.length) {
+                values[i] = readArrayBinary(lengths, dimension + 1, elementType);
+            } else {
+                int len = readInt();
+                values[i] = len == -1 ? ValueNull.INSTANCE : readBinaryValue(elementType, len);
+            }
+        }
+        return ValueArray.get(values, session);
+    }
+
     private static void checkParamLength(int expected, int got) {
         if (expected != got) {
             throw DbException.getInvalidValueException("paramLen", got);
@@ -1252,23 +1506,21 @@ private void write(int b) throws IOException {
         dataOut.write(b);
     }
 
-    private void startMessage(int newMessageType) {
-        this.messageType = newMessageType;
+    private void startMessage(int newMessageType) throws IOException {
         if (outBuffer.size() <= 65_536) {
             outBuffer.reset();
         } else {
-            outBuffer = new ByteArrayOutputStream();
+            outBuffer = new MessageBuffer();
+            dataOut = new DataOutputStream(outBuffer);
         }
-        dataOut = new DataOutputStream(outBuffer);
+        write(newMessageType);
+        // the length is set in sendMessage()
+        writeInt(0);
     }
 
     private void sendMessage() throws IOException {
-        dataOut.flush();
-        dataOut = new DataOutputStream(out);
-        write(messageType);
-        writeInt(outBuffer.size() + 4);
-        write(outBuffer);
-        dataOut.flush();
+        outBuffer.setInt(1, outBuffer.size() - 1);
+        outBuffer.writeTo(out);
     }
 
     private void sendParameterStatus(String param, String value)
@@ -1309,6 +1561,31 @@ private synchronized void cancelRequest() {
         }
     }
 
+    /**
+     * The buffer of an outgoing message. It is reused for all messages.
+     */
+    private static final class MessageBuffer extends ByteArrayOutputStream {
+
+        MessageBuffer() {
+            super(1_024);
+        }
+
+        /**
+         * Overwrites the previously written integer.
+         *
+         * @param position the position of the integer
+         * @param value the new value
+         */
+        void setInt(int position, int value) {
+            byte[] b = buf;
+            b[position] = (byte) (value >>> 24);
+            b[position + 1] = (byte) (value >>> 16);
+            b[position + 2] = (byte) (value >>> 8);
+            b[position + 3] = (byte) value;
+        }
+
+    }
+
     /**
      * Represents a PostgreSQL Prepared object.
      */
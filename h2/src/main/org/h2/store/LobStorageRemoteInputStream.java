@@ -17,6 +17,16 @@
  */
 public class LobStorageRemoteInputStream extends InputStream {
 
+    /**
+     * The initial size of the read-ahead buffer.
+     */
+    private static final int MIN_WINDOW = 64 * 1024;
+
+    /**
+     * The maximum size of the read-ahead buffer.
+     */
+    private static final int MAX_WINDOW = 1024 * 1024;
+
     private final SessionRemote sessionRemote;
 
     /**
@@ -27,10 +37,17 @@ public class LobStorageRemoteInputStream extends InputStream {
     private final byte[] hmac;
 
     /**
-     * The position.
+     * The position of the next byte to fetch from the server.
      */
     private long pos;
 
+    /**
+     * The read-ahead buffer, it grows on sequential reads.
+     */
+    private byte[] buffer;
+
+    private int bufferPos, bufferLength;
+
     public LobStorageRemoteInputStream(SessionRemote handler, long lobId, byte[] hmac) {
         this.sessionRemote = handler;
         this.lobId = lobId;
@@ -55,6 +72,36 @@ public int read(byte[] buff, int off, int length) throws IOException {
         if (length == 0) {
             return 0;
         }
+        if (bufferPos == bufferLength) {
+            int window = buffer == null ? MIN_WINDOW : buffer.length;
+            if (length >= window) {
+                return fetch(buff, off, length);
+            }
+            if (buffer == null) {
+                buffer = new byte[window];
+            } else if (window < MAX_WINDOW) {
+                buffer = new byte[window * 2];
+            }
+            bufferPos = 0;
+            bufferLength = 0;
+            int l = fetch(buffer, 0, buffer.length);
+            if (l < 0) {
+                return -1;
+            }
+            bufferLength = l;
+        }
+        length = Math.min(length, bufferLength - bufferPos);
+        System.arraycopy(buffer, bufferPos, buff, off, length);
+        bufferPos += length;
+        return length;
+    }
+
+    @Override
+    public int available() {
+        return bufferLength - bufferPos;
+    }
+
+    private int fetch(byte[] buff, int off, int length) throws IOException {
         try {
             length = sessionRemote.readLob(lobId, hmac, pos, buff, off, length);
         } catch (DbException e) {
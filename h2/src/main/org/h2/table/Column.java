@@ -18,6 +18,7 @@
 import org.h2.expression.Expression;
 import org.h2.expression.ExpressionVisitor;
 import org.h2.expression.ValueExpression;
+import org.h2.index.IndexExpression;
 import org.h2.message.DbException;
 import org.h2.result.Row;
 import org.h2.schema.Domain;
@@ -79,6 +80,7 @@ public final class Column implements HasSQL, Typed, ColumnTemplate {
     private boolean primaryKey;
     private boolean visible = true;
     private boolean rowId;
+    private IndexExpression indexExpression;
     private Domain domain;
 
     /**
@@ -311,11 +313,17 @@ public int getColumnId() {
 
     @Override
     public String getSQL(int sqlFlags) {
+        if (indexExpression != null) {
+            return getSQL(new StringBuilder(), sqlFlags).toString();
+        }
         return rowId ? name : ParserBase.quoteIdentifier(name, sqlFlags);
     }
 
     @Override
     public StringBuilder getSQL(StringBuilder builder, int sqlFlags) {
+        if (indexExpression != null) {
+            return indexExpression.getSQL(builder.append('('), sqlFlags).append(')');
+        }
         return rowId ? builder.append(name) : ParserUtil.quoteIdentifier(builder, name, sqlFlags);
     }
 
@@ -383,6 +391,25 @@ public void setRowId(boolean rowId) {
         this.rowId = rowId;
     }
 
+    /**
+     * Returns the expression of an index column. Such columns don't belong to
+     * the table, their values are computed from other columns.
+     *
+     * @return the expression, or {@code null} for regular columns
+     */
+    public IndexExpression getIndexExpression() {
+        return indexExpression;
+    }
+
+    /**
+     * Set the expression of an index column.
+     *
+     * @param indexExpression the expression
+     */
+    public void setIndexExpression(IndexExpression indexExpression) {
+        this.indexExpression = indexExpression;
+    }
+
     /**
      * Validate the value, convert it if required, and update the sequence value
      * if required. If the value is null, the default value (NULL if no default
@@ -5,6 +5,7 @@
  */
 package org.h2.table;
 
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 
@@ -25,10 +26,44 @@
  */
 public class MaterializedView extends Table {
 
+    /**
+     * A committed change of a row of a base table.
+     */
+    public static final class Change {
+
+        /**
+         * The base table.
+         */
+        public final Table table;
+
+        /**
+         * The added or removed row.
+         */
+        public final Row row;
+
+        /**
+         * Whether the row was added or removed.
+         */
+        public final boolean added;
+
+        public Change(Table table, Row row, boolean added) {
+            this.table = table;
+            this.row = row;
+            this.added = added;
+        }
+
+    }
+
     private Table table;
     private String querySQL;
     private Query query;
 
+    /**
+     * Changes of the base table committed since the last refresh, or
+     * {@code null} if changes aren't captured.
+     */
+    private volatile ArrayList<Change> changes;
+
     public MaterializedView(Schema schema, int id, String name, Table table, Query query, String querySQL) {
         super(schema, id, name, false, true);
         this.table = table;
@@ -40,6 +75,7 @@ public void replace(Table table, Query query, String querySQL) {
         this.table = table;
         this.query = query;
         this.querySQL = querySQL;
+        discardChanges();
     }
 
     public Table getUnderlyingTable() {
@@ -50,6 +86,72 @@ public Query getSelect() {
         return query;
     }
 
+    /**
+     * Returns whether changes of the base table are captured for incremental
+     * refresh.
+     *
+     * @return whether changes are captured
+     */
+    public boolean isCapturingChanges() {
+        return changes != null;
+    }
+
+    /**
+     * Starts capturing of changes of the base table. Base table should be
+     * locked exclusively by the caller, so no uncommitted changes exist.
+     */
+    public synchronized void startCapturingChanges() {
+        changes = new ArrayList<>();
+    }
+
+    /**
+     * Stops capturing of changes of the base table and discards already
+     * captured changes.
+     */
+    public synchronized void discardChanges() {
+        changes = null;
+    }
+
+    /**
+     * Returns changes of the base table committed since the previous call of
+     * this method and clears them.
+     *
+     * @return the changes, or {@code null} if changes aren't captured
+     */
+    public synchronized ArrayList<Change> takeChanges() {
+        ArrayList<Change> result = changes;
+        if (result != null) {
+            changes = new ArrayList<>();
+        }
+        return result;
+    }
+
+    private synchronized void addChange(Change change) {
+        ArrayList<Change> list = changes;
+        if (list != null) {
+            if (list.size() < database.getMaxMemoryRows()) {
+                list.add(change);
+            } else {
+                // incremental refresh isn't cheaper than a full one any more
+                changes = null;
+            }
+        }
+    }
+
+    /**
+     * Publishes committed changes to materialized views which capture changes
+     * of their base tables.
+     *
+     * @param changes the changes in order of their execution
+     */
+    public static void publishChanges(List<Change> changes) {
+        for (Change change : changes) {
+            for (MaterializedView view : change.table.getDependentMaterializedViews()) {
+                view.addChange(change);
+            }
+        }
+    }
+
     @Override
     public final void close(SessionLocal session) {
         table.close(session);
@@ -210,6 +312,7 @@ public void removeChildrenAndResources(SessionLocal session) {
         table.removeChildrenAndResources(session);
         database.removeMeta(session, getId());
         querySQL = null;
+        changes = null;
         invalidate();
     }
 
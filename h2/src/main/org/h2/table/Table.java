@@ -8,6 +8,7 @@
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -26,6 +27,8 @@
 import org.h2.engine.SessionLocal;
 import org.h2.expression.ExpressionVisitor;
 import org.h2.index.Index;
+import org.h2.index.IndexExpression;
+import org.h2.index.IndexPredicate;
 import org.h2.index.IndexType;
 import org.h2.message.DbException;
 import org.h2.message.Trace;
@@ -171,6 +174,35 @@ public void unlock(SessionLocal s) {
     public abstract Index addIndex(SessionLocal session, String indexName, int indexId, IndexColumn[] cols,
             int uniqueColumnCount, IndexType indexType, boolean create, String indexComment);
 
+    /**
+     * Create a partial index or an index with expressions for this table. Only
+     * rows matching the specified predicate are stored in partial indexes.
+     *
+     * @param session the session
+     * @param indexName the name of the index
+     * @param indexId the id
+     * @param cols the index columns
+     * @param uniqueColumnCount the count of unique columns
+     * @param indexType the index type
+     * @param predicate the predicate of the index, or {@code null}
+     * @param create whether this is a new index
+     * @param indexComment the comment
+     * @return the index
+     */
+    public Index addIndex(SessionLocal session, String indexName, int indexId, IndexColumn[] cols,
+            int uniqueColumnCount, IndexType indexType, IndexPredicate predicate, boolean create,
+            String indexComment) {
+        if (predicate != null) {
+            throw DbException.getUnsupportedException("partial indexes for " + getTableType());
+        }
+        for (IndexColumn c : cols) {
+            if (c.column.getIndexExpression() != null) {
+                throw DbException.getUnsupportedException("index expressions for " + getTableType());
+            }
+        }
+        return addIndex(session, indexName, indexId, cols, uniqueColumnCount, indexType, create, indexComment);
+    }
+
     /**
      * Get the given row.
      *
@@ -632,7 +664,10 @@ public void dropMultipleColumnsConstraintsAndIndexes(SessionLocal session, Array
         for (Index index : getIndexes()) {
             if (index.getCreateSQL() != null) {
                 Boolean partiallyCovered = isPartiallyCovered(columnSetToDrop, Arrays.asList(index.getColumns()));
-                if (partiallyCovered == null) { // fully covered
+                IndexPredicate predicate = index.getPredicate();
+                if (partiallyCovered == null // fully covered
+                        || predicate != null && !Collections.disjoint(columnSetToDrop, predicate.getColumns())
+                        || isReferencedByIndexExpressions(columnSetToDrop, index)) {
                     indexesToDrop.add(index);
                 } else if (partiallyCovered) {
                     throw DbException.get(ErrorCode.COLUMN_IS_REFERENCED_1, index.getTraceSQL());
@@ -652,6 +687,16 @@ public void dropMultipleColumnsConstraintsAndIndexes(SessionLocal session, Array
         }
     }
 
+    private static boolean isReferencedByIndexExpressions(HashSet<Column> columns, Index index) {
+        for (Column column : index.getColumns()) {
+            IndexExpression expression = column.getIndexExpression();
+            if (expression != null && !Collections.disjoint(columns, expression.getColumns())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * @return null if fully covered, TRUE if partially covered, FALSE if not covered at all
      */
@@ -1093,6 +1138,35 @@ public void addDependentMaterializedView(MaterializedView view) {
         this.dependentMaterializedViews.add(view);
     }
 
+    /**
+     * Remember an added or removed row for incremental refresh of dependent
+     * materialized views. The change is published to the views when the
+     * transaction is committed.
+     *
+     * @param session the session
+     * @param row the row
+     * @param added {@code true} if the row was added, {@code false} if it was
+     *            removed
+     */
+    protected final void captureChange(SessionLocal session, Row row, boolean added) {
+        for (MaterializedView view : dependentMaterializedViews) {
+            if (view.isCapturingChanges()) {
+                session.addMaterializedViewChange(this, row, added);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Discard changes captured for incremental refresh of dependent
+     * materialized views, they will be fully refreshed next time.
+     */
+    protected final void discardCapturedChanges() {
+        for (MaterializedView view : dependentMaterializedViews) {
+            view.discardChanges();
+        }
+    }
+
     /**
      * Add a synonym to this table.
      *
@@ -1300,6 +1374,10 @@ public Index getIndexForColumn(Column column,
             if (needFindNext && !index.canFindNext()) {
                 continue;
             }
+            if (index.getPredicate() != null) {
+                // partial indexes don't contain all rows
+                continue;
+            }
             // choose the minimal covering index with the needed first
             // column to work consistently with execution plan from
             // Optimizer
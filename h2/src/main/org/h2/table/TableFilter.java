@@ -9,6 +9,7 @@
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map.Entry;
 
 import org.h2.api.ErrorCode;
@@ -18,11 +19,15 @@
 import org.h2.engine.Right;
 import org.h2.engine.SessionLocal;
 import org.h2.expression.Expression;
+import org.h2.expression.ExpressionColumn;
 import org.h2.expression.condition.Comparison;
 import org.h2.expression.condition.ConditionAndOr;
+import org.h2.index.ArrayIndex;
 import org.h2.index.Index;
 import org.h2.index.IndexCondition;
 import org.h2.index.IndexCursor;
+import org.h2.index.IndexExpression;
+import org.h2.index.TrigramIndex;
 import org.h2.message.DbException;
 import org.h2.result.Row;
 import org.h2.result.SearchRow;
@@ -240,7 +245,8 @@ public PlanItem getBestPlanItem(SessionLocal s, TableFilter[] filters, int filte
                 }
                 else {
                     int id = condition.getColumn().getColumnId();
-                    if (id >= 0) {
+                    // masks of expression columns are computed by indexes
+                    if (id >= 0 && id < len) {
                         masks[id] |= condition.getMask(indexConditions);
                     }
                 }
@@ -362,13 +368,42 @@ public void prepare() {
                     indexConditions.remove(i);
                     i--;
                 } else {
+                    int compareType = condition.getCompareType();
+                    if ((compareType == Comparison.CONTAINS_ALL) != index instanceof TrigramIndex
+                            || (compareType == Comparison.CONTAINS_ANY) != index instanceof ArrayIndex) {
+                        // Substrings and elements can be searched only in trigram and array indexes, and these
+                        // indexes can't be used for other conditions.
+                        indexConditions.remove(i);
+                        i--;
+                        continue;
+                    }
                     Column col = condition.getColumn();
                     if (col.getColumnId() >= 0) {
                         int columnIndex = index.getColumnIndex(col);
+                        if (columnIndex >= 0 && col.getIndexExpression() != null
+                                && index.getColumns()[columnIndex] != col) {
+                            // The same expression in another index
+                            indexConditions.remove(i);
+                            i--;
+                            continue;
+                        }
                         if (columnIndex == 0) {
                             // The first column of the index always matches.
                             continue;
                         }
+                        if (columnIndex < 0 && index.canSkipRowsBy(col)) {
+                            // Bounds of this column can only be used to skip rows, each value of IN()
+                            // condition would produce an own scan.
+                            switch (condition.getCompareType()) {
+                            case Comparison.IN_LIST:
+                            case Comparison.IN_ARRAY:
+                            case Comparison.IN_QUERY:
+                            case Comparison.SPATIAL_INTERSECTS:
+                                indexConditions.remove(i);
+                                i--;
+                            }
+                            continue;
+                        }
                         if (columnIndex < 0 || condition.getCompareType() == Comparison.IN_LIST ) {
                             // The index does not contain the column, or this is an IN() condition which can be used
                             // only if the first index column is the searched one.
@@ -598,6 +633,64 @@ public void addIndexCondition(IndexCondition condition) {
         indexConditions.add(condition);
     }
 
+    public ArrayList<IndexCondition> getIndexConditions() {
+        return indexConditions;
+    }
+
+    /**
+     * Get the columns of expression indexes of the table that index the
+     * specified expression. The expression matches an index expression if it
+     * references only columns of this table filter and has the same SQL
+     * without column qualifiers.
+     *
+     * @param expression the expression
+     * @return the list of matching columns, may be empty
+     */
+    public ArrayList<Column> getIndexExpressionColumns(Expression expression) {
+        ArrayList<Column> result = null;
+        List<Index> indexes = table.getIndexes();
+        if (indexes != null) {
+            String sql = null;
+            for (Index index : indexes) {
+                if (!index.hasExpressionColumns()) {
+                    continue;
+                }
+                for (Column column : index.getColumns()) {
+                    IndexExpression indexExpression = column.getIndexExpression();
+                    if (indexExpression == null) {
+                        continue;
+                    }
+                    if (sql == null) {
+                        if (!isMappedToThis(expression)) {
+                            return Utils.newSmallArrayList();
+                        }
+                        sql = expression.getUnenclosedSQL(new StringBuilder(), HasSQL.NO_QUALIFIERS).toString();
+                    }
+                    if (sql.equals(indexExpression.getSQL(new StringBuilder(), HasSQL.DEFAULT_SQL_FLAGS)
+                            .toString())) {
+                        if (result == null) {
+                            result = Utils.newSmallArrayList();
+                        }
+                        result.add(column);
+                    }
+                }
+            }
+        }
+        return result != null ? result : Utils.newSmallArrayList();
+    }
+
+    private boolean isMappedToThis(Expression expression) {
+        if (expression instanceof ExpressionColumn) {
+            return ((ExpressionColumn) expression).getTableFilter() == this;
+        }
+        for (int i = 0, l = expression.getSubexpressionCount(); i < l; i++) {
+            if (!isMappedToThis(expression.getSubexpression(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Add a filter condition.
      *
@@ -924,6 +1017,10 @@ public void removeFilterCondition() {
         this.filterCondition = null;
     }
 
+    public Expression getFullCondition() {
+        return fullCondition;
+    }
+
     public void setFullCondition(Expression condition) {
         this.fullCondition = condition;
         if (join != null) {
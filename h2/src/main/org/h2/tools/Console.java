@@ -144,6 +144,8 @@ public void runTool(String... args) throws SQLException {
                     // no parameters
                 } else if ("-tcpVirtualThreads".equals(arg)) {
                     i++;
+                } else if ("-tcpWorkers".equals(arg)) {
+                    i++;
                 } else if ("-tcpSSL".equals(arg)) {
                     // no parameters
                 } else if ("-tcpPort".equals(arg)) {
@@ -21,7 +21,15 @@
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Types;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
 import org.h2.api.ErrorCode;
 import org.h2.engine.Constants;
 import org.h2.message.DbException;
@@ -41,6 +49,14 @@
  */
 public class Csv implements SimpleRowSource {
 
+    /**
+     * The number of characters in a chunk of input parsed in parallel.
+     */
+    private static final int CHUNK_SIZE = 1 << 20;
+
+    private static final int VALUE_START = 0, UNDELIMITED = 1, COMMENT = 2, DELIMITED = 3, ESCAPED = 4,
+            DELIMITED_END = 5, AFTER_DELIMITED = 6;
+
     private String[] columnNames;
 
     private String characterSet;
@@ -51,6 +67,7 @@ public class Csv implements SimpleRowSource {
     private boolean caseSensitiveColumnNames;
     private boolean preserveWhitespace;
     private boolean writeColumnHeader = true;
+    private boolean parallel;
     private char lineComment;
     private String lineSeparator = System.lineSeparator();
     private String nullString = "";
@@ -544,44 +561,265 @@ public Object[] readRow() throws SQLException {
         if (input == null) {
             return null;
         }
+        try {
+            return readValues();
+        } catch (IOException e) {
+            throw convertException("IOException reading from " + fileName, e);
+        }
+    }
 
+    private String[] readValues() throws IOException {
         String[] row = new String[columnNames.length];
-        try {
-            int i = 0;
-            while (true) {
-                String v = readValue();
-                if (v == null) {
-                    if (endOfLine) {
-                        if (i == 0) {
-                            if (endOfFile) {
-                                return null;
-                            }
-                            // empty line
-                            continue;
+        int i = 0;
+        while (true) {
+            String v = readValue();
+            if (v == null) {
+                if (endOfLine) {
+                    if (i == 0) {
+                        if (endOfFile) {
+                            return null;
                         }
-                        break;
+                        // empty line
+                        continue;
                     }
+                    break;
+                }
+            }
+            if (i < row.length) {
+                // Empty Strings should be NULL
+                // in order to prevent conversion of zero-length String
+                // to Number
+                if (quotedNulls) {
+                    row[i++] = v != null && !v.equals(nullString)
+                            ? v
+                            : null;
+                } else {
+                    row[i++] = v;
+                }
+            }
+            if (endOfLine) {
+                break;
+            }
+        }
+        return row;
+    }
+
+    /**
+     * INTERNAL.
+     * Reads the remaining rows of the result set returned by
+     * {@link #read(String, String[], String)} or
+     * {@link #read(Reader, String[])}, and closes it. Converted rows are
+     * passed to the consumer in the current thread in the original order.
+     * By default rows are read and converted one by one. If parallel reading
+     * is enabled, input is split into chunks at record boundaries, and chunks
+     * are parsed and their rows are converted in parallel; only a few chunks
+     * per processor are kept in memory, so large inputs are still streamed.
+     *
+     * @param <T> the type of converted rows
+     * @param converter the function to convert a row, it may be invoked
+     *            concurrently from different threads
+     * @param consumer the consumer of converted rows
+     * @throws SQLException on failure
+     */
+    public <T> void readRows(Function<String[], T> converter, Consumer<? super T> consumer)
+            throws SQLException {
+        if (input == null) {
+            return;
+        }
+        if (!parallel) {
+            try {
+                for (String[] row; (row = readValues()) != null;) {
+                    consumer.accept(converter.apply(row));
                 }
-                if (i < row.length) {
-                    // Empty Strings should be NULL
-                    // in order to prevent conversion of zero-length String
-                    // to Number
-                    if (quotedNulls) {
-                        row[i++] = v != null && !v.equals(nullString)
-                                ? v
-                                : null;
+            } catch (IOException e) {
+                throw convertException("IOException reading from " + fileName, e);
+            } finally {
+                close();
+            }
+            return;
+        }
+        ArrayDeque<Future<ArrayList<T>>> pending = new ArrayDeque<>();
+        try {
+            int maxPending = ForkJoinPool.getCommonPoolParallelism() * 2;
+            char[] chunk = new char[Math.max(CHUNK_SIZE, inputBufferEnd - inputBufferPos)];
+            int length = 0;
+            // characters after the header
+            if (inputBufferPos < inputBufferEnd) {
+                length = inputBufferEnd - inputBufferPos;
+                System.arraycopy(inputBuffer, inputBufferPos, chunk, 0, length);
+            }
+            boolean eof = endOfFile;
+            while (!eof || length > 0) {
+                if (!eof && length < chunk.length) {
+                    int n = input.read(chunk, length, chunk.length - length);
+                    if (n < 0) {
+                        eof = true;
                     } else {
-                        row[i++] = v;
+                        length += n;
                     }
+                    continue;
                 }
-                if (endOfLine) {
+                int end = eof ? length : findLastRecordEnd(chunk, length);
+                if (end <= 0) {
+                    // a record longer than the chunk
+                    chunk = Arrays.copyOf(chunk, chunk.length * 2);
+                    continue;
+                }
+                Csv reader = newChunkReader(chunk, end);
+                int remaining = length - end;
+                char[] next = new char[Math.max(CHUNK_SIZE, remaining)];
+                System.arraycopy(chunk, end, next, 0, remaining);
+                chunk = next;
+                length = remaining;
+                if (eof && pending.isEmpty()) {
+                    // parse a small input in the current thread
+                    consume(reader.readChunk(converter), consumer);
                     break;
                 }
+                pending.add(ForkJoinPool.commonPool().submit(() -> reader.readChunk(converter)));
+                while (pending.size() > maxPending || !pending.isEmpty() && pending.peek().isDone()) {
+                    consume(getChunk(pending.poll()), consumer);
+                }
+            }
+            while (!pending.isEmpty()) {
+                consume(getChunk(pending.poll()), consumer);
             }
         } catch (IOException e) {
             throw convertException("IOException reading from " + fileName, e);
+        } finally {
+            for (Future<ArrayList<T>> f : pending) {
+                f.cancel(false);
+            }
+            close();
+        }
+    }
+
+    private static <T> void consume(ArrayList<T> rows, Consumer<? super T> consumer) {
+        for (T row : rows) {
+            consumer.accept(row);
         }
-        return row;
+    }
+
+    private static <T> ArrayList<T> getChunk(Future<ArrayList<T>> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Creates a reader of a chunk with the same settings and columns.
+     *
+     * @param chunk the characters, the array is owned by the new reader
+     * @param length the number of characters
+     * @return the reader of the chunk
+     */
+    private Csv newChunkReader(char[] chunk, int length) {
+        Csv reader = new Csv();
+        reader.columnNames = columnNames;
+        reader.fileName = fileName;
+        reader.escapeCharacter = escapeCharacter;
+        reader.fieldDelimiter = fieldDelimiter;
+        reader.fieldSeparatorRead = fieldSeparatorRead;
+        reader.preserveWhitespace = preserveWhitespace;
+        reader.lineComment = lineComment;
+        reader.nullString = nullString;
+        reader.quotedNulls = quotedNulls;
+        reader.input = new BufferedReader(Reader.nullReader(), 1);
+        reader.inputBuffer = chunk;
+        reader.inputBufferEnd = length;
+        return reader;
+    }
+
+    private <T> ArrayList<T> readChunk(Function<String[], T> converter) throws IOException {
+        ArrayList<T> rows = new ArrayList<>();
+        for (String[] row; (row = readValues()) != null;) {
+            rows.add(converter.apply(row));
+        }
+        return rows;
+    }
+
+    /**
+     * Finds the end of the last complete record. This method follows the
+     * rules of {@link #readValue()}, so quoted line breaks, doubled and
+     * escaped delimiters, and line comments are handled in the same way.
+     *
+     * @param chars the characters starting at the beginning of a record
+     * @param length the number of characters
+     * @return the position after the last line break that ends a record, or
+     *         -1 if there is no such line break
+     */
+    private int findLastRecordEnd(char[] chars, int length) {
+        int last = -1;
+        int state = VALUE_START;
+        for (int i = 0; i < length; i++) {
+            char ch = chars[i];
+            switch (state) {
+            case VALUE_START:
+                if (ch == fieldDelimiter) {
+                    state = DELIMITED;
+                } else if (ch == '\n' || ch == '\r') {
+                    last = i + 1;
+                } else if (ch == fieldSeparatorRead || ch <= ' ') {
+                    // null or ignored space
+                } else if (lineComment != 0 && ch == lineComment) {
+                    state = COMMENT;
+                } else {
+                    state = UNDELIMITED;
+                }
+                break;
+            case UNDELIMITED:
+            case COMMENT:
+                if (ch == '\n' || ch == '\r') {
+                    last = i + 1;
+                    state = VALUE_START;
+                } else if (state == UNDELIMITED && ch == fieldSeparatorRead) {
+                    state = VALUE_START;
+                }
+                break;
+            case DELIMITED:
+                if (ch == fieldDelimiter) {
+                    state = DELIMITED_END;
+                } else if (ch == escapeCharacter) {
+                    state = ESCAPED;
+                }
+                break;
+            case ESCAPED:
+                state = DELIMITED;
+                break;
+            case DELIMITED_END:
+                if (ch == fieldDelimiter) {
+                    // doubled delimiter
+                    state = DELIMITED;
+                    break;
+                }
+                state = AFTER_DELIMITED;
+                //$FALL-THROUGH$
+            default:
+                if (ch == fieldSeparatorRead) {
+                    state = VALUE_START;
+                } else if (ch == '\n' || ch == '\r') {
+                    last = i + 1;
+                    state = VALUE_START;
+                } else if (ch != ' ' && ch != '\t') {
+                    // the next value starts here
+                    state = VALUE_START;
+                    i--;
+                }
+            }
+        }
+        return last;
     }
 
     private static SQLException convertException(String message, Exception e) {
@@ -834,6 +1072,26 @@ public boolean getWriteColumnHeader() {
         return writeColumnHeader;
     }
 
+    /**
+     * Enable or disable parallel parsing of input in
+     * {@link #readRows(Function, Consumer)}. It may be faster for large inputs
+     * on multi-core systems. The default is false.
+     *
+     * @param value the new value for the setting
+     */
+    public void setParallel(boolean value) {
+        this.parallel = value;
+    }
+
+    /**
+     * Whether input is parsed in parallel.
+     *
+     * @return the current value for the setting
+     */
+    public boolean getParallel() {
+        return parallel;
+    }
+
     /**
      * INTERNAL.
      * Parse and set the CSV options.
@@ -873,6 +1131,8 @@ public String setOptions(String options) {
                 setPreserveWhitespace(Utils.parseBoolean(value, false, false));
             } else if (isParam(key, "writeColumnHeader")) {
                 setWriteColumnHeader(Utils.parseBoolean(value, true, false));
+            } else if (isParam(key, "parallel")) {
+                setParallel(Utils.parseBoolean(value, false, false));
             } else if (isParam(key, "caseSensitiveColumnNames")) {
                 setCaseSensitiveColumnNames(Utils.parseBoolean(value, false, false));
             } else {
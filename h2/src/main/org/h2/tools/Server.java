@@ -76,6 +76,9 @@ public Server(Service service, String... args) throws SQLException {
      * <td>Use a daemon thread</td></tr>
      * <tr><td>[-webVirtualThreads &lt;true|false&gt;]</td>
      * <td>Use virtual threads (on Java 21+ only)</td></tr>
+     * <tr><td>[-tcpWorkers &lt;count&gt;]</td>
+     * <td>Process requests with this number of worker threads
+     * instead of a thread per connection</td></tr>
      * <tr><td>[-webPort &lt;port&gt;]</td>
      * <td>The port (default: 8082)</td></tr>
      * <tr><td>[-webSSL]</td>
@@ -182,6 +185,8 @@ private void verifyArgs(String... args) throws SQLException {
                     // no parameters
                 } else if ("-tcpVirtualThreads".equals(arg)) {
                     i++;
+                } else if ("-tcpWorkers".equals(arg)) {
+                    i++;
                 } else if ("-tcpSSL".equals(arg)) {
                     // no parameters
                 } else if ("-tcpPort".equals(arg)) {
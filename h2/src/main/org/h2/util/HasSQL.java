@@ -31,6 +31,11 @@ public interface HasSQL {
      */
     int ADD_PLAN_INFORMATION = 8;
 
+    /**
+     * Don't qualify column references with schema and table names.
+     */
+    int NO_QUALIFIERS = 16;
+
     /**
      * Default flags.
      */
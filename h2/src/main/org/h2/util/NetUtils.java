@@ -13,6 +13,7 @@
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.UnknownHostException;
+import java.nio.channels.ServerSocketChannel;
 
 import org.h2.api.ErrorCode;
 import org.h2.engine.SysProperties;
@@ -173,6 +174,38 @@ public static ServerSocket createServerSocket(int port, boolean ssl) {
         }
     }
 
+    /**
+     * Create a server socket channel. The channel is in blocking mode. The
+     * bind address is set if the system property h2.bindAddress is set.
+     *
+     * @param port the port to listen on
+     * @return the server socket channel
+     */
+    public static ServerSocketChannel createServerSocketChannel(int port) {
+        try {
+            return createServerSocketChannelTry(port);
+        } catch (Exception e) {
+            // try again
+            return createServerSocketChannelTry(port);
+        }
+    }
+
+    private static ServerSocketChannel createServerSocketChannelTry(int port) {
+        ServerSocketChannel channel = null;
+        try {
+            channel = ServerSocketChannel.open();
+            channel.bind(new InetSocketAddress(getBindAddress(), port));
+            return channel;
+        } catch (BindException be) {
+            IOUtils.closeSilently(channel);
+            throw DbException.get(ErrorCode.EXCEPTION_OPENING_PORT_2,
+                    be, Integer.toString(port), be.toString());
+        } catch (IOException e) {
+            IOUtils.closeSilently(channel);
+            throw DbException.convertIOException(e, "port: " + port);
+        }
+    }
+
     /**
      * Get the bind address if the system property h2.bindAddress is set, or
      * null if not.
@@ -0,0 +1,366 @@
+/*
+ * Copyright 2004-2025 H2 Group. Multiple-Licensed under the MPL 2.0,
+ * and the EPL 1.0 (https://h2database.com/html/license.html).
+ * Initial Developer: H2 Group
+ */
+package org.h2.util.json;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * JSON binary source.
+ *
+ * <p>
+ * Each item of the binary representation starts with a type byte. Numbers are
+ * followed by the length and the normalized text of the number, strings by the
+ * length and UTF-8 encoded string. Arrays and objects are followed by the
+ * number of elements or members, the length of their content, offsets of
+ * elements or members from the start of the content, so each element is found
+ * without reading previous elements, and the content itself. Members of
+ * objects are stored in their original order, each member is the length of its
+ * name, its UTF-8 encoded name and its value. Offsets of members are followed
+ * by ordinals of members sorted by their names, members with the same name
+ * remain in their original order. These ordinals allow binary search of
+ * members by name.
+ * </p>
+ * <p>
+ * Lengths and numbers of elements or members are variable-length integers
+ * with 7 bits in each byte, the least significant bits first, and with the
+ * highest bit set in all bytes except the last one. Offsets and ordinals are
+ * big-endian integers with the smallest width of 1, 2, or 4 bytes enough for
+ * the length of the content or for the number of members of their container
+ * respectively. The width of offsets is stored in the higher bits of the type
+ * byte.
+ * </p>
+ */
+public final class JSONBinarySource {
+
+    /**
+     * The type of {@code null}.
+     */
+    static final int NULL = 0;
+
+    /**
+     * The type of {@code false}.
+     */
+    static final int FALSE = 1;
+
+    /**
+     * The type of {@code true}.
+     */
+    static final int TRUE = 2;
+
+    /**
+     * The type of numbers.
+     */
+    static final int NUMBER = 3;
+
+    /**
+     * The type of strings.
+     */
+    static final int STRING = 4;
+
+    /**
+     * The type of arrays.
+     */
+    static final int ARRAY = 5;
+
+    /**
+     * The type of objects.
+     */
+    static final int OBJECT = 6;
+
+    /**
+     * The mask of type in the type byte.
+     */
+    static final int TYPE_MASK = 0x0f;
+
+    /**
+     * The shift of width of offsets minus one in the type byte.
+     */
+    static final int WIDTH_SHIFT = 4;
+
+    /**
+     * Header of an array or an object.
+     */
+    private static final class Container {
+
+        final boolean object;
+
+        final int count;
+
+        final int width;
+
+        final int offsets;
+
+        final int ordinals;
+
+        final int content;
+
+        final int end;
+
+        Container(byte[] bytes, int offset) {
+            int b = bytes[offset];
+            object = (b & TYPE_MASK) == OBJECT;
+            width = (b >>> WIDTH_SHIFT & 3) + 1;
+            int p = offset + 1;
+            count = readVarInt(bytes, p);
+            p += getVarIntLength(count);
+            int length = readVarInt(bytes, p);
+            p += getVarIntLength(length);
+            offsets = p;
+            p += count * width;
+            ordinals = p;
+            if (object) {
+                p += count * getWidth(count);
+            }
+            content = p;
+            end = p + length;
+        }
+
+        int getOffset(byte[] bytes, int index) {
+            return content + readFixed(bytes, offsets + index * width, width);
+        }
+
+        int getOrdinal(byte[] bytes, int index) {
+            int w = getWidth(count);
+            return readFixed(bytes, ordinals + index * w, w);
+        }
+
+    }
+
+    /**
+     * Parses source bytes to a specified target.
+     *
+     * @param bytes
+     *            binary representation of JSON
+     * @param target
+     *            target
+     * @param <R>
+     *            the type of the result
+     * @return the result of the target
+     */
+    public static <R> R parse(byte[] bytes, JSONTarget<R> target) {
+        try {
+            parse(bytes, 0, target);
+        } catch (IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException(e);
+        }
+        return target.getResult();
+    }
+
+    private static void parse(byte[] bytes, int offset, JSONTarget<?> target) {
+        switch (bytes[offset] & TYPE_MASK) {
+        case NULL:
+            target.valueNull();
+            break;
+        case FALSE:
+            target.valueFalse();
+            break;
+        case TRUE:
+            target.valueTrue();
+            break;
+        case NUMBER: {
+            int length = readVarInt(bytes, ++offset);
+            target.valueNumber(new BigDecimal(new String(bytes, offset + getVarIntLength(length), length,
+                    StandardCharsets.ISO_8859_1)));
+            break;
+        }
+        case STRING: {
+            int length = readVarInt(bytes, ++offset);
+            target.valueString(new String(bytes, offset + getVarIntLength(length), length, StandardCharsets.UTF_8));
+            break;
+        }
+        case ARRAY: {
+            Container c = new Container(bytes, offset);
+            target.startArray();
+            for (int i = 0; i < c.count; i++) {
+                parse(bytes, c.getOffset(bytes, i), target);
+            }
+            target.endArray();
+            break;
+        }
+        case OBJECT: {
+            Container c = new Container(bytes, offset);
+            target.startObject();
+            for (int i = 0; i < c.count; i++) {
+                int member = c.getOffset(bytes, i);
+                int length = readVarInt(bytes, member);
+                member += getVarIntLength(length);
+                target.member(new String(bytes, member, length, StandardCharsets.UTF_8));
+                parse(bytes, member + length, target);
+            }
+            target.endObject();
+            break;
+        }
+        default:
+            throw new IllegalArgumentException();
+        }
+    }
+
+    /**
+     * Returns the item type of the specified binary representation of JSON.
+     *
+     * @param bytes
+     *            binary representation of JSON
+     * @return the item type
+     */
+    public static JSONItemType getItemType(byte[] bytes) {
+        switch (bytes[0] & TYPE_MASK) {
+        case ARRAY:
+            return JSONItemType.ARRAY;
+        case OBJECT:
+            return JSONItemType.OBJECT;
+        default:
+            return JSONItemType.SCALAR;
+        }
+    }
+
+    /**
+     * Returns the number of elements of an array.
+     *
+     * @param bytes
+     *            binary representation of JSON
+     * @return the number of elements, or -1 if it isn't an array
+     */
+    public static int getArrayLength(byte[] bytes) {
+        return (bytes[0] & TYPE_MASK) == ARRAY ? readVarInt(bytes, 1) : -1;
+    }
+
+    /**
+     * Returns the specified element of an array.
+     *
+     * @param bytes
+     *            binary representation of JSON
+     * @param index
+     *            0-based index of the element
+     * @return binary representation of the element, or {@code null} if it
+     *         isn't an array or there is no such element
+     */
+    public static byte[] getElement(byte[] bytes, int index) {
+        if ((bytes[0] & TYPE_MASK) != ARRAY) {
+            return null;
+        }
+        Container c = new Container(bytes, 0);
+        if (index < 0 || index >= c.count) {
+            return null;
+        }
+        return getItem(bytes, c.getOffset(bytes, index));
+    }
+
+    /**
+     * Returns the value of the first member of an object with the specified
+     * name. Members are found with binary search.
+     *
+     * @param bytes
+     *            binary representation of JSON
+     * @param name
+     *            the name of the member
+     * @return binary representation of the value, or {@code null} if it isn't
+     *         an object or there is no such member
+     */
+    public static byte[] getMember(byte[] bytes, String name) {
+        if ((bytes[0] & TYPE_MASK) != OBJECT) {
+            return null;
+        }
+        Container c = new Container(bytes, 0);
+        byte[] key = name.getBytes(StandardCharsets.UTF_8);
+        int low = 0, high = c.count;
+        while (low < high) {
+            int mid = low + high >>> 1;
+            if (compareName(bytes, c.getOffset(bytes, c.getOrdinal(bytes, mid)), key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        if (low < c.count) {
+            int member = c.getOffset(bytes, c.getOrdinal(bytes, low));
+            if (compareName(bytes, member, key) == 0) {
+                return getItem(bytes, member + getVarIntLength(key.length) + key.length);
+            }
+        }
+        return null;
+    }
+
+    private static int compareName(byte[] bytes, int member, byte[] key) {
+        int length = readVarInt(bytes, member);
+        int start = member + getVarIntLength(length);
+        return Arrays.compareUnsigned(bytes, start, start + length, key, 0, key.length);
+    }
+
+    private static byte[] getItem(byte[] bytes, int offset) {
+        int end;
+        switch (bytes[offset] & TYPE_MASK) {
+        case NUMBER:
+        case STRING: {
+            int length = readVarInt(bytes, offset + 1);
+            end = offset + 1 + getVarIntLength(length) + length;
+            break;
+        }
+        case ARRAY:
+        case OBJECT:
+            end = new Container(bytes, offset).end;
+            break;
+        default:
+            end = offset + 1;
+        }
+        return Arrays.copyOfRange(bytes, offset, end);
+    }
+
+    /**
+     * Returns the smallest width of big-endian integer enough for values from
+     * 0 to the specified limit, exclusive.
+     *
+     * @param limit
+     *            the limit
+     * @return 1, 2, or 4
+     */
+    static int getWidth(int limit) {
+        return limit <= 0x100 ? 1 : limit <= 0x1_0000 ? 2 : 4;
+    }
+
+    /**
+     * Returns the number of bytes of the specified variable-length integer.
+     *
+     * @param x
+     *            the non-negative value
+     * @return the number of bytes
+     */
+    static int getVarIntLength(int x) {
+        int length = 1;
+        while ((x >>>= 7) != 0) {
+            length++;
+        }
+        return length;
+    }
+
+    private static int readVarInt(byte[] bytes, int offset) {
+        int x = 0;
+        for (int shift = 0;; shift += 7) {
+            int b = bytes[offset++];
+            x |= (b & 0x7f) << shift;
+            if (b >= 0) {
+                return x;
+            }
+        }
+    }
+
+    private static int readFixed(byte[] bytes, int offset, int width) {
+        switch (width) {
+        case 1:
+            return bytes[offset] & 0xff;
+        case 2:
+            return (bytes[offset] & 0xff) << 8 | bytes[offset + 1] & 0xff;
+        default:
+            return (bytes[offset] & 0xff) << 24 | (bytes[offset + 1] & 0xff) << 16
+                    | (bytes[offset + 2] & 0xff) << 8 | bytes[offset + 3] & 0xff;
+        }
+    }
+
+    private JSONBinarySource() {
+    }
+
+}
@@ -0,0 +1,276 @@
+/*
+ * Copyright 2004-2025 H2 Group. Multiple-Licensed under the MPL 2.0,
+ * and the EPL 1.0 (https://h2database.com/html/license.html).
+ * Initial Developer: H2 Group
+ */
+package org.h2.util.json;
+
+import static org.h2.util.json.JSONBinarySource.ARRAY;
+import static org.h2.util.json.JSONBinarySource.FALSE;
+import static org.h2.util.json.JSONBinarySource.NULL;
+import static org.h2.util.json.JSONBinarySource.NUMBER;
+import static org.h2.util.json.JSONBinarySource.OBJECT;
+import static org.h2.util.json.JSONBinarySource.STRING;
+import static org.h2.util.json.JSONBinarySource.TRUE;
+import static org.h2.util.json.JSONBinarySource.WIDTH_SHIFT;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.h2.util.IntArray;
+
+/**
+ * JSON binary target. It produces the binary representation of JSON described
+ * in {@link JSONBinarySource}.
+ */
+public final class JSONBinaryTarget extends JSONTarget<byte[]> {
+
+    /**
+     * An array or an object that is being written.
+     */
+    private static final class Container {
+
+        final boolean object;
+
+        final ByteArrayOutputStream content = new ByteArrayOutputStream();
+
+        /**
+         * Offsets of elements or members in the content.
+         */
+        final IntArray offsets = new IntArray();
+
+        /**
+         * UTF-8 encoded names of members.
+         */
+        final ArrayList<byte[]> names;
+
+        Container(boolean object) {
+            this.object = object;
+            names = object ? new ArrayList<>() : null;
+        }
+
+    }
+
+    private final ByteArrayOutputStream root = new ByteArrayOutputStream();
+
+    private final ArrayList<Container> stack = new ArrayList<>();
+
+    private boolean needSeparator;
+
+    private boolean afterName;
+
+    /**
+     * Creates new instance of JSON binary target.
+     */
+    public JSONBinaryTarget() {
+    }
+
+    @Override
+    public void startObject() {
+        beforeValue();
+        afterName = false;
+        stack.add(new Container(true));
+    }
+
+    @Override
+    public void endObject() {
+        Container c = peek();
+        if (afterName || c == null || !c.object) {
+            throw new IllegalStateException();
+        }
+        stack.remove(stack.size() - 1);
+        int count = c.offsets.size();
+        ByteArrayOutputStream out = getOutput();
+        writeHeader(out, OBJECT, c);
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        // Stable sort, the first member with the same name remains first
+        ArrayList<byte[]> names = c.names;
+        Arrays.sort(order, (a, b) -> Arrays.compareUnsigned(names.get(a), names.get(b)));
+        int width = JSONBinarySource.getWidth(count);
+        for (int i = 0; i < count; i++) {
+            writeFixed(out, order[i], width);
+        }
+        byte[] content = c.content.toByteArray();
+        out.write(content, 0, content.length);
+        afterValue();
+    }
+
+    @Override
+    public void startArray() {
+        beforeValue();
+        afterName = false;
+        stack.add(new Container(false));
+    }
+
+    @Override
+    public void endArray() {
+        Container c = peek();
+        if (c == null || c.object) {
+            throw new IllegalStateException();
+        }
+        stack.remove(stack.size() - 1);
+        ByteArrayOutputStream out = getOutput();
+        writeHeader(out, ARRAY, c);
+        byte[] content = c.content.toByteArray();
+        out.write(content, 0, content.length);
+        afterValue();
+    }
+
+    @Override
+    public void member(String name) {
+        Container c = peek();
+        if (afterName || c == null || !c.object) {
+            throw new IllegalStateException();
+        }
+        afterName = true;
+        needSeparator = false;
+        byte[] b = name.getBytes(StandardCharsets.UTF_8);
+        c.offsets.add(c.content.size());
+        c.names.add(b);
+        writeVarInt(c.content, b.length);
+        c.content.write(b, 0, b.length);
+    }
+
+    @Override
+    public void valueNull() {
+        beforeValue();
+        getOutput().write(NULL);
+        afterValue();
+    }
+
+    @Override
+    public void valueFalse() {
+        beforeValue();
+        getOutput().write(FALSE);
+        afterValue();
+    }
+
+    @Override
+    public void valueTrue() {
+        beforeValue();
+        getOutput().write(TRUE);
+        afterValue();
+    }
+
+    @Override
+    public void valueNumber(BigDecimal number) {
+        beforeValue();
+        String s = number.toString();
+        int index = s.indexOf('E');
+        if (index >= 0 && s.charAt(++index) == '+') {
+            s = new StringBuilder(s.length() - 1).append(s, 0, index).append(s, index + 1, s.length()).toString();
+        }
+        writeBytes(NUMBER, s.getBytes(StandardCharsets.ISO_8859_1));
+        afterValue();
+    }
+
+    @Override
+    public void valueString(String string) {
+        beforeValue();
+        writeBytes(STRING, string.getBytes(StandardCharsets.UTF_8));
+        afterValue();
+    }
+
+    private void writeBytes(int type, byte[] b) {
+        ByteArrayOutputStream out = getOutput();
+        out.write(type);
+        writeVarInt(out, b.length);
+        out.write(b, 0, b.length);
+    }
+
+    /**
+     * Writes the type byte, the number of elements or members, the length of
+     * the content, and offsets of elements or members.
+     */
+    private static void writeHeader(ByteArrayOutputStream out, int type, Container c) {
+        int count = c.offsets.size(), length = c.content.size();
+        int width = JSONBinarySource.getWidth(length);
+        out.write(type | width - 1 << WIDTH_SHIFT);
+        writeVarInt(out, count);
+        writeVarInt(out, length);
+        for (int i = 0; i < count; i++) {
+            writeFixed(out, c.offsets.get(i), width);
+        }
+    }
+
+    private static void writeVarInt(ByteArrayOutputStream out, int x) {
+        while ((x & ~0x7f) != 0) {
+            out.write(x & 0x7f | 0x80);
+            x >>>= 7;
+        }
+        out.write(x);
+    }
+
+    private static void writeFixed(ByteArrayOutputStream out, int x, int width) {
+        switch (width) {
+        case 4:
+            out.write(x >>> 24);
+            out.write(x >>> 16);
+            //$FALL-THROUGH$
+        case 2:
+            out.write(x >>> 8);
+            //$FALL-THROUGH$
+        default:
+            out.write(x);
+        }
+    }
+
+    private Container peek() {
+        int size = stack.size();
+        return size > 0 ? stack.get(size - 1) : null;
+    }
+
+    private ByteArrayOutputStream getOutput() {
+        Container c = peek();
+        return c != null ? c.content : root;
+    }
+
+    private void beforeValue() {
+        Container c = peek();
+        if (c == null) {
+            if (root.size() > 0) {
+                throw new IllegalStateException();
+            }
+            return;
+        }
+        if (c.object) {
+            if (!afterName) {
+                throw new IllegalStateException();
+            }
+        } else {
+            c.offsets.add(c.content.size());
+        }
+        needSeparator = false;
+    }
+
+    private void afterValue() {
+        needSeparator = true;
+        afterName = false;
+    }
+
+    @Override
+    public boolean isPropertyExpected() {
+        Container c = peek();
+        return !afterName && c != null && c.object;
+    }
+
+    @Override
+    public boolean isValueSeparatorExpected() {
+        return needSeparator;
+    }
+
+    @Override
+    public byte[] getResult() {
+        if (!stack.isEmpty() || root.size() == 0) {
+            throw new IllegalStateException();
+        }
+        return root.toByteArray();
+    }
+
+}
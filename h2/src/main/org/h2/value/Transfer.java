@@ -9,6 +9,8 @@
 
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
@@ -16,6 +18,7 @@
 import java.math.BigDecimal;
 import java.net.InetAddress;
 import java.net.Socket;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -25,6 +28,7 @@
 
 import org.h2.api.ErrorCode;
 import org.h2.api.IntervalQualifier;
+import org.h2.compress.CompressLZF;
 import org.h2.engine.Constants;
 import org.h2.engine.Session;
 import org.h2.message.DbException;
@@ -51,6 +55,16 @@ public final class Transfer {
     private static final int LOB_MAGIC = 0x1234;
     private static final int LOB_MAC_SALT_LENGTH = 16;
 
+    /**
+     * Frames with rows smaller than this size aren't compressed.
+     */
+    private static final int MIN_COMPRESSED_FRAME = 256;
+
+    /**
+     * The column of a row frame with values written with their types.
+     */
+    private static final int FRAME_COLUMN_MIXED = -1;
+
     private static final int NULL = 0;
     private static final int BOOLEAN = 1;
     private static final int TINYINT = 2;
@@ -151,6 +165,17 @@ private static void addType(int typeInformationType, int valueType) {
     private int version;
     private byte[] lobMacSalt;
 
+    /**
+     * The buffer of row frames.
+     */
+    private FrameBuffer frameBuffer;
+
+    private byte[] frameData;
+
+    private byte[] compressedFrame;
+
+    private CompressLZF compress;
+
     /**
      * Create a new transfer object for the specified session.
      *
@@ -465,6 +490,16 @@ public void readBytes(byte[] buff, int off, int len) throws IOException {
         in.readFully(buff, off, len);
     }
 
+    /**
+     * Returns the number of bytes that can be read without blocking.
+     *
+     * @return the number of bytes that were already received
+     * @throws IOException on failure
+     */
+    public int available() throws IOException {
+        return in.available();
+    }
+
     /**
      * Close the transfer object and the socket.
      */
@@ -1274,6 +1309,299 @@ public Transfer writeRowCount(long rowCount) throws IOException {
                 : writeInt(rowCount < Integer.MAX_VALUE ? (int) rowCount : Integer.MAX_VALUE);
     }
 
+    /**
+     * Write a frame with rows of a result. Values of each column are written
+     * together. If all non-null values of a column have the same simple data
+     * type, the type is written once, followed by a bitmap of nulls and data
+     * of non-null values; otherwise each value is written with its type.
+     *
+     * @param rows the rows
+     * @param columnCount the number of columns
+     * @param compressFrame whether the frame should be compressed
+     * @return itself
+     * @throws IOException on failure
+     */
+    public Transfer writeRowFrame(ArrayList<Value[]> rows, int columnCount, boolean compressFrame)
+            throws IOException {
+        FrameBuffer buffer = frameBuffer;
+        if (buffer == null) {
+            frameBuffer = buffer = new FrameBuffer();
+        }
+        buffer.reset();
+        DataOutputStream socketOut = out;
+        out = buffer.dataOut;
+        try {
+            writeInt(rows.size());
+            for (int i = 0; i < columnCount; i++) {
+                writeFrameColumn(rows, i);
+            }
+        } finally {
+            out = socketOut;
+        }
+        byte[] data = buffer.getBuffer();
+        int length = buffer.size();
+        if (compressFrame && length >= MIN_COMPRESSED_FRAME) {
+            if (compress == null) {
+                compress = new CompressLZF();
+            }
+            byte[] c = compressedFrame;
+            if (c == null || c.length < length * 2) {
+                compressedFrame = c = new byte[length * 2];
+            }
+            int compressedLength = compress.compress(data, 0, length, c, 0);
+            if (compressedLength < length) {
+                writeByte((byte) 2).writeInt(length).writeInt(compressedLength);
+                out.write(c, 0, compressedLength);
+                return this;
+            }
+        }
+        writeByte((byte) 1).writeInt(length);
+        out.write(data, 0, length);
+        return this;
+    }
+
+    private void writeFrameColumn(ArrayList<Value[]> rows, int column) throws IOException {
+        int rowCount = rows.size();
+        int type = Value.UNKNOWN;
+        boolean hasNulls = false;
+        for (Value[] row : rows) {
+            Value v = row[column];
+            if (v == ValueNull.INSTANCE) {
+                hasNulls = true;
+            } else {
+                int t = v.getValueType();
+                if (type == Value.UNKNOWN) {
+                    type = t;
+                } else if (type != t) {
+                    type = Value.UNKNOWN;
+                    break;
+                }
+            }
+        }
+        if (!isFrameColumnType(type)) {
+            writeInt(FRAME_COLUMN_MIXED);
+            for (Value[] row : rows) {
+                writeValue(row[column]);
+            }
+            return;
+        }
+        writeInt(VALUE_TO_TI[type + 1]);
+        writeBoolean(hasNulls);
+        if (hasNulls) {
+            byte[] nulls = new byte[(rowCount + 7) >>> 3];
+            for (int i = 0; i < rowCount; i++) {
+                if (rows.get(i)[column] == ValueNull.INSTANCE) {
+                    nulls[i >>> 3] |= 1 << (i & 7);
+                }
+            }
+            out.write(nulls);
+        }
+        for (Value[] row : rows) {
+            Value v = row[column];
+            if (v == ValueNull.INSTANCE) {
+                continue;
+            }
+            switch (type) {
+            case Value.BOOLEAN:
+                writeBoolean(v.getBoolean());
+                break;
+            case Value.TINYINT:
+                writeByte(v.getByte());
+                break;
+            case Value.SMALLINT:
+                writeShort(v.getShort());
+                break;
+            case Value.INTEGER:
+                writeInt(v.getInt());
+                break;
+            case Value.BIGINT:
+                writeLong(v.getLong());
+                break;
+            case Value.REAL:
+                writeFloat(v.getFloat());
+                break;
+            case Value.DOUBLE:
+                writeDouble(v.getDouble());
+                break;
+            case Value.DATE:
+                writeLong(((ValueDate) v).getDateValue());
+                break;
+            case Value.TIME:
+                writeLong(((ValueTime) v).getNanos());
+                break;
+            case Value.TIMESTAMP: {
+                ValueTimestamp ts = (ValueTimestamp) v;
+                writeLong(ts.getDateValue());
+                writeLong(ts.getTimeNanos());
+                break;
+            }
+            case Value.UUID: {
+                ValueUuid uuid = (ValueUuid) v;
+                writeLong(uuid.getHigh());
+                writeLong(uuid.getLow());
+                break;
+            }
+            case Value.VARCHAR:
+            case Value.VARCHAR_IGNORECASE:
+            case Value.CHAR:
+                writeString(v.getString());
+                break;
+            default:
+                writeBytes(v.getBytesNoCopy());
+            }
+        }
+    }
+
+    private static boolean isFrameColumnType(int type) {
+        switch (type) {
+        case Value.BOOLEAN:
+        case Value.TINYINT:
+        case Value.SMALLINT:
+        case Value.INTEGER:
+        case Value.BIGINT:
+        case Value.REAL:
+        case Value.DOUBLE:
+        case Value.DATE:
+        case Value.TIME:
+        case Value.TIMESTAMP:
+        case Value.UUID:
+        case Value.VARCHAR:
+        case Value.VARCHAR_IGNORECASE:
+        case Value.CHAR:
+        case Value.BINARY:
+        case Value.VARBINARY:
+            return true;
+        default:
+            return false;
+        }
+    }
+
+    /**
+     * Read a frame with rows of a result written by
+     * {@link #writeRowFrame(ArrayList, int, boolean)}. The frame marker byte
+     * must be already read.
+     *
+     * @param compressed whether the frame is compressed
+     * @param columnTypes the data types of columns
+     * @param result the list to add rows to
+     * @return the number of read rows
+     * @throws IOException on failure
+     */
+    public int readRowFrame(boolean compressed, TypeInfo[] columnTypes, ArrayList<Value[]> result)
+            throws IOException {
+        int length = readInt();
+        byte[] data = frameData;
+        if (data == null || data.length < length) {
+            frameData = data = Utils.newBytes(length);
+        }
+        if (compressed) {
+            int compressedLength = readInt();
+            byte[] c = compressedFrame;
+            if (c == null || c.length < compressedLength) {
+                compressedFrame = c = Utils.newBytes(compressedLength);
+            }
+            in.readFully(c, 0, compressedLength);
+            if (compress == null) {
+                compress = new CompressLZF();
+            }
+            compress.expand(c, 0, compressedLength, data, 0, length);
+        } else {
+            in.readFully(data, 0, length);
+        }
+        DataInputStream socketIn = in;
+        in = new DataInputStream(new ByteArrayInputStream(data, 0, length));
+        try {
+            int rowCount = readInt(), columnCount = columnTypes.length;
+            Value[][] rows = new Value[rowCount][columnCount];
+            for (int i = 0; i < columnCount; i++) {
+                readFrameColumn(rows, i, columnTypes[i]);
+            }
+            for (Value[] row : rows) {
+                result.add(row);
+            }
+            return rowCount;
+        } finally {
+            in = socketIn;
+        }
+    }
+
+    private void readFrameColumn(Value[][] rows, int column, TypeInfo columnType) throws IOException {
+        int rowCount = rows.length;
+        int ti = readInt();
+        if (ti == FRAME_COLUMN_MIXED) {
+            for (Value[] row : rows) {
+                row[column] = readValue(columnType);
+            }
+            return;
+        }
+        int type = TI_TO_VALUE[ti + 1];
+        byte[] nulls = null;
+        if (readBoolean()) {
+            nulls = new byte[(rowCount + 7) >>> 3];
+            in.readFully(nulls);
+        }
+        for (int i = 0; i < rowCount; i++) {
+            Value v;
+            if (nulls != null && (nulls[i >>> 3] & 1 << (i & 7)) != 0) {
+                v = ValueNull.INSTANCE;
+            } else {
+                switch (type) {
+                case Value.BOOLEAN:
+                    v = ValueBoolean.get(readBoolean());
+                    break;
+                case Value.TINYINT:
+                    v = ValueTinyint.get(readByte());
+                    break;
+                case Value.SMALLINT:
+                    v = ValueSmallint.get(readShort());
+                    break;
+                case Value.INTEGER:
+                    v = ValueInteger.get(readInt());
+                    break;
+                case Value.BIGINT:
+                    v = ValueBigint.get(readLong());
+                    break;
+                case Value.REAL:
+                    v = ValueReal.get(readFloat());
+                    break;
+                case Value.DOUBLE:
+                    v = ValueDouble.get(readDouble());
+                    break;
+                case Value.DATE:
+                    v = ValueDate.fromDateValue(readLong());
+                    break;
+                case Value.TIME:
+                    v = ValueTime.fromNanos(readLong());
+                    break;
+                case Value.TIMESTAMP:
+                    v = ValueTimestamp.fromDateValueAndNanos(readLong(), readLong());
+                    break;
+                case Value.UUID:
+                    v = ValueUuid.get(readLong(), readLong());
+                    break;
+                case Value.VARCHAR:
+                    v = ValueVarchar.get(readString());
+                    break;
+                case Value.VARCHAR_IGNORECASE:
+                    v = ValueVarcharIgnoreCase.get(readString());
+                    break;
+                case Value.CHAR:
+                    v = ValueChar.get(readString());
+                    break;
+                case Value.BINARY:
+                    v = ValueBinary.getNoCopy(readBytes());
+                    break;
+                case Value.VARBINARY:
+                    v = ValueVarbinary.getNoCopy(readBytes());
+                    break;
+                default:
+                    throw DbException.get(ErrorCode.CONNECTION_BROKEN_1, "type=" + ti);
+                }
+            }
+            rows[i][column] = v;
+        }
+    }
+
     /**
      * Get the socket.
      *
@@ -1357,4 +1685,21 @@ private byte[] calculateLobMac(long lobId) {
         return SHA256.getHashWithSalt(data, lobMacSalt);
     }
 
+    /**
+     * The buffer of a row frame.
+     */
+    private static final class FrameBuffer extends ByteArrayOutputStream {
+
+        final DataOutputStream dataOut = new DataOutputStream(this);
+
+        FrameBuffer() {
+            super(BUFFER_SIZE);
+        }
+
+        byte[] getBuffer() {
+            return buf;
+        }
+
+    }
+
 }
@@ -12,8 +12,13 @@
 import java.util.Arrays;
 
 import org.h2.api.ErrorCode;
+import org.h2.engine.CastDataProvider;
+import org.h2.engine.Constants;
 import org.h2.message.DbException;
 import org.h2.util.StringUtils;
+import org.h2.util.Utils;
+import org.h2.util.json.JSONBinarySource;
+import org.h2.util.json.JSONBinaryTarget;
 import org.h2.util.json.JSONBoolean;
 import org.h2.util.json.JSONByteArrayTarget;
 import org.h2.util.json.JSONBytesSource;
@@ -27,8 +32,15 @@
 
 /**
  * Implementation of the JSON data type.
+ *
+ * <p>
+ * The value may have the normalized text representation, the binary
+ * representation described in {@link JSONBinarySource}, or both. The missing
+ * one is created on demand. Members and elements are extracted from the binary
+ * representation without parsing of the whole value.
+ * </p>
  */
-public final class ValueJson extends ValueBytesBase {
+public final class ValueJson extends Value {
 
     private static final byte[] NULL_BYTES = "null".getBytes(StandardCharsets.ISO_8859_1),
             TRUE_BYTES = "true".getBytes(StandardCharsets.ISO_8859_1),
@@ -54,15 +66,37 @@ public final class ValueJson extends ValueBytesBase {
      */
     public static final ValueJson ZERO = new ValueJson(new byte[] { '0' });
 
+    /**
+     * The normalized text representation, or {@code null}.
+     */
+    private volatile byte[] value;
+
+    /**
+     * The binary representation, or {@code null}.
+     */
+    private volatile byte[] binary;
+
+    private int hash;
+
     private volatile SoftReference<JSONValue> decompositionRef;
 
     private ValueJson(byte[] value) {
-        super(value);
+        int length = value.length;
+        if (length > Constants.MAX_STRING_LENGTH) {
+            throw DbException.getValueTooLongException(getTypeName(getValueType()),
+                    StringUtils.convertBytesToHex(value, 41), length);
+        }
+        this.value = value;
+    }
+
+    private ValueJson(byte[] value, byte[] binary) {
+        this.value = value;
+        this.binary = binary;
     }
 
     @Override
     public StringBuilder getSQL(StringBuilder builder, int sqlFlags) {
-        String s = JSONBytesSource.parse(value, new JSONStringTarget(true));
+        String s = JSONBytesSource.parse(getBytesNoCopy(), new JSONStringTarget(true));
         return builder.append("JSON '").append(s).append('\'');
     }
 
@@ -78,7 +112,71 @@ public int getValueType() {
 
     @Override
     public String getString() {
-        return new String(value, StandardCharsets.UTF_8);
+        return new String(getBytesNoCopy(), StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public byte[] getBytes() {
+        return Utils.cloneByteArray(getBytesNoCopy());
+    }
+
+    @Override
+    public byte[] getBytesNoCopy() {
+        byte[] value = this.value;
+        if (value == null) {
+            this.value = value = JSONBinarySource.parse(binary, new JSONByteArrayTarget());
+        }
+        return value;
+    }
+
+    /**
+     * Returns the binary representation of this value.
+     *
+     * @return the binary representation, must not be modified
+     * @see JSONBinarySource
+     */
+    public byte[] getBinary() {
+        byte[] binary = this.binary;
+        if (binary == null) {
+            this.binary = binary = JSONBytesSource.parse(value, new JSONBinaryTarget());
+        }
+        return binary;
+    }
+
+    /**
+     * Returns the value of the first member with the specified name if this
+     * value is a JSON object.
+     *
+     * @param name
+     *            the name of the member
+     * @return the value of the member, or {@code null} if this value isn't an
+     *         object or doesn't have such member
+     */
+    public ValueJson getMember(String name) {
+        byte[] b = JSONBinarySource.getMember(getBinary(), name);
+        return b != null ? fromBinary(b) : null;
+    }
+
+    /**
+     * Returns the specified element if this value is a JSON array.
+     *
+     * @param index
+     *            0-based index of the element
+     * @return the element, or {@code null} if this value isn't an array or
+     *         doesn't have such element
+     */
+    public ValueJson getElement(int index) {
+        byte[] b = JSONBinarySource.getElement(getBinary(), index);
+        return b != null ? fromBinary(b) : null;
+    }
+
+    /**
+     * Returns the number of elements if this value is a JSON array.
+     *
+     * @return the number of elements, or -1 if this value isn't an array
+     */
+    public int getArrayLength() {
+        return JSONBinarySource.getArrayLength(getBinary());
     }
 
     /**
@@ -87,6 +185,10 @@ public String getString() {
      * @return JSON item type
      */
     public JSONItemType getItemType() {
+        byte[] value = this.value;
+        if (value == null) {
+            return JSONBinarySource.getItemType(binary);
+        }
         switch (value[0]) {
         case '[':
             return JSONItemType.ARRAY;
@@ -106,7 +208,9 @@ public JSONValue getDecomposition() {
         SoftReference<JSONValue> decompositionRef = this.decompositionRef;
         JSONValue decomposition;
         if (decompositionRef == null || (decomposition = decompositionRef.get()) == null) {
-            decomposition = JSONBytesSource.parse(value, new JSONValueTarget());
+            byte[] value = this.value;
+            decomposition = value != null ? JSONBytesSource.parse(value, new JSONValueTarget())
+                    : JSONBinarySource.parse(binary, new JSONValueTarget());
             this.decompositionRef = new SoftReference<>(decomposition);
         }
         return decomposition;
@@ -282,13 +386,53 @@ public static ValueJson getInternal(byte[] bytes) {
         return new ValueJson(bytes);
     }
 
+    /**
+     * Returns JSON value with the specified binary representation.
+     *
+     * @param binary
+     *            binary representation
+     * @return JSON value
+     * @see JSONBinarySource
+     */
+    public static ValueJson fromBinary(byte[] binary) {
+        if (binary.length == 1) {
+            // null, true, or false
+            return getInternal(JSONBinarySource.parse(binary, new JSONByteArrayTarget()));
+        }
+        return new ValueJson(null, binary);
+    }
+
     private static ValueJson getNumber(String s) {
         return new ValueJson(s.getBytes(StandardCharsets.ISO_8859_1));
     }
 
+    @Override
+    public int compareTypeSafe(Value v, CompareMode mode, CastDataProvider provider) {
+        return Integer.signum(Arrays.compareUnsigned(getBytesNoCopy(), ((ValueJson) v).getBytesNoCopy()));
+    }
+
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0) {
+            h = getClass().hashCode() ^ Utils.getByteArrayHash(getBytesNoCopy());
+            if (h == 0) {
+                h = 1_234_570_417;
+            }
+            hash = h;
+        }
+        return h;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof ValueJson && Arrays.equals(getBytesNoCopy(), ((ValueJson) other).getBytesNoCopy());
+    }
+
     @Override
     public int getMemory() {
-        return value.length + 96;
+        byte[] value = this.value, binary = this.binary;
+        return (value != null ? value.length : 0) + (binary != null ? binary.length : 0) + 96;
     }
 
 }
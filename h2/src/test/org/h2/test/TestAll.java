@@ -32,6 +32,7 @@
 import org.h2.test.db.TestCases;
 import org.h2.test.db.TestCheckpoint;
 import org.h2.test.db.TestCluster;
+import org.h2.test.db.TestColumnarTable;
 import org.h2.test.db.TestCompatibility;
 import org.h2.test.db.TestCompatibilityOracle;
 import org.h2.test.db.TestCompatibilitySQLServer;
@@ -89,6 +90,8 @@
 import org.h2.test.db.TestView;
 import org.h2.test.db.TestViewAlterTable;
 import org.h2.test.db.TestViewDropView;
+import org.h2.test.db.TestZoneMap;
+import org.h2.test.jdbc.TestAsyncConnection;
 import org.h2.test.jdbc.TestBatchUpdates;
 import org.h2.test.jdbc.TestCachedQueryResults;
 import org.h2.test.jdbc.TestCallableStatement;
@@ -718,6 +721,7 @@ private void test() throws SQLException {
             addTest(new TestBigResult());
             addTest(new TestCases());
             addTest(new TestCheckpoint());
+            addTest(new TestColumnarTable());
             addTest(new TestCompatibility());
             addTest(new TestCompatibilityOracle());
             addTest(new TestCompatibilitySQLServer());
@@ -772,9 +776,11 @@ private void test() throws SQLException {
             addTest(new TestView());
             addTest(new TestViewAlterTable());
             addTest(new TestViewDropView());
+            addTest(new TestZoneMap());
             addTest(new TestSynonymForTable());
 
             // jdbc
+            addTest(new TestAsyncConnection());
             addTest(new TestBatchUpdates());
             addTest(new TestCallableStatement());
             addTest(new TestCancel());
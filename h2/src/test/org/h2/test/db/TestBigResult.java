@@ -54,6 +54,9 @@ public void test() throws SQLException {
         testCloseConnectionDelete();
         testOrderGroup();
         testLimitBufferedResult();
+        testTopRows();
+        testExternalSort();
+        testExternalSortOffsetFetch();
         deleteDb("bigResult");
     }
 
@@ -424,6 +427,126 @@ private void testLimitBufferedResult() throws SQLException {
         conn.close();
     }
 
+    private void testTopRows() throws SQLException {
+        deleteDb("bigResult");
+        Connection conn = getConnection("bigResult");
+        Statement stat = conn.createStatement();
+        stat.execute("CREATE TABLE TEST(ID INT PRIMARY KEY, V INT) AS "
+                + "SELECT X, MOD(X * 7919, 1000) FROM SYSTEM_RANGE(1, 10000)");
+        stat.execute("SET MAX_MEMORY_ROWS 100");
+        ResultSet rs = stat.executeQuery("SELECT V, ID FROM TEST ORDER BY V, ID OFFSET 25 ROWS FETCH FIRST 20 ROWS ONLY");
+        for (int i = 25; i < 45; i++) {
+            assertTrue(rs.next());
+            assertEquals(i / 10, rs.getInt(1));
+        }
+        assertFalse(rs.next());
+        rs = stat.executeQuery("SELECT V FROM TEST ORDER BY V DESC FETCH FIRST 15 ROWS WITH TIES");
+        for (int i = 0; i < 20; i++) {
+            assertTrue(rs.next());
+            assertEquals(999 - i / 10, rs.getInt(1));
+        }
+        assertFalse(rs.next());
+        // tied rows don't fit into memory
+        rs = stat.executeQuery("SELECT V / 500 FROM TEST ORDER BY V / 500 FETCH FIRST 3 ROWS WITH TIES");
+        for (int i = 0; i < 5000; i++) {
+            assertTrue(rs.next());
+            assertEquals(0, rs.getInt(1));
+        }
+        assertFalse(rs.next());
+        rs = stat.executeQuery("SELECT V FROM TEST UNION ALL SELECT V + 1 FROM TEST ORDER BY 1 FETCH FIRST 30 ROWS ONLY");
+        for (int i = 0; i < 30; i++) {
+            assertTrue(rs.next());
+            assertEquals(i < 10 ? 0 : i < 30 ? 1 : 2, rs.getInt(1));
+        }
+        assertFalse(rs.next());
+        conn.close();
+    }
+
+    private void testExternalSort() throws SQLException {
+        deleteDb("bigResult");
+        Connection conn = getConnection("bigResult");
+        Statement stat = conn.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
+        stat.execute("SET MAX_MEMORY_ROWS 100");
+        stat.execute("CREATE TABLE TEST(ID INT PRIMARY KEY, V INT) AS "
+                + "SELECT X, NULLIF(MOD(X * 7919, 500), 7) FROM SYSTEM_RANGE(1, 5000)");
+        ResultSet rs = stat.executeQuery("SELECT V, ID FROM TEST ORDER BY V DESC NULLS FIRST, ID");
+        for (int pass = 0; pass < 2; pass++) {
+            Integer last = null;
+            int lastId = 0, count = 0;
+            while (rs.next()) {
+                Integer v = (Integer) rs.getObject(1);
+                int id = rs.getInt(2);
+                if (count++ < 10) {
+                    assertNull(v);
+                } else {
+                    assertNotNull(v);
+                    if (last != null) {
+                        assertTrue(v <= last);
+                        if (v.equals(last)) {
+                            assertTrue(id > lastId);
+                        }
+                    }
+                }
+                last = v;
+                lastId = id;
+            }
+            assertEquals(5000, count);
+            rs.beforeFirst();
+        }
+        conn.close();
+    }
+
+    private void testExternalSortOffsetFetch() throws SQLException {
+        deleteDb("bigResult");
+        Connection conn = getConnection("bigResult");
+        Statement stat = conn.createStatement();
+        stat.execute("SET MAX_MEMORY_ROWS 100");
+        stat.execute("CREATE TABLE TEST(ID INT PRIMARY KEY, A INT, B INT) AS SELECT X, "
+                + "NULLIF(MOD(X * 7919, 37), 5), NULLIF(MOD(X * 104729, 11), 3) FROM SYSTEM_RANGE(1, 3000)");
+        Integer[][] rows = new Integer[3000][];
+        for (int i = 0; i < 3000; i++) {
+            int id = i + 1, a = id * 7919 % 37, b = id * 104729 % 11;
+            rows[i] = new Integer[] { id, a == 5 ? null : a, b == 3 ? null : b };
+        }
+        // A DESC NULLS LAST, B NULLS FIRST, ID DESC
+        Arrays.sort(rows, (r1, r2) -> {
+            int c = compareNulls(r1[1], r2[1], false, true);
+            if (c == 0) {
+                c = compareNulls(r1[2], r2[2], true, false);
+                if (c == 0) {
+                    c = r2[0].compareTo(r1[0]);
+                }
+            }
+            return c;
+        });
+        String sql = "SELECT ID, A, B FROM TEST ORDER BY A DESC NULLS LAST, B NULLS FIRST, ID DESC";
+        assertOrder(stat.executeQuery(sql), rows, 0, 3000);
+        assertOrder(stat.executeQuery(sql + " OFFSET 1234 ROWS FETCH NEXT 567 ROWS ONLY"), rows, 1234, 567);
+        assertOrder(stat.executeQuery(sql + " OFFSET 2990 ROWS FETCH NEXT 100 ROWS ONLY"), rows, 2990, 10);
+        assertOrder(stat.executeQuery(sql + " OFFSET 3000 ROWS"), rows, 3000, 0);
+        conn.close();
+    }
+
+    private static int compareNulls(Integer v1, Integer v2, boolean nullsFirst, boolean descending) {
+        if (v1 == null) {
+            return v2 == null ? 0 : nullsFirst ? -1 : 1;
+        } else if (v2 == null) {
+            return nullsFirst ? 1 : -1;
+        }
+        return descending ? v2.compareTo(v1) : v1.compareTo(v2);
+    }
+
+    private void assertOrder(ResultSet rs, Integer[][] expected, int offset, int count) throws SQLException {
+        for (int i = 0; i < count; i++) {
+            assertTrue(rs.next());
+            Integer[] row = expected[offset + i];
+            assertEquals(row[0].intValue(), rs.getInt(1));
+            assertEquals(row[1], (Integer) rs.getObject(2));
+            assertEquals(row[2], (Integer) rs.getObject(3));
+        }
+        assertFalse(rs.next());
+    }
+
     private void testOrderGroup() throws SQLException {
         deleteDb("bigResult");
         Connection conn = getConnection("bigResult");
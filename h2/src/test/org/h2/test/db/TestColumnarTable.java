@@ -0,0 +1,168 @@
+/*
+ * Copyright 2004-2025 H2 Group. Multiple-Licensed under the MPL 2.0,
+ * and the EPL 1.0 (https://h2database.com/html/license.html).
+ * Initial Developer: H2 Group
+ */
+package org.h2.test.db;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.h2.api.ErrorCode;
+import org.h2.mvstore.db.ColumnarTableEngine;
+import org.h2.test.TestBase;
+import org.h2.test.TestDb;
+
+/**
+ * Tests for the columnar table engine.
+ */
+public class TestColumnarTable extends TestDb {
+
+    private static final String ENGINE = " ENGINE \"" + ColumnarTableEngine.class.getName() + '"';
+
+    /**
+     * Run just this test.
+     *
+     * @param a ignored
+     */
+    public static void main(String... a) throws Exception {
+        TestBase.createCaller().init().testFromMain();
+    }
+
+    @Override
+    public void test() throws SQLException {
+        deleteDb("columnar");
+        testEncodings();
+        testRangeScan();
+        testModifications();
+        testPersistence();
+        testUnsupported();
+        deleteDb("columnar");
+    }
+
+    private void testEncodings() throws SQLException {
+        Connection conn = getConnection("columnar");
+        Statement stat = conn.createStatement();
+        stat.execute("CREATE TABLE R(ID INT, TS TIMESTAMP, CATEGORY VARCHAR, FLAG BOOLEAN, "
+                + "BIG BIGINT, AMOUNT NUMERIC(10, 2), D DOUBLE, NAME VARCHAR_IGNORECASE)");
+        stat.execute("INSERT INTO R SELECT X, TIMESTAMP '2020-01-01 00:00:00' + X * INTERVAL '1' MINUTE, "
+                + "'C' || MOD(X, 7), X > 1500, CASE WHEN MOD(X, 5) = 0 THEN NULL ELSE X * 1000000000000 END, "
+                + "X / 3.0, RAND(), CASE WHEN MOD(X, 2) = 0 THEN 'a' || X ELSE 'A' || X END "
+                + "FROM SYSTEM_RANGE(1, 2345)");
+        stat.execute("CREATE TABLE C(ID INT, TS TIMESTAMP, CATEGORY VARCHAR, FLAG BOOLEAN, "
+                + "BIG BIGINT, AMOUNT NUMERIC(10, 2), D DOUBLE, NAME VARCHAR_IGNORECASE)"
+                + ENGINE + " WITH \"SEGMENT_SIZE=100\"");
+        stat.execute("INSERT INTO C SELECT * FROM R");
+        assertSingleValue(stat, "SELECT COUNT(*) FROM C", 2345);
+        assertSingleValue(stat, "SELECT COUNT(*) FROM (SELECT * FROM C EXCEPT SELECT * FROM R)", 0);
+        assertSingleValue(stat, "SELECT COUNT(*) FROM (SELECT * FROM R EXCEPT SELECT * FROM C)", 0);
+        assertSingleValue(stat, "SELECT SUM(ID) FROM C", 2345 * 2346 / 2);
+        assertSingleValue(stat, "SELECT COUNT(*) FROM C WHERE BIG IS NULL", 469);
+        assertSingleValue(stat, "SELECT COUNT(*) FROM C WHERE FLAG", 845);
+        ResultSet rs = stat.executeQuery("SELECT CATEGORY, COUNT(*) FROM C GROUP BY CATEGORY ORDER BY 1");
+        for (int i = 0; i < 7; i++) {
+            assertTrue(rs.next());
+            assertEquals("C" + i, rs.getString(1));
+        }
+        assertFalse(rs.next());
+        rs = stat.executeQuery("SELECT NAME FROM C WHERE ID IN (1, 2) ORDER BY ID");
+        assertTrue(rs.next());
+        assertEquals("A1", rs.getString(1));
+        assertTrue(rs.next());
+        assertEquals("a2", rs.getString(1));
+        assertFalse(rs.next());
+        stat.execute("DROP TABLE C, R");
+        conn.close();
+    }
+
+    private void testRangeScan() throws SQLException {
+        Connection conn = getConnection("columnar");
+        Statement stat = conn.createStatement();
+        stat.execute("CREATE TABLE LOG(ID BIGINT, V INT, S VARCHAR)" + ENGINE + " WITH \"SEGMENT_SIZE=64\"");
+        stat.execute("INSERT INTO LOG SELECT X, MOD(X, 10), CASE WHEN X > 900 THEN NULL ELSE 'S' || X END "
+                + "FROM SYSTEM_RANGE(1, 1000)");
+        assertSingleValue(stat, "SELECT COUNT(*) FROM LOG WHERE ID BETWEEN 100 AND 199", 100);
+        assertSingleValue(stat, "SELECT COUNT(*) FROM LOG WHERE ID > 995", 5);
+        assertSingleValue(stat, "SELECT COUNT(*) FROM LOG WHERE ID < 5", 4);
+        assertSingleValue(stat, "SELECT COUNT(*) FROM LOG WHERE ID = 640", 1);
+        assertSingleValue(stat, "SELECT COUNT(*) FROM LOG WHERE ID IN (1, 64, 65, 999, 2000)", 4);
+        assertSingleValue(stat, "SELECT COUNT(*) FROM LOG WHERE S IS NULL", 100);
+        assertSingleValue(stat, "SELECT COUNT(*) FROM LOG WHERE S IS NULL AND ID < 950", 49);
+        assertSingleValue(stat, "SELECT COUNT(*) FROM LOG WHERE ID > 500 AND V = 3", 50);
+        assertSingleValue(stat, "SELECT COUNT(*) FROM LOG WHERE ID > 2000", 0);
+        PreparedStatement prep = conn.prepareStatement("SELECT SUM(V) FROM LOG WHERE ID >= ? AND ID < ?");
+        for (int i = 0; i < 1000; i += 97) {
+            prep.setInt(1, i);
+            prep.setInt(2, i + 50);
+            checkRangeSum(prep, i);
+        }
+        stat.execute("DROP TABLE LOG");
+        conn.close();
+    }
+
+    private void checkRangeSum(PreparedStatement prep, int from) throws SQLException {
+        long expected = 0;
+        for (int x = Math.max(from, 1); x < from + 50 && x <= 1000; x++) {
+            expected += x % 10;
+        }
+        ResultSet rs = prep.executeQuery();
+        assertTrue(rs.next());
+        assertEquals(expected, rs.getLong(1));
+    }
+
+    private void testModifications() throws SQLException {
+        Connection conn = getConnection("columnar");
+        Statement stat = conn.createStatement();
+        stat.execute("CREATE TABLE T(ID INT, NAME VARCHAR)" + ENGINE + " WITH \"SEGMENT_SIZE=10\"");
+        stat.execute("INSERT INTO T SELECT X, 'N' || X FROM SYSTEM_RANGE(1, 95)");
+        assertEquals(45, stat.executeUpdate("DELETE FROM T WHERE ID > 50"));
+        assertEquals(10, stat.executeUpdate("DELETE FROM T WHERE ID <= 10"));
+        assertSingleValue(stat, "SELECT COUNT(*) FROM T", 40);
+        assertEquals(40, stat.executeUpdate("UPDATE T SET NAME = 'X' || ID"));
+        assertSingleValue(stat, "SELECT COUNT(*) FROM T WHERE NAME LIKE 'X%'", 40);
+        assertSingleValue(stat, "SELECT MIN(ID) FROM T", 11);
+        assertSingleValue(stat, "SELECT MAX(ID) FROM T", 50);
+        stat.execute("INSERT INTO T SELECT * FROM T");
+        assertSingleValue(stat, "SELECT COUNT(*) FROM T", 80);
+        stat.execute("TRUNCATE TABLE T");
+        assertSingleValue(stat, "SELECT COUNT(*) FROM T", 0);
+        stat.execute("INSERT INTO T VALUES (1, 'A')");
+        assertSingleValue(stat, "SELECT COUNT(*) FROM T", 1);
+        stat.execute("DROP TABLE T");
+        conn.close();
+    }
+
+    private void testPersistence() throws SQLException {
+        if (config.memory) {
+            return;
+        }
+        Connection conn = getConnection("columnar");
+        Statement stat = conn.createStatement();
+        stat.execute("CREATE TABLE T(ID INT, NAME VARCHAR)" + ENGINE + " WITH \"SEGMENT_SIZE=16\"");
+        stat.execute("INSERT INTO T SELECT X, 'N' || X FROM SYSTEM_RANGE(1, 100)");
+        stat.execute("DELETE FROM T WHERE ID IN (5, 99)");
+        conn.close();
+        conn = getConnection("columnar");
+        stat = conn.createStatement();
+        assertSingleValue(stat, "SELECT COUNT(*) FROM T", 98);
+        assertSingleValue(stat, "SELECT SUM(ID) FROM T", 5050 - 5 - 99);
+        stat.execute("INSERT INTO T SELECT X, 'N' || X FROM SYSTEM_RANGE(101, 120)");
+        assertSingleValue(stat, "SELECT COUNT(*) FROM T WHERE ID > 90", 29);
+        stat.execute("DROP TABLE T");
+        conn.close();
+    }
+
+    private void testUnsupported() throws SQLException {
+        Connection conn = getConnection("columnar");
+        Statement stat = conn.createStatement();
+        stat.execute("CREATE TABLE T(ID INT, NAME VARCHAR)" + ENGINE);
+        assertThrows(ErrorCode.FEATURE_NOT_SUPPORTED_1, stat).execute("CREATE INDEX IDX ON T(ID)");
+        assertThrows(ErrorCode.FEATURE_NOT_SUPPORTED_1, stat).execute("CREATE TABLE L(ID INT, DATA BLOB)" + ENGINE);
+        stat.execute("DROP TABLE T");
+        conn.close();
+    }
+
+}
@@ -68,6 +68,7 @@ public void test() throws Exception {
         testSpaceSeparated();
         testNull();
         testRandomData();
+        testParallelRead();
         testEmptyFieldDelimiter();
         testFieldDelimiter();
         testAsTable();
@@ -385,6 +386,80 @@ private void testRandomData() throws SQLException {
         FileUtils.delete(getBaseDir() + "/test.csv");
     }
 
+    private void testParallelRead() throws Exception {
+        testParallelRead(false);
+        testParallelRead(true);
+    }
+
+    private static Csv newCsv(boolean options) {
+        Csv csv = new Csv();
+        if (options) {
+            csv.setEscapeCharacter('\\');
+            csv.setLineCommentCharacter('#');
+            csv.setFieldSeparatorRead(';');
+        }
+        return csv;
+    }
+
+    private void testParallelRead(boolean options) throws Exception {
+        Csv csv = newCsv(options);
+        String fileName = getBaseDir() + "/test.csv";
+        char sep = csv.getFieldSeparatorRead(), delim = csv.getFieldDelimiter(), esc = csv.getEscapeCharacter();
+        Random random = new Random(1);
+        StringBuilder buff = new StringBuilder("A").append(sep).append("B\n");
+        // larger than a few chunks
+        while (buff.length() < 3_000_000) {
+            for (int i = 0; i < 2; i++) {
+                if (i > 0) {
+                    buff.append(sep);
+                }
+                String v = randomData(random);
+                if (v == null) {
+                    continue;
+                }
+                if (random.nextBoolean() && v.indexOf(delim) < 0) {
+                    // an undelimited value with a delimiter inside
+                    buff.append('x').append(delim).append(v.replace(sep, ' ').replace('\r', ' ').replace('\n', ' '));
+                    continue;
+                }
+                buff.append(delim);
+                for (int j = 0; j < v.length(); j++) {
+                    char ch = v.charAt(j);
+                    if (ch == delim || ch == esc) {
+                        buff.append(esc);
+                    }
+                    buff.append(ch);
+                }
+                buff.append(delim).append(random.nextBoolean() ? " " : "");
+            }
+            buff.append(random.nextInt(10) == 0 ? "\r\n" : "\n");
+            if (csv.getLineCommentCharacter() != 0 && random.nextInt(20) == 0) {
+                buff.append("# \"comment\n");
+            }
+        }
+        try (OutputStream out = FileUtils.newOutputStream(fileName, false)) {
+            out.write(buff.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        ArrayList<String[]> expected = new ArrayList<>();
+        ResultSet rs = csv.read(fileName, null, "UTF-8");
+        while (rs.next()) {
+            expected.add(new String[] { rs.getString(1), rs.getString(2) });
+        }
+        rs.close();
+        ArrayList<String[]> actual = new ArrayList<>();
+        csv = newCsv(options);
+        csv.setParallel(true);
+        rs = csv.read(fileName, null, "UTF-8");
+        assertEquals("B", rs.getMetaData().getColumnLabel(2));
+        csv.readRows(row -> row, actual::add);
+        assertTrue(expected.size() > 10_000);
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i), actual.get(i));
+        }
+        FileUtils.delete(fileName);
+    }
+
     private static String randomData(Random random) {
         if (random.nextInt(10) == 1) {
             return null;
@@ -62,6 +62,8 @@ public void test() throws Exception {
         testPerformance(false);
         testReopen(false);
         testDropIndex(false);
+        testFullTextIndex();
+        testFullTextIndexCollation();
         if (!config.reopen) {
             try {
                 Class.forName(LUCENE_FULLTEXT_CLASS_NAME);
@@ -433,6 +435,68 @@ private void testReopen(boolean lucene) throws SQLException {
         FileUtils.deleteRecursive(getBaseDir() + "/fullTextReopen", false);
     }
 
+    private void testFullTextIndex() throws SQLException {
+        deleteDb("fullText");
+        Connection conn = getConnection("fullText");
+        Statement stat = conn.createStatement();
+        stat.execute("CREATE TABLE TEST(ID INT PRIMARY KEY, NAME VARCHAR)");
+        stat.execute("INSERT INTO TEST VALUES (1, 'Hello World'), (2, 'Hello')");
+        stat.execute("CREATE FULLTEXT INDEX TEST_FT ON TEST(NAME)");
+        // rows of uncommitted transactions aren't visible and don't conflict
+        Connection conn2 = getConnection("fullText");
+        conn2.setAutoCommit(false);
+        Statement stat2 = conn2.createStatement();
+        stat2.execute("INSERT INTO TEST VALUES (3, 'Hello World')");
+        stat.execute("INSERT INTO TEST VALUES (4, 'World')");
+        stat2.execute("UPDATE TEST SET NAME = 'Hello' WHERE ID = 1");
+        assertSingleValue(stat2, "SELECT COUNT(*) FROM FULLTEXT_SEARCH('TEST', 'world')", 2);
+        assertSingleValue(stat, "SELECT COUNT(*) FROM FULLTEXT_SEARCH('TEST', 'world')", 2);
+        conn2.commit();
+        assertSingleValue(stat, "SELECT COUNT(*) FROM FULLTEXT_SEARCH('TEST', 'world')", 2);
+        stat2.execute("DELETE FROM TEST WHERE ID = 3");
+        conn2.rollback();
+        conn2.close();
+        ResultSet rs = stat.executeQuery("SELECT ROW_KEY FROM FULLTEXT_SEARCH('TEST', 'hello world')");
+        assertTrue(rs.next());
+        assertEquals(3, rs.getInt(1));
+        assertFalse(rs.next());
+        conn.close();
+        if (config.memory) {
+            return;
+        }
+        conn = getConnection("fullText");
+        stat = conn.createStatement();
+        rs = stat.executeQuery("SELECT ROW_KEY FROM FULLTEXT_SEARCH('TEST', 'world') ORDER BY SCORE DESC, ROW_KEY");
+        assertTrue(rs.next());
+        assertEquals(4, rs.getInt(1));
+        assertTrue(rs.next());
+        assertEquals(3, rs.getInt(1));
+        assertFalse(rs.next());
+        stat.execute("INSERT INTO TEST VALUES (5, 'Hello World')");
+        assertSingleValue(stat, "SELECT COUNT(*) FROM FULLTEXT_SEARCH('TEST', '\"hello world\"')", 2);
+        stat.execute("DROP TABLE TEST");
+        conn.close();
+        deleteDb("fullText");
+    }
+
+    private void testFullTextIndexCollation() throws SQLException {
+        deleteDb("fullText");
+        Connection conn = getConnection("fullText");
+        Statement stat = conn.createStatement();
+        stat.execute("SET COLLATION ENGLISH STRENGTH PRIMARY");
+        stat.execute("CREATE TABLE TEST(ID INT PRIMARY KEY, NAME VARCHAR)");
+        stat.execute("INSERT INTO TEST VALUES (1, 'resume'), (2, 'r\u00e9sum\u00e9')");
+        stat.execute("CREATE FULLTEXT INDEX TEST_FT ON TEST(NAME)");
+        // words equal only in the database collation are different words
+        assertSingleValue(stat, "SELECT ROW_KEY FROM FULLTEXT_SEARCH('TEST', 'resume')", 1);
+        assertSingleValue(stat, "SELECT ROW_KEY FROM FULLTEXT_SEARCH('TEST', 'R\u00c9SUM\u00c9')", 2);
+        stat.execute("DELETE FROM TEST WHERE ID = 1");
+        assertSingleValue(stat, "SELECT COUNT(*) FROM FULLTEXT_SEARCH('TEST', 'resume')", 0);
+        assertSingleValue(stat, "SELECT ROW_KEY FROM FULLTEXT_SEARCH('TEST', 'r\u00e9sum\u00e9')", 2);
+        conn.close();
+        deleteDb("fullText");
+    }
+
     private void testPerformance(boolean lucene) throws SQLException {
         deleteDb("fullText");
         FileUtils.deleteRecursive(getBaseDir() + "/fullText", false);
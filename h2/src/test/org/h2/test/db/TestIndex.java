@@ -64,6 +64,10 @@ public void test() throws SQLException {
         testDescIndex();
         testHashIndex();
         testCompoundIndex_4161();
+        testPartialIndex();
+        testExpressionIndex();
+        testArrayIndex();
+        testTrigramIndexCollation();
 
         if (config.networked && config.big) {
             return;
@@ -781,6 +785,96 @@ private void testEnumIndex() throws SQLException {
         deleteDb("index");
     }
 
+    private void testPartialIndex() throws SQLException {
+        reconnect();
+        stat.execute("CREATE TABLE TEST(ID INT PRIMARY KEY, ACTIVE BOOLEAN, V INT)");
+        stat.execute("INSERT INTO TEST SELECT X, MOD(X, 100) = 0, X FROM SYSTEM_RANGE(1, 1000)");
+        stat.execute("CREATE INDEX TEST_V ON TEST(V) WHERE ACTIVE");
+        conn.setAutoCommit(false);
+        stat.execute("UPDATE TEST SET ACTIVE = TRUE WHERE ID = 1");
+        stat.execute("INSERT INTO TEST VALUES (1001, TRUE, 1001)");
+        assertSingleValue(stat, "SELECT COUNT(*) FROM TEST WHERE ACTIVE AND V > 0", 12);
+        conn.rollback();
+        conn.setAutoCommit(true);
+        assertSingleValue(stat, "SELECT COUNT(*) FROM TEST WHERE ACTIVE AND V > 0", 10);
+        reconnect();
+        // the predicate is mapped again when the index is opened
+        stat.execute("INSERT INTO TEST VALUES (1001, TRUE, 1001)");
+        stat.execute("UPDATE TEST SET ACTIVE = FALSE WHERE ID = 100");
+        assertSingleValue(stat, "SELECT COUNT(*) FROM TEST WHERE ACTIVE AND V > 0", 10);
+        assertSingleValue(stat, "SELECT COUNT(*) FROM TEST USE INDEX (TEST_V) WHERE ACTIVE AND V > 0", 10);
+        stat.execute("DROP TABLE TEST");
+        conn.close();
+        conn = null;
+    }
+
+    private void testExpressionIndex() throws SQLException {
+        reconnect();
+        stat.execute("CREATE TABLE TEST(ID INT PRIMARY KEY, EMAIL VARCHAR)");
+        stat.execute("INSERT INTO TEST SELECT X, 'User' || X || '@Example.com' FROM SYSTEM_RANGE(1, 1000)");
+        stat.execute("CREATE UNIQUE INDEX TEST_EMAIL ON TEST((LOWER(EMAIL)))");
+        conn.setAutoCommit(false);
+        stat.execute("UPDATE TEST SET EMAIL = 'Changed@Example.com' WHERE ID = 1");
+        assertSingleValue(stat, "SELECT ID FROM TEST WHERE LOWER(EMAIL) = 'changed@example.com'", 1);
+        conn.rollback();
+        conn.setAutoCommit(true);
+        assertSingleValue(stat, "SELECT COUNT(*) FROM TEST WHERE LOWER(EMAIL) = 'changed@example.com'", 0);
+        reconnect();
+        // the expression is mapped again when the index is opened
+        assertSingleValue(stat, "SELECT ID FROM TEST WHERE LOWER(EMAIL) = 'user5@example.com'", 5);
+        assertThrows(ErrorCode.DUPLICATE_KEY_1, stat).execute("INSERT INTO TEST VALUES (1001, 'USER5@EXAMPLE.COM')");
+        stat.execute("DROP TABLE TEST");
+        conn.close();
+        conn = null;
+    }
+
+    private void testArrayIndex() throws SQLException {
+        deleteDb("indexArray");
+        // index entries are sorted in several buffers
+        String url = "indexArray;MAX_MEMORY_ROWS=1000";
+        Connection conn = getConnection(url);
+        Statement stat = conn.createStatement();
+        stat.execute("CREATE TABLE TEST(ID INT PRIMARY KEY, TAGS VARCHAR ARRAY)");
+        stat.execute("INSERT INTO TEST SELECT X, ARRAY['t' || MOD(X, 100), 'u' || MOD(X, 7), 't' || MOD(X, 100)]"
+                + " FROM SYSTEM_RANGE(1, 5000)");
+        stat.execute("CREATE ARRAY INDEX TEST_TAGS ON TEST(TAGS)");
+        conn.setAutoCommit(false);
+        stat.execute("UPDATE TEST SET TAGS = ARRAY['changed'] WHERE ID = 1");
+        assertSingleValue(stat, "SELECT ID FROM TEST WHERE 'changed' = ANY(TAGS)", 1);
+        conn.rollback();
+        conn.setAutoCommit(true);
+        assertSingleValue(stat, "SELECT COUNT(*) FROM TEST WHERE 'changed' = ANY(TAGS)", 0);
+        conn.close();
+        conn = getConnection(url);
+        stat = conn.createStatement();
+        assertSingleValue(stat, "SELECT COUNT(*) FROM TEST WHERE 't5' = ANY(TAGS)", 50);
+        assertSingleValue(stat, "SELECT COUNT(*) FROM TEST WHERE TAGS && ARRAY['t5', 'u0', 'missing']", 757);
+        stat.execute("DELETE FROM TEST WHERE ID <= 100");
+        assertSingleValue(stat, "SELECT COUNT(*) FROM TEST WHERE 't5' = ANY(TAGS)", 49);
+        conn.close();
+        deleteDb("indexArray");
+    }
+
+    private void testTrigramIndexCollation() throws SQLException {
+        deleteDb("indexTrigram");
+        Connection conn = getConnection("indexTrigram");
+        Statement stat = conn.createStatement();
+        stat.execute("SET COLLATION ENGLISH STRENGTH PRIMARY");
+        stat.execute("CREATE TABLE TEST(ID INT PRIMARY KEY, NAME VARCHAR)");
+        stat.execute("INSERT INTO TEST SELECT X, 'res' || X FROM SYSTEM_RANGE(1, 100)");
+        stat.execute("INSERT INTO TEST VALUES (101, 'r\u00e9s')");
+        stat.execute("CREATE TRIGRAM INDEX TEST_NAME ON TEST(NAME)");
+        // trigrams equal only in the database collation are different entries
+        ResultSet rs = stat.executeQuery("EXPLAIN ANALYZE SELECT ID FROM TEST WHERE NAME REGEXP 'r\u00e9s'");
+        rs.next();
+        assertContains(rs.getString(1), "PUBLIC.TEST_NAME");
+        assertContains(rs.getString(1), "scanCount: 2 ");
+        assertSingleValue(stat, "SELECT ID FROM TEST WHERE NAME REGEXP 'r\u00e9s'", 101);
+        assertSingleValue(stat, "SELECT COUNT(*) FROM TEST WHERE NAME REGEXP 'res'", 100);
+        conn.close();
+        deleteDb("indexTrigram");
+    }
+
     // Pick the better index when there are two competing indexes that both cover the required columns
     //
     // https://github.com/h2database/h2database/issues/4161
@@ -40,6 +40,7 @@
 import org.h2.test.TestBase;
 import org.h2.test.TestDb;
 import org.h2.tools.Recover;
+import org.h2.tools.Server;
 import org.h2.tools.SimpleResultSet;
 import org.h2.util.IOUtils;
 import org.h2.util.JdbcUtils;
@@ -107,6 +108,7 @@ public void test() throws Exception {
         testConvert();
         testCreateAsSelect();
         testLobServerMemory();
+        testLobStreaming();
         testUpdatingLobRow();
         testBufferedInputStreamBug();
         if (config.memory) {
@@ -636,6 +638,43 @@ private void testLobServerMemory() throws SQLException {
         conn.close();
     }
 
+    private void testLobStreaming() throws Exception {
+        deleteDb("lob");
+        Server server = Server.createTcpServer("-ifNotExists", "-baseDir", getBaseDir()).start();
+        try (Connection conn = getConnection("jdbc:h2:tcp://localhost:" + server.getPort() + "/lob")) {
+            Statement stat = conn.createStatement();
+            stat.execute("CREATE TABLE TEST(ID INT PRIMARY KEY, DATA BLOB)");
+            byte[] data = new byte[3_000_000];
+            new Random(1).nextBytes(data);
+            PreparedStatement prep = conn.prepareStatement("INSERT INTO TEST VALUES(1, ?)");
+            prep.setBytes(1, data);
+            prep.execute();
+            ResultSet rs = stat.executeQuery("SELECT DATA FROM TEST");
+            rs.next();
+            // small reads are served from the read-ahead buffer
+            byte[] read = new byte[data.length];
+            try (InputStream in = rs.getBinaryStream(1)) {
+                for (int pos = 0, l; pos < read.length; pos += l) {
+                    l = in.read(read, pos, Math.min(1000, read.length - pos));
+                    assertTrue(l > 0);
+                }
+                assertEquals(-1, in.read());
+            }
+            assertEquals(data, read);
+            // large reads are streamed into the buffer of the caller
+            try (InputStream in = rs.getBlob(1).getBinaryStream()) {
+                assertEquals(data.length, IOUtils.readFully(in, read, read.length));
+            }
+            assertEquals(data, read);
+            Blob b = rs.getBlob(1);
+            assertEquals(Arrays.copyOfRange(data, 2_000_000, 2_100_000), b.getBytes(2_000_001, 100_000));
+            b.free();
+            stat.execute("DROP TABLE TEST");
+        } finally {
+            server.stop();
+        }
+    }
+
     private void testLobVariable() throws SQLException {
         deleteDb("lob");
         Connection conn = reconnect(null);
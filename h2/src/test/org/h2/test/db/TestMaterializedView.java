@@ -9,6 +9,7 @@
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.h2.api.ErrorCode;
 import org.h2.test.TestBase;
@@ -19,6 +20,8 @@
  */
 public class TestMaterializedView extends TestDb {
 
+    private static final AtomicInteger CALLS = new AtomicInteger();
+
     /**
      * Run just this test.
      *
@@ -32,6 +35,8 @@ public static void main(String... a) throws Exception {
     public void test() throws SQLException {
         deleteDb("materializedview");
         test1();
+        testIncremental();
+        testIncrementalAfterCreate();
         deleteDb("materializedview");
     }
 
@@ -65,4 +70,116 @@ private void test1() throws SQLException {
         conn.close();
     }
 
+    private void testIncremental() throws SQLException {
+        deleteDb("materializedview");
+        Connection conn = getConnection("materializedview");
+        Statement stat = conn.createStatement();
+        stat.execute("create table test(id int primary key, g int, x int)");
+        stat.execute("insert into test select x, mod(x, 3), x from system_range(1, 10)");
+        stat.execute("create materialized view v1 as select id, x * 2 d from test where x > 3");
+        stat.execute("create materialized view v2 as select g, count(*) c, sum(x) s, min(x) mi, max(x) ma, "
+                + "count(x) cx from test group by g");
+        stat.execute("refresh materialized view v1 incremental");
+        stat.execute("refresh materialized view v2 incremental");
+        // rows of the view are keyed by keys of base rows
+        assertSingleValue(stat, "select count(*) from v1 where _rowid_ <> id", 0);
+        stat.execute("insert into test values (0, 5, 100), (11, 1, null), (12, 1, 50)");
+        stat.execute("delete from test where id in (3, 4, 6, 9)");
+        stat.execute("update test set x = x + 1 where id in (1, 2, 5)");
+        Connection conn2 = getConnection("materializedview");
+        conn2.setAutoCommit(false);
+        Statement stat2 = conn2.createStatement();
+        stat2.execute("insert into test values (20, 7, 7)");
+        stat2.execute("update test set x = 60 where id = 12");
+        conn2.rollback();
+        stat2.execute("insert into test values (21, 8, 8)");
+        conn2.setSavepoint();
+        stat2.execute("insert into test values (22, 8, 9)");
+        conn2.rollback(conn2.setSavepoint());
+        conn2.commit();
+        conn2.close();
+        stat.execute("refresh materialized view v1 incremental");
+        stat.execute("refresh materialized view v2 incremental");
+        assertIncrementalResult(stat);
+        stat.execute("delete from test where g = 8");
+        stat.execute("refresh materialized view v1 incremental");
+        stat.execute("refresh materialized view v2 incremental");
+        assertIncrementalResult(stat);
+        stat.execute("update test set g = 8, x = null where id = 12");
+        stat.execute("refresh materialized view v1 incremental");
+        stat.execute("refresh materialized view v2 incremental");
+        assertIncrementalResult(stat);
+        // full refresh and TRUNCATE discard captured changes
+        stat.execute("refresh materialized view v1");
+        stat.execute("insert into test values (30, 1, 30)");
+        stat.execute("refresh materialized view v1 incremental");
+        stat.execute("refresh materialized view v2 incremental");
+        assertIncrementalResult(stat);
+        stat.execute("truncate table test");
+        stat.execute("insert into test values (31, 1, 31)");
+        stat.execute("refresh materialized view v1 incremental");
+        stat.execute("refresh materialized view v2 incremental");
+        assertIncrementalResult(stat);
+        stat.execute("drop materialized view v1");
+        stat.execute("drop materialized view v2");
+        stat.execute("drop table test");
+        conn.close();
+    }
+
+    private void testIncrementalAfterCreate() throws SQLException {
+        deleteDb("materializedview");
+        Connection conn = getConnection("materializedview");
+        Statement stat = conn.createStatement();
+        stat.execute("create table test(id int primary key, g int, x int)");
+        stat.execute("insert into test select x, mod(x, 10), x from system_range(1, 1000)");
+        stat.execute("create alias f deterministic for '" + getClass().getName() + ".count'");
+        stat.execute("create materialized view v1 as select id, f(x) d from test where x > 3");
+        stat.execute("create materialized view v2 as select g, count(*) c, max(f(x)) m from test group by g");
+        // rows of the view are keyed by keys of base rows after creation
+        assertSingleValue(stat, "select count(*) from v1 where _rowid_ <> id", 0);
+        // grouping columns are indexed
+        assertSingleValue(stat, "select count(*) from information_schema.index_columns "
+                + "where table_name = 'V2$1' and column_name = 'G'", 1);
+        stat.execute("insert into test values (1001, 1, 1001)");
+        stat.execute("delete from test where id = 10");
+        CALLS.set(0);
+        stat.execute("refresh materialized view v1 incremental");
+        stat.execute("refresh materialized view v2 incremental");
+        // the first refresh after creation applies only the changes
+        assertEquals(3, CALLS.get());
+        assertSingleValue(stat, "select count(*) from (select * from v1 except select id, x from test "
+                + "where x > 3)", 0);
+        assertSingleValue(stat, "select count(*) from (select * from v2 except select g, count(*), max(x) "
+                + "from test group by g)", 0);
+        assertSingleValue(stat, "select count(*) from v2", 10);
+        stat.execute("drop materialized view v1");
+        stat.execute("drop materialized view v2");
+        stat.execute("drop table test");
+        stat.execute("drop alias f");
+        conn.close();
+    }
+
+    private void assertIncrementalResult(Statement stat) throws SQLException {
+        assertSingleValue(stat, "select count(*) from (select * from v1 except select id, x * 2 from test "
+                + "where x > 3)", 0);
+        assertSingleValue(stat, "select count(*) from (select id, x * 2 from test where x > 3 "
+                + "except select * from v1)", 0);
+        assertSingleValue(stat, "select count(*) from v1 where _rowid_ <> id and id <> 0", 0);
+        assertSingleValue(stat, "select count(*) from (select * from v2 except select g, count(*), sum(x), min(x), "
+                + "max(x), count(x) from test group by g)", 0);
+        assertSingleValue(stat, "select count(*) from (select g, count(*), sum(x), min(x), max(x), count(x) "
+                + "from test group by g except select * from v2)", 0);
+    }
+
+    /**
+     * This method is called via reflection from the database.
+     *
+     * @param v the value
+     * @return the same value
+     */
+    public static Integer count(Integer v) {
+        CALLS.incrementAndGet();
+        return v;
+    }
+
 }
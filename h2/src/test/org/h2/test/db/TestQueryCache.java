@@ -9,6 +9,7 @@
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.h2.api.ErrorCode;
 import org.h2.test.TestBase;
@@ -19,6 +20,8 @@
  */
 public class TestQueryCache extends TestDb {
 
+    private static final AtomicInteger CALLS = new AtomicInteger();
+
     /**
      * Run just this test.
      *
@@ -33,6 +36,8 @@ public void test() throws Exception {
         deleteDb("queryCache");
         test1();
         testClearingCacheWithTableStructureChanges();
+        testQueryResultCache();
+        testQueryResultCacheTimeZone();
         deleteDb("queryCache");
     }
 
@@ -107,4 +112,115 @@ private void testClearingCacheWithTableStructureChanges() throws Exception {
                     prepareStatement("SELECT * FROM TEST");
         }
     }
+
+    private void testQueryResultCache() throws Exception {
+        deleteDb("queryCache");
+        try (Connection conn = getConnection("queryCache"); Connection conn2 = getConnection("queryCache")) {
+            Statement stat = conn.createStatement();
+            stat.execute("create table test(id int primary key, v int)");
+            stat.execute("insert into test values (1, 10), (2, 20)");
+            stat.execute("create alias f deterministic for '" + getClass().getName() + ".count'");
+            String sql = "select sum(f(v)) from test where id > ?";
+            PreparedStatement prep = conn.prepareStatement(sql);
+            PreparedStatement prep2 = conn2.prepareStatement(sql);
+            // disabled by default
+            assertQueryResult(prep, 0, 30, 2);
+            assertQueryResult(prep2, 0, 30, 2);
+            stat.execute("set query_result_cache_size 1024");
+            stat.execute("update test set v = 10 where id = 1");
+            assertQueryResult(prep, 0, 30, 2);
+            // served from the cache for the same user, query and parameters
+            assertQueryResult(prep2, 0, 30, 0);
+            assertQueryResult(prep2, 1, 20, 1);
+            assertQueryResult(conn.prepareStatement(sql), 1, 20, 0);
+            // uncommitted changes aren't visible to other sessions
+            conn2.setAutoCommit(false);
+            conn2.createStatement().execute("insert into test values (3, 30)");
+            assertQueryResult(prep2, 0, 60, 3);
+            assertQueryResult(prep, 0, 30, 0);
+            conn2.commit();
+            assertQueryResult(prep, 0, 60, 3);
+            assertQueryResult(prep2, 0, 60, 0);
+            conn2.setAutoCommit(true);
+            stat.execute("update test set v = 0 where id = 1");
+            assertQueryResult(prep2, 0, 50, 3);
+            assertQueryResult(prep, 0, 50, 0);
+            stat.execute("set query_result_cache_size 0");
+            stat.execute("update test set v = 1 where id = 1");
+            assertQueryResult(prep, 0, 51, 3);
+            assertQueryResult(prep2, 0, 51, 3);
+        }
+        deleteDb("queryCache");
+    }
+
+    private void testQueryResultCacheTimeZone() throws Exception {
+        deleteDb("queryCache");
+        try (Connection conn = getConnection("queryCache"); Connection conn2 = getConnection("queryCache")) {
+            Statement stat = conn.createStatement();
+            Statement stat2 = conn2.createStatement();
+            stat.execute("create table test(id int primary key, v int)");
+            stat.execute("insert into test values (1, 10), (2, 20)");
+            stat.execute("create alias f deterministic for '" + getClass().getName() + ".count'");
+            stat.execute("set query_result_cache_size 1024");
+            stat.execute("set time zone '+00:00'");
+            stat2.execute("set time zone '+05:00'");
+            String sql = "select sum(f(v)), cast(timestamp with time zone '2020-01-01 00:00:00+00:00' as timestamp)"
+                    + " from test where id > ?";
+            PreparedStatement prep = conn.prepareStatement(sql);
+            PreparedStatement prep2 = conn2.prepareStatement(sql);
+            assertTimestampResult(prep, "2020-01-01 00:00:00", 2);
+            // the same query in another time zone isn't served from the cache
+            assertTimestampResult(prep2, "2020-01-01 05:00:00", 2);
+            assertTimestampResult(prep2, "2020-01-01 05:00:00", 0);
+            assertTimestampResult(prep, "2020-01-01 00:00:00", 0);
+            // SET invalidates all cached results
+            stat2.execute("set time zone '+00:00'");
+            assertTimestampResult(prep2, "2020-01-01 00:00:00", 2);
+            assertTimestampResult(prep, "2020-01-01 00:00:00", 0);
+            // results of non-deterministic queries aren't cached
+            sql = "select sum(f(v)), localtimestamp from test where id > ?";
+            prep = conn.prepareStatement(sql);
+            prep2 = conn2.prepareStatement(sql);
+            assertTimestampResult(prep, null, 2);
+            assertTimestampResult(prep2, null, 2);
+        }
+        deleteDb("queryCache");
+    }
+
+    private void assertTimestampResult(PreparedStatement prep, String expected, int expectedCalls)
+            throws Exception {
+        CALLS.set(0);
+        prep.setInt(1, 0);
+        try (ResultSet rs = prep.executeQuery()) {
+            assertTrue(rs.next());
+            assertEquals(30, rs.getInt(1));
+            if (expected != null) {
+                assertEquals(expected, rs.getString(2));
+            }
+        }
+        assertEquals(expectedCalls, CALLS.get());
+    }
+
+    private void assertQueryResult(PreparedStatement prep, int id, int expected, int expectedCalls)
+            throws Exception {
+        CALLS.set(0);
+        prep.setInt(1, id);
+        try (ResultSet rs = prep.executeQuery()) {
+            assertTrue(rs.next());
+            assertEquals(expected, rs.getInt(1));
+        }
+        assertEquals(expectedCalls, CALLS.get());
+    }
+
+    /**
+     * This method is called via reflection from the database.
+     *
+     * @param v the value
+     * @return the same value
+     */
+    public static int count(int v) {
+        CALLS.incrementAndGet();
+        return v;
+    }
+
 }
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2004-2025 H2 Group. Multiple-Licensed under the MPL 2.0,
+ * and the EPL 1.0 (https://h2database.com/html/license.html).
+ * Initial Developer: H2 Group
+ */
+package org.h2.test.db;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+
+import org.h2.api.ErrorCode;
+import org.h2.test.TestBase;
+import org.h2.test.TestDb;
+
+/**
+ * Tests zone maps of the primary index.
+ */
+public class TestZoneMap extends TestDb {
+
+    /**
+     * Run just this test.
+     *
+     * @param a ignored
+     */
+    public static void main(String... a) throws Exception {
+        TestBase.createCaller().init().testFromMain();
+    }
+
+    @Override
+    public void test() throws SQLException {
+        deleteDb("zoneMap");
+        testRangeScan();
+        testModifications();
+        testPrimaryKey();
+        testPersistence();
+        testInvalidParameter();
+        deleteDb("zoneMap");
+    }
+
+    private void testRangeScan() throws SQLException {
+        Connection conn = getConnection("zoneMap");
+        Statement stat = conn.createStatement();
+        stat.execute("CREATE TABLE LOG(TS TIMESTAMP, V INT, S VARCHAR) WITH \"ZONE_MAP=64\"");
+        stat.execute("INSERT INTO LOG SELECT TIMESTAMP '2020-01-01 00:00:00' + X * INTERVAL '1' SECOND, "
+                + "MOD(X, 10), CASE WHEN X > 900 THEN NULL ELSE 'S' || X END FROM SYSTEM_RANGE(1, 1000)");
+        assertSingleValue(stat, "SELECT COUNT(*) FROM LOG WHERE TS BETWEEN "
+                + "TIMESTAMP '2020-01-01 00:01:40' AND TIMESTAMP '2020-01-01 00:03:19'", 100);
+        assertScanCount(stat, "SELECT * FROM LOG WHERE TS BETWEEN "
+                + "TIMESTAMP '2020-01-01 00:01:40' AND TIMESTAMP '2020-01-01 00:03:19'", 192);
+        assertSingleValue(stat, "SELECT COUNT(*) FROM LOG WHERE TS > TIMESTAMP '2020-01-01 00:16:35'", 5);
+        assertSingleValue(stat, "SELECT COUNT(*) FROM LOG WHERE TS < TIMESTAMP '2020-01-01 00:00:05'", 4);
+        assertSingleValue(stat, "SELECT COUNT(*) FROM LOG WHERE S IS NULL", 100);
+        assertScanCount(stat, "SELECT * FROM LOG WHERE S IS NULL", 105);
+        assertSingleValue(stat, "SELECT COUNT(*) FROM LOG WHERE V IN (1, 2) AND S IS NULL", 20);
+        assertSingleValue(stat, "SELECT COUNT(*) FROM LOG WHERE TS IN "
+                + "(TIMESTAMP '2020-01-01 00:00:01', TIMESTAMP '2020-01-01 00:00:02')", 2);
+        assertSingleValue(stat, "SELECT COUNT(*) FROM LOG WHERE TS > TIMESTAMP '2021-01-01 00:00:00'", 0);
+        assertScanCount(stat, "SELECT * FROM LOG WHERE TS > TIMESTAMP '2021-01-01 00:00:00'", 0);
+        ResultSet rs = stat.executeQuery("SELECT V FROM LOG WHERE TS >= TIMESTAMP '2020-01-01 00:00:50' "
+                + "AND TS <= TIMESTAMP '2020-01-01 00:01:20' ORDER BY _ROWID_ DESC");
+        for (int i = 80; i >= 50; i--) {
+            assertTrue(rs.next());
+            assertEquals(i % 10, rs.getInt(1));
+        }
+        assertFalse(rs.next());
+        PreparedStatement prep = conn.prepareStatement("SELECT COUNT(*) FROM LOG WHERE TS >= ? AND TS < ?");
+        for (int i = 0; i < 1000; i += 97) {
+            prep.setObject(1, LocalDateTime.of(2020, 1, 1, 0, 0).plusSeconds(i));
+            prep.setObject(2, LocalDateTime.of(2020, 1, 1, 0, 0).plusSeconds(i + 50));
+            rs = prep.executeQuery();
+            assertTrue(rs.next());
+            assertEquals(Math.min(i + 50, 1001) - Math.max(i, 1), rs.getInt(1));
+        }
+        stat.execute("DROP TABLE LOG");
+        conn.close();
+    }
+
+    private void testModifications() throws SQLException {
+        Connection conn = getConnection("zoneMap");
+        Statement stat = conn.createStatement();
+        stat.execute("CREATE TABLE T(ID INT, NAME VARCHAR) WITH \"ZONE_MAP=16\"");
+        stat.execute("INSERT INTO T SELECT X, 'N' || X FROM SYSTEM_RANGE(1, 100)");
+        assertEquals(50, stat.executeUpdate("DELETE FROM T WHERE ID > 50"));
+        assertSingleValue(stat, "SELECT COUNT(*) FROM T WHERE ID > 40", 10);
+        assertEquals(10, stat.executeUpdate("UPDATE T SET ID = ID + 1000 WHERE ID <= 10"));
+        assertSingleValue(stat, "SELECT COUNT(*) FROM T WHERE ID > 1000", 10);
+        assertSingleValue(stat, "SELECT COUNT(*) FROM T WHERE ID < 20", 9);
+        conn.setAutoCommit(false);
+        stat.execute("INSERT INTO T VALUES (-5, 'R')");
+        assertSingleValue(stat, "SELECT COUNT(*) FROM T WHERE ID < 0", 1);
+        conn.rollback();
+        conn.setAutoCommit(true);
+        assertSingleValue(stat, "SELECT COUNT(*) FROM T WHERE ID < 0", 0);
+        stat.execute("TRUNCATE TABLE T");
+        stat.execute("INSERT INTO T VALUES (1, 'A')");
+        assertSingleValue(stat, "SELECT COUNT(*) FROM T WHERE ID = 1", 1);
+        assertSingleValue(stat, "SELECT COUNT(*) FROM T WHERE NAME IS NULL", 0);
+        stat.execute("DROP TABLE T");
+        conn.close();
+    }
+
+    private void testPrimaryKey() throws SQLException {
+        Connection conn = getConnection("zoneMap");
+        Statement stat = conn.createStatement();
+        stat.execute("CREATE TABLE T(ID BIGINT PRIMARY KEY, V INT) WITH \"ZONE_MAP=8\"");
+        stat.execute("INSERT INTO T SELECT X - 50, X FROM SYSTEM_RANGE(1, 100)");
+        assertSingleValue(stat, "SELECT COUNT(*) FROM T WHERE V <= 30", 30);
+        assertScanCount(stat, "SELECT * FROM T WHERE V <= 30", 33);
+        assertSingleValue(stat, "SELECT COUNT(*) FROM T WHERE V < 30 AND _ROWID_ > -40", 19);
+        stat.execute("DROP TABLE T");
+        conn.close();
+    }
+
+    private void testPersistence() throws SQLException {
+        if (config.memory) {
+            return;
+        }
+        Connection conn = getConnection("zoneMap");
+        Statement stat = conn.createStatement();
+        stat.execute("CREATE TABLE T(ID INT, NAME VARCHAR) WITH \"ZONE_MAP=16\"");
+        stat.execute("INSERT INTO T SELECT X, 'N' || X FROM SYSTEM_RANGE(1, 100)");
+        conn.close();
+        conn = getConnection("zoneMap");
+        stat = conn.createStatement();
+        assertScanCount(stat, "SELECT * FROM T WHERE ID > 90", 21);
+        stat.execute("INSERT INTO T VALUES (1000, 'X')");
+        assertSingleValue(stat, "SELECT COUNT(*) FROM T WHERE ID > 90", 11);
+        stat.execute("DROP TABLE T");
+        conn.close();
+    }
+
+    private void testInvalidParameter() throws SQLException {
+        Connection conn = getConnection("zoneMap");
+        Statement stat = conn.createStatement();
+        assertThrows(ErrorCode.INVALID_VALUE_2, stat).execute("CREATE TABLE T(ID INT) WITH \"ZONE_MAP=0\"");
+        assertThrows(ErrorCode.INVALID_VALUE_2, stat).execute("CREATE TABLE T(ID INT) WITH \"ZONE_MAP=X\"");
+        conn.close();
+    }
+
+    private void assertScanCount(Statement stat, String sql, int expected) throws SQLException {
+        ResultSet rs = stat.executeQuery("EXPLAIN ANALYZE " + sql);
+        assertTrue(rs.next());
+        String plan = rs.getString(1);
+        assertContains(plan, "tableScan");
+        assertContains(plan, "/* scanCount: " + (expected + 1) + " */");
+    }
+
+}
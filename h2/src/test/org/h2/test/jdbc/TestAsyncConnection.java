@@ -0,0 +1,205 @@
+/*
+ * Copyright 2004-2025 H2 Group. Multiple-Licensed under the MPL 2.0,
+ * and the EPL 1.0 (https://h2database.com/html/license.html).
+ * Initial Developer: H2 Group
+ */
+package org.h2.test.jdbc;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import org.h2.api.ErrorCode;
+import org.h2.jdbc.JdbcAsyncConnection;
+import org.h2.test.TestBase;
+import org.h2.test.TestDb;
+
+/**
+ * Tests the asynchronous API.
+ */
+public class TestAsyncConnection extends TestDb {
+
+    /**
+     * Run just this test.
+     *
+     * @param a ignored
+     */
+    public static void main(String... a) throws Exception {
+        TestBase.createCaller().init().testFromMain();
+    }
+
+    @Override
+    public void test() throws Exception {
+        deleteDb("asyncConnection");
+        testExecute();
+        testExecutor();
+        testPublisher();
+        testPublisherError();
+        deleteDb("asyncConnection");
+    }
+
+    private void testExecute() throws Exception {
+        Connection conn = getConnection("asyncConnection");
+        JdbcAsyncConnection async = JdbcAsyncConnection.create(conn);
+        async.executeUpdate("CREATE TABLE TEST(ID INT PRIMARY KEY, NAME VARCHAR)");
+        CompletableFuture<Long> count = async.executeUpdate("INSERT INTO TEST VALUES (?, ?), (?, ?)",
+                1, "Hello", 2, "World").toCompletableFuture();
+        CompletableFuture<List<Object[]>> rows = async.executeQuery("SELECT * FROM TEST WHERE ID > ? ORDER BY ID",
+                0).toCompletableFuture();
+        CompletableFuture<Long> error = async.executeUpdate("INSERT INTO TEST VALUES (1, 'Duplicate')")
+                .toCompletableFuture();
+        CompletableFuture<List<Object[]>> rows2 = async.executeQuery("SELECT COUNT(*) FROM TEST")
+                .toCompletableFuture();
+        assertEquals(2L, (long) count.get());
+        List<Object[]> list = rows.get();
+        assertEquals(2, list.size());
+        assertEquals(1, list.get(0)[0]);
+        assertEquals("Hello", list.get(0)[1]);
+        assertEquals("World", list.get(1)[1]);
+        try {
+            error.get();
+            fail();
+        } catch (ExecutionException e) {
+            assertEquals(ErrorCode.DUPLICATE_KEY_1, ((SQLException) e.getCause()).getErrorCode());
+        }
+        assertEquals(2L, rows2.get().get(0)[0]);
+        async.executeUpdate("DROP TABLE TEST");
+        async.close().toCompletableFuture().get();
+        assertTrue(conn.isClosed());
+    }
+
+    private void testExecutor() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        Connection conn = getConnection("asyncConnection");
+        conn.setAutoCommit(false);
+        JdbcAsyncConnection async = JdbcAsyncConnection.create(conn, executor);
+        async.executeUpdate("CREATE TABLE TEST(ID INT PRIMARY KEY)");
+        ArrayList<CompletableFuture<Long>> list = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            list.add(async.executeUpdate("INSERT INTO TEST VALUES ?", i).toCompletableFuture());
+        }
+        async.rollback();
+        CompletableFuture<List<Object[]>> rows = async.executeQuery("SELECT COUNT(*) FROM TEST")
+                .toCompletableFuture();
+        for (CompletableFuture<Long> f : list) {
+            assertEquals(1L, (long) f.get());
+        }
+        assertEquals(0L, rows.get().get(0)[0]);
+        async.executeUpdate("DROP TABLE TEST");
+        async.close().toCompletableFuture().get();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    private void testPublisher() throws Exception {
+        Connection conn = getConnection("asyncConnection");
+        JdbcAsyncConnection async = JdbcAsyncConnection.create(conn);
+        Flow.Publisher<Object[]> publisher = async.query("SELECT X FROM SYSTEM_RANGE(1, ?)", 10_000);
+        // request rows in small batches
+        CompletableFuture<Long> sum = new CompletableFuture<>();
+        publisher.subscribe(new Flow.Subscriber<Object[]>() {
+            private Flow.Subscription subscription;
+            private long total;
+            private int received;
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(10);
+            }
+
+            @Override
+            public void onNext(Object[] item) {
+                total += (Long) item[0];
+                if (++received == 10) {
+                    received = 0;
+                    subscription.request(10);
+                }
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                sum.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                sum.complete(total);
+            }
+        });
+        // cancel after some rows
+        CompletableFuture<Integer> cancelled = new CompletableFuture<>();
+        publisher.subscribe(new Flow.Subscriber<Object[]>() {
+            private Flow.Subscription subscription;
+            private int received;
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(Object[] item) {
+                if (++received == 25) {
+                    subscription.cancel();
+                    cancelled.complete(received);
+                }
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                cancelled.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                cancelled.completeExceptionally(new AssertionError());
+            }
+        });
+        assertEquals(50_005_000L, (long) sum.get());
+        assertEquals(25, (int) cancelled.get());
+        // statements are executed between batches of rows
+        assertEquals(1, async.executeQuery("SELECT 1").toCompletableFuture().get().get(0)[0]);
+        async.close().toCompletableFuture().get();
+    }
+
+    private void testPublisherError() throws Exception {
+        Connection conn = getConnection("asyncConnection");
+        JdbcAsyncConnection async = JdbcAsyncConnection.create(conn);
+        CompletableFuture<Object> result = new CompletableFuture<>();
+        async.query("SELECT * FROM MISSING").subscribe(new Flow.Subscriber<Object[]>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(1);
+            }
+
+            @Override
+            public void onNext(Object[] item) {
+                result.complete(item);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                result.complete(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                result.complete(null);
+            }
+        });
+        Object r = result.get();
+        assertTrue(r instanceof SQLException);
+        assertEquals(ErrorCode.TABLE_OR_VIEW_NOT_FOUND_DATABASE_EMPTY_1, ((SQLException) r).getErrorCode());
+        async.close().toCompletableFuture().get();
+    }
+
+}
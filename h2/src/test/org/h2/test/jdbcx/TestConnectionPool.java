@@ -43,6 +43,9 @@ public void test() throws Exception {
         testShutdown();
         testWrongUrl();
         testTimeout();
+        testHandoff();
+        testEviction();
+        testLeakDetection();
         testUncommittedTransaction();
         testPerformance();
         testKeepOpen();
@@ -123,6 +126,81 @@ public void call() {
         man.dispose();
     }
 
+    private void testHandoff() throws Exception {
+        String url = getURL("connectionPool", true), user = getUser();
+        String password = getPassword();
+        final JdbcConnectionPool man = JdbcConnectionPool.create(url, user, password);
+        man.setMaxConnections(1);
+        Connection conn = man.getConnection();
+        Task t = new Task() {
+            @Override
+            public void call() throws Exception {
+                man.getConnection().close();
+            }
+        };
+        t.execute();
+        Thread.sleep(50);
+        conn.close();
+        t.get();
+        assertEquals(0, man.getActiveConnections());
+        assertEquals(1, man.getIdleConnections());
+        long count = 0;
+        for (long c : man.getBorrowTimeHistogram()) {
+            count += c;
+        }
+        assertEquals(2, count);
+        man.dispose();
+        assertEquals(0, man.getIdleConnections());
+    }
+
+    private void testEviction() throws Exception {
+        String url = getURL("connectionPool", true), user = getUser();
+        String password = getPassword();
+        JdbcConnectionPool man = JdbcConnectionPool.create(url, user, password);
+        man.setMaxLifetime(100);
+        Connection conn = man.getConnection();
+        Connection conn2 = man.getConnection();
+        conn2.close();
+        assertEquals(1, man.getIdleConnections());
+        Thread.sleep(150);
+        conn.close();
+        assertEquals(1, man.getIdleConnections());
+        conn = man.getConnection();
+        assertEquals(0, man.getIdleConnections());
+        conn.close();
+        assertEquals(1, man.getIdleConnections());
+        man.setMaxLifetime(0);
+        man.setIdleTimeout(100);
+        man.getConnection().close();
+        assertEquals(1, man.getIdleConnections());
+        Thread.sleep(150);
+        conn = man.getConnection();
+        assertEquals(0, man.getIdleConnections());
+        conn.close();
+        assertEquals(1, man.getIdleConnections());
+        man.dispose();
+    }
+
+    private void testLeakDetection() throws Exception {
+        String url = getURL("connectionPool", true), user = getUser();
+        String password = getPassword();
+        JdbcConnectionPool man = JdbcConnectionPool.create(url, user, password);
+        StringWriter w = new StringWriter();
+        man.setLogWriter(new PrintWriter(w));
+        man.setLeakDetectionThreshold(50);
+        man.setMaxConnections(1);
+        man.setLoginTimeout(1);
+        Connection conn = man.getConnection();
+        Thread.sleep(100);
+        DataSource ds = man;
+        assertThrows(SQLException.class, ds).getConnection();
+        String log = w.toString();
+        assertContains(log, "Possible connection leak");
+        assertContains(log, "testLeakDetection");
+        conn.close();
+        man.dispose();
+    }
+
     private void testUncommittedTransaction() throws SQLException {
         String url = getURL("connectionPool", true), user = getUser();
         String password = getPassword();
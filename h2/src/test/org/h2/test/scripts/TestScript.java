@@ -204,10 +204,10 @@ public void test() throws Exception {
                 "cardinality", "cast", "coalesce", "convert", "csvread", "csvwrite", "current_catalog",
                 "current_schema", "current_user", "currval", "data_type_sql",
                 "database-path", "db_object", "decode", "disk-space-used",
-                "file-read", "file-write", "greatest", "h2version", "identity",
+                "file-read", "file-write", "fulltext_search", "greatest", "h2version", "identity",
                 "ifnull", "last-insert-id", "least", "link-schema", "lock-mode", "lock-timeout",
                 "memory-free", "memory-used", "nextval", "nullif", "nvl2",
-                "readonly", "rownum", "session-id",
+                "readonly", "rownum", "session-id", "spatial_nearest",
                 "table", "transaction-id", "trim_array", "truncate-value", "unnest" }) {
             testScript("functions/system/" + s + ".sql");
         }
@@ -22,6 +22,35 @@ CREATE TABLE TEST(A INT, B INT, C INT);
 > ok
 
 CREATE INDEX TEST_IDX ON TEST(C) INCLUDE(B);
+> ok
+
+SELECT DB_OBJECT_SQL('INDEX', 'PUBLIC', 'TEST_IDX');
+>> CREATE INDEX "PUBLIC"."TEST_IDX" ON "PUBLIC"."TEST"("C" NULLS FIRST) INCLUDE("B" NULLS FIRST)
+
+SELECT COLUMN_NAME, ORDINAL_POSITION, IS_UNIQUE FROM INFORMATION_SCHEMA.INDEX_COLUMNS WHERE INDEX_NAME = 'TEST_IDX'
+    ORDER BY ORDINAL_POSITION;
+> COLUMN_NAME ORDINAL_POSITION IS_UNIQUE
+> ----------- ---------------- ---------
+> C           1                FALSE
+> B           2                FALSE
+> rows (ordered): 2
+
+INSERT INTO TEST VALUES (1, 10, 100), (2, 20, 200), (3, 30, 300);
+> update count: 3
+
+EXPLAIN SELECT B FROM TEST WHERE C = 200;
+>> SELECT "B" FROM "PUBLIC"."TEST" /* PUBLIC.TEST_IDX: C = 200 */ WHERE "C" = 200
+
+SELECT B FROM TEST WHERE C = 200;
+>> 20
+
+DROP INDEX TEST_IDX;
+> ok
+
+DELETE FROM TEST;
+> update count: 3
+
+CREATE SPATIAL INDEX TEST_IDX ON TEST(C) INCLUDE(B);
 > exception SYNTAX_ERROR_1
 
 CREATE UNIQUE INDEX TEST_IDX ON TEST(C) INCLUDE(B);
@@ -78,3 +107,293 @@ INSERT INTO TEST VALUES (1, NULL, NULL);
 
 DROP TABLE TEST;
 > ok
+
+CREATE TABLE TEST(ID INT PRIMARY KEY, STATUS VARCHAR, V INT);
+> ok
+
+INSERT INTO TEST SELECT X, CASE WHEN MOD(X, 10) = 0 THEN 'ACTIVE' ELSE 'DONE' END, X FROM SYSTEM_RANGE(1, 100);
+> update count: 100
+
+CREATE INDEX TEST_IDX ON TEST(V) WHERE STATUS = 'ACTIVE';
+> ok
+
+CREATE UNIQUE INDEX TEST_IDX_2 ON TEST(STATUS) WHERE V > 1000;
+> ok
+
+SELECT DB_OBJECT_SQL('INDEX', 'PUBLIC', 'TEST_IDX');
+>> CREATE INDEX "PUBLIC"."TEST_IDX" ON "PUBLIC"."TEST"("V" NULLS FIRST) WHERE "STATUS" = 'ACTIVE'
+
+EXPLAIN SELECT ID FROM TEST WHERE STATUS = 'ACTIVE' AND V > 50;
+>> SELECT "ID" FROM "PUBLIC"."TEST" /* PUBLIC.TEST_IDX: V > 50 */ WHERE ("STATUS" = 'ACTIVE') AND ("V" > 50)
+
+EXPLAIN SELECT ID FROM TEST WHERE V > 50;
+>> SELECT "ID" FROM "PUBLIC"."TEST" /* PUBLIC.TEST.tableScan */ WHERE "V" > 50
+
+EXPLAIN SELECT ID FROM TEST WHERE STATUS = 'DONE' AND V > 50;
+>> SELECT "ID" FROM "PUBLIC"."TEST" /* PUBLIC.TEST.tableScan */ WHERE ("STATUS" = 'DONE') AND ("V" > 50)
+
+EXPLAIN SELECT MAX(V) FROM TEST;
+>> SELECT MAX("V") FROM "PUBLIC"."TEST" /* PUBLIC.TEST.tableScan */
+
+UPDATE TEST SET STATUS = 'ACTIVE' WHERE ID = 55;
+> update count: 1
+
+UPDATE TEST SET STATUS = 'DONE' WHERE ID = 60;
+> update count: 1
+
+UPDATE TEST SET V = 105 WHERE ID = 70;
+> update count: 1
+
+DELETE FROM TEST WHERE ID = 80;
+> update count: 1
+
+SELECT ID FROM TEST WHERE STATUS = 'ACTIVE' AND V > 50 ORDER BY ID;
+> ID
+> ---
+> 55
+> 70
+> 90
+> 100
+> rows (ordered): 4
+
+INSERT INTO TEST VALUES (1001, 'DONE', 1001), (1002, 'ACTIVE', 1002);
+> update count: 2
+
+INSERT INTO TEST VALUES (1003, 'DONE', 1003);
+> exception DUPLICATE_KEY_1
+
+INSERT INTO TEST VALUES (1003, 'DONE', 3);
+> update count: 1
+
+ALTER TABLE TEST DROP COLUMN STATUS;
+> ok
+
+SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES WHERE TABLE_NAME = 'TEST' AND INDEX_TYPE_NAME <> 'PRIMARY KEY';
+>> 0
+
+CREATE INDEX TEST_IDX ON TEST(V) WHERE V > RAND();
+> exception FEATURE_NOT_SUPPORTED_1
+
+CREATE INDEX TEST_IDX ON TEST(V) WHERE V IN (SELECT X FROM SYSTEM_RANGE(1, 10));
+> exception FEATURE_NOT_SUPPORTED_1
+
+CREATE SPATIAL INDEX TEST_IDX ON TEST(V) WHERE V > 0;
+> exception SYNTAX_ERROR_1
+
+DROP TABLE TEST;
+> ok
+
+CREATE TABLE TEST(ID INT PRIMARY KEY, V INT, W INT);
+> ok
+
+INSERT INTO TEST SELECT X, X, MOD(X, 5) FROM SYSTEM_RANGE(1, 30);
+> update count: 30
+
+INSERT INTO TEST VALUES (31, NULL, 1);
+> update count: 1
+
+CREATE INDEX TEST_IDX ON TEST(W) WHERE V > 10 AND V <= 20;
+> ok
+
+EXPLAIN SELECT ID FROM TEST WHERE W = 1 AND V > 10 AND V <= 20;
+>> SELECT "ID" FROM "PUBLIC"."TEST" /* PUBLIC.TEST_IDX: W = 1 */ WHERE ("V" <= 20) AND ("W" = 1) AND ("V" > 10)
+
+EXPLAIN SELECT ID FROM TEST WHERE W = 1 AND V BETWEEN 11 AND 20;
+>> SELECT "ID" FROM "PUBLIC"."TEST" /* PUBLIC.TEST_IDX: W = 1 */ WHERE ("W" = 1) AND ("V" BETWEEN 11 AND 20)
+
+EXPLAIN SELECT ID FROM TEST WHERE W = 1 AND V = 20;
+>> SELECT "ID" FROM "PUBLIC"."TEST" /* PUBLIC.TEST_IDX: W = 1 */ WHERE ("W" = 1) AND ("V" = 20)
+
+EXPLAIN SELECT ID FROM TEST WHERE W = 1 AND V IN (11, 20);
+>> SELECT "ID" FROM "PUBLIC"."TEST" /* PUBLIC.TEST_IDX: W = 1 */ WHERE ("V" IN(11, 20)) AND ("W" = 1)
+
+EXPLAIN SELECT ID FROM TEST WHERE W = 1 AND V >= 10 AND V <= 20;
+>> SELECT "ID" FROM "PUBLIC"."TEST" /* PUBLIC.TEST.tableScan */ WHERE ("V" <= 20) AND ("W" = 1) AND ("V" >= 10)
+
+EXPLAIN SELECT ID FROM TEST WHERE W = 1 AND V = 10;
+>> SELECT "ID" FROM "PUBLIC"."TEST" /* PUBLIC.TEST.tableScan */ WHERE ("W" = 1) AND ("V" = 10)
+
+EXPLAIN SELECT ID FROM TEST WHERE W = 1 AND V IN (10, 11);
+>> SELECT "ID" FROM "PUBLIC"."TEST" /* PUBLIC.TEST.tableScan */ WHERE ("V" IN(10, 11)) AND ("W" = 1)
+
+-- V < 21 isn't treated as V <= 20 even for integers
+EXPLAIN SELECT ID FROM TEST WHERE W = 1 AND V >= 11 AND V < 21;
+>> SELECT "ID" FROM "PUBLIC"."TEST" /* PUBLIC.TEST.tableScan */ WHERE ("V" < 21) AND ("W" = 1) AND ("V" >= 11)
+
+EXPLAIN SELECT ID FROM TEST WHERE W = 1 AND V > 10;
+>> SELECT "ID" FROM "PUBLIC"."TEST" /* PUBLIC.TEST.tableScan */ WHERE ("W" = 1) AND ("V" > 10)
+
+SELECT ID FROM TEST WHERE W = 1 AND V > 10 AND V <= 20 ORDER BY ID;
+> ID
+> --
+> 11
+> 16
+> rows (ordered): 2
+
+UPDATE TEST SET V = 10 WHERE ID = 11;
+> update count: 1
+
+UPDATE TEST SET V = 20 WHERE ID = 21;
+> update count: 1
+
+UPDATE TEST SET V = 11 WHERE ID = 31;
+> update count: 1
+
+UPDATE TEST SET V = NULL WHERE ID = 16;
+> update count: 1
+
+SELECT ID, V FROM TEST WHERE W = 1 AND V > 10 AND V <= 20 ORDER BY ID;
+> ID V
+> -- --
+> 21 20
+> 31 11
+> rows (ordered): 2
+
+SELECT ID, V FROM TEST USE INDEX () WHERE W = 1 AND V > 10 AND V <= 20 ORDER BY ID;
+> ID V
+> -- --
+> 21 20
+> 31 11
+> rows (ordered): 2
+
+CREATE INDEX TEST_IDX_2 ON TEST(W) WHERE V > (SELECT MIN(V) FROM TEST);
+> exception FEATURE_NOT_SUPPORTED_1
+
+DROP TABLE TEST;
+> ok
+
+CREATE TABLE TEST(ID INT PRIMARY KEY, A INT, B INT, NAME VARCHAR);
+> ok
+
+INSERT INTO TEST SELECT X, MOD(X, 10), X, 'Name' || X FROM SYSTEM_RANGE(1, 100);
+> update count: 100
+
+CREATE INDEX TEST_NAME ON TEST((UPPER(NAME)));
+> ok
+
+CREATE INDEX TEST_SUM ON TEST((A + B) DESC, ID);
+> ok
+
+SELECT DB_OBJECT_SQL('INDEX', 'PUBLIC', 'TEST_NAME');
+>> CREATE INDEX "PUBLIC"."TEST_NAME" ON "PUBLIC"."TEST"((UPPER("NAME")) NULLS FIRST)
+
+SELECT DB_OBJECT_SQL('INDEX', 'PUBLIC', 'TEST_SUM');
+>> CREATE INDEX "PUBLIC"."TEST_SUM" ON "PUBLIC"."TEST"(("A" + "B") DESC NULLS LAST, "ID" NULLS FIRST)
+
+EXPLAIN SELECT ID FROM TEST T WHERE UPPER(T.NAME) = 'NAME7';
+>> SELECT "ID" FROM "PUBLIC"."TEST" "T" /* PUBLIC.TEST_NAME: (UPPER(NAME)) = 'NAME7' */ WHERE UPPER("T"."NAME") = 'NAME7'
+
+SELECT ID FROM TEST WHERE UPPER(NAME) IN ('NAME7', 'NAME8') ORDER BY ID;
+> ID
+> --
+> 7
+> 8
+> rows (ordered): 2
+
+EXPLAIN SELECT ID FROM TEST WHERE A + B > 100;
+>> SELECT "ID" FROM "PUBLIC"."TEST" /* PUBLIC.TEST_SUM: (A + B) > 100 */ WHERE ("A" + "B") > 100
+
+SELECT ID FROM TEST WHERE A + B > 100 ORDER BY ID;
+> ID
+> --
+> 96
+> 97
+> 98
+> 99
+> rows (ordered): 4
+
+EXPLAIN SELECT ID FROM TEST ORDER BY A + B DESC FETCH FIRST 2 ROWS ONLY;
+>> SELECT "ID" FROM "PUBLIC"."TEST" /* PUBLIC.TEST_SUM */ ORDER BY "A" + "B" DESC FETCH FIRST 2 ROWS ONLY /* index sorted */
+
+UPDATE TEST SET NAME = 'Other' WHERE ID = 7;
+> update count: 1
+
+SELECT ID FROM TEST WHERE UPPER(NAME) IN ('NAME7', 'OTHER');
+>> 7
+
+ALTER TABLE TEST DROP COLUMN NAME;
+> ok
+
+SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES WHERE TABLE_NAME = 'TEST' AND INDEX_TYPE_NAME <> 'PRIMARY KEY';
+>> 1
+
+CREATE INDEX TEST_IDX ON TEST((A + RAND()));
+> exception FEATURE_NOT_SUPPORTED_1
+
+CREATE INDEX TEST_IDX ON TEST((1));
+> exception FEATURE_NOT_SUPPORTED_1
+
+DROP TABLE TEST;
+> ok
+
+CREATE TABLE TEST(ID INT PRIMARY KEY, A INT, B INT);
+> ok
+
+INSERT INTO TEST VALUES (1, 1, 1), (2, 1, NULL), (3, NULL, 2), (4, NULL, NULL), (5, 2, 1);
+> update count: 5
+
+CREATE UNIQUE INDEX TEST_IDX ON TEST((A + B));
+> ok
+
+INSERT INTO TEST VALUES (6, 0, NULL);
+> update count: 1
+
+INSERT INTO TEST VALUES (7, 0, 2);
+> exception DUPLICATE_KEY_1
+
+EXPLAIN SELECT ID FROM TEST WHERE A + B IN (2, 3, 4);
+>> SELECT "ID" FROM "PUBLIC"."TEST" /* PUBLIC.TEST_IDX: (A + B) IN(2, 3, 4) */ WHERE ("A" + "B") IN(2, 3, 4)
+
+SELECT ID FROM TEST WHERE A + B = NULL;
+> ID
+> --
+> rows: 0
+
+UPDATE TEST SET A = NULL WHERE ID = 5;
+> update count: 1
+
+UPDATE TEST SET A = 2 WHERE ID = 3;
+> update count: 1
+
+SELECT ID FROM TEST WHERE A + B IN (2, 3, 4) ORDER BY ID;
+> ID
+> --
+> 1
+> 3
+> rows (ordered): 2
+
+SELECT ID FROM TEST WHERE A + B IS NULL ORDER BY ID;
+> ID
+> --
+> 2
+> 4
+> 5
+> 6
+> rows (ordered): 4
+
+INSERT INTO TEST VALUES (7, 3, 0);
+> update count: 1
+
+CREATE INDEX TEST_IDX_2 ON TEST((CURRENT_TIMESTAMP));
+> exception FEATURE_NOT_SUPPORTED_1
+
+CREATE INDEX TEST_IDX_2 ON TEST((A + EXTRACT(SECOND FROM CURRENT_TIMESTAMP)));
+> exception FEATURE_NOT_SUPPORTED_1
+
+CREATE INDEX TEST_IDX_2 ON TEST((CAST(A AS VARCHAR) || RANDOM_UUID()));
+> exception FEATURE_NOT_SUPPORTED_1
+
+CREATE SEQUENCE SEQ;
+> ok
+
+CREATE INDEX TEST_IDX_2 ON TEST((A + NEXT VALUE FOR SEQ));
+> exception FEATURE_NOT_SUPPORTED_1
+
+CREATE INDEX TEST_IDX_2 ON TEST((A + (SELECT MAX(B) FROM TEST)));
+> exception FEATURE_NOT_SUPPORTED_1
+
+DROP TABLE TEST;
+> ok
+
+DROP SEQUENCE SEQ;
+> ok
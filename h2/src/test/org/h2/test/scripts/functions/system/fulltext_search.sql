@@ -0,0 +1,147 @@
+-- Copyright 2004-2025 H2 Group. Multiple-Licensed under the MPL 2.0,
+-- and the EPL 1.0 (https://h2database.com/html/license.html).
+-- Initial Developer: H2 Group
+--
+
+CREATE TABLE TEST(ID BIGINT PRIMARY KEY, TITLE VARCHAR, BODY CLOB, V INT);
+> ok
+
+INSERT INTO TEST VALUES
+    (1, 'Hello World', 'The quick brown fox jumps over the lazy dog', 1),
+    (2, 'Hello', 'hello hello world of databases', 2),
+    (3, 'Other', 'quick fox', 3),
+    (4, NULL, 'brown, quick fox', 4);
+> update count: 4
+
+CREATE FULLTEXT INDEX TEST_FT ON TEST(TITLE, BODY);
+> ok
+
+SELECT INDEX_TYPE_NAME FROM INFORMATION_SCHEMA.INDEXES WHERE INDEX_NAME = 'TEST_FT';
+>> FULLTEXT INDEX
+
+SELECT ROW_KEY FROM FULLTEXT_SEARCH('TEST', 'hello') ORDER BY SCORE DESC;
+> ROW_KEY
+> -------
+> 2
+> 1
+> rows (ordered): 2
+
+SELECT ROW_KEY FROM FULLTEXT_SEARCH('TEST', 'QUICK Fox') ORDER BY SCORE DESC, ROW_KEY;
+> ROW_KEY
+> -------
+> 3
+> 4
+> 1
+> rows (ordered): 3
+
+SELECT ROW_KEY FROM FULLTEXT_SEARCH('TEST', 'quick fox', 2);
+> ROW_KEY
+> -------
+> 3
+> 4
+> rows: 2
+
+SELECT ROW_KEY FROM FULLTEXT_SEARCH('TEST', '"quick brown"');
+>> 1
+
+SELECT ROW_KEY FROM FULLTEXT_SEARCH('TEST', '"brown quick"');
+>> 4
+
+SELECT ROW_KEY FROM FULLTEXT_SEARCH('TEST', 'hello-world') ORDER BY ROW_KEY;
+> ROW_KEY
+> -------
+> 1
+> 2
+> rows (ordered): 2
+
+SELECT ROW_KEY FROM FULLTEXT_SEARCH('TEST', 'world the');
+>> 1
+
+SELECT COUNT(*) FROM FULLTEXT_SEARCH('TEST', '"world the"');
+>> 0
+
+SELECT COUNT(*) FROM FULLTEXT_SEARCH('TEST', 'fox cat');
+>> 0
+
+SELECT COUNT(*) FROM FULLTEXT_SEARCH('TEST', ' , ');
+>> 0
+
+SELECT COUNT(*) FROM FULLTEXT_SEARCH('TEST', NULL);
+>> 0
+
+SELECT T.ID, T.V FROM FULLTEXT_SEARCH('TEST', 'fox') F JOIN TEST T ON T.ID = F.ROW_KEY ORDER BY T.ID;
+> ID V
+> -- -
+> 1  1
+> 3  3
+> 4  4
+> rows (ordered): 3
+
+UPDATE TEST SET BODY = 'nothing' WHERE ID = 3;
+> update count: 1
+
+UPDATE TEST SET V = 5 WHERE ID = 4;
+> update count: 1
+
+DELETE FROM TEST WHERE ID = 1;
+> update count: 1
+
+SELECT ROW_KEY FROM FULLTEXT_SEARCH('TEST', 'fox');
+>> 4
+
+SELECT ROW_KEY FROM FULLTEXT_SEARCH('TEST', 'other nothing');
+>> 3
+
+SELECT COUNT(*) FROM FULLTEXT_SEARCH('TEST', 'fox', -1);
+> exception INVALID_VALUE_2
+
+EXPLAIN SELECT * FROM TEST WHERE TITLE = 'Hello' ORDER BY TITLE;
+>> SELECT "PUBLIC"."TEST"."ID", "PUBLIC"."TEST"."TITLE", "PUBLIC"."TEST"."BODY", "PUBLIC"."TEST"."V" FROM "PUBLIC"."TEST" /* PUBLIC.TEST.tableScan */ WHERE "TITLE" = 'Hello' ORDER BY 2
+
+TRUNCATE TABLE TEST;
+> update count: 3
+
+SELECT COUNT(*) FROM FULLTEXT_SEARCH('TEST', 'hello');
+>> 0
+
+CREATE FULLTEXT INDEX TEST_FT_V ON TEST(V);
+> exception FEATURE_NOT_SUPPORTED_1
+
+CREATE FULLTEXT INDEX TEST_FT_2 ON TEST(TITLE DESC);
+> exception FEATURE_NOT_SUPPORTED_1
+
+INSERT INTO TEST VALUES (1, 'Hello', 'world', 1);
+> update count: 1
+
+CREATE FULLTEXT INDEX TEST_FT_BODY ON TEST(BODY);
+> ok
+
+SELECT COUNT(*) FROM FULLTEXT_SEARCH('TEST', 'hello');
+> exception INVALID_VALUE_2
+
+SELECT COUNT(*) FROM FULLTEXT_SEARCH('TEST', 'hello', NULL, 'TEST_FT');
+>> 1
+
+SELECT COUNT(*) FROM FULLTEXT_SEARCH('TEST', 'hello', NULL, 'TEST_FT_BODY');
+>> 0
+
+SELECT COUNT(*) FROM FULLTEXT_SEARCH('TEST', 'world', 0, 'TEST_FT_BODY');
+>> 1
+
+SELECT COUNT(*) FROM FULLTEXT_SEARCH('TEST', 'hello', NULL, 'TEST_FT_OTHER');
+> exception INDEX_NOT_FOUND_1
+
+DROP INDEX TEST_FT;
+> ok
+
+SELECT COUNT(*) FROM FULLTEXT_SEARCH('TEST', 'hello');
+>> 0
+
+DROP INDEX TEST_FT_BODY;
+> ok
+
+SELECT COUNT(*) FROM FULLTEXT_SEARCH('TEST', 'hello');
+> exception INDEX_NOT_FOUND_1
+
+DROP TABLE TEST;
+> ok
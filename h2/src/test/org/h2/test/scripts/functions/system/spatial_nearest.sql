@@ -0,0 +1,77 @@
+-- Copyright 2004-2025 H2 Group. Multiple-Licensed under the MPL 2.0,
+-- and the EPL 1.0 (https://h2database.com/html/license.html).
+-- Initial Developer: H2 Group
+--
+
+CREATE TABLE TEST(ID BIGINT PRIMARY KEY, G GEOMETRY, V INT);
+> ok
+
+INSERT INTO TEST VALUES
+    (1, 'POINT (0 0)', 1),
+    (2, 'POINT (3 4)', 2),
+    (3, 'POINT (10 0)', 3),
+    (4, 'POLYGON ((5 5, 6 5, 6 6, 5 6, 5 5))', 4),
+    (5, NULL, 5),
+    (6, 'POINT EMPTY', 6);
+> update count: 6
+
+CREATE SPATIAL INDEX TEST_G ON TEST(G);
+> ok
+
+SELECT * FROM SPATIAL_NEAREST('TEST', 'G', GEOMETRY 'POINT (0 0)') ORDER BY DISTANCE;
+> ROW_KEY DISTANCE
+> ------- ------------------
+> 1       0.0
+> 2       5.0
+> 4       7.0710678118654755
+> 3       10.0
+> rows (ordered): 4
+
+SELECT ROW_KEY FROM SPATIAL_NEAREST('TEST', 'G', GEOMETRY 'POINT (9 1)', 2) ORDER BY DISTANCE;
+> ROW_KEY
+> -------
+> 3
+> 4
+> rows (ordered): 2
+
+SELECT DISTANCE FROM SPATIAL_NEAREST('TEST', 'G', GEOMETRY 'POLYGON ((0 0, 6 0, 6 6, 0 6, 0 0))', 1);
+>> 0.0
+
+SELECT T.ID, T.V FROM SPATIAL_NEAREST('TEST', 'G', GEOMETRY 'POINT (3 3)', 2) N JOIN TEST T ON T.ID = N.ROW_KEY
+    ORDER BY N.DISTANCE;
+> ID V
+> -- -
+> 2  2
+> 4  4
+> rows (ordered): 2
+
+INSERT INTO TEST VALUES (7, 'POINT (3 3)', 7);
+> update count: 1
+
+DELETE FROM TEST WHERE ID = 2;
+> update count: 1
+
+SELECT ROW_KEY FROM SPATIAL_NEAREST('TEST', 'G', GEOMETRY 'POINT (3 4)', 2) ORDER BY DISTANCE;
+> ROW_KEY
+> -------
+> 7
+> 4
+> rows (ordered): 2
+
+SELECT COUNT(*) FROM SPATIAL_NEAREST('TEST', 'G', NULL);
+>> 0
+
+SELECT COUNT(*) FROM SPATIAL_NEAREST('TEST', 'G', GEOMETRY 'POINT EMPTY');
+>> 0
+
+SELECT COUNT(*) FROM SPATIAL_NEAREST('TEST', 'G', GEOMETRY 'POINT (0 0)', -1);
+> exception INVALID_VALUE_2
+
+SELECT COUNT(*) FROM SPATIAL_NEAREST('TEST', 'V', GEOMETRY 'POINT (0 0)');
+> exception INDEX_NOT_FOUND_1
+
+SELECT COUNT(*) FROM SPATIAL_NEAREST('TEST', 'X', GEOMETRY 'POINT (0 0)');
+> exception COLUMN_NOT_FOUND_1
+
+DROP TABLE TEST;
+> ok
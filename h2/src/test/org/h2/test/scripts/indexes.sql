@@ -1200,10 +1200,10 @@ CREATE SPATIAL INDEX ON TEST(G);
 > ok
 
 EXPLAIN SELECT * FROM TEST ORDER BY G;
->> SELECT "PUBLIC"."TEST"."G" FROM "PUBLIC"."TEST" /* PUBLIC.INDEX_2 */ ORDER BY 1 /* index sorted */
+>> SELECT "PUBLIC"."TEST"."G" FROM "PUBLIC"."TEST" /* PUBLIC.TEST.tableScan */ ORDER BY 1
 
 EXPLAIN SELECT * FROM TEST ORDER BY G DESC;
->> SELECT "PUBLIC"."TEST"."G" FROM "PUBLIC"."TEST" /* PUBLIC.INDEX_2 */ ORDER BY 1 DESC /* index sorted */
+>> SELECT "PUBLIC"."TEST"."G" FROM "PUBLIC"."TEST" /* PUBLIC.TEST.tableScan */ ORDER BY 1 DESC
 
 SELECT * FROM TEST ORDER BY G;
 > G
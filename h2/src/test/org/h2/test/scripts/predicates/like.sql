@@ -212,3 +212,102 @@ SELECT ID FROM (SELECT * FROM TEST) WHERE V NOT LIKE 'a%';
 
 DROP TABLE TEST;
 > ok
+
+SELECT S, S LIKE 'ab%ab', S LIKE '%b%a%', S ILIKE 'A%B%', S LIKE '%c%' FROM (VALUES 'ab', 'abab', 'aBcab', 'ba') T(S);
+> S     S LIKE 'ab%ab' S LIKE '%b%a%' S ILIKE 'A%B%' S LIKE '%c%'
+> ----- -------------- -------------- -------------- ------------
+> aBcab FALSE          FALSE          TRUE           TRUE
+> ab    FALSE          FALSE          TRUE           FALSE
+> abab  TRUE           TRUE           TRUE           FALSE
+> ba    FALSE          TRUE           FALSE          FALSE
+> rows: 4
+
+CREATE TABLE TEST(ID INT PRIMARY KEY, V VARCHAR) AS SELECT X, 'Value ' || X FROM SYSTEM_RANGE(1, 100);
+> ok
+
+CREATE TRIGRAM INDEX TEST_V_IDX ON TEST(V);
+> ok
+
+INSERT INTO TEST VALUES (101, 'Special item'), (102, 'Another SPECIAL one'), (103, NULL), (104, 'Spec');
+> update count: 4
+
+EXPLAIN SELECT ID FROM TEST WHERE V LIKE '%Special%';
+>> SELECT "ID" FROM "PUBLIC"."TEST" /* PUBLIC.TEST_V_IDX: V CONTAINS ALL ARRAY ['Special'] */ WHERE "V" LIKE '%Special%'
+
+SELECT ID FROM TEST WHERE V LIKE '%Special%';
+>> 101
+
+SELECT ID FROM TEST WHERE V ILIKE '%special%';
+> ID
+> ---
+> 101
+> 102
+> rows: 2
+
+EXPLAIN SELECT ID FROM TEST WHERE V LIKE 'Spe%i_l%';
+>> SELECT "ID" FROM "PUBLIC"."TEST" /* PUBLIC.TEST_V_IDX: V CONTAINS ALL ARRAY ['Spe'] */ WHERE "V" LIKE 'Spe%i_l%'
+
+SELECT ID FROM TEST WHERE V LIKE 'Spe%i_l%';
+>> 101
+
+EXPLAIN SELECT ID FROM TEST WHERE V REGEXP 'PECIAL (one|two)';
+>> SELECT "ID" FROM "PUBLIC"."TEST" /* PUBLIC.TEST_V_IDX: V CONTAINS ALL ARRAY ['PECIAL '] */ WHERE "V" REGEXP 'PECIAL (one|two)'
+
+SELECT ID FROM TEST WHERE V REGEXP 'PECIAL (one|two)';
+>> 102
+
+EXPLAIN SELECT ID FROM TEST WHERE REGEXP_LIKE(V, 'spec\w+ it', 'i');
+>> SELECT "ID" FROM "PUBLIC"."TEST" /* PUBLIC.TEST_V_IDX: V CONTAINS ALL ARRAY ['spec', ' it'] */ WHERE REGEXP_LIKE("V", 'spec\w+ it', 'i')
+
+SELECT ID FROM TEST WHERE REGEXP_LIKE(V, 'spec\w+ it', 'i');
+>> 101
+
+EXPLAIN SELECT ID FROM TEST WHERE V REGEXP 'Special|Value';
+>> SELECT "ID" FROM "PUBLIC"."TEST" /* PUBLIC.TEST.tableScan */ WHERE "V" REGEXP 'Special|Value'
+
+EXPLAIN SELECT ID FROM TEST WHERE V LIKE '%al%';
+>> SELECT "ID" FROM "PUBLIC"."TEST" /* PUBLIC.TEST.tableScan */ WHERE "V" LIKE '%al%'
+
+EXPLAIN SELECT ID FROM TEST WHERE V LIKE '%Value%';
+>> SELECT "ID" FROM "PUBLIC"."TEST" /* PUBLIC.TEST.tableScan */ WHERE "V" LIKE '%Value%'
+
+SELECT ID FROM TEST WHERE V LIKE '%Missing%';
+> ID
+> --
+> rows: 0
+
+UPDATE TEST SET V = 'Special' WHERE ID = 1;
+> update count: 1
+
+DELETE FROM TEST WHERE ID = 101;
+> update count: 1
+
+SELECT ID FROM TEST WHERE V LIKE '%Special%';
+>> 1
+
+SELECT ID FROM TEST WHERE V NOT LIKE '%Value%' ORDER BY ID;
+> ID
+> ---
+> 1
+> 102
+> 104
+> rows (ordered): 3
+
+CREATE TRIGRAM INDEX TEST_ID_IDX ON TEST(ID);
+> exception FEATURE_NOT_SUPPORTED_1
+
+CREATE TRIGRAM INDEX TEST_V_ID_IDX ON TEST(V, ID);
+> exception FEATURE_NOT_SUPPORTED_1
+
+SCRIPT NODATA NOPASSWORDS NOSETTINGS NOVERSION TABLE TEST;
+> SCRIPT
+> -------------------------------------------------------------------------------------
+> CREATE USER IF NOT EXISTS "SA" PASSWORD '' ADMIN;
+> CREATE CACHED TABLE "PUBLIC"."TEST"( "ID" INTEGER NOT NULL, "V" CHARACTER VARYING );
+> ALTER TABLE "PUBLIC"."TEST" ADD CONSTRAINT "PUBLIC"."CONSTRAINT_2" PRIMARY KEY("ID");
+> -- 103 +/- SELECT COUNT(*) FROM PUBLIC.TEST;
+> CREATE TRIGRAM INDEX "PUBLIC"."TEST_V_IDX" ON "PUBLIC"."TEST"("V");
+> rows (ordered): 5
+
+DROP TABLE TEST;
+> ok
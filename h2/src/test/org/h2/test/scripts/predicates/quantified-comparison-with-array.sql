@@ -299,3 +299,207 @@ SELECT V, A, CASE V WHEN = ANY(A) THEN 1 WHEN > ANY(A) THEN 2 WHEN < ANY(A) THEN
 > null [null]       4
 > null null         4
 > rows: 35
+
+CREATE TABLE TEST(ID INT PRIMARY KEY, A INT ARRAY) AS SELECT X, ARRAY[MOD(X, 10), 100 + MOD(X, 3)] FROM SYSTEM_RANGE(1, 100);
+> ok
+
+CREATE ARRAY INDEX TEST_A_IDX ON TEST(A);
+> ok
+
+INSERT INTO TEST VALUES (101, ARRAY[7, 7, NULL, 200]), (102, NULL), (103, ARRAY[]), (104, ARRAY[NULL]);
+> update count: 4
+
+EXPLAIN SELECT ID FROM TEST WHERE 200 = ANY(A);
+>> SELECT "ID" FROM "PUBLIC"."TEST" /* PUBLIC.TEST_A_IDX: A CONTAINS ANY(200) */ WHERE 200 = ANY("A")
+
+SELECT ID FROM TEST WHERE 200 = ANY(A);
+>> 101
+
+EXPLAIN SELECT ID FROM TEST WHERE ARRAY_CONTAINS(A, 200);
+>> SELECT "ID" FROM "PUBLIC"."TEST" /* PUBLIC.TEST_A_IDX: A CONTAINS ANY(200) */ WHERE ARRAY_CONTAINS("A", 200)
+
+SELECT ID FROM TEST WHERE ARRAY_CONTAINS(A, 200);
+>> 101
+
+EXPLAIN SELECT ID FROM TEST WHERE A && ARRAY[200, 5];
+>> SELECT "ID" FROM "PUBLIC"."TEST" /* PUBLIC.TEST_A_IDX: A CONTAINS ANY ARRAY [200, 5] */ WHERE "A" && ARRAY [200, 5]
+
+SELECT ID FROM TEST WHERE A && ARRAY[200, 5, 7] ORDER BY ID;
+> ID
+> ---
+> 5
+> 7
+> 15
+> 17
+> 25
+> 27
+> 35
+> 37
+> 45
+> 47
+> 55
+> 57
+> 65
+> 67
+> 75
+> 77
+> 85
+> 87
+> 95
+> 97
+> 101
+> rows (ordered): 21
+
+SELECT COUNT(*) FROM TEST WHERE A && ARRAY[100, 101];
+>> 67
+
+SELECT COUNT(*) FROM TEST USE INDEX () WHERE A && ARRAY[100, 101];
+>> 67
+
+SELECT A && ARRAY[1, NULL] X, A && ARRAY[NULL] Y, A && ARRAY[]::INT ARRAY Z, A && ARRAY[7] W FROM TEST WHERE ID = 101;
+> X     Y     Z     W
+> ----- ----- ----- ----
+> FALSE FALSE FALSE TRUE
+> rows: 1
+
+SELECT ID FROM TEST WHERE A && NULL;
+> ID
+> --
+> rows: 0
+
+SELECT ID FROM TEST WHERE ARRAY_CONTAINS(A, NULL) ORDER BY ID;
+> ID
+> ---
+> 101
+> 104
+> rows (ordered): 2
+
+SELECT ID FROM TEST WHERE NULL = ANY(A);
+> ID
+> --
+> rows: 0
+
+SELECT ID FROM TEST WHERE 7.5 = ANY(A) OR 5000000000 = ANY(A);
+> ID
+> --
+> rows: 0
+
+EXPLAIN SELECT ID FROM TEST WHERE 200 <> ANY(A);
+>> SELECT "ID" FROM "PUBLIC"."TEST" /* PUBLIC.TEST.tableScan */ WHERE 200 <> ANY("A")
+
+EXPLAIN SELECT ID FROM TEST WHERE 200 = ALL(A);
+>> SELECT "ID" FROM "PUBLIC"."TEST" /* PUBLIC.TEST.tableScan */ WHERE 200 = ALL("A")
+
+UPDATE TEST SET A = ARRAY[200, 300] WHERE ID = 1;
+> update count: 1
+
+DELETE FROM TEST WHERE ID = 101;
+> update count: 1
+
+SELECT ID FROM TEST WHERE 200 = ANY(A);
+>> 1
+
+SELECT ID FROM TEST WHERE 7 = ANY(A) AND 300 = ANY(A);
+> ID
+> --
+> rows: 0
+
+CREATE ARRAY INDEX TEST_ID_IDX ON TEST(ID);
+> exception FEATURE_NOT_SUPPORTED_1
+
+CREATE ARRAY INDEX TEST_ID_A_IDX ON TEST(ID, A);
+> exception FEATURE_NOT_SUPPORTED_1
+
+SCRIPT NODATA NOPASSWORDS NOSETTINGS NOVERSION TABLE TEST;
+> SCRIPT
+> -------------------------------------------------------------------------------------
+> CREATE USER IF NOT EXISTS "SA" PASSWORD '' ADMIN;
+> CREATE CACHED TABLE "PUBLIC"."TEST"( "ID" INTEGER NOT NULL, "A" INTEGER ARRAY );
+> ALTER TABLE "PUBLIC"."TEST" ADD CONSTRAINT "PUBLIC"."CONSTRAINT_2" PRIMARY KEY("ID");
+> -- 103 +/- SELECT COUNT(*) FROM PUBLIC.TEST;
+> CREATE ARRAY INDEX "PUBLIC"."TEST_A_IDX" ON "PUBLIC"."TEST"("A");
+> rows (ordered): 5
+
+DROP TABLE TEST;
+> ok
+
+CREATE TABLE TEST(ID INT PRIMARY KEY, A INT ARRAY);
+> ok
+
+INSERT INTO TEST VALUES (1, ARRAY[1, 1, 1]), (2, ARRAY[1, NULL, 1]), (3, ARRAY[NULL, NULL]), (4, ARRAY[2, NULL]),
+    (5, NULL), (6, ARRAY[]);
+> update count: 6
+
+CREATE ARRAY INDEX TEST_A_IDX ON TEST(A);
+> ok
+
+EXPLAIN SELECT ID FROM TEST WHERE 1 = ANY(A);
+>> SELECT "ID" FROM "PUBLIC"."TEST" /* PUBLIC.TEST_A_IDX: A CONTAINS ANY(1) */ WHERE 1 = ANY("A")
+
+SELECT COUNT(*) FROM TEST WHERE 1 = ANY(A);
+>> 2
+
+SELECT ID FROM TEST WHERE A && ARRAY[1, 1, 2] ORDER BY ID;
+> ID
+> --
+> 1
+> 2
+> 4
+> rows (ordered): 3
+
+SELECT ID FROM TEST WHERE A && ARRAY[NULL, 2];
+>> 4
+
+SELECT ID FROM TEST WHERE ARRAY_CONTAINS(A, NULL) ORDER BY ID;
+> ID
+> --
+> 2
+> 3
+> 4
+> rows (ordered): 3
+
+UPDATE TEST SET A = ARRAY[1] WHERE ID = 1;
+> update count: 1
+
+UPDATE TEST SET A = ARRAY[NULL, 2, 2] WHERE ID = 2;
+> update count: 1
+
+UPDATE TEST SET A = ARRAY[1, NULL] WHERE ID = 3;
+> update count: 1
+
+SELECT ID FROM TEST WHERE 1 = ANY(A) ORDER BY ID;
+> ID
+> --
+> 1
+> 3
+> rows (ordered): 2
+
+SELECT ID FROM TEST WHERE 2 = ANY(A) ORDER BY ID;
+> ID
+> --
+> 2
+> 4
+> rows (ordered): 2
+
+UPDATE TEST SET A = ARRAY[NULL] WHERE ID = 1;
+> update count: 1
+
+DELETE FROM TEST WHERE ID = 2;
+> update count: 1
+
+SELECT ID FROM TEST WHERE A && ARRAY[1, 2] ORDER BY ID;
+> ID
+> --
+> 3
+> 4
+> rows (ordered): 2
+
+SELECT ID FROM TEST USE INDEX () WHERE A && ARRAY[1, 2] ORDER BY ID;
+> ID
+> --
+> 3
+> 4
+> rows (ordered): 2
+
+DROP TABLE TEST;
+> ok
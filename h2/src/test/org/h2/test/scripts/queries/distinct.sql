@@ -188,3 +188,74 @@ SELECT DISTINCT ON(C1) C2 FROM TEST ORDER BY C3;
 
 DROP TABLE TEST;
 > ok
+
+CREATE TABLE TEST(N NUMERIC(10, 3), D DECFLOAT, T TIMESTAMP WITH TIME ZONE, B BIGINT);
+> ok
+
+INSERT INTO TEST VALUES (1.0, 1E2, TIMESTAMP WITH TIME ZONE '2000-01-01 10:00:00+01', 1),
+    (1.000, 100, TIMESTAMP WITH TIME ZONE '2000-01-01 09:00:00Z', 2),
+    (NULL, NULL, NULL, NULL), (NULL, 'NaN', NULL, NULL), (2.5, 'NaN', NULL, 2), (2.50, 1E3, NULL, 3);
+> update count: 6
+
+SELECT DISTINCT N FROM TEST ORDER BY N;
+> N
+> -----
+> null
+> 1.000
+> 2.500
+> rows (ordered): 3
+
+SELECT COUNT(*) FROM (SELECT DISTINCT D FROM TEST);
+>> 4
+
+SELECT COUNT(*) FROM (SELECT DISTINCT T FROM TEST);
+>> 2
+
+SELECT COUNT(*) FROM (SELECT DISTINCT N, T FROM TEST);
+>> 3
+
+SELECT 2 IN (SELECT B FROM TEST) A, 2.0 IN (SELECT B FROM TEST) B, 4 IN (SELECT B FROM TEST) C;
+> A    B    C
+> ---- ---- ----
+> TRUE TRUE null
+> rows: 1
+
+SELECT B FROM TEST INTERSECT SELECT N FROM TEST ORDER BY 1;
+> B
+> -----
+> null
+> 1.000
+> rows (ordered): 2
+
+SELECT N FROM TEST EXCEPT SELECT B FROM TEST ORDER BY 1;
+> N
+> -----
+> 2.500
+> rows (ordered): 1
+
+DROP TABLE TEST;
+> ok
+
+CREATE TABLE TEST(C CHAR(3));
+> ok
+
+INSERT INTO TEST VALUES 'a';
+> update count: 1
+
+SET MODE MySQL;
+> ok
+
+INSERT INTO TEST VALUES 'a';
+> update count: 1
+
+SELECT DISTINCT C FROM TEST;
+>> a
+
+SELECT COUNT(DISTINCT C) FROM TEST;
+>> 1
+
+SET MODE Regular;
+> ok
+
+DROP TABLE TEST;
+> ok
@@ -230,3 +230,42 @@ SELECT SUM(A) OVER (ORDER BY A, B RANGE BETWEEN UNBOUNDED PRECEDING AND 1 FOLLOW
 
 SELECT SUM(A) OVER (GROUPS BETWEEN UNBOUNDED PRECEDING AND 1 FOLLOWING) S FROM VALUES (1, 2) T(A, B);
 > exception SYNTAX_ERROR_2
+
+CREATE TABLE TEST(ID INT PRIMARY KEY, V INT, W INT) AS
+    SELECT X, CASE WHEN MOD(X, 7) = 0 THEN NULL ELSE MOD(X * 37, 23) END, MOD(X, 4) FROM SYSTEM_RANGE(1, 200);
+> ok
+
+SELECT COUNT(*) FROM (SELECT ID,
+    SUM(V) OVER (ORDER BY ID ROWS BETWEEN 5 PRECEDING AND 3 FOLLOWING) S,
+    COUNT(V) OVER (ORDER BY ID ROWS BETWEEN 2 FOLLOWING AND 6 FOLLOWING) C,
+    AVG(CAST(V AS NUMERIC(10, 2))) OVER (ORDER BY ID ROWS BETWEEN 4 PRECEDING AND 1 PRECEDING) A,
+    MIN(V) OVER (ORDER BY ID ROWS BETWEEN 5 PRECEDING AND 3 FOLLOWING) MN,
+    MAX(V) OVER (ORDER BY ID ROWS BETWEEN W PRECEDING AND W FOLLOWING) MX,
+    BIT_OR_AGG(V) OVER (ORDER BY ID ROWS BETWEEN 3 PRECEDING AND CURRENT ROW) B
+    FROM TEST) T WHERE
+    S IS DISTINCT FROM (SELECT SUM(V) FROM TEST WHERE ID BETWEEN T.ID - 5 AND T.ID + 3)
+    OR C IS DISTINCT FROM (SELECT COUNT(V) FROM TEST WHERE ID BETWEEN T.ID + 2 AND T.ID + 6)
+    OR A IS DISTINCT FROM (SELECT AVG(CAST(V AS NUMERIC(10, 2))) FROM TEST WHERE ID BETWEEN T.ID - 4 AND T.ID - 1)
+    OR MN IS DISTINCT FROM (SELECT MIN(V) FROM TEST WHERE ID BETWEEN T.ID - 5 AND T.ID + 3)
+    OR MX IS DISTINCT FROM (SELECT MAX(V) FROM TEST
+        WHERE ID BETWEEN T.ID - MOD(T.ID, 4) AND T.ID + MOD(T.ID, 4))
+    OR B IS DISTINCT FROM (SELECT BIT_OR_AGG(V) FROM TEST WHERE ID BETWEEN T.ID - 3 AND T.ID);
+>> 0
+
+SELECT ID, V,
+    SUM(V) OVER (ORDER BY V RANGE BETWEEN 1 PRECEDING AND 1 FOLLOWING) S,
+    MIN(ID) OVER (ORDER BY V RANGE BETWEEN 1 PRECEDING AND 1 FOLLOWING) M,
+    COUNT(*) FILTER (WHERE ID > 2) OVER (ORDER BY ID ROWS BETWEEN 1 PRECEDING AND 1 FOLLOWING) C
+    FROM VALUES (1, 1), (2, 2), (3, 2), (4, 4), (5, 6), (6, 7) T(ID, V) ORDER BY ID;
+> ID V S  M C
+> -- - -- - -
+> 1  1 5  1 0
+> 2  2 5  1 1
+> 3  2 5  1 2
+> 4  4 4  4 3
+> 5  6 13 5 3
+> 6  7 13 5 2
+> rows (ordered): 6
+
+DROP TABLE TEST;
+> ok
@@ -55,6 +55,8 @@ public void test() {
         testSimple();
         testRandom();
         testRandomFind();
+        testBulkLoad();
+        testNearest();
     }
 
     private void testRemoveAll() {
@@ -318,8 +320,88 @@ private static int[] scale(Spatial b, Spatial x, int width, int height) {
     }
 
     private void testRandom() {
-        testRandom(true);
-        testRandom(false);
+        testRandom(true, false);
+        testRandom(false, false);
+        testRandom(false, true);
+    }
+
+    private void testBulkLoad() {
+        String fileName = getBaseDir() + "/" + getTestName();
+        FileUtils.delete(fileName);
+        ArrayList<Spatial> list = new ArrayList<>();
+        Random r = new Random(1);
+        int count = 10_000;
+        for (int i = 0; i < count; i++) {
+            float x = r.nextFloat() * 1000, y = r.nextFloat() * 1000;
+            list.add(new SpatialKey(i, x, x + r.nextFloat(), y, y + r.nextFloat()));
+        }
+        try (MVStore s = new MVStore.Builder().fileName(fileName).open()) {
+            MVRTreeMap<String> m = s.openMap("data", new MVRTreeMap.Builder<>());
+            m.bulkLoad(list, "");
+            assertEquals(count, m.sizeAsLong());
+            for (Spatial k : list) {
+                assertEquals("", m.get(k));
+            }
+            SpatialKey filter = new SpatialKey(0, 100, 200, 300, 400);
+            int expected = 0;
+            for (Spatial k : list) {
+                if (k.max(0) >= 100 && k.min(0) <= 200 && k.max(1) >= 300 && k.min(1) <= 400) {
+                    expected++;
+                }
+            }
+            int found = 0;
+            for (Iterator<Spatial> it = m.findIntersectingKeys(filter); it.hasNext(); it.next()) {
+                found++;
+            }
+            assertEquals(expected, found);
+            assertThrows(RuntimeException.class, () -> m.bulkLoad(list, ""));
+            m.put(new SpatialKey(count, 1, 2, 3, 4), "x");
+            m.remove(list.get(0));
+            assertEquals(count, m.sizeAsLong());
+            s.commit();
+        }
+        try (MVStore s = new MVStore.Builder().fileName(fileName).open()) {
+            MVRTreeMap<String> m = s.openMap("data", new MVRTreeMap.Builder<>());
+            assertEquals(count, m.sizeAsLong());
+            assertNull(m.get(list.get(0)));
+            assertEquals("", m.get(list.get(1)));
+            assertEquals("x", m.get(new SpatialKey(count, 1, 2, 3, 4)));
+        }
+    }
+
+    private void testNearest() {
+        try (MVStore s = openStore(null)) {
+            MVRTreeMap<Integer> m = s.openMap("data", new MVRTreeMap.Builder<>());
+            m.setRStarSplit(true);
+            ArrayList<Spatial> list = new ArrayList<>();
+            Random r = new Random(1);
+            for (int i = 0; i < 2_000; i++) {
+                float x = r.nextFloat() * 100, y = r.nextFloat() * 100;
+                SpatialKey k = new SpatialKey(i, x, x, y, y);
+                list.add(k);
+                m.add(k, i);
+            }
+            SpatialKey point = new SpatialKey(0, 50, 50, 30, 30);
+            MVRTreeMap.NearestRTreeCursor<Integer> it = m.findNearestKeys(point);
+            double last = 0;
+            int count = 0;
+            while (it.hasNext()) {
+                Spatial k = it.next();
+                double d = Math.hypot(k.min(0) - 50d, k.min(1) - 30d);
+                assertTrue(Math.abs(d - it.getDistance()) < 1e-9);
+                assertTrue(d >= last);
+                last = d;
+                count++;
+            }
+            assertEquals(list.size(), count);
+            list.sort((a, b) -> Double.compare(Math.hypot(a.min(0) - 50d, a.min(1) - 30d),
+                    Math.hypot(b.min(0) - 50d, b.min(1) - 30d)));
+            it = m.findNearestKeys(point);
+            for (int i = 0; i < 10; i++) {
+                assertEquals(list.get(i).getId(), it.next().getId());
+            }
+            assertFalse(m.findNearestKeys(new SpatialKey(0)).hasNext());
+        }
     }
 
     private void testRandomFind() {
@@ -367,7 +449,7 @@ private void testRandomFind() {
         }
     }
 
-    private void testRandom(boolean quadraticSplit) {
+    private void testRandom(boolean quadraticSplit, boolean rStarSplit) {
         String fileName = getBaseDir() + "/" + getTestName();
         FileUtils.delete(fileName);
         try (MVStore s = openStore(fileName)) {
@@ -375,6 +457,7 @@ private void testRandom(boolean quadraticSplit) {
                     new MVRTreeMap.Builder<>());
 
             m.setQuadraticSplit(quadraticSplit);
+            m.setRStarSplit(rStarSplit);
             HashMap<Spatial, String> map = new HashMap<>();
             Random rand = new Random(1);
             int operationCount = 10000;
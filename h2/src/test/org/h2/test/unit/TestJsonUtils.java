@@ -11,6 +11,8 @@
 import java.util.concurrent.Callable;
 
 import org.h2.test.TestBase;
+import org.h2.util.json.JSONBinarySource;
+import org.h2.util.json.JSONBinaryTarget;
 import org.h2.util.json.JSONByteArrayTarget;
 import org.h2.util.json.JSONBytesSource;
 import org.h2.util.json.JSONItemType;
@@ -35,6 +37,8 @@ public class TestJsonUtils extends TestBase {
 
     private static final Callable<JSONTarget<?>> VALUE_TARGET = () -> new JSONValueTarget();
 
+    private static final Callable<JSONTarget<?>> BINARY_TARGET = () -> new JSONBinaryTarget();
+
     private static final Callable<JSONTarget<?>> JSON_VALIDATION_TARGET_WITHOUT_UNIQUE_KEYS = //
             () -> new JSONValidationTargetWithoutUniqueKeys();
 
@@ -58,12 +62,15 @@ public void test() throws Exception {
         testUtfError();
         testLongNesting();
         testEncodeString();
+        testBinary();
+        testBinarySize();
     }
 
     private void testTargetErrorDetection() throws Exception {
         testTargetErrorDetection(STRING_TARGET);
         testTargetErrorDetection(BYTES_TARGET);
         testTargetErrorDetection(VALUE_TARGET);
+        testTargetErrorDetection(BINARY_TARGET);
         testTargetErrorDetection(JSON_VALIDATION_TARGET_WITHOUT_UNIQUE_KEYS);
         testTargetErrorDetection(JSON_VALIDATION_TARGET_WITH_UNIQUE_KEYS);
     }
@@ -240,6 +247,9 @@ private void testSourcesAndTargets(String src, String expected, boolean hasNonUn
         assertEquals(expected.getBytes(StandardCharsets.UTF_8), //
                 JSONStringSource.parse(src, new JSONByteArrayTarget()));
         assertEquals(expected, JSONStringSource.parse(src, new JSONValueTarget()).toString());
+        byte[] binary = JSONStringSource.parse(src, new JSONBinaryTarget());
+        assertEquals(expected, JSONBinarySource.parse(binary, new JSONStringTarget()));
+        assertEquals(itemType, JSONBinarySource.getItemType(binary));
         assertEquals(itemType, JSONStringSource.parse(src, new JSONValidationTargetWithoutUniqueKeys()));
         if (hasNonUniqueKeys) {
             testSourcesAndTargetsError(src, JSON_VALIDATION_TARGET_WITH_UNIQUE_KEYS, true);
@@ -255,6 +265,7 @@ private void testSourcesAndTargetsError(String src, boolean testBytes) throws Ex
         testSourcesAndTargetsError(src, STRING_TARGET, testBytes);
         testSourcesAndTargetsError(src, BYTES_TARGET, testBytes);
         testSourcesAndTargetsError(src, VALUE_TARGET, testBytes);
+        testSourcesAndTargetsError(src, BINARY_TARGET, testBytes);
         testSourcesAndTargetsError(src, JSON_VALIDATION_TARGET_WITHOUT_UNIQUE_KEYS, testBytes);
         testSourcesAndTargetsError(src, JSON_VALIDATION_TARGET_WITH_UNIQUE_KEYS, testBytes);
     }
@@ -326,6 +337,65 @@ private void testLongNesting() {
         assertEquals(bytes, JSONBytesSource.normalize(bytes));
     }
 
+    private void testBinary() {
+        byte[] binary = JSONStringSource.parse(
+                "{\"b\":[1,\"x\",{\"c\":null}],\"a\":1,\"\u00e4\":true,\"a\":2,\"aa\":3}",
+                new JSONBinaryTarget());
+        assertEquals("1", getMember(binary, "a"));
+        assertEquals("3", getMember(binary, "aa"));
+        assertEquals("true", getMember(binary, "\u00e4"));
+        assertNull(JSONBinarySource.getMember(binary, "c"));
+        assertNull(JSONBinarySource.getMember(binary, ""));
+        assertEquals(-1, JSONBinarySource.getArrayLength(binary));
+        assertNull(JSONBinarySource.getElement(binary, 0));
+        byte[] array = JSONBinarySource.getMember(binary, "b");
+        assertEquals(3, JSONBinarySource.getArrayLength(array));
+        assertEquals("\"x\"", JSONBinarySource.parse(JSONBinarySource.getElement(array, 1), new JSONStringTarget()));
+        assertEquals("null", getMember(JSONBinarySource.getElement(array, 2), "c"));
+        assertNull(JSONBinarySource.getElement(array, -1));
+        assertNull(JSONBinarySource.getElement(array, 3));
+        assertNull(JSONBinarySource.getMember(array, "a"));
+    }
+
+    private void testBinarySize() {
+        StringBuilder builder = new StringBuilder("{\"events\":[");
+        for (int i = 0; i < 100; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append("{\"id\":").append(100_000 + i) //
+                    .append(",\"type\":\"").append(i % 3 == 0 ? "click" : "view") //
+                    .append("\",\"ts\":\"2025-01-01T10:").append(i % 60).append(":00Z\"") //
+                    .append(",\"user\":{\"id\":").append(i * 7).append(",\"name\":\"user").append(i) //
+                    .append("\"},\"tags\":[\"a\",\"b\"],\"ok\":").append(i % 2 == 0) //
+                    .append(",\"amount\":").append(i).append(".5}");
+        }
+        String text = builder.append("]}").toString();
+        byte[] binary = JSONStringSource.parse(text, new JSONBinaryTarget());
+        assertEquals(text, JSONBinarySource.parse(binary, new JSONStringTarget()));
+        // the binary representation isn't much larger than the text
+        assertTrue(binary.length < text.length() * 6 / 5);
+        // large containers use wider offsets
+        builder.setLength(0);
+        builder.append('[');
+        for (int i = 0; i < 20_000; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append("{\"k").append(i % 300).append("\":").append(i).append('}');
+        }
+        text = builder.append(']').toString();
+        binary = JSONStringSource.parse(text, new JSONBinaryTarget());
+        assertEquals(text, JSONBinarySource.parse(binary, new JSONStringTarget()));
+        assertTrue(binary.length < text.length() * 3 / 2);
+        assertEquals(20_000, JSONBinarySource.getArrayLength(binary));
+        assertEquals("19999", getMember(JSONBinarySource.getElement(binary, 19_999), "k199"));
+    }
+
+    private static String getMember(byte[] binary, String name) {
+        return JSONBinarySource.parse(JSONBinarySource.getMember(binary, name), new JSONStringTarget());
+    }
+
     private void testEncodeString() {
         testEncodeString("abc \"\u0001\u007f\u0080\u1000\uabcd\n'\t",
                 "\"abc \\\"\\u0001\u007f\u0080\u1000\uabcd\\n'\\t\"",
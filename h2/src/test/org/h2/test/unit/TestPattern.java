@@ -6,6 +6,7 @@
 package org.h2.test.unit;
 
 import java.text.Collator;
+import java.util.Arrays;
 import org.h2.expression.condition.CompareLike;
 import org.h2.test.TestBase;
 import org.h2.value.CompareMode;
@@ -28,6 +29,7 @@ public static void main(String... a) throws Exception {
     public void test() {
         testCompareModeReuse();
         testPattern();
+        testRegexpSubstrings();
     }
 
     private void testCompareModeReuse() {
@@ -49,6 +51,10 @@ private void testPattern() {
         test(comp, "A", "A%");
         test(comp, "A", "A%%");
         test(comp, "A_A", "%\\_%");
+        test(comp, "ABAB", "AB%AB");
+        test(comp, "ABA", "AB%BA");
+        test(comp, "BAAB", "%A%AB");
+        test(comp, "BAB", "%A%AB");
 
         for (int i = 0; i < 10000; i++) {
             String pattern = getRandomPattern();
@@ -57,6 +63,23 @@ private void testPattern() {
         }
     }
 
+    private void testRegexpSubstrings() {
+        testRegexpSubstrings("abc", "abc");
+        testRegexpSubstrings("ab?c", "a", "c");
+        testRegexpSubstrings("ab*cd+ef{2}g", "a", "cd", "e", "g");
+        testRegexpSubstrings("^a.b\\.c$", "a", "b.c");
+        testRegexpSubstrings("ab(c|d)e[f-h]i", "ab", "e", "i");
+        testRegexpSubstrings("a\\wb\\x41c\\u0041d\\0101e\\cAf\\p{L}g", "a", "b", "c", "d", "e", "f", "g");
+        testRegexpSubstrings("ab|cd");
+        testRegexpSubstrings("(?i)abc");
+        testRegexpSubstrings("a[]b]c");
+        testRegexpSubstrings("a\\Qb\\E");
+    }
+
+    private void testRegexpSubstrings(String regexp, String... expected) {
+        assertEquals(Arrays.asList(expected), CompareLike.getRegexpSubstrings(regexp));
+    }
+
     private void test(CompareLike comp, String value, String pattern) {
         String regexp = initPatternRegexp(pattern, '\\');
         boolean resultRegexp = value.matches(regexp);
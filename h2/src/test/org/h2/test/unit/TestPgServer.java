@@ -5,7 +5,12 @@
  */
 package org.h2.test.unit;
 
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
 import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
@@ -23,6 +28,7 @@
 import java.util.Properties;
 import java.util.Set;
 import java.util.TimeZone;
+import java.util.UUID;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -71,6 +77,8 @@ public void test() throws Exception {
         testPrepareWithUnspecifiedType();
         testOtherPgClients();
         testArray();
+        testBinaryArrays();
+        testCopy();
     }
 
     private boolean getPgJdbcDriver() {
@@ -910,4 +918,185 @@ private void testArray() throws Exception {
         }
     }
 
+    private void testBinaryArrays() throws Exception {
+        if (!getPgJdbcDriver()) {
+            return;
+        }
+
+        Server server = createPgServer(
+                "-ifNotExists", "-pgPort", "5535", "-pgDaemon", "-key", "pgserver", "mem:pgserver");
+        try {
+            Properties props = new Properties();
+            props.setProperty("user", "sa");
+            props.setProperty("password", "sa");
+            // force binary
+            props.setProperty("prepareThreshold", "-1");
+            try (Connection conn = DriverManager.getConnection(
+                    "jdbc:postgresql://localhost:5535/pgserver", props);
+                    Statement stat = conn.createStatement()) {
+                stat.execute("CREATE TABLE test (id int primary key, u uuid, a int array, b bigint array, "
+                        + "c double precision array, d boolean array, v varchar array)");
+                UUID uuid = UUID.randomUUID();
+                PreparedStatement prep = conn.prepareStatement("INSERT INTO test VALUES (?, ?, ?, ?, ?, ?, ?)");
+                prep.setInt(1, 1);
+                prep.setObject(2, uuid, Types.OTHER);
+                prep.setArray(3, conn.createArrayOf("int4", new Integer[] { 1, null, 3 }));
+                prep.setObject(4, new long[] { Long.MIN_VALUE, 0L, Long.MAX_VALUE });
+                prep.setObject(5, new double[] { 1.5, -2.25 });
+                prep.setObject(6, new boolean[] { true, false });
+                prep.setArray(7, conn.createArrayOf("varchar", new String[] { "a", "b,c", "" }));
+                prep.execute();
+                prep.setInt(1, 2);
+                prep.setNull(2, Types.OTHER);
+                prep.setArray(3, conn.createArrayOf("int4", new Integer[0]));
+                for (int i = 4; i <= 7; i++) {
+                    prep.setNull(i, Types.ARRAY);
+                }
+                prep.execute();
+
+                prep = conn.prepareStatement("SELECT * FROM test WHERE u = ? OR id = 2 ORDER BY id");
+                prep.setObject(1, uuid, Types.OTHER);
+                try (ResultSet rs = prep.executeQuery()) {
+                    assertTrue(rs.next());
+                    assertEquals(uuid.toString(), rs.getString(2));
+                    assertEquals(new Object[] { 1, null, 3 }, (Object[]) rs.getArray(3).getArray());
+                    assertEquals(new Object[] { Long.MIN_VALUE, 0L, Long.MAX_VALUE },
+                            (Object[]) rs.getArray(4).getArray());
+                    assertEquals(new Object[] { 1.5, -2.25 }, (Object[]) rs.getArray(5).getArray());
+                    assertEquals(new Object[] { true, false }, (Object[]) rs.getArray(6).getArray());
+                    assertEquals(new Object[] { "a", "b,c", "" }, (Object[]) rs.getArray(7).getArray());
+                    assertTrue(rs.next());
+                    assertNull(rs.getString(2));
+                    assertEquals(0, ((Object[]) rs.getArray(3).getArray()).length);
+                    assertNull(rs.getArray(4));
+                    assertFalse(rs.next());
+                }
+            }
+        } finally {
+            server.stop();
+        }
+    }
+
+    private void testCopy() throws Exception {
+        if (!getPgJdbcDriver()) {
+            return;
+        }
+
+        Server server = createPgServer(
+                "-ifNotExists", "-pgPort", "5535", "-pgDaemon", "-key", "pgserver", "mem:pgserver");
+        try (
+                Connection conn = DriverManager.getConnection(
+                        "jdbc:postgresql://localhost:5535/pgserver", "sa", "sa");
+                Statement stat = conn.createStatement();
+        ) {
+            stat.execute("CREATE TABLE test (id int primary key, name varchar, b boolean, data varbinary, "
+                    + "id2 int generated always as (id * 2))");
+            assertEquals(3, copyIn(conn, "COPY test FROM STDIN",
+                    "1\ta\\tb\\nc\\\\\tt\t\\\\x0102\n"
+                    + "2\t\\N\tf\t\\N\r\n"
+                    + "3\t\tt\t\\N"));
+            try (ResultSet rs = stat.executeQuery("SELECT * FROM test ORDER BY id")) {
+                assertTrue(rs.next());
+                assertEquals(1, rs.getInt(1));
+                assertEquals("a\tb\nc\\", rs.getString(2));
+                assertTrue(rs.getBoolean(3));
+                assertEquals(new byte[] { 1, 2 }, rs.getBytes(4));
+                assertEquals(2, rs.getInt(5));
+                assertTrue(rs.next());
+                assertNull(rs.getString(2));
+                assertFalse(rs.getBoolean(3));
+                assertNull(rs.getBytes(4));
+                assertTrue(rs.next());
+                assertEquals("", rs.getString(2));
+                assertFalse(rs.next());
+            }
+            assertEquals("1\ta\\tb\\nc\\\\\tt\t\\\\x0102\n"
+                    + "2\t\\N\tf\t\\N\n"
+                    + "3\t\tt\t\\N\n",
+                    copyOut(conn, "COPY test TO STDOUT"));
+            assertEquals(4, copyIn(conn, "copy public.test (name, id) from stdin with (format csv, header true)",
+                    "name,id\n\"x, \"\"y\"\"\",4\n\"multi\nline\",5\n,6\n\"\",7\n"));
+            try (ResultSet rs = stat.executeQuery("SELECT name FROM test WHERE id >= 4 ORDER BY id")) {
+                assertTrue(rs.next());
+                assertEquals("x, \"y\"", rs.getString(1));
+                assertTrue(rs.next());
+                assertEquals("multi\nline", rs.getString(1));
+                assertTrue(rs.next());
+                assertNull(rs.getString(1));
+                assertTrue(rs.next());
+                assertEquals("", rs.getString(1));
+                assertFalse(rs.next());
+            }
+            assertEquals("id;name\n4;\"x, \"\"y\"\"\"\n5;\"multi\nline\"\n6;\n7;\"\"\n",
+                    copyOut(conn, "COPY (SELECT id, name FROM test WHERE id >= 4 ORDER BY id) "
+                            + "TO STDOUT WITH CSV HEADER DELIMITER ';'"));
+
+            // a failed COPY does not insert any rows
+            StringBuilder builder = new StringBuilder();
+            for (int i = 100; i < 10_100; i++) {
+                builder.append(i).append(',').append("name").append(i).append('\n');
+            }
+            builder.append("1,duplicate\n");
+            String data = builder.toString();
+            try {
+                copyIn(conn, "COPY test (id, name) FROM STDIN (FORMAT CSV)", data);
+                fail();
+            } catch (SQLException e) {
+                // expected
+            }
+            try {
+                copyIn(conn, "COPY test (id, name, b) FROM STDIN", "8\tx\n");
+                fail();
+            } catch (SQLException e) {
+                // expected
+            }
+            try (ResultSet rs = stat.executeQuery("SELECT COUNT(*) FROM test")) {
+                rs.next();
+                assertEquals(7, rs.getInt(1));
+            }
+            data = data.substring(0, data.length() - 12);
+            assertEquals(10_000, copyIn(conn, "COPY test (id, name) FROM STDIN (FORMAT CSV)", data));
+            try (ResultSet rs = stat.executeQuery("SELECT COUNT(*), MAX(name) FROM test WHERE id >= 100")) {
+                rs.next();
+                assertEquals(10_000, rs.getInt(1));
+                assertEquals("name9999", rs.getString(2));
+            }
+
+            // rows are inserted within the current transaction
+            conn.setAutoCommit(false);
+            assertEquals(1, copyIn(conn, "COPY test (id) FROM STDIN", "9\n"));
+            conn.rollback();
+            conn.setAutoCommit(true);
+            try (ResultSet rs = stat.executeQuery("SELECT COUNT(*) FROM test WHERE id = 9")) {
+                rs.next();
+                assertEquals(0, rs.getInt(1));
+            }
+        } finally {
+            server.stop();
+        }
+    }
+
+    private static long copyIn(Connection conn, String sql, String data) throws Exception {
+        return (Long) invokeCopyManager(conn, "copyIn", sql, Reader.class, new StringReader(data));
+    }
+
+    private static String copyOut(Connection conn, String sql) throws Exception {
+        StringWriter writer = new StringWriter();
+        invokeCopyManager(conn, "copyOut", sql, Writer.class, writer);
+        return writer.toString();
+    }
+
+    private static Object invokeCopyManager(Connection conn, String method, String sql, Class<?> type,
+            Object data) throws Exception {
+        Class<?> baseConnection = Class.forName("org.postgresql.core.BaseConnection");
+        Class<?> copyManager = Class.forName("org.postgresql.copy.CopyManager");
+        Object manager = copyManager.getConstructor(baseConnection).newInstance(conn.unwrap(baseConnection));
+        try {
+            return copyManager.getMethod(method, String.class, type).invoke(manager, sql, data);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception) cause : e;
+        }
+    }
+
 }
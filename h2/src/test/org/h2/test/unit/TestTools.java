@@ -94,6 +94,9 @@ public void test() throws Exception {
         org.h2.Driver.load();
         testSimpleResultSet();
         testTcpServerWithoutPort();
+        testTcpServerWorkers();
+        testTcpResultFrames();
+        testTcpSharedStatements();
         testConsole();
         testJdbcDriverUtils();
         testWrongServer();
@@ -140,6 +143,177 @@ private void testTcpServerWithoutPort() throws Exception {
         }
     }
 
+    private void testTcpServerWorkers() throws Exception {
+        assertThrows(ErrorCode.FEATURE_NOT_SUPPORTED_1,
+                () -> Server.createTcpServer("-tcpWorkers", "2", "-tcpSSL").start());
+        Server server = Server.createTcpServer("-tcpWorkers", "2", "-ifNotExists").start();
+        try {
+            String url = "jdbc:h2:tcp://localhost:" + server.getPort() + "/mem:workers";
+            Connection[] connections = new Connection[20];
+            for (int i = 0; i < connections.length; i++) {
+                connections[i] = getConnection(url, "sa", "");
+            }
+            connections[0].createStatement().execute("CREATE TABLE TEST(ID INT PRIMARY KEY, V INT)");
+            Task[] tasks = new Task[connections.length];
+            for (int i = 0; i < connections.length; i++) {
+                Connection conn = connections[i];
+                int id = i;
+                tasks[i] = new Task() {
+                    @Override
+                    public void call() throws Exception {
+                        PreparedStatement prep = conn.prepareStatement("INSERT INTO TEST VALUES(?, ?)");
+                        for (int j = 0; j < 50; j++) {
+                            prep.setInt(1, id * 1000 + j);
+                            prep.setInt(2, j);
+                            prep.executeUpdate();
+                        }
+                    }
+                }.execute();
+            }
+            for (Task task : tasks) {
+                task.get();
+            }
+            // idle connections are still served
+            for (Connection conn : connections) {
+                ResultSet rs = conn.createStatement().executeQuery("SELECT COUNT(*), SUM(V) FROM TEST");
+                rs.next();
+                assertEquals(1000, rs.getInt(1));
+                assertEquals(24_500, rs.getInt(2));
+            }
+            for (int i = 1; i < connections.length; i++) {
+                connections[i].close();
+            }
+            Connection conn = connections[0];
+            server.stop();
+            assertThrows(ErrorCode.CONNECTION_BROKEN_1, conn.createStatement()).execute("SELECT 1");
+            conn.close();
+        } finally {
+            server.stop();
+        }
+    }
+
+    private void testTcpResultFrames() throws Exception {
+        Server server = Server.createTcpServer("-ifNotExists").start();
+        try {
+            String url = "jdbc:h2:tcp://localhost:" + server.getPort() + "/mem:frames";
+            Connection conn = getConnection(url, "sa", "");
+            Statement stat = conn.createStatement();
+            stat.execute("CREATE TABLE TEST(ID INT PRIMARY KEY, B BIGINT, S VARCHAR, D DOUBLE, DT DATE,"
+                    + " TS TIMESTAMP, U UUID, F BOOLEAN, N NUMERIC(10, 2), A INT ARRAY, V VARBINARY)");
+            stat.execute("INSERT INTO TEST SELECT X, CASE WHEN MOD(X, 3) = 0 THEN NULL ELSE X * 1000000000 END,"
+                    + " 'Value ' || X, X / 4e0, DATEADD(DAY, X, DATE '2000-01-01'), DATEADD(SECOND, X, TIMESTAMP '2000-01-01 10:00:00'),"
+                    + " UUID '00000000-0000-0000-0000-000000000000', MOD(X, 2) = 0, X / 100.0,"
+                    + " ARRAY[X, NULL], CAST(X AS VARBINARY(4)) FROM SYSTEM_RANGE(1, 3000)");
+            String sql = "SELECT * FROM TEST ORDER BY ID";
+            ArrayList<String> expected = new ArrayList<>();
+            try (ResultSet rs = stat.executeQuery(sql)) {
+                while (rs.next()) {
+                    expected.add(readRow(rs));
+                }
+            }
+            assertEquals(3000, expected.size());
+            for (String suffix : new String[] { ";NETWORK_COMPRESS=TRUE", ";LAZY_QUERY_EXECUTION=TRUE" }) {
+                try (Connection conn2 = getConnection(url + suffix, "sa", "")) {
+                    Statement stat2 = conn2.createStatement();
+                    stat2.setFetchSize(1500);
+                    try (ResultSet rs = stat2.executeQuery(sql)) {
+                        for (String row : expected) {
+                            assertTrue(rs.next());
+                            assertEquals(row, readRow(rs));
+                        }
+                        assertFalse(rs.next());
+                    }
+                    // rows before the error are received
+                    stat2.setFetchSize(2000);
+                    try (ResultSet rs = stat2.executeQuery("SELECT 1 / (ID - 1500) FROM TEST ORDER BY ID")) {
+                        for (int i = 1; i < 1500; i++) {
+                            assertTrue(rs.next());
+                        }
+                        assertThrows(ErrorCode.DIVISION_BY_ZERO_1, rs).next();
+                    } catch (SQLException e) {
+                        // a not lazy result fails before rows are sent
+                        assertEquals(ErrorCode.DIVISION_BY_ZERO_1, e.getErrorCode());
+                    }
+                }
+            }
+            conn.close();
+        } finally {
+            server.stop();
+        }
+    }
+
+    private void testTcpSharedStatements() throws Exception {
+        Server server = Server.createTcpServer("-ifNotExists").start();
+        try {
+            String url = "jdbc:h2:tcp://localhost:" + server.getPort() + "/mem:shared";
+            StringBuilder builder = new StringBuilder("SELECT ?");
+            for (int i = 0; i < 50; i++) {
+                builder.append(" + ").append(i);
+            }
+            String sql = builder.append(" AS V").toString();
+            Connection conn = getConnection(url, "sa", "");
+            // the second connection prepares the statement by its hash
+            for (int i = 0; i < 3; i++) {
+                try (Connection conn2 = getConnection(url, "sa", "")) {
+                    PreparedStatement prep = conn2.prepareStatement(sql);
+                    prep.setInt(1, i);
+                    ResultSet rs = prep.executeQuery();
+                    assertTrue(rs.next());
+                    assertEquals(i + 1225, rs.getInt(1));
+                    assertEquals("V", rs.getMetaData().getColumnLabel(1));
+                }
+            }
+            // statements are shared only within a database
+            try (Connection conn2 = getConnection(url + "2", "sa", "")) {
+                assertThrows(ErrorCode.TABLE_OR_VIEW_NOT_FOUND_DATABASE_EMPTY_1, conn2)
+                        .prepareStatement(sql + " FROM TEST");
+                conn2.createStatement().execute("CREATE TABLE TEST(ID INT)");
+                PreparedStatement prep = conn2.prepareStatement(sql + " FROM TEST");
+                prep.setInt(1, 1);
+                assertFalse(prep.executeQuery().next());
+            }
+            assertThrows(ErrorCode.TABLE_OR_VIEW_NOT_FOUND_DATABASE_EMPTY_1, conn)
+                    .prepareStatement(sql + " FROM TEST");
+            // statements are shared only by connections of the same user with
+            // the same current schema
+            Statement stat = conn.createStatement();
+            stat.execute("CREATE TABLE TEST(ID INT) AS VALUES 1");
+            stat.execute("CREATE SCHEMA S");
+            stat.execute("CREATE TABLE S.TEST(ID INT) AS VALUES 2");
+            stat.execute("CREATE USER U PASSWORD 'p'");
+            stat.execute("GRANT SELECT ON S.TEST TO U");
+            String query = sql + ", ID FROM TEST";
+            assertSharedStatement(conn, query, 1);
+            try (Connection conn2 = getConnection(url + ";SCHEMA=S", "sa", "")) {
+                assertSharedStatement(conn2, query, 2);
+            }
+            try (Connection conn2 = getConnection(url + ";SCHEMA=S", "U", "p")) {
+                assertSharedStatement(conn2, query, 2);
+                assertThrows(ErrorCode.NOT_ENOUGH_RIGHTS_FOR_1, conn2).prepareStatement(sql + ", ID FROM PUBLIC.TEST");
+            }
+            conn.close();
+        } finally {
+            server.stop();
+        }
+    }
+
+    private void assertSharedStatement(Connection conn, String sql, int expected) throws SQLException {
+        PreparedStatement prep = conn.prepareStatement(sql);
+        prep.setInt(1, 0);
+        ResultSet rs = prep.executeQuery();
+        assertTrue(rs.next());
+        assertEquals(expected, rs.getInt(2));
+        assertFalse(rs.next());
+    }
+
+    private static String readRow(ResultSet rs) throws SQLException {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 1, l = rs.getMetaData().getColumnCount(); i <= l; i++) {
+            builder.append(rs.getString(i)).append(", ");
+        }
+        return builder.toString();
+    }
+
     private void testConsole() throws Exception {
         String old = System.getProperty(SysProperties.H2_BROWSER);
         GUIConsole c = new GUIConsole();